@@ -1,7 +1,7 @@
 package com.community.admin.common.config;
 
 import com.community.admin.domain.entity.AdminOperationLog;
-import com.community.admin.service.AdminOperationLogService;
+import com.community.admin.service.AdminOperationLogWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
@@ -28,7 +28,7 @@ import java.util.Arrays;
 public class AdminOperationLogAspect {
 
     @Autowired
-    private AdminOperationLogService adminOperationLogService;
+    private AdminOperationLogWriter adminOperationLogWriter;
 
     /**
      * 切入点：拦截所有Controller中的方法
@@ -96,10 +96,10 @@ public class AdminOperationLogAspect {
             operationLog.setResponseCode(responseCode);
             operationLog.setOperationStatus(operationStatus);
 
-            // 保存到数据库
-            adminOperationLogService.save(operationLog);
+            // 提交到异步写入队列，由后台线程批量入库
+            adminOperationLogWriter.submit(operationLog);
 
-            log.info("管理员操作日志已记录: 操作人={}, 模块={}, 操作={}, 状态={}", 
+            log.debug("管理员操作日志已记录: 操作人={}, 模块={}, 操作={}, 状态={}", 
                     adminId, operationModule, operationType, operationStatus);
         } catch (Exception e) {
             log.error("记录管理员操作日志失败", e);
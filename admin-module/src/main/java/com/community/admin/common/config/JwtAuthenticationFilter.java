@@ -1,6 +1,7 @@
 package com.community.admin.common.config;
 
 import com.community.admin.common.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +14,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -39,9 +41,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         if (token != null && !token.isEmpty()) {
             try {
-                // 验证token
-                String username = jwtUtil.getUsernameFromToken(token);
-                if (username != null && !jwtUtil.isTokenExpired(token)) {
+                // 验证token：只验签一次，Claims 同时保存在请求属性上供后续读取
+                Claims claims = jwtUtil.getClaimsFromToken(token);
+                String username = claims.getSubject();
+                if (username != null && !claims.getExpiration().before(new Date())) {
                     // 创建认证对象（简化版，不包含用户详细信息）
                     UsernamePasswordAuthenticationToken authentication = 
                         new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
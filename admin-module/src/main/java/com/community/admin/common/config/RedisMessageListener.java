@@ -1,11 +1,17 @@
 package com.community.admin.common.config;
 
+import com.community.admin.service.DeviceLivenessTracker;
+import com.community.admin.service.ParkingFeeService;
+import com.community.admin.service.PlateSearchIndex;
+import com.community.admin.service.RealtimePushHub;
+import com.community.admin.service.RedisMessageService;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Component;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 
 import java.util.Map;
 
@@ -20,6 +26,19 @@ public class RedisMessageListener implements MessageListener {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private RealtimePushHub realtimePushHub;
+
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
+
+    @Autowired
+    private ParkingFeeService parkingFeeService;
+
+    @Autowired
+    @Lazy
+    private DeviceLivenessTracker deviceLivenessTracker;
+
     @Override
     public void onMessage(Message message, byte[] pattern) {
         try {
@@ -30,11 +49,28 @@ public class RedisMessageListener implements MessageListener {
             
             // 解析消息内容
             Map<String, Object> messageData = objectMapper.readValue(messageBody, Map.class);
+
+            // 推送给本节点订阅了该事件的SSE客户端
+            forwardToSse(channel, messageData);
+            if ("notification".equals(messageData.get("type"))) {
+                return;
+            }
             
             String module = (String) messageData.get("module");
             String action = (String) messageData.get("action");
             String entityType = (String) messageData.get("entityType");
             Object entityId = messageData.get("entityId");
+            // 实体的确切类名；entityType 是按Service类名推断的名称，可能是多个实体共用的
+            String entityClass = messageData.get("entityClass") != null
+                    ? (String) messageData.get("entityClass") : entityType;
+
+            // 车辆、停车记录变更（含本模块）刷新车牌检索索引，停车场、车位变更使计费规则失效，
+            // 门禁设备变更重新加载在线状态跟踪的设备，数据变更只取通用主题上的消息
+            if (RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+                plateSearchIndex.onDataChange(entityClass, entityId);
+                parkingFeeService.onDataChange(entityClass, entityId);
+                deviceLivenessTracker.onDataChange(entityClass, entityId);
+            }
             
             // 如果是来自其他模块的消息，处理数据同步
             if (!"admin".equals(module)) {
@@ -107,4 +143,20 @@ public class RedisMessageListener implements MessageListener {
         // 处理建筑信息同步逻辑
         log.info("Syncing building data: action={}, entityId={}", action, entityId);
     }
+
+    /**
+     * 转发到本节点的SSE连接：数据变更只取通用主题上的消息（模块主题上是同一消息的副本），
+     * 通知按目标用户定向投递，连接的订阅条件在推送中心内过滤
+     */
+    private void forwardToSse(String channel, Map<String, Object> messageData) {
+        messageData.remove("@class");
+        if ("notification".equals(messageData.get("type"))) {
+            Object targetUserId = messageData.get("targetUserId");
+            realtimePushHub.publish("notification", messageData, null, null,
+                    targetUserId != null ? String.valueOf(targetUserId) : null);
+        } else if (RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+            realtimePushHub.publish("dataChange", messageData,
+                    (String) messageData.get("module"), (String) messageData.get("entityType"), null);
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package com.community.admin.common.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 数据同步实体标记
+ * 标在Service实现类上时，该类的 save/update/delete/remove/create/add 方法（含继承自 MyBatis-Plus 的方法）
+ * 执行成功后发布对应实体的变更消息；标在方法上时可单独指定实体和操作类型
+ */
+@Documented
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SyncEntity {
+
+    /**
+     * 实体类，用于解析实体类型名称和ID访问器
+     */
+    Class<?> value();
+
+    /**
+     * 消息中的实体类型名称（entityType），为空时按Service类名推断，与改造前发布的名称一致；
+     * 实体的确切类名总是放在消息的 entityClass 中
+     */
+    String type() default "";
+
+    /**
+     * 操作类型 (CREATE/UPDATE/DELETE)，为空时按方法名推断
+     */
+    String action() default "";
+
+    /**
+     * 方法返回 Map 时读取实体ID的键（也会在 Map 的 data 中查找），默认 id
+     */
+    String idKey() default "id";
+}
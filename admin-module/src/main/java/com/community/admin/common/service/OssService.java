@@ -34,6 +34,28 @@ public class OssService {
         return ossUtil.uploadFile(file, folder);
     }
     
+    /**
+     * 按指定的对象名上传字节内容，同名对象会被覆盖（重复上传是幂等的）
+     * 
+     * @param objectName 对象名（包含路径）
+     * @param data 文件内容
+     * @param contentType 内容类型
+     * @return 文件在OSS中的完整访问URL
+     */
+    public String uploadBytes(String objectName, byte[] data, String contentType) {
+        return ossUtil.uploadBytes(objectName, data, contentType);
+    }
+
+    /**
+     * 对象的访问URL，上传前即可确定
+     * 
+     * @param objectName 对象名（包含路径）
+     * @return 文件在OSS中的完整访问URL
+     */
+    public String urlOf(String objectName) {
+        return ossUtil.urlOf(objectName);
+    }
+
     /**
      * 删除OSS中的文件
      * 
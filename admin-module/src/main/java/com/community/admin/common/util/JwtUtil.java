@@ -1,16 +1,24 @@
 package com.community.admin.common.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -27,8 +35,9 @@ import java.util.Map;
  * 
  * 难点说明:
  * 1. 密钥长度要求: HS512算法要求密钥至少512位(64字节)
- * 2. 线程安全性: 每次生成Token都创建新的SecretKey实例
+ * 2. 线程安全性: SecretKey 和 JwtParser 都是不可变对象，启动时创建一次后复用
  * 3. 过期处理: 正确处理Token过期情况，避免安全风险
+ * 4. 验签开销: 同一Token只验签一次，已验证的Claims保存在请求属性和按Token哈希索引的缓存中（到 exp 过期）
  */
 @Component
 public class JwtUtil {
@@ -47,6 +56,42 @@ public class JwtUtil {
     @Value("${jwt.secret:communitySystemSecretKeyForJWTTokenGenerationAndValidation}")
     private String secret;
 
+    /**
+     * 已验证Claims缓存的最大条数
+     */
+    @Value("${jwt.claims-cache-size:10000}")
+    private int claimsCacheSize;
+
+    /**
+     * 请求属性：当前请求已验证的Token及其Claims
+     */
+    public static final String TOKEN_ATTRIBUTE = JwtUtil.class.getName() + ".TOKEN";
+    public static final String CLAIMS_ATTRIBUTE = JwtUtil.class.getName() + ".CLAIMS";
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    /**
+     * 已验证的Claims缓存：Token哈希 -> Claims，超过容量时淘汰最久未访问的
+     */
+    private Map<String, CachedClaims> claimsCache;
+
+    /**
+     * 初始化签名密钥、解析器和Claims缓存
+     */
+    @PostConstruct
+    public void init() {
+        signingKey = getSigningKey();
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        claimsCache = new LinkedHashMap<String, CachedClaims>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+                return size() > claimsCacheSize;
+            }
+        };
+    }
+
     /**
      * 获取签名密钥
      * 
@@ -84,22 +129,66 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
     /**
      * 从Token中解析Claims
      * 
+     * 先取当前请求上已验证的Claims，再查缓存，都没有时才解析并验证签名；
+     * 过期或签名错误时抛出异常，不进入缓存
+     * 
      * @param token JWT Token
      * @return Claims对象，包含Token中的所有声明信息
      */
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && token.equals(attributes.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            return (Claims) attributes.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        String cacheKey = hashToken(token);
+        long now = System.currentTimeMillis();
+        Claims claims = null;
+        synchronized (claimsCache) {
+            CachedClaims cached = claimsCache.get(cacheKey);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    claims = cached.claims;
+                } else {
+                    claimsCache.remove(cacheKey);
+                }
+            }
+        }
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : now + expiration;
+            synchronized (claimsCache) {
+                claimsCache.put(cacheKey, new CachedClaims(claims, expiresAt));
+            }
+        }
+
+        if (attributes != null) {
+            attributes.setAttribute(TOKEN_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+            attributes.setAttribute(CLAIMS_ATTRIBUTE, claims, RequestAttributes.SCOPE_REQUEST);
+        }
+        return claims;
+    }
+
+    /**
+     * Token的SHA-256摘要，缓存中不保存Token原文
+     * 
+     * @param token JWT Token
+     * @return Base64编码的摘要
+     */
+    private String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -142,4 +231,17 @@ public class JwtUtil {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 缓存的已验证Claims
+     */
+    private static class CachedClaims {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
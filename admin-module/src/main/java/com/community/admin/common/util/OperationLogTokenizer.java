@@ -0,0 +1,97 @@
+package com.community.admin.common.util;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 操作描述分词工具
+ *
+ * 为操作日志的描述建立倒排索引（admin_operation_log_token），替代对大表的 LIKE '%xx%' 全表扫描
+ *
+ * 分词规则:
+ * 1. 中文等非ASCII字符按相邻两个字切分（二元组），单个汉字作为一个词
+ * 2. 字母和数字的连续片段作为一个词，统一转为小写
+ * 3. 其余字符视为分隔符
+ * 描述的全部词都会建立索引（不截断），否则被截掉的词查询时会漏掉该日志
+ *
+ * 查询时对关键字使用相同的规则分词，日志需包含全部词才算命中，再用 LIKE 精确过滤候选行
+ */
+public final class OperationLogTokenizer {
+
+    /**
+     * 单个词的最大长度，与索引表 token 列长度一致
+     */
+    public static final int MAX_TOKEN_LENGTH = 32;
+
+    private OperationLogTokenizer() {
+    }
+
+    /**
+     * 对文本分词
+     * @param text 操作描述或查询关键字
+     * @return 去重后的词集合，保持出现顺序
+     */
+    public static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 128 && Character.isLetterOrDigit(c)) {
+                flushCjk(cjk, tokens);
+                word.append(Character.toLowerCase(c));
+            } else if (c >= 128 && Character.isLetterOrDigit(c)) {
+                flushWord(word, tokens);
+                cjk.append(c);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjk, tokens);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjk, tokens);
+        return tokens;
+    }
+
+    /**
+     * 提取查询关键字中可以走索引的词
+     * 只取中文二元组：关键字中连续的两个字在任意包含它的描述里必然也被切成同一个二元组；
+     * 英文单词和单个汉字可能只是描述中某个词的一部分，交给 LIKE 过滤
+     * @param keyword 查询关键字
+     * @return 可走索引的词，为空时应退回 LIKE 查询
+     */
+    public static Set<String> queryTokens(String keyword) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : tokenize(keyword)) {
+            if (token.length() == 2 && token.charAt(0) >= 128 && token.charAt(1) >= 128) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, Set<String> tokens) {
+        if (word.length() > 0) {
+            add(tokens, word.toString().toLowerCase(Locale.ROOT));
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(StringBuilder cjk, Set<String> tokens) {
+        if (cjk.length() == 1) {
+            add(tokens, cjk.toString());
+        }
+        for (int i = 0; i + 1 < cjk.length(); i++) {
+            add(tokens, cjk.substring(i, i + 2));
+        }
+        cjk.setLength(0);
+    }
+
+    private static void add(Set<String> tokens, String token) {
+        tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+    }
+}
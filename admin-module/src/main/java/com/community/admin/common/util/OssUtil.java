@@ -2,6 +2,7 @@ package com.community.admin.common.util;
 
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.ObjectMetadata;
 import com.aliyun.oss.model.PutObjectResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
@@ -136,6 +138,45 @@ public class OssUtil {
         }
     }
     
+    /**
+     * 按指定的对象名上传字节内容（不生成随机文件名）
+     * 
+     * @param objectName 对象名（包含路径），同名对象会被覆盖
+     * @param data 文件内容
+     * @param contentType 内容类型，例如 "image/jpeg"
+     * @return 文件在OSS中的完整访问URL
+     * 
+     * 适用场景:
+     * 对象名由业务数据确定时使用，重复上传同一对象只会覆盖，不会产生多余文件
+     */
+    public String uploadBytes(String objectName, byte[] data, String contentType) {
+        try {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(data.length);
+            if (contentType != null) {
+                metadata.setContentType(contentType);
+            }
+            ossClient.putObject(bucketName, objectName, new ByteArrayInputStream(data), metadata);
+            return urlOf(objectName);
+        } catch (OSSException oe) {
+            logger.error("OSS错误: {}, 错误代码: {}, 请求ID: {}", oe.getMessage(), oe.getErrorCode(), oe.getRequestId());
+            throw new RuntimeException("文件上传失败: " + oe.getMessage(), oe);
+        } catch (Exception e) {
+            logger.error("文件上传异常: {}", e.getMessage());
+            throw new RuntimeException("文件上传失败", e);
+        }
+    }
+    
+    /**
+     * 对象的访问URL（与上传方法返回的URL格式一致）
+     * 
+     * @param objectName 对象名（包含路径）
+     * @return 文件在OSS中的完整访问URL
+     */
+    public String urlOf(String objectName) {
+        return "https://" + bucketName + "." + endpoint + "/" + objectName;
+    }
+    
     /**
      * 删除OSS中的文件
      * 
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.community.admin.common.Result;
 import com.community.admin.domain.entity.AccessControlDevice;
 import com.community.admin.service.AccessControlDeviceService;
+import com.community.admin.service.DeviceLivenessTracker;
 import com.community.admin.service.RedisMessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,6 +29,9 @@ public class  AccessControlDeviceController {
     @Autowired
     private AccessControlDeviceService accessControlDeviceService;
 
+    @Autowired
+    private DeviceLivenessTracker deviceLivenessTracker;
+
     /**
      * 分页查询门禁设备信息
      *
@@ -156,4 +160,34 @@ public class  AccessControlDeviceController {
             return Result.error("删除失败");
         }
     }
+
+    /**
+     * 门禁设备心跳
+     *
+     * @param id 门禁设备ID
+     * @return 操作结果
+     */
+    @PostMapping("/{id}/heartbeat")
+    @Operation(summary = "门禁设备心跳", description = "设备定时上报心跳，超过离线时间未上报的设备自动置为离线")
+    @ApiOperationSupport(order = 6, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result heartbeat(@Parameter(name = "id", description = "门禁设备ID", required = true, example = "1") @PathVariable Long id) {
+        if (!deviceLivenessTracker.heartbeat(id)) {
+            return Result.error("设备不存在");
+        }
+        return Result.ok();
+    }
+
+    /**
+     * 查询门禁设备在线状态
+     *
+     * @return 各设备的最后心跳时间和在线状态
+     */
+    @GetMapping("/liveness")
+    @Operation(summary = "查询门禁设备在线状态", description = "各设备的最后心跳时间和在线状态")
+    @ApiOperationSupport(order = 7, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result liveness() {
+        return Result.ok().put("data", deviceLivenessTracker.snapshot());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.community.admin.controller;
+
+import com.community.admin.common.Result;
+import com.community.admin.domain.vo.AccessEventVO;
+import com.community.admin.service.AccessEventIngestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import com.github.xiaoymin.knife4j.annotations.ApiOperationSupport;
+import com.github.xiaoymin.knife4j.annotations.ApiSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/accessEvent")
+@Tag(name = "门禁事件接入", description = "门禁设备通行事件批量上报相关接口")
+@ApiSupport(order = 28, author = "社区管理系统开发团队")
+public class AccessEventController {
+
+    /**
+     * 单次上报的最大事件数
+     */
+    private static final int MAX_EVENTS = 2000;
+
+    @Autowired
+    private AccessEventIngestService accessEventIngestService;
+
+    /**
+     * 门禁设备批量上报通行事件
+     *
+     * @param deviceId 门禁设备ID
+     * @param events 通行事件列表
+     * @return 接收、无效、被拒绝（缓冲区已满，需重传）的事件数
+     */
+    @PostMapping("/devices/{deviceId}/events")
+    @Operation(summary = "批量上报门禁事件", description = "按设备缓冲后批量写入门禁记录，按设备事件号去重，抓拍图片异步上传")
+    @ApiOperationSupport(order = 1, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result ingest(@Parameter(description = "门禁设备ID") @PathVariable Long deviceId,
+                         @Parameter(description = "通行事件列表") @RequestBody List<AccessEventVO> events) {
+        if (events == null || events.isEmpty()) {
+            return Result.error("事件列表不能为空");
+        }
+        if (events.size() > MAX_EVENTS) {
+            return Result.error("单次最多上报" + MAX_EVENTS + "条事件");
+        }
+        AccessEventIngestService.SubmitResult result = accessEventIngestService.submit(deviceId, events);
+        if (result.isUnknownDevice()) {
+            return Result.error("设备不存在");
+        }
+        return Result.ok()
+                .put("accepted", result.getAccepted())
+                .put("invalid", result.getInvalid())
+                .put("rejected", result.getRejected());
+    }
+
+    /**
+     * 查询门禁事件管道计数
+     *
+     * @return 接收、写入、重复、失败、图片上传等计数和缓冲深度
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "查询门禁事件管道计数", description = "接收、写入、重复、失败、图片上传等计数和缓冲深度")
+    @ApiOperationSupport(order = 2, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result stats() {
+        return Result.ok().put("data", accessEventIngestService.stats());
+    }
+}
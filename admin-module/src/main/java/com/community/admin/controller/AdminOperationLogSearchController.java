@@ -13,8 +13,12 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import com.github.xiaoymin.knife4j.annotations.ApiOperationSupport;
 import com.github.xiaoymin.knife4j.annotations.ApiSupport;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/adminOperationLog")
 @Tag(name = "管理员操作日志管理", description = "管理员操作日志相关接口")
@@ -34,6 +38,9 @@ public class AdminOperationLogSearchController {
      * @param adminId 管理员ID
      * @param operationType 操作类型
      * @param operationDescription 操作描述
+     * @param startTime 操作时间起（含），游标分页时有效
+     * @param endTime 操作时间止（不含），游标分页时有效
+     * @param cursor 游标，传入时（首页传空字符串）使用游标分页，返回 nextCursor 和 hasMore，不统计总数
      * @return 管理员操作日志信息分页数据
      */
     @GetMapping("/search")
@@ -44,11 +51,25 @@ public class AdminOperationLogSearchController {
                          @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer pageSize,
                          @Parameter(description = "管理员ID") @RequestParam(required = false) Long adminId,
                          @Parameter(description = "操作类型") @RequestParam(required = false) String operationType,
-                         @Parameter(description = "操作描述") @RequestParam(required = false) String operationDescription) {
+                         @Parameter(description = "操作描述") @RequestParam(required = false) String operationDescription,
+                         @Parameter(description = "操作时间起（含），游标分页时有效") @RequestParam(required = false)
+                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+                         @Parameter(description = "操作时间止（不含），游标分页时有效") @RequestParam(required = false)
+                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+                         @Parameter(description = "游标分页：首页传空字符串，之后传上一页返回的 nextCursor") @RequestParam(required = false) String cursor) {
         AdminOperationLog adminOperationLog = new AdminOperationLog();
         adminOperationLog.setAdminId(adminId);
         adminOperationLog.setOperationType(operationType);
         adminOperationLog.setOperationDescription(operationDescription);
+
+        if (cursor != null) {
+            Map<String, Object> pageData = adminOperationLogService.selectAdminOperationLogByCursor(
+                    adminOperationLog, startTime, endTime, cursor, pageSize);
+            return Result.ok().put("data", pageData.get("items"))
+                    .put("hasMore", pageData.get("hasMore"))
+                    .put("nextCursor", pageData.get("nextCursor"))
+                    .put("pageSize", pageSize);
+        }
         
         IPage<AdminOperationLog> page = new Page<>(pageNum, pageSize);
         IPage<AdminOperationLog> result = adminOperationLogService.selectAdminOperationLogPage(page, adminOperationLog);
@@ -386,11 +386,11 @@ public class ComplexBusinessController {
     @SecurityRequirement(name = "Authorization")
     public Result addHouseOwnerRelation(@Parameter(description = "业主ID") @RequestParam Long ownerId,
                                        @Parameter(description = "房屋ID") @RequestParam Long houseId) {
-        boolean result = complexBusinessService.addHouseOwnerRelation(ownerId, houseId);
-        if (result) {
+        HouseOwner houseOwner = complexBusinessService.addHouseOwnerRelation(ownerId, houseId);
+        if (houseOwner != null) {
             // 发布实时同步消息
             try {
-                redisMessageService.publishAdminChange("CREATE", "HouseOwner", null, null);
+                redisMessageService.publishAdminChange("CREATE", "HouseOwner", houseOwner.getId(), houseOwner);
                 redisMessageService.publishNotification("owner", "HOUSE_OWNER_RELATION", "房屋关联", 
                     "管理员为您关联了新的房屋", ownerId);
                 redisMessageService.publishNotification("property", "HOUSE_OWNER_RELATION", "房屋业主关联", 
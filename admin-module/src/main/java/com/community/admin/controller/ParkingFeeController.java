@@ -0,0 +1,75 @@
+package com.community.admin.controller;
+
+import com.community.admin.common.Result;
+import com.community.admin.service.ParkingFeeRule;
+import com.community.admin.service.ParkingFeeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import com.github.xiaoymin.knife4j.annotations.ApiOperationSupport;
+import com.github.xiaoymin.knife4j.annotations.ApiSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+@RestController
+@RequestMapping("/api/parkingFee")
+@Tag(name = "停车计费", description = "停车费用试算和按月重新计费相关接口")
+@ApiSupport(order = 27, author = "社区管理系统开发团队")
+public class ParkingFeeController {
+
+    @Autowired
+    private ParkingFeeService parkingFeeService;
+
+    /**
+     * 按停车场收费标准试算费用
+     *
+     * @param lotId 停车场ID
+     * @param minutes 停车时长（分钟）
+     * @param vehicleId 车辆ID（月租车辆费用为0）
+     * @return 费用和使用的计费规则
+     */
+    @GetMapping("/quote")
+    @Operation(summary = "停车费用试算", description = "按停车场当前收费标准计算指定时长的停车费用")
+    @ApiOperationSupport(order = 1, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result quote(@Parameter(description = "停车场ID") @RequestParam Long lotId,
+                        @Parameter(description = "停车时长（分钟）") @RequestParam Long minutes,
+                        @Parameter(description = "车辆ID") @RequestParam(required = false) Long vehicleId) {
+        if (minutes < 0) {
+            return Result.error("停车时长不能为负数");
+        }
+        ParkingFeeRule rule = parkingFeeService.ruleFor(lotId);
+        if (rule == null) {
+            return Result.error("停车场不存在");
+        }
+        return Result.ok()
+                .put("fee", parkingFeeService.feeFor(lotId, vehicleId, minutes))
+                .put("rule", rule.toString());
+    }
+
+    /**
+     * 按当前收费标准重新计算某月出场记录的费用（已支付的记录不修改）
+     *
+     * @param month 出场月份，格式 yyyy-MM
+     * @param lotId 停车场ID，为空时处理全部停车场
+     * @return 扫描数、更新数、耗时
+     */
+    @PostMapping("/reprice")
+    @Operation(summary = "按月重新计费", description = "按当前收费标准重新计算某月出场的未支付停车记录费用")
+    @ApiOperationSupport(order = 2, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result reprice(@Parameter(description = "出场月份(yyyy-MM)") @RequestParam String month,
+                          @Parameter(description = "停车场ID") @RequestParam(required = false) Long lotId) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.parse(month);
+        } catch (DateTimeParseException e) {
+            return Result.error("月份格式应为 yyyy-MM");
+        }
+        return Result.ok().put("data", parkingFeeService.repriceMonth(yearMonth, lotId));
+    }
+}
@@ -0,0 +1,67 @@
+package com.community.admin.controller;
+
+import com.community.admin.common.Result;
+import com.community.admin.domain.vo.GateEventVO;
+import com.community.admin.service.GateEventIngestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import com.github.xiaoymin.knife4j.annotations.ApiOperationSupport;
+import com.github.xiaoymin.knife4j.annotations.ApiSupport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/parkingGate")
+@Tag(name = "道闸事件接入", description = "道闸入场/出场事件批量上报相关接口")
+@ApiSupport(order = 26, author = "社区管理系统开发团队")
+public class ParkingGateController {
+
+    /**
+     * 单次上报的最大事件数
+     */
+    private static final int MAX_EVENTS = 5000;
+
+    @Autowired
+    private GateEventIngestService gateEventIngestService;
+
+    /**
+     * 批量上报道闸事件
+     *
+     * @param events 入场/出场事件列表
+     * @return 接收、无效、被拒绝（队列已满，需重传）的事件数
+     */
+    @PostMapping("/events")
+    @Operation(summary = "批量上报道闸事件", description = "异步接收入场/出场事件，按流水号去重，出场按车牌匹配入场并计算停车时长")
+    @ApiOperationSupport(order = 1, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result ingest(@Parameter(description = "道闸事件列表") @RequestBody List<GateEventVO> events) {
+        if (events == null || events.isEmpty()) {
+            return Result.error("事件列表不能为空");
+        }
+        if (events.size() > MAX_EVENTS) {
+            return Result.error("单次最多上报" + MAX_EVENTS + "条事件");
+        }
+        GateEventIngestService.SubmitResult result = gateEventIngestService.submit(events);
+        return Result.ok()
+                .put("accepted", result.getAccepted())
+                .put("invalid", result.getInvalid())
+                .put("rejected", result.getRejected());
+    }
+
+    /**
+     * 查询道闸事件管道计数
+     *
+     * @return 接收、写入、重复、失败等计数和队列深度
+     */
+    @GetMapping("/stats")
+    @Operation(summary = "查询道闸事件管道计数", description = "接收、写入、重复、失败等计数和队列深度")
+    @ApiOperationSupport(order = 2, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result stats() {
+        return Result.ok().put("data", gateEventIngestService.stats());
+    }
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.community.admin.common.Result;
 import com.community.admin.domain.entity.ParkingRecord;
 import com.community.admin.service.ParkingRecordService;
+import com.community.admin.service.PlateSearchIndex;
 import com.community.admin.service.RedisMessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,6 +16,8 @@ import com.github.xiaoymin.knife4j.annotations.ApiSupport;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/parkingRecord")
 @Tag(name = "停车记录管理", description = "停车记录相关接口")
@@ -26,6 +29,9 @@ public class ParkingRecordSearchController {
     @Autowired
     private ParkingRecordService parkingRecordService;
 
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
+
     /**
      * 根据车位ID或车牌号分页查询停车记录信息
      *
@@ -54,4 +60,24 @@ public class ParkingRecordSearchController {
                 .put("pageNum", result.getCurrent())
                 .put("pageSize", result.getSize());
     }
-}
\ No newline at end of file
+
+    /**
+     * 车牌号联想
+     *
+     * @param keyword 车牌片段（忽略大小写、空格和分隔符）
+     * @param limit 最多返回数量
+     * @return 登记车辆和近期停车记录中匹配的车牌号，以片段开头的排在前面
+     */
+    @GetMapping("/plate-suggest")
+    @Operation(summary = "车牌号联想", description = "按车牌片段返回登记车辆和近期停车记录中匹配的车牌号")
+    @ApiOperationSupport(order = 7, author = "开发团队")
+    @SecurityRequirement(name = "Authorization")
+    public Result suggestPlates(@Parameter(description = "车牌片段") @RequestParam String keyword,
+                                @Parameter(description = "最多返回数量") @RequestParam(defaultValue = "10") Integer limit) {
+        List<String> plates = plateSearchIndex.suggestPlates(keyword, Math.max(1, Math.min(limit, 50)));
+        if (plates == null) {
+            return Result.error("车牌索引正在构建，请稍后重试");
+        }
+        return Result.ok().put("data", plates);
+    }
+}
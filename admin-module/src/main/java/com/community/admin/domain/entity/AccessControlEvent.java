@@ -0,0 +1,37 @@
+package com.community.admin.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已处理的门禁设备事件（access_control_event）
+ * 主键为 设备ID + 设备事件号，用于设备重传时去重；记录事件落到的门禁记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccessControlEvent {
+
+    /**
+     * 门禁设备ID
+     */
+    private Long deviceId;
+
+    /**
+     * 设备事件号
+     */
+    private String eventNo;
+
+    /**
+     * 门禁记录ID
+     */
+    private Long recordId;
+
+    /**
+     * 出入时间
+     */
+    private LocalDateTime accessTime;
+}
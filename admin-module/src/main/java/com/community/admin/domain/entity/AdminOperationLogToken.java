@@ -0,0 +1,32 @@
+package com.community.admin.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 管理员操作日志描述分词索引行（admin_operation_log_token）
+ * 主键为 (token, operation_time, log_id)，与日志表使用相同的按月分区
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminOperationLogToken {
+
+    /**
+     * 分词
+     */
+    private String token;
+
+    /**
+     * 日志的操作时间（分区键）
+     */
+    private LocalDateTime operationTime;
+
+    /**
+     * 日志ID
+     */
+    private Long logId;
+}
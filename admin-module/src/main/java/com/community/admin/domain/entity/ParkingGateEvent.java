@@ -0,0 +1,37 @@
+package com.community.admin.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已处理的道闸事件（parking_gate_event）
+ * 主键为事件流水号，用于道闸重复上报时去重；记录事件落到的停车记录
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingGateEvent {
+
+    /**
+     * 事件流水号
+     */
+    private String transactionNo;
+
+    /**
+     * 事件类型：ENTRY / EXIT
+     */
+    private String eventType;
+
+    /**
+     * 停车记录ID
+     */
+    private Long recordId;
+
+    /**
+     * 事件时间
+     */
+    private LocalDateTime eventTime;
+}
@@ -0,0 +1,105 @@
+package com.community.admin.domain.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 门禁设备事件VO类 - 门禁设备批量上报的刷脸/刷卡通行事件（设备ID由上报路径给出）
+ */
+@Data
+public class AccessEventVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 设备事件号（设备内唯一，设备重传的事件按 设备ID + 事件号 去重）
+     */
+    private String eventNo;
+
+    /**
+     * 人员ID(业主/员工/访客)
+     */
+    private Long personId;
+
+    /**
+     * 人员类型:owner/staff/visitor
+     */
+    private String personType;
+
+    /**
+     * 姓名
+     */
+    private String personName;
+
+    /**
+     * 手机号
+     */
+    private String personPhone;
+
+    /**
+     * 身份证号
+     */
+    private String idCard;
+
+    /**
+     * 所属小区ID
+     */
+    private Long communityId;
+
+    /**
+     * 出入类型:entry/exit
+     */
+    private String accessType;
+
+    /**
+     * 出入方式
+     */
+    private String accessMethod;
+
+    /**
+     * 权限类型
+     */
+    private String permissionType;
+
+    /**
+     * 出入时间
+     */
+    private LocalDateTime accessTime;
+
+    /**
+     * 出入闸机名称
+     */
+    private String gateName;
+
+    /**
+     * 位置信息
+     */
+    private String locationInfo;
+
+    /**
+     * 验证结果
+     */
+    private String verifyResult;
+
+    /**
+     * 失败原因
+     */
+    private String failReason;
+
+    /**
+     * 抓拍图片URL（设备已自行上传时填写）
+     */
+    private String captureImage;
+
+    /**
+     * 抓拍图片内容（Base64编码的JPEG），由服务端异步上传到对象存储
+     */
+    private String captureImageData;
+
+    /**
+     * 备注
+     */
+    private String remark;
+}
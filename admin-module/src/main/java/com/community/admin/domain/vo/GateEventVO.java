@@ -0,0 +1,53 @@
+package com.community.admin.domain.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 道闸出入事件VO类 - 道闸批量上报的入场/出场事件
+ */
+@Data
+public class GateEventVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String ENTRY = "ENTRY";
+    public static final String EXIT = "EXIT";
+
+    /**
+     * 事件流水号（道闸生成，全局唯一，重复上报的事件按流水号去重）
+     */
+    private String transactionNo;
+
+    /**
+     * 事件类型：ENTRY 入场 / EXIT 出场
+     */
+    private String eventType;
+
+    /**
+     * 车牌号
+     */
+    private String plateNumber;
+
+    /**
+     * 车辆类型
+     */
+    private String vehicleType;
+
+    /**
+     * 停车场ID
+     */
+    private Long parkingLotId;
+
+    /**
+     * 出入闸机号
+     */
+    private String gateNo;
+
+    /**
+     * 事件时间
+     */
+    private LocalDateTime eventTime;
+}
@@ -3,7 +3,33 @@ package com.community.admin.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.community.admin.domain.entity.AccessControlDevice;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface AccessControlDeviceDao extends BaseMapper<AccessControlDevice> {
-}
\ No newline at end of file
+
+    /**
+     * 批量修改在线状态，状态未变化的设备不修改
+     */
+    @Update("<script>" +
+            "UPDATE access_control_device SET online_status = #{status} " +
+            "WHERE (online_status IS NULL OR online_status &lt;&gt; #{status}) AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int updateOnlineStatus(@Param("ids") Collection<Long> ids, @Param("status") int status);
+
+    /**
+     * 批量写入最后心跳时间（单条 UPDATE ... CASE）
+     */
+    @Update("<script>" +
+            "UPDATE access_control_device SET last_heartbeat = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.lastHeartbeat} </foreach>END " +
+            "WHERE id IN " +
+            "<foreach collection='list' item='item' open='(' separator=',' close=')'>#{item.id}</foreach>" +
+            "</script>")
+    int updateLastHeartbeat(@Param("list") List<AccessControlDevice> list);
+}
@@ -1,9 +1,80 @@
 package com.community.admin.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.community.admin.domain.entity.AccessControlEvent;
 import com.community.admin.domain.entity.AccessControlRecord;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface AccessControlRecordDao extends BaseMapper<AccessControlRecord> {
-}
\ No newline at end of file
+
+    /**
+     * 批量插入门禁记录（单条多行 INSERT），插入后回填自增ID
+     */
+    @Insert("<script>" +
+            "INSERT INTO access_control_record (person_id, person_type, person_name, person_phone, id_card, device_id, " +
+            "community_id, access_type, access_method, permission_type, access_time, gate_name, location_info, " +
+            "verify_result, fail_reason, capture_image, remark, created_at) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.personId}, #{item.personType}, #{item.personName}, #{item.personPhone}, #{item.idCard}, " +
+            "#{item.deviceId}, #{item.communityId}, #{item.accessType}, #{item.accessMethod}, #{item.permissionType}, " +
+            "#{item.accessTime}, #{item.gateName}, #{item.locationInfo}, #{item.verifyResult}, #{item.failReason}, " +
+            "#{item.captureImage}, #{item.remark}, NOW())" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id", keyColumn = "id")
+    int insertBatch(@Param("list") List<AccessControlRecord> list);
+
+    /**
+     * 抓拍图片上传失败时清除记录中的图片地址
+     */
+    @Update("UPDATE access_control_record SET capture_image = NULL WHERE id = #{id}")
+    int clearCaptureImage(@Param("id") Long id);
+
+    @Update("CREATE TABLE IF NOT EXISTS access_control_event (" +
+            "device_id BIGINT NOT NULL, " +
+            "event_no VARCHAR(64) NOT NULL, " +
+            "record_id BIGINT NULL, " +
+            "access_time DATETIME NOT NULL, " +
+            "created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (device_id, event_no), " +
+            "KEY idx_created_at (created_at)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='已处理的门禁设备事件'")
+    void createAccessEventTable();
+
+    /**
+     * 查询已处理过的设备事件（按 设备ID + 事件号 匹配主键）
+     */
+    @Select("<script>" +
+            "SELECT device_id, event_no FROM access_control_event WHERE (device_id, event_no) IN " +
+            "<foreach collection='events' item='item' open='(' separator=',' close=')'>(#{item.deviceId}, #{item.eventNo})</foreach>" +
+            "</script>")
+    List<AccessControlEvent> selectProcessedEvents(@Param("events") Collection<AccessControlEvent> events);
+
+    /**
+     * 批量登记已处理的设备事件
+     */
+    @Insert("<script>" +
+            "INSERT INTO access_control_event (device_id, event_no, record_id, access_time) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.deviceId}, #{item.eventNo}, #{item.recordId}, #{item.accessTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertAccessEvents(@Param("list") List<AccessControlEvent> list);
+
+    /**
+     * 删除早于指定时间登记的事件（去重只需覆盖设备可能重传的时间范围）
+     */
+    @Delete("DELETE FROM access_control_event WHERE created_at < #{before} LIMIT #{limit}")
+    int deleteAccessEventsBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
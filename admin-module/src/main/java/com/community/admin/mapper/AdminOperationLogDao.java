@@ -2,8 +2,93 @@ package com.community.admin.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.community.admin.domain.entity.AdminOperationLog;
+import com.community.admin.domain.entity.AdminOperationLogToken;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Mapper
 public interface AdminOperationLogDao extends BaseMapper<AdminOperationLog> {
-}
\ No newline at end of file
+
+    /**
+     * 批量插入操作日志（单条多行 INSERT），插入后回填自增ID
+     */
+    @Insert("<script>" +
+            "INSERT INTO admin_operation_log (admin_id, operation_time, operation_module, operation_type, " +
+            "operation_description, request_url, request_method, request_ip, request_params, response_code, " +
+            "operation_status) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.adminId}, #{item.operationTime}, #{item.operationModule}, #{item.operationType}, " +
+            "#{item.operationDescription}, #{item.requestUrl}, #{item.requestMethod}, #{item.requestIp}, " +
+            "#{item.requestParams}, #{item.responseCode}, #{item.operationStatus})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id", keyColumn = "id")
+    int insertBatch(@Param("list") List<AdminOperationLog> list);
+
+    /**
+     * 批量写入描述分词索引，重复的索引行忽略
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO admin_operation_log_token (token, operation_time, log_id) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.token}, #{item.operationTime}, #{item.logId})" +
+            "</foreach>" +
+            "</script>")
+    int insertTokens(@Param("list") List<AdminOperationLogToken> list);
+
+    /**
+     * 查询ID在 [fromId, toId) 内、尚未建立分词索引（没有已索引标记行）的日志，按ID倒序
+     */
+    @Select("SELECT l.id, l.operation_time, l.operation_description FROM admin_operation_log l " +
+            "WHERE l.id >= #{fromId} AND l.id < #{toId} AND l.operation_time IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM admin_operation_log_token t WHERE t.token = #{marker} " +
+            "AND t.operation_time = l.operation_time AND t.log_id = l.id) " +
+            "ORDER BY l.id DESC LIMIT #{limit}")
+    List<AdminOperationLog> selectUnindexedLogs(@Param("fromId") long fromId, @Param("toId") long toId,
+                                                @Param("marker") String marker, @Param("limit") int limit);
+
+    /**
+     * 最大日志ID
+     */
+    @Select("SELECT MAX(id) FROM admin_operation_log")
+    Long selectMaxLogId();
+
+    /**
+     * 最早的操作时间
+     */
+    @Select("SELECT MIN(operation_time) FROM admin_operation_log")
+    LocalDateTime selectMinOperationTime();
+
+    /**
+     * 表是否存在
+     */
+    @Select("SELECT COUNT(*) FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table}")
+    int countTable(@Param("table") String table);
+
+    /**
+     * 查询表的分区名称，未分区的表返回空列表
+     */
+    @Select("SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table} AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION")
+    List<String> selectPartitionNames(@Param("table") String table);
+
+    /**
+     * 统计分区行数（表名和分区名由分区管理器生成）
+     */
+    @Select("SELECT COUNT(*) FROM ${table} PARTITION (${partition})")
+    long countPartitionRows(@Param("table") String table, @Param("partition") String partition);
+
+    /**
+     * 执行分区维护DDL（语句由分区管理器按固定模板生成）
+     */
+    @Update("${sql}")
+    void executeDdl(@Param("sql") String sql);
+}
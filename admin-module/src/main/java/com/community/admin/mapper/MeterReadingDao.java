@@ -2,8 +2,25 @@ package com.community.admin.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.community.admin.domain.entity.MeterReading;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
 
 @Mapper
 public interface MeterReadingDao extends BaseMapper<MeterReading> {
-}
\ No newline at end of file
+
+    /**
+     * 记录待对账范围，meter_rollup_dirty 表由物业端创建并由其对账任务处理
+     * @param houseId 变更前仪表所属的房屋ID，为空时按仪表当前所属房屋
+     * @param buildingId 变更前仪表所属的楼栋ID，为空时按仪表当前所属楼栋
+     * @param dateFrom 受影响的抄表日期下限（含），为空表示全部日期
+     * @param dateTo 受影响的抄表日期上限（含），为空表示全部日期
+     */
+    @Insert("INSERT INTO meter_rollup_dirty (meter_id, house_id, building_id, date_from, date_to) VALUES " +
+            "(#{meterId}, #{houseId}, #{buildingId}, #{dateFrom}, #{dateTo})")
+    int insertRollupDirty(@Param("meterId") Long meterId, @Param("houseId") Long houseId,
+                          @Param("buildingId") Long buildingId, @Param("dateFrom") LocalDate dateFrom,
+                          @Param("dateTo") LocalDate dateTo);
+}
@@ -1,9 +1,117 @@
 package com.community.admin.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.community.admin.domain.entity.ParkingGateEvent;
 import com.community.admin.domain.entity.ParkingRecord;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface ParkingRecordDao extends BaseMapper<ParkingRecord> {
-}
\ No newline at end of file
+
+    /**
+     * 批量插入停车记录（单条多行 INSERT），插入后回填自增ID
+     */
+    @Insert("<script>" +
+            "INSERT INTO parking_record (vehicle_id, plate_number, vehicle_type, owner_id, parking_lot_id, gate_no, " +
+            "entry_time, exit_time, duration_minutes, parking_fee, payment_status, transaction_no, remark, created_at) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.plateNumber}, #{item.vehicleType}, #{item.ownerId}, #{item.parkingLotId}, " +
+            "#{item.gateNo}, #{item.entryTime}, #{item.exitTime}, #{item.durationMinutes}, #{item.parkingFee}, " +
+            "#{item.paymentStatus}, #{item.transactionNo}, #{item.remark}, NOW())" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id", keyColumn = "id")
+    int insertBatch(@Param("list") List<ParkingRecord> list);
+
+    /**
+     * 批量登记出场（单条 UPDATE ... CASE），已出场的记录不再修改
+     */
+    @Update("<script>" +
+            "UPDATE parking_record SET " +
+            "exit_time = CASE id <foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.exitTime} </foreach>END, " +
+            "duration_minutes = CASE id <foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.durationMinutes} </foreach>END, " +
+            "parking_fee = CASE id <foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.parkingFee} </foreach>END, " +
+            "payment_status = CASE id <foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.paymentStatus} </foreach>END " +
+            "WHERE exit_time IS NULL AND id IN " +
+            "<foreach collection='list' item='item' open='(' separator=',' close=')'>#{item.id}</foreach>" +
+            "</script>")
+    int updateExitBatch(@Param("list") List<ParkingRecord> list);
+
+    /**
+     * 查询未出场的停车记录（入场时间不早于 since），用于启动时恢复在场车辆
+     */
+    @Select("SELECT id, plate_number, vehicle_id, parking_lot_id, entry_time FROM parking_record " +
+            "WHERE exit_time IS NULL AND entry_time >= #{since} ORDER BY entry_time")
+    List<ParkingRecord> selectOpenSessions(@Param("since") LocalDateTime since);
+
+    /**
+     * 按ID顺序分批查询出场时间在 [from, to) 内的停车记录（重新计费用）
+     */
+    @Select("<script>" +
+            "SELECT id, parking_lot_id, vehicle_id, entry_time, exit_time, duration_minutes, parking_fee, payment_status " +
+            "FROM parking_record WHERE exit_time &gt;= #{from} AND exit_time &lt; #{to} AND id &gt; #{afterId} " +
+            "<if test='lotId != null'>AND parking_lot_id = #{lotId} </if>" +
+            "ORDER BY id LIMIT #{limit}" +
+            "</script>")
+    List<ParkingRecord> selectForReprice(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                         @Param("lotId") Long lotId, @Param("afterId") long afterId,
+                                         @Param("limit") int limit);
+
+    /**
+     * 批量更新停车费用（单条 UPDATE ... CASE），只修改未支付的记录
+     */
+    @Update("<script>" +
+            "UPDATE parking_record SET parking_fee = CASE id " +
+            "<foreach collection='list' item='item'>WHEN #{item.id} THEN #{item.parkingFee} </foreach>END " +
+            "WHERE (payment_status IS NULL OR payment_status = '未支付') AND id IN " +
+            "<foreach collection='list' item='item' open='(' separator=',' close=')'>#{item.id}</foreach>" +
+            "</script>")
+    int updateFeeBatch(@Param("list") List<ParkingRecord> list);
+
+    @Update("CREATE TABLE IF NOT EXISTS parking_gate_event (" +
+            "transaction_no VARCHAR(64) NOT NULL, " +
+            "event_type VARCHAR(8) NOT NULL, " +
+            "record_id BIGINT NULL, " +
+            "event_time DATETIME NOT NULL, " +
+            "created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (transaction_no), " +
+            "KEY idx_created_at (created_at)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='已处理的道闸事件'")
+    void createGateEventTable();
+
+    /**
+     * 查询已处理过的事件流水号
+     */
+    @Select("<script>" +
+            "SELECT transaction_no FROM parking_gate_event WHERE transaction_no IN " +
+            "<foreach collection='nos' item='no' open='(' separator=',' close=')'>#{no}</foreach>" +
+            "</script>")
+    List<String> selectProcessedEventNos(@Param("nos") Collection<String> nos);
+
+    /**
+     * 批量登记已处理的事件
+     */
+    @Insert("<script>" +
+            "INSERT INTO parking_gate_event (transaction_no, event_type, record_id, event_time) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.transactionNo}, #{item.eventType}, #{item.recordId}, #{item.eventTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertGateEvents(@Param("list") List<ParkingGateEvent> list);
+
+    /**
+     * 删除早于指定时间登记的事件（去重只需覆盖道闸可能重传的时间范围）
+     */
+    @Delete("DELETE FROM parking_gate_event WHERE created_at < #{before} LIMIT #{limit}")
+    int deleteGateEventsBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
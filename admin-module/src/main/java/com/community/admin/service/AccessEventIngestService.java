@@ -0,0 +1,758 @@
+package com.community.admin.service;
+
+import com.community.admin.common.service.OssService;
+import com.community.admin.domain.entity.AccessControlEvent;
+import com.community.admin.domain.entity.AccessControlRecord;
+import com.community.admin.domain.vo.AccessEventVO;
+import com.community.admin.mapper.AccessControlRecordDao;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 门禁设备事件接入管道
+ * 设备按批上报刷脸/刷卡事件，接口线程只校验事件并放入该设备的缓冲区，立即返回；
+ * 后台线程在某台设备攒够一批或最早的事件等待超过刷新间隔时写库，并顺带取走其他设备已缓冲的事件凑成更大的批，
+ * 按 设备ID + 设备事件号 去重（批内 + access_control_event 已处理表）后，
+ * 门禁记录和已处理事件在同一事务中用多行 INSERT 写入；失败时整批保留在内存中按递增的间隔重试，
+ * 重试期间不再取新事件，缓冲区满后新事件被拒绝，由设备重传（幂等）。
+ * 抓拍图片的对象名由设备ID、日期和事件号确定，记录写入时即带上图片地址，提交后由上传线程池异步上传，
+ * 重传只会覆盖同一对象；多次上传失败时清除记录中的图片地址。
+ * 缓冲的事件总数、单台设备的事件数和待上传图片的总字节数都有上限，超过后拒绝，由设备稍后重传。
+ * 未登记的设备上报的事件整批拒绝；长时间没有上报的设备的空缓冲区由后台线程移除。
+ * 指标通过 actuator 的 metrics 端点暴露（community.access.*）
+ */
+@Slf4j
+@Service
+public class AccessEventIngestService {
+
+    /**
+     * 设备事件号：字母、数字和 _-.: ，用于拼接对象名
+     */
+    private static final Pattern EVENT_NO = Pattern.compile("[A-Za-z0-9_.:\\-]{1,64}");
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String CAPTURE_FOLDER = "access/capture/";
+
+    @Value("${community.access.ingest.capacity:50000}")
+    private int capacity;
+
+    @Value("${community.access.ingest.device-capacity:2000}")
+    private int deviceCapacity;
+
+    @Value("${community.access.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${community.access.ingest.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${community.access.ingest.dedup-retention-days:30}")
+    private int dedupRetentionDays;
+
+    @Value("${community.access.ingest.retry-max-backoff-ms:30000}")
+    private long retryMaxBackoffMs;
+
+    @Value("${community.access.ingest.idle-buffer-minutes:10}")
+    private long idleBufferMinutes;
+
+    @Value("${community.access.ingest.upload-threads:4}")
+    private int uploadThreads;
+
+    @Value("${community.access.ingest.upload-retries:3}")
+    private int uploadRetries;
+
+    @Value("${community.access.ingest.max-image-kb:1024}")
+    private int maxImageKb;
+
+    @Value("${community.access.ingest.max-buffered-image-mb:256}")
+    private long maxBufferedImageMb;
+
+    @Autowired
+    private AccessControlRecordDao accessControlRecordDao;
+
+    @Autowired
+    private OssService ossService;
+
+    @Autowired
+    private DeviceLivenessTracker deviceLivenessTracker;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 设备ID -> 该设备待写入的事件
+     */
+    private final Map<Long, DeviceBuffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * 所有设备缓冲区中的事件数
+     */
+    private final AtomicInteger buffered = new AtomicInteger();
+
+    /**
+     * 已接收但尚未上传完成（或丢弃）的图片字节数
+     */
+    private final AtomicLong imageBytes = new AtomicLong();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong invalidImages = new AtomicLong();
+    private final AtomicLong unknownDevices = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong imagesUploaded = new AtomicLong();
+    private final AtomicLong imageFailures = new AtomicLong();
+
+    /**
+     * 已处理完（写入或重复）的事件数
+     */
+    private final AtomicLong handled = new AtomicLong();
+
+    /**
+     * 写入失败等待重试的事件（已去重，图片额度仍占用），只由写入线程访问
+     */
+    private final List<PendingEvent> retryEvents = new ArrayList<>();
+    private final AtomicInteger retryPending = new AtomicInteger();
+    private long retryBackoffMs;
+    private long retryAt;
+
+    private ThreadPoolExecutor uploadExecutor;
+    private volatile boolean running;
+    private long rotation;
+    private long lastCleanup;
+    private long lastEviction;
+    private Thread writer;
+
+    /**
+     * 一次提交的结果
+     */
+    public static class SubmitResult {
+        private final int accepted;
+        private final int invalid;
+        private final int rejected;
+        private final boolean unknownDevice;
+
+        SubmitResult(int accepted, int invalid, int rejected) {
+            this(accepted, invalid, rejected, false);
+        }
+
+        private SubmitResult(int accepted, int invalid, int rejected, boolean unknownDevice) {
+            this.accepted = accepted;
+            this.invalid = invalid;
+            this.rejected = rejected;
+            this.unknownDevice = unknownDevice;
+        }
+
+        public int getAccepted() {
+            return accepted;
+        }
+
+        public int getInvalid() {
+            return invalid;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * 设备未登记，整批未接收
+         */
+        public boolean isUnknownDevice() {
+            return unknownDevice;
+        }
+    }
+
+    /**
+     * 缓冲区中的一条事件
+     */
+    private static class PendingEvent {
+        private final Long deviceId;
+        private final AccessEventVO event;
+        private final byte[] image;
+        private final long receivedAt;
+
+        PendingEvent(Long deviceId, AccessEventVO event, byte[] image, long receivedAt) {
+            this.deviceId = deviceId;
+            this.event = event;
+            this.image = image;
+            this.receivedAt = receivedAt;
+        }
+
+        String key() {
+            return deviceId + ":" + event.getEventNo();
+        }
+    }
+
+    /**
+     * 单台设备的缓冲区，按接收顺序保存
+     */
+    private class DeviceBuffer {
+        private final ArrayDeque<PendingEvent> events = new ArrayDeque<>();
+        private long lastOfferAt = System.currentTimeMillis();
+        /**
+         * 已从 buffers 中移除，不再接收事件
+         */
+        private boolean retired;
+
+        synchronized boolean offer(PendingEvent event) {
+            if (retired || events.size() >= deviceCapacity) {
+                return false;
+            }
+            events.addLast(event);
+            lastOfferAt = event.receivedAt;
+            return true;
+        }
+
+        synchronized boolean isRetired() {
+            return retired;
+        }
+
+        /**
+         * 缓冲区为空且超过空闲时间没有新事件时标记为已移除
+         */
+        synchronized boolean retireIfIdle(long now, long idleMs) {
+            if (events.isEmpty() && now - lastOfferAt >= idleMs) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        /**
+         * 设备攒够一批、最早的事件等待超过刷新间隔或强制刷新时，取出最多 max 条事件
+         */
+        synchronized int drainTo(List<PendingEvent> target, int max, boolean force, long now) {
+            PendingEvent first = events.peekFirst();
+            if (first == null) {
+                return 0;
+            }
+            if (!force && events.size() < batchSize && now - first.receivedAt < flushIntervalMs) {
+                return 0;
+            }
+            int count = 0;
+            while (count < max && !events.isEmpty()) {
+                target.add(events.pollFirst());
+                count++;
+            }
+            return count;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            accessControlRecordDao.createAccessEventTable();
+        } catch (Exception e) {
+            log.warn("创建门禁设备事件表失败: {}", e.getMessage());
+        }
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "access-capture-upload-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("community.access.buffered", buffered, AtomicInteger::get)
+                .description("设备缓冲区中待写入的门禁事件数").register(meterRegistry);
+        Gauge.builder("community.access.devices", buffers, Map::size)
+                .description("上报过事件的门禁设备数").register(meterRegistry);
+        Gauge.builder("community.access.retry.pending", retryPending, AtomicInteger::get)
+                .description("写入失败等待重试的门禁事件数").register(meterRegistry);
+        Gauge.builder("community.access.capture.pending", uploadExecutor, e -> e.getQueue().size() + e.getActiveCount())
+                .description("待上传的抓拍图片数").register(meterRegistry);
+        Gauge.builder("community.access.capture.bytes", imageBytes, AtomicLong::get)
+                .description("待上传的抓拍图片字节数").register(meterRegistry);
+        FunctionCounter.builder("community.access.received", received, AtomicLong::get)
+                .description("接收的门禁事件数").register(meterRegistry);
+        FunctionCounter.builder("community.access.rejected", rejected, AtomicLong::get)
+                .description("缓冲区已满被拒绝的门禁事件数").register(meterRegistry);
+        FunctionCounter.builder("community.access.duplicates", duplicates, AtomicLong::get)
+                .description("设备重传的门禁事件数").register(meterRegistry);
+        FunctionCounter.builder("community.access.written", written, AtomicLong::get)
+                .description("写入的门禁记录数").register(meterRegistry);
+        FunctionCounter.builder("community.access.failed", failed, AtomicLong::get)
+                .description("写入失败（等待重试）的门禁事件次数").register(meterRegistry);
+        FunctionCounter.builder("community.access.capture.uploaded", imagesUploaded, AtomicLong::get)
+                .description("上传成功的抓拍图片数").register(meterRegistry);
+        FunctionCounter.builder("community.access.capture.failed", imageFailures, AtomicLong::get)
+                .description("上传失败的抓拍图片数").register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runWriter, "access-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 应用关闭时通知写入线程停止，由写入线程写完等待重试和缓冲区中剩余的事件（各尝试一次）后退出，再等待图片上传结束
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                // 写入线程还会提交上传任务，此时不关闭上传线程池
+                log.warn("门禁事件写入线程未在 5 秒内结束，剩余事件由写入线程继续处理");
+                return;
+            }
+        }
+        uploadExecutor.shutdown();
+        try {
+            if (!uploadExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("抓拍图片上传未完成: {}", uploadExecutor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("门禁事件管道已停止: written={}, duplicates={}, failed={}, imagesUploaded={}",
+                written.get(), duplicates.get(), failed.get(), imagesUploaded.get());
+    }
+
+    /**
+     * 提交一台设备上报的一批事件，立即返回；缺少必填项的事件直接丢弃，缓冲区已满时其余事件被拒绝，由设备稍后重传；
+     * 设备未登记时整批拒绝
+     */
+    public SubmitResult submit(Long deviceId, List<AccessEventVO> events) {
+        // 上报事件的设备必然在线，等同一次心跳
+        if (!deviceLivenessTracker.heartbeat(deviceId)) {
+            unknownDevices.addAndGet(events.size());
+            log.warn("未登记的门禁设备上报事件，已拒绝: deviceId={}, size={}", deviceId, events.size());
+            return new SubmitResult(0, 0, events.size(), true);
+        }
+        DeviceBuffer buffer = buffers.computeIfAbsent(deviceId, id -> new DeviceBuffer());
+        long now = System.currentTimeMillis();
+        int accepted = 0;
+        int invalidCount = 0;
+        int rejectedCount = 0;
+        for (AccessEventVO event : events) {
+            if (!isValid(event)) {
+                invalidCount++;
+                continue;
+            }
+            if (rejectedCount > 0) {
+                rejectedCount++;
+                continue;
+            }
+            byte[] image = decodeImage(event);
+            if (!reserve(image)) {
+                rejectedCount++;
+                continue;
+            }
+            PendingEvent pending = new PendingEvent(deviceId, event, image, now);
+            boolean offered = buffer.offer(pending);
+            while (!offered && buffer.isRetired()) {
+                // 空闲的缓冲区刚被移除，换用新的缓冲区
+                buffer = buffers.computeIfAbsent(deviceId, id -> new DeviceBuffer());
+                offered = buffer.offer(pending);
+            }
+            if (offered) {
+                accepted++;
+            } else {
+                release(image);
+                buffered.decrementAndGet();
+                rejectedCount++;
+            }
+        }
+        received.addAndGet(accepted);
+        invalid.addAndGet(invalidCount);
+        if (rejectedCount > 0) {
+            long count = rejected.addAndGet(rejectedCount);
+            log.warn("门禁事件缓冲区已满，拒绝事件: deviceId={}, rejected={}, total={}", deviceId, rejectedCount, count);
+        }
+        return new SubmitResult(accepted, invalidCount, rejectedCount);
+    }
+
+    /**
+     * 已处理完的事件数
+     */
+    public long handledCount() {
+        return handled.get();
+    }
+
+    /**
+     * 待上传的抓拍图片数
+     */
+    public int pendingUploads() {
+        return uploadExecutor.getQueue().size() + uploadExecutor.getActiveCount();
+    }
+
+    /**
+     * 当前计数快照
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("received", received.get());
+        stats.put("rejected", rejected.get());
+        stats.put("invalid", invalid.get());
+        stats.put("invalidImages", invalidImages.get());
+        stats.put("unknownDevices", unknownDevices.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("written", written.get());
+        stats.put("failed", failed.get());
+        stats.put("retryPending", retryPending.get());
+        stats.put("imagesUploaded", imagesUploaded.get());
+        stats.put("imageFailures", imageFailures.get());
+        stats.put("buffered", buffered.get());
+        stats.put("devices", buffers.size());
+        stats.put("pendingUploads", pendingUploads());
+        stats.put("pendingImageBytes", imageBytes.get());
+        return stats;
+    }
+
+    private boolean isValid(AccessEventVO event) {
+        return event != null
+                && event.getEventNo() != null && EVENT_NO.matcher(event.getEventNo()).matches()
+                && event.getAccessTime() != null;
+    }
+
+    /**
+     * 解码抓拍图片；格式错误或超过大小上限的图片丢弃（门禁记录照常写入）
+     */
+    private byte[] decodeImage(AccessEventVO event) {
+        String data = event.getCaptureImageData();
+        if (data == null || data.isBlank()) {
+            return null;
+        }
+        int comma = data.indexOf(',');
+        if (data.startsWith("data:") && comma > 0) {
+            data = data.substring(comma + 1);
+        }
+        try {
+            byte[] image = Base64.getMimeDecoder().decode(data);
+            if (image.length > 0 && image.length <= maxImageKb * 1024L) {
+                return image;
+            }
+        } catch (IllegalArgumentException e) {
+            // 按无图片处理
+        }
+        invalidImages.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 占用缓冲区名额和图片字节额度，超过上限时返回 false
+     */
+    private boolean reserve(byte[] image) {
+        if (buffered.incrementAndGet() > capacity) {
+            buffered.decrementAndGet();
+            return false;
+        }
+        if (image != null && imageBytes.addAndGet(image.length) > maxBufferedImageMb * 1024 * 1024) {
+            imageBytes.addAndGet(-image.length);
+            buffered.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void release(byte[] image) {
+        if (image != null) {
+            imageBytes.addAndGet(-image.length);
+        }
+    }
+
+    private void runWriter() {
+        long tick = Math.max(10, Math.min(50, flushIntervalMs / 4));
+        while (running) {
+            try {
+                // 失败的批次写入成功之前不取新事件
+                if (!retryEvents.isEmpty()) {
+                    long wait = retryAt - System.currentTimeMillis();
+                    if (wait > 0) {
+                        Thread.sleep(wait);
+                    }
+                    write(new ArrayList<>(retryEvents));
+                    continue;
+                }
+                List<PendingEvent> batch = collect(false);
+                if (batch.isEmpty()) {
+                    Thread.sleep(tick);
+                } else {
+                    write(batch);
+                }
+                evictIdleBuffers();
+                cleanupProcessedEvents();
+            } catch (InterruptedException e) {
+                // 关闭时中断等待，剩余事件在退出前写入
+                break;
+            } catch (Exception e) {
+                log.error("门禁事件处理线程异常", e);
+            }
+        }
+        drainOnStop();
+    }
+
+    /**
+     * 写入线程退出前写完等待重试和缓冲区中剩余的事件（各尝试一次），仍失败的释放图片额度并记录事件
+     */
+    private void drainOnStop() {
+        // 清除中断标记，避免影响收尾的数据库写入
+        Thread.interrupted();
+        List<PendingEvent> lost = new ArrayList<>(process(new ArrayList<>(retryEvents)));
+        retryEvents.clear();
+        List<PendingEvent> batch;
+        while (!(batch = collect(true)).isEmpty()) {
+            lost.addAll(process(batch));
+        }
+        retryPending.set(lost.size());
+        if (!lost.isEmpty()) {
+            lost.forEach(pending -> release(pending.image));
+            log.error("关闭时门禁事件写入失败，未写入: size={}, events={}", lost.size(),
+                    lost.stream().map(PendingEvent::key).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * 取出一批待写入的事件：先取已到刷新条件的设备，本批有数据时再顺带取其他设备已缓冲的事件；
+     * 每次从不同的设备开始，避免排在后面的设备总是等待
+     */
+    private List<PendingEvent> collect(boolean force) {
+        List<PendingEvent> batch = new ArrayList<>();
+        List<DeviceBuffer> devices = new ArrayList<>(buffers.values());
+        if (devices.isEmpty()) {
+            return batch;
+        }
+        long now = System.currentTimeMillis();
+        int start = (int) (rotation++ % devices.size());
+        for (int pass = 0; pass < 2 && batch.size() < batchSize; pass++) {
+            boolean all = force || pass == 1;
+            if (pass == 1 && batch.isEmpty() && !force) {
+                break;
+            }
+            for (int i = 0; i < devices.size() && batch.size() < batchSize; i++) {
+                devices.get((start + i) % devices.size()).drainTo(batch, batchSize - batch.size(), all, now);
+            }
+        }
+        buffered.addAndGet(-batch.size());
+        return batch;
+    }
+
+    /**
+     * 写入一批事件，未写入的事件留待重试，连续失败时重试间隔加倍（不超过上限）
+     */
+    private void write(List<PendingEvent> batch) {
+        List<PendingEvent> remaining = process(batch);
+        retryEvents.clear();
+        retryEvents.addAll(remaining);
+        retryPending.set(remaining.size());
+        if (remaining.isEmpty()) {
+            retryBackoffMs = 0;
+            return;
+        }
+        retryBackoffMs = retryBackoffMs == 0 ? Math.max(flushIntervalMs, 100)
+                : Math.min(retryBackoffMs * 2, retryMaxBackoffMs);
+        retryAt = System.currentTimeMillis() + retryBackoffMs;
+        log.warn("门禁事件写入失败，{}ms 后重试: size={}", retryBackoffMs, remaining.size());
+    }
+
+    /**
+     * 写入一批事件
+     * @return 写入失败的事件（已去重），全部写入或重复时为空列表
+     */
+    private List<PendingEvent> process(List<PendingEvent> batch) {
+        // 批内按 设备ID + 事件号 去重，再排除已处理过的事件
+        Map<String, PendingEvent> unique = new LinkedHashMap<>();
+        for (PendingEvent pending : batch) {
+            if (unique.putIfAbsent(pending.key(), pending) != null) {
+                drop(pending);
+                duplicates.incrementAndGet();
+            }
+        }
+        try {
+            List<AccessControlEvent> keys = new ArrayList<>(unique.size());
+            for (PendingEvent pending : unique.values()) {
+                keys.add(new AccessControlEvent(pending.deviceId, pending.event.getEventNo(), null, null));
+            }
+            for (AccessControlEvent processed : accessControlRecordDao.selectProcessedEvents(keys)) {
+                PendingEvent pending = unique.remove(processed.getDeviceId() + ":" + processed.getEventNo());
+                if (pending != null) {
+                    drop(pending);
+                    duplicates.incrementAndGet();
+                }
+            }
+        } catch (Exception e) {
+            failed.addAndGet(unique.size());
+            log.warn("查询已处理门禁事件失败: size={}", unique.size(), e);
+            return new ArrayList<>(unique.values());
+        }
+        if (unique.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<PendingEvent> events = new ArrayList<>(unique.values());
+        List<AccessControlRecord> records = new ArrayList<>(events.size());
+        for (PendingEvent pending : events) {
+            records.add(toRecord(pending));
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                accessControlRecordDao.insertBatch(records);
+                List<AccessControlEvent> processed = new ArrayList<>(events.size());
+                for (int i = 0; i < events.size(); i++) {
+                    PendingEvent pending = events.get(i);
+                    processed.add(new AccessControlEvent(pending.deviceId, pending.event.getEventNo(),
+                            records.get(i).getId(), pending.event.getAccessTime()));
+                }
+                accessControlRecordDao.insertAccessEvents(processed);
+            });
+        } catch (Exception e) {
+            failed.addAndGet(events.size());
+            log.warn("写入门禁事件失败，本批回滚: size={}", events.size(), e);
+            return events;
+        }
+
+        written.addAndGet(events.size());
+        handled.addAndGet(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            PendingEvent pending = events.get(i);
+            if (pending.image != null) {
+                Long recordId = records.get(i).getId();
+                uploadExecutor.execute(() -> upload(recordId, objectName(pending), pending.image));
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * 重复的事件：释放图片额度并计为已处理
+     */
+    private void drop(PendingEvent pending) {
+        release(pending.image);
+        handled.incrementAndGet();
+    }
+
+    private AccessControlRecord toRecord(PendingEvent pending) {
+        AccessEventVO event = pending.event;
+        AccessControlRecord record = new AccessControlRecord();
+        record.setPersonId(event.getPersonId());
+        record.setPersonType(event.getPersonType());
+        record.setPersonName(event.getPersonName());
+        record.setPersonPhone(event.getPersonPhone());
+        record.setIdCard(event.getIdCard());
+        record.setDeviceId(pending.deviceId);
+        record.setCommunityId(event.getCommunityId());
+        record.setAccessType(event.getAccessType());
+        record.setAccessMethod(event.getAccessMethod());
+        record.setPermissionType(event.getPermissionType());
+        record.setAccessTime(event.getAccessTime());
+        record.setGateName(event.getGateName());
+        record.setLocationInfo(event.getLocationInfo());
+        record.setVerifyResult(event.getVerifyResult());
+        record.setFailReason(event.getFailReason());
+        record.setCaptureImage(pending.image != null ? ossService.urlOf(objectName(pending)) : event.getCaptureImage());
+        record.setRemark(event.getRemark());
+        return record;
+    }
+
+    private static String objectName(PendingEvent pending) {
+        return captureObjectName(pending.deviceId, pending.event.getEventNo(), pending.event.getAccessTime());
+    }
+
+    /**
+     * 抓拍图片的对象名：同一设备事件总是同一个对象，重传只会覆盖
+     */
+    static String captureObjectName(Long deviceId, String eventNo, LocalDateTime accessTime) {
+        return CAPTURE_FOLDER + deviceId + "/" + accessTime.format(DAY) + "/" + eventNo + ".jpg";
+    }
+
+    /**
+     * 上传抓拍图片，失败后间隔递增重试；多次失败时清除记录中的图片地址
+     */
+    private void upload(Long recordId, String objectName, byte[] image) {
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    ossService.uploadBytes(objectName, image, "image/jpeg");
+                    imagesUploaded.incrementAndGet();
+                    return;
+                } catch (Exception e) {
+                    if (attempt >= uploadRetries || !running) {
+                        imageFailures.incrementAndGet();
+                        log.warn("抓拍图片上传失败: recordId={}, object={}, error={}", recordId, objectName, e.getMessage());
+                        accessControlRecordDao.clearCaptureImage(recordId);
+                        return;
+                    }
+                    Thread.sleep(200L * attempt);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("清除抓拍图片地址失败: recordId={}, error={}", recordId, e.getMessage());
+        } finally {
+            release(image);
+        }
+    }
+
+    /**
+     * 移除长时间没有上报的设备的空缓冲区（每个空闲时间检查一次）
+     */
+    private void evictIdleBuffers() {
+        long now = System.currentTimeMillis();
+        long idleMs = TimeUnit.MINUTES.toMillis(idleBufferMinutes);
+        if (now - lastEviction < idleMs) {
+            return;
+        }
+        lastEviction = now;
+        buffers.entrySet().removeIf(entry -> entry.getValue().retireIfIdle(now, idleMs));
+    }
+
+    /**
+     * 每小时删除一次超过保留天数的已处理事件
+     */
+    private void cleanupProcessedEvents() {
+        long now = System.currentTimeMillis();
+        if (now - lastCleanup < TimeUnit.HOURS.toMillis(1)) {
+            return;
+        }
+        lastCleanup = now;
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(dedupRetentionDays);
+            int deleted;
+            do {
+                deleted = accessControlRecordDao.deleteAccessEventsBefore(before, 10000);
+            } while (deleted >= 10000 && running);
+        } catch (Exception e) {
+            log.warn("清理已处理门禁事件失败: {}", e.getMessage());
+        }
+    }
+}
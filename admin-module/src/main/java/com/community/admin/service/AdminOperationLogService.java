@@ -4,6 +4,9 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.IService;
 import com.community.admin.domain.entity.AdminOperationLog;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 public interface AdminOperationLogService extends IService<AdminOperationLog> {
     
     /**
@@ -13,4 +16,16 @@ public interface AdminOperationLogService extends IService<AdminOperationLog> {
      * @return 管理员操作日志信息分页数据
      */
     IPage<AdminOperationLog> selectAdminOperationLogPage(IPage<AdminOperationLog> page, AdminOperationLog adminOperationLog);
-}
\ No newline at end of file
+
+    /**
+     * 游标分页查询管理员操作日志信息，按 (operation_time, id) 倒序，不统计总数
+     * @param adminOperationLog 查询条件
+     * @param startTime 操作时间起（含），可为空
+     * @param endTime 操作时间止（不含），可为空
+     * @param cursor 上一页返回的 nextCursor，首页传空字符串
+     * @param size 每页大小
+     * @return 包含 items、hasMore、nextCursor 的分页数据
+     */
+    Map<String, Object> selectAdminOperationLogByCursor(AdminOperationLog adminOperationLog, LocalDateTime startTime,
+                                                        LocalDateTime endTime, String cursor, int size);
+}
@@ -0,0 +1,437 @@
+package com.community.admin.service;
+
+import com.community.admin.common.util.OperationLogTokenizer;
+import com.community.admin.domain.entity.AdminOperationLog;
+import com.community.admin.domain.entity.AdminOperationLogToken;
+import com.community.admin.mapper.AdminOperationLogDao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管理员操作日志存储管理
+ *
+ * 1. 分区维护：admin_operation_log 和分词索引表按 operation_time 做 MySQL RANGE 月分区（p202601 ... pmax），
+ *    后台定期预建未来几个月的分区；超过保留期的分区通过 EXCHANGE PARTITION 移到归档表
+ *    admin_operation_log_archive_yyyyMM 后删除，只改元数据，不逐行搬迁
+ * 2. 分词索引：日志入库后把操作描述分词写入 admin_operation_log_token，描述查询走索引而不是 LIKE 全表扫描；
+ *    每条已索引的日志另有一行标记（token 为 {@link #INDEXED_MARKER}），启动时和索引写入失败后，
+ *    后台按ID区间扫描没有标记的日志补建索引，扫描完成前查询仍使用 LIKE
+ *
+ * 未分区的存量大表默认不会自动转换（ALTER 需要重建整表），只打印转换语句；
+ * 配置 community.audit.partition.auto-convert=true 后在启动时自动转换
+ */
+@Slf4j
+@Service
+public class AdminOperationLogStorageManager {
+
+    public static final String LOG_TABLE = "admin_operation_log";
+
+    public static final String TOKEN_TABLE = "admin_operation_log_token";
+
+    /**
+     * 已索引标记：分词结果只含字母、数字和文字，不会出现该值
+     */
+    public static final String INDEXED_MARKER = "#";
+
+    /**
+     * 补建索引每次查询扫描的ID区间长度（相对每批条数的倍数）
+     */
+    private static final int BACKFILL_SPAN_FACTOR = 50;
+
+    /**
+     * 补建索引每轮最多扫描的区间数
+     */
+    private static final int BACKFILL_SPANS_PER_RUN = 20;
+
+    private static final String ARCHIVE_TABLE_PREFIX = "admin_operation_log_archive_";
+
+    private static final String MAX_PARTITION = "pmax";
+
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Value("${community.audit.partition.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${community.audit.partition.retention-months:13}")
+    private int retentionMonths;
+
+    @Value("${community.audit.partition.archive:true}")
+    private boolean archive;
+
+    @Value("${community.audit.partition.auto-convert:false}")
+    private boolean autoConvert;
+
+    @Value("${community.audit.partition.maintain-interval-minutes:360}")
+    private long maintainIntervalMinutes;
+
+    @Value("${community.audit.partition.backfill-batch-size:1000}")
+    private int backfillBatchSize;
+
+    @Autowired
+    private AdminOperationLogDao adminOperationLogDao;
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile boolean tokenTableReady;
+
+    private volatile boolean tokenIndexComplete;
+
+    /**
+     * 待扫描的未索引ID范围 [gapLow, gapHigh]，启动时为全部日志；写入索引失败或跳过时扩大
+     */
+    private final Object gapLock = new Object();
+    private long gapLow = 0;
+    private long gapHigh = Long.MAX_VALUE - 1;
+
+    /**
+     * 当前扫描：下一次处理ID小于 scanCursor 且不小于 scanFloor 的日志，没有进行中的扫描时为 null
+     */
+    private Long scanCursor;
+    private long scanFloor;
+
+    private boolean conversionHintLogged;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "admin-log-storage");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintain, 10, maintainIntervalMinutes * 60, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::backfillTokens, 15, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 分词索引表是否可写
+     */
+    public boolean isTokenIndexReady() {
+        return tokenTableReady;
+    }
+
+    /**
+     * 分词索引是否已覆盖全部日志，未完成时描述查询应使用 LIKE
+     */
+    public boolean isTokenIndexComplete() {
+        return tokenIndexComplete;
+    }
+
+    /**
+     * 为已入库（已有ID）的日志写入分词索引
+     * 索引表未就绪或写入失败时不抛出异常，记录这些日志的ID范围，由后台补建；补建完成前描述查询使用 LIKE
+     * @param logs 日志列表
+     */
+    public void indexTokens(List<AdminOperationLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        if (!tokenTableReady) {
+            markGap(logs);
+            return;
+        }
+        try {
+            writeTokens(logs);
+        } catch (Exception e) {
+            markGap(logs);
+            log.warn("写入操作日志分词索引失败，稍后补建: size={}", logs.size(), e);
+        }
+    }
+
+    /**
+     * 写入分词和已索引标记，标记与分词在同一条 INSERT 的末尾，标记存在即说明分词已写入
+     */
+    private void writeTokens(List<AdminOperationLog> logs) {
+        List<AdminOperationLogToken> rows = new ArrayList<>();
+        for (AdminOperationLog operationLog : logs) {
+            if (operationLog.getId() == null || operationLog.getOperationTime() == null) {
+                continue;
+            }
+            for (String token : OperationLogTokenizer.tokenize(operationLog.getOperationDescription())) {
+                rows.add(new AdminOperationLogToken(token, operationLog.getOperationTime(), operationLog.getId()));
+            }
+            rows.add(new AdminOperationLogToken(INDEXED_MARKER, operationLog.getOperationTime(), operationLog.getId()));
+        }
+        // 控制单条 INSERT 的大小；分多条写入时先写的日志标记在前一条中，失败的日志由补建重写
+        for (int i = 0; i < rows.size(); i += 2000) {
+            adminOperationLogDao.insertTokens(rows.subList(i, Math.min(rows.size(), i + 2000)));
+        }
+    }
+
+    /**
+     * 记录未建索引的日志ID范围，索引恢复为未完成状态
+     */
+    private void markGap(List<AdminOperationLog> logs) {
+        synchronized (gapLock) {
+            for (AdminOperationLog operationLog : logs) {
+                if (operationLog.getId() != null) {
+                    gapLow = Math.min(gapLow, operationLog.getId());
+                    gapHigh = Math.max(gapHigh, operationLog.getId());
+                }
+            }
+            tokenIndexComplete = false;
+        }
+    }
+
+    /**
+     * 分区维护：建索引表、转换/预建/过期分区
+     */
+    void maintain() {
+        try {
+            YearMonth current = YearMonth.now();
+            if (adminOperationLogDao.countTable(TOKEN_TABLE) == 0) {
+                adminOperationLogDao.executeDdl("CREATE TABLE IF NOT EXISTS " + TOKEN_TABLE + " (" +
+                        "token VARCHAR(" + OperationLogTokenizer.MAX_TOKEN_LENGTH + ") NOT NULL, " +
+                        "operation_time DATETIME NOT NULL, " +
+                        "log_id BIGINT NOT NULL, " +
+                        "PRIMARY KEY (token, operation_time, log_id)" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 " + partitionClause(firstMonth(current), current));
+                log.info("操作日志分词索引表已创建: {}", TOKEN_TABLE);
+            }
+            tokenTableReady = true;
+
+            if (adminOperationLogDao.selectPartitionNames(LOG_TABLE).isEmpty()) {
+                convertLogTable(current);
+            }
+            maintainPartitions(LOG_TABLE, current, true);
+            maintainPartitions(TOKEN_TABLE, current, false);
+        } catch (Exception e) {
+            log.error("操作日志分区维护失败", e);
+        }
+    }
+
+    /**
+     * 把未分区的日志表转换为按月分区：主键需包含分区键
+     */
+    private void convertLogTable(YearMonth current) {
+        String alterKeys = "ALTER TABLE " + LOG_TABLE +
+                " MODIFY COLUMN operation_time DATETIME NOT NULL," +
+                " DROP PRIMARY KEY, ADD PRIMARY KEY (id, operation_time)," +
+                " ADD INDEX idx_operation_time_id (operation_time, id)," +
+                " ADD INDEX idx_admin_time_id (admin_id, operation_time, id)";
+        String partition = "ALTER TABLE " + LOG_TABLE + " " + partitionClause(firstMonth(current), current);
+        if (!autoConvert) {
+            if (!conversionHintLogged) {
+                conversionHintLogged = true;
+                log.warn("操作日志表未分区，分区维护已跳过。可在低峰期执行以下语句，或配置 community.audit.partition.auto-convert=true:\n{};\n{};",
+                        alterKeys, partition);
+            }
+            return;
+        }
+        log.info("开始转换操作日志表为按月分区");
+        adminOperationLogDao.executeDdl(alterKeys);
+        adminOperationLogDao.executeDdl(partition);
+        log.info("操作日志表分区转换完成");
+    }
+
+    /**
+     * 预建未来分区并处理过期分区
+     * @param table 表名
+     * @param current 当前月份
+     * @param archiveExpired 过期分区是否先归档
+     */
+    private void maintainPartitions(String table, YearMonth current, boolean archiveExpired) {
+        List<String> names = adminOperationLogDao.selectPartitionNames(table);
+        if (names.isEmpty()) {
+            return;
+        }
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            YearMonth month = parseMonth(name);
+            if (month != null) {
+                months.add(month);
+            }
+        }
+        if (months.isEmpty()) {
+            log.warn("表 {} 的分区不是按月命名，跳过分区维护", table);
+            return;
+        }
+
+        // 只能在最后一个月分区之后追加
+        YearMonth last = months.get(months.size() - 1);
+        YearMonth target = current.plusMonths(monthsAhead);
+        if (last.isBefore(target)) {
+            StringBuilder defs = new StringBuilder();
+            for (YearMonth month = last.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+                defs.append(partitionDefinition(month)).append(", ");
+            }
+            if (names.contains(MAX_PARTITION)) {
+                adminOperationLogDao.executeDdl("ALTER TABLE " + table + " REORGANIZE PARTITION " + MAX_PARTITION +
+                        " INTO (" + defs + "PARTITION " + MAX_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+            } else {
+                adminOperationLogDao.executeDdl("ALTER TABLE " + table + " ADD PARTITION (" +
+                        defs.substring(0, defs.length() - 2) + ")");
+            }
+            log.info("表 {} 已预建分区至 {}", table, target.format(PARTITION_FORMAT));
+        }
+
+        // 保留最近 retentionMonths 个月（含当月），且至少保留一个月分区
+        YearMonth cutoff = current.minusMonths(Math.max(1, retentionMonths) - 1L);
+        for (YearMonth month : months) {
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            String partition = partitionName(month);
+            if (archiveExpired && archive && !archivePartition(table, partition, month)) {
+                continue;
+            }
+            adminOperationLogDao.executeDdl("ALTER TABLE " + table + " DROP PARTITION " + partition);
+            log.info("表 {} 的过期分区 {} 已删除", table, partition);
+        }
+    }
+
+    /**
+     * 把分区数据交换到归档表，交换后原分区为空
+     * @return 是否可以删除原分区
+     */
+    private boolean archivePartition(String table, String partition, YearMonth month) {
+        String archiveTable = ARCHIVE_TABLE_PREFIX + month.format(PARTITION_FORMAT);
+        if (adminOperationLogDao.countTable(archiveTable) > 0) {
+            // 上次已交换但未删除分区：分区为空才删除，否则再次交换会把数据换回来
+            if (adminOperationLogDao.countPartitionRows(table, partition) > 0) {
+                log.error("归档表 {} 已存在且分区 {} 不为空，跳过归档，请人工处理", archiveTable, partition);
+                return false;
+            }
+            return true;
+        }
+        adminOperationLogDao.executeDdl("CREATE TABLE " + archiveTable + " LIKE " + table);
+        adminOperationLogDao.executeDdl("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+        adminOperationLogDao.executeDdl("ALTER TABLE " + table + " EXCHANGE PARTITION " + partition +
+                " WITH TABLE " + archiveTable);
+        log.info("表 {} 的分区 {} 已归档到 {}", table, partition, archiveTable);
+        return true;
+    }
+
+    /**
+     * 补建分词索引：在待扫描范围内按ID区间从大到小查找没有已索引标记的日志并写入，
+     * 每轮最多写入一批；范围扫描完且期间没有新的缺口时，索引覆盖全部日志
+     */
+    void backfillTokens() {
+        if (!tokenTableReady) {
+            return;
+        }
+        try {
+            if (!startScan()) {
+                return;
+            }
+            long span = (long) backfillBatchSize * BACKFILL_SPAN_FACTOR;
+            for (int i = 0; i < BACKFILL_SPANS_PER_RUN && scanCursor > scanFloor; i++) {
+                long from = Math.max(scanFloor, scanCursor - span);
+                List<AdminOperationLog> rows = adminOperationLogDao.selectUnindexedLogs(from, scanCursor,
+                        INDEXED_MARKER, backfillBatchSize);
+                if (!rows.isEmpty()) {
+                    writeTokens(rows);
+                }
+                // 取满一批时区间内可能还有未索引的日志，从本批最小ID继续
+                scanCursor = rows.size() >= backfillBatchSize ? rows.get(rows.size() - 1).getId() : from;
+                if (!rows.isEmpty()) {
+                    break;
+                }
+            }
+            finishScan();
+        } catch (Exception e) {
+            log.warn("补建操作日志分词索引失败，稍后重试: cursor={}", scanCursor, e);
+        }
+    }
+
+    /**
+     * 没有进行中的扫描时取出待扫描范围开始新的扫描
+     * @return 是否有需要扫描的范围
+     */
+    private boolean startScan() {
+        if (scanCursor != null) {
+            return true;
+        }
+        synchronized (gapLock) {
+            if (gapLow > gapHigh) {
+                return false;
+            }
+        }
+        Long maxId = adminOperationLogDao.selectMaxLogId();
+        long low;
+        long high;
+        synchronized (gapLock) {
+            low = gapLow;
+            high = gapHigh;
+            gapLow = Long.MAX_VALUE;
+            gapHigh = Long.MIN_VALUE;
+        }
+        scanFloor = low;
+        scanCursor = maxId == null ? low : Math.min(high, maxId) + 1;
+        return true;
+    }
+
+    private void finishScan() {
+        if (scanCursor > scanFloor) {
+            return;
+        }
+        scanCursor = null;
+        synchronized (gapLock) {
+            if (gapLow > gapHigh && !tokenIndexComplete) {
+                tokenIndexComplete = true;
+                log.info("操作日志分词索引已覆盖全部日志");
+            }
+        }
+    }
+
+    /**
+     * 首个分区月份：最早日志所在月，但不早于保留期
+     */
+    private YearMonth firstMonth(YearMonth current) {
+        YearMonth earliest = current.minusMonths(Math.max(1, retentionMonths) - 1L);
+        LocalDateTime minTime = adminOperationLogDao.selectMinOperationTime();
+        if (minTime != null) {
+            YearMonth minMonth = YearMonth.from(minTime);
+            if (minMonth.isAfter(earliest)) {
+                return minMonth.isAfter(current) ? current : minMonth;
+            }
+        }
+        return earliest;
+    }
+
+    private String partitionClause(YearMonth first, YearMonth current) {
+        StringBuilder clause = new StringBuilder("PARTITION BY RANGE COLUMNS(operation_time) (");
+        for (YearMonth month = first; !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            clause.append(partitionDefinition(month)).append(", ");
+        }
+        return clause.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))").toString();
+    }
+
+    private String partitionDefinition(YearMonth month) {
+        return "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + " 00:00:00')";
+    }
+
+    private String partitionName(YearMonth month) {
+        return "p" + month.format(PARTITION_FORMAT);
+    }
+
+    private YearMonth parseMonth(String partitionName) {
+        if (partitionName.length() != 7 || partitionName.charAt(0) != 'p') {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partitionName.substring(1), PARTITION_FORMAT);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.community.admin.service;
+
+import com.community.admin.domain.entity.AdminOperationLog;
+import com.community.admin.mapper.AdminOperationLogDao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 管理员操作日志异步批量写入器
+ * 请求线程只把日志放入有界队列，后台线程按 条数/时间 批量执行多行 INSERT；
+ * 数据库写入失败或积压超过高水位时，日志先写入本地溢出文件，数据库恢复后再回放入库；
+ * 入库后同步写入描述分词索引（见 {@link AdminOperationLogStorageManager}）；应用关闭时把队列中剩余的日志写完。入队、写入、丢弃、溢出等指标通过 actuator 的 metrics 端点暴露（community.audit.*）
+ */
+@Slf4j
+@Service
+public class AdminOperationLogWriter {
+
+    @Value("${community.audit.writer.capacity:10000}")
+    private int capacity;
+
+    @Value("${community.audit.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${community.audit.writer.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${community.audit.writer.spill-dir:./temp/audit}")
+    private String spillDir;
+
+    @Value("${community.audit.writer.replay-interval-ms:30000}")
+    private long replayIntervalMs;
+
+    @Autowired
+    private AdminOperationLogDao adminOperationLogDao;
+
+    @Autowired
+    private AdminOperationLogStorageManager adminOperationLogStorageManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<AdminOperationLog> queue;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean databaseHealthy = true;
+    private long lastReplayAttempt;
+    private Thread flusher;
+
+    @PostConstruct
+    public void init() {
+        queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("community.audit.queue.depth", queue, BlockingQueue::size)
+                .description("待写入的操作日志数").register(meterRegistry);
+        Gauge.builder("community.audit.spill.files", this, w -> w.spillFiles().length)
+                .description("待回放的溢出文件数").register(meterRegistry);
+        FunctionCounter.builder("community.audit.enqueued", enqueued, AtomicLong::get)
+                .description("入队的操作日志数").register(meterRegistry);
+        FunctionCounter.builder("community.audit.written", written, AtomicLong::get)
+                .description("写入数据库的操作日志数").register(meterRegistry);
+        FunctionCounter.builder("community.audit.dropped", dropped, AtomicLong::get)
+                .description("队列已满被丢弃的操作日志数").register(meterRegistry);
+        FunctionCounter.builder("community.audit.spilled", spilled, AtomicLong::get)
+                .description("写入溢出文件的操作日志数").register(meterRegistry);
+        FunctionCounter.builder("community.audit.replayed", replayed, AtomicLong::get)
+                .description("从溢出文件回放入库的操作日志数").register(meterRegistry);
+
+        running = true;
+        flusher = new Thread(this::runFlusher, "admin-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 应用关闭时停止后台线程，并把队列中剩余的日志写完
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<AdminOperationLog> batch = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+        log.info("操作日志写入器已停止: written={}, spilled={}, dropped={}", written.get(), spilled.get(), dropped.get());
+    }
+
+    /**
+     * 提交一条操作日志，立即返回；队列已满时丢弃并计数
+     */
+    public void submit(AdminOperationLog operationLog) {
+        // 操作时间是分区键，不能为空
+        if (operationLog.getOperationTime() == null) {
+            operationLog.setOperationTime(LocalDateTime.now());
+        }
+        if (queue.offer(operationLog)) {
+            enqueued.incrementAndGet();
+            return;
+        }
+        long count = dropped.incrementAndGet();
+        if (count % 1000 == 1) {
+            log.warn("操作日志队列已满，丢弃日志: dropped={}", count);
+        }
+    }
+
+    private void runFlusher() {
+        List<AdminOperationLog> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // 等待第一条日志，最多等一个刷新周期
+                AdminOperationLog first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    // 未攒够一批时再等待剩余的刷新周期
+                    long deadline = System.currentTimeMillis() + flushIntervalMs;
+                    while (batch.size() < batchSize && running) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        AdminOperationLog next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    write(batch);
+                    batch.clear();
+                }
+                replaySpillFiles();
+            } catch (InterruptedException e) {
+                // 关闭时由 shutdown 写完剩余日志
+                if (!batch.isEmpty()) {
+                    write(batch);
+                    batch.clear();
+                }
+                return;
+            } catch (Exception e) {
+                log.error("操作日志写入线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 写入一批日志：数据库不可用或积压超过高水位时直接溢出到本地文件
+     */
+    private void write(List<AdminOperationLog> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        boolean backlogged = queue.size() > capacity * 8 / 10;
+        if (databaseHealthy && !backlogged) {
+            try {
+                adminOperationLogDao.insertBatch(batch);
+                written.addAndGet(batch.size());
+            } catch (Exception e) {
+                databaseHealthy = false;
+                log.warn("批量写入操作日志失败，转存本地溢出文件: size={}", batch.size(), e);
+                spill(batch);
+                return;
+            }
+            indexTokens(batch);
+            return;
+        }
+        spill(batch);
+    }
+
+    /**
+     * 写入分词索引；失败不影响日志本身，由存储管理器记录后在后台补建
+     */
+    private void indexTokens(List<AdminOperationLog> batch) {
+        adminOperationLogStorageManager.indexTokens(batch);
+    }
+
+    private void spill(List<AdminOperationLog> batch) {
+        File dir = new File(spillDir);
+        if (!dir.exists() && !dir.mkdirs()) {
+            dropped.addAndGet(batch.size());
+            log.error("创建操作日志溢出目录失败，丢弃日志: dir={}, size={}", dir.getAbsolutePath(), batch.size());
+            return;
+        }
+        String name = "audit_" + System.currentTimeMillis() + "_" + System.nanoTime() + ".jsonl";
+        File tmp = new File(dir, name + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+            for (AdminOperationLog operationLog : batch) {
+                writer.write(objectMapper.writeValueAsString(operationLog));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            dropped.addAndGet(batch.size());
+            log.error("写入操作日志溢出文件失败，丢弃日志: size={}", batch.size(), e);
+            return;
+        }
+        try {
+            Files.move(tmp.toPath(), new File(dir, name).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            spilled.addAndGet(batch.size());
+        } catch (IOException e) {
+            dropped.addAndGet(batch.size());
+            log.error("保存操作日志溢出文件失败: {}", tmp.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 定期把溢出文件回放入库，每次最多处理一个文件，成功后删除；失败则保留等待下次重试
+     */
+    private void replaySpillFiles() {
+        long now = System.currentTimeMillis();
+        if (now - lastReplayAttempt < replayIntervalMs || queue.size() > capacity / 2) {
+            return;
+        }
+        lastReplayAttempt = now;
+        File[] files = spillFiles();
+        if (files.length == 0) {
+            databaseHealthy = true;
+            return;
+        }
+        Arrays.sort(files);
+        File file = files[0];
+        try {
+            List<AdminOperationLog> logs = new ArrayList<>();
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                if (!line.isEmpty()) {
+                    logs.add(objectMapper.readValue(line, AdminOperationLog.class));
+                }
+            }
+            for (int i = 0; i < logs.size(); i += batchSize) {
+                List<AdminOperationLog> chunk = logs.subList(i, Math.min(logs.size(), i + batchSize));
+                adminOperationLogDao.insertBatch(chunk);
+                indexTokens(chunk);
+            }
+            Files.delete(file.toPath());
+            replayed.addAndGet(logs.size());
+            databaseHealthy = true;
+            log.info("操作日志溢出文件已回放: file={}, size={}", file.getName(), logs.size());
+        } catch (Exception e) {
+            databaseHealthy = false;
+            log.warn("回放操作日志溢出文件失败，稍后重试: file={}", file.getName(), e);
+        }
+    }
+
+    private File[] spillFiles() {
+        File[] files = new File(spillDir).listFiles((d, name) -> name.startsWith("audit_") && name.endsWith(".jsonl"));
+        return files != null ? files : new File[0];
+    }
+}
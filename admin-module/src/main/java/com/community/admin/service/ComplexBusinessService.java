@@ -169,9 +169,9 @@ public interface ComplexBusinessService {
      * 新增房屋业主关联
      * @param ownerId 业主ID
      * @param houseId 房屋ID
-     * @return 是否成功
+     * @return 新增的关联（含ID），失败时返回 null
      */
-    boolean addHouseOwnerRelation(Long ownerId, Long houseId);
+    com.community.admin.domain.entity.HouseOwner addHouseOwnerRelation(Long ownerId, Long houseId);
     
     /**
      * 根据停车场ID查询停车场信息和社区信息
@@ -0,0 +1,302 @@
+package com.community.admin.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据变更消息异步批量发布器
+ * 请求线程只把变更放入有界的待发送表，同一 模块/实体类型/实体ID 在一个窗口内的多次变更合并为一条；
+ * 后台线程按窗口周期用 Redis pipeline 一次性发送 PUBLISH 和最后更新时间戳 SET。
+ * 消息只携带实体ID和变更字段名，不再序列化整个实体。
+ * 队列深度、丢弃数、合并数通过 actuator 的 metrics 端点暴露（community.sync.publisher.*）
+ */
+@Slf4j
+@Service
+public class DataChangePublisher {
+
+    @Value("${community.sync.publisher.capacity:10000}")
+    private int capacity;
+
+    @Value("${community.sync.publisher.window-ms:50}")
+    private long windowMs;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+
+    /**
+     * 待发送的变更：合并键 -> 变更
+     */
+    private Map<String, PendingChange> pending = new LinkedHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * 无实体ID的变更不参与合并，用序号区分
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 实体类 -> 可读取的字段，用于提取变更字段名
+     */
+    private final Map<Class<?>, List<Field>> fieldCache = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("community.sync.publisher.queue.depth", this, DataChangePublisher::depth)
+                .description("待发送的数据变更消息数").register(meterRegistry);
+        FunctionCounter.builder("community.sync.publisher.submitted", submitted, AtomicLong::get)
+                .description("提交的数据变更数").register(meterRegistry);
+        FunctionCounter.builder("community.sync.publisher.coalesced", coalesced, AtomicLong::get)
+                .description("窗口内被合并的数据变更数").register(meterRegistry);
+        FunctionCounter.builder("community.sync.publisher.dropped", dropped, AtomicLong::get)
+                .description("队列已满被丢弃的数据变更数").register(meterRegistry);
+        FunctionCounter.builder("community.sync.publisher.published", published, AtomicLong::get)
+                .description("已发送的数据变更消息数").register(meterRegistry);
+        FunctionCounter.builder("community.sync.publisher.failed", failed, AtomicLong::get)
+                .description("发送失败的数据变更消息数").register(meterRegistry);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "data-change-publisher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, windowMs, windowMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 发送剩余的变更
+        flush();
+    }
+
+    /**
+     * 提交一条数据变更，立即返回
+     * @param module 模块名称 (owner/property/admin)
+     * @param action 操作类型 (CREATE/UPDATE/DELETE)
+     * @param entityType 实体类型
+     * @param entityClass 实体的确切类名
+     * @param entityId 实体ID
+     * @param data 变更的数据，只提取其中非空的字段名
+     */
+    public void submit(String module, String action, String entityType, String entityClass, Object entityId,
+                       Object data) {
+        submitted.incrementAndGet();
+        Set<String> fields = changedFields(data);
+        long timestamp = System.currentTimeMillis();
+        String key = module + "|" + entityClass + "|" + (entityId != null ? entityId : "#" + sequence.incrementAndGet());
+
+        synchronized (lock) {
+            PendingChange existing = pending.get(key);
+            if (existing != null) {
+                existing.merge(action, fields, timestamp);
+                coalesced.incrementAndGet();
+                return;
+            }
+            if (pending.size() >= capacity) {
+                long count = dropped.incrementAndGet();
+                if (count % 1000 == 1) {
+                    log.warn("Data change queue is full, dropping message: entityType={}, entityId={}, dropped={}",
+                            entityType, entityId, count);
+                }
+                return;
+            }
+            pending.put(key, new PendingChange(module, action, entityType, entityClass, entityId, fields, timestamp));
+        }
+    }
+
+    /**
+     * 当前待发送的消息数
+     */
+    public int depth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 把当前窗口内的变更通过 pipeline 一次性发送
+     */
+    @SuppressWarnings("unchecked")
+    void flush() {
+        List<PendingChange> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+
+        try {
+            RedisSerializer<String> keySerializer = redisTemplate.getStringSerializer();
+            RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+
+            // 同一实体类型在一批内只更新一次时间戳
+            Map<String, Long> lastUpdate = new HashMap<>();
+            long latest = 0;
+            for (PendingChange change : batch) {
+                lastUpdate.merge(change.entityType, change.timestamp, Math::max);
+                latest = Math.max(latest, change.timestamp);
+            }
+            long latestAll = latest;
+
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                byte[] commonTopic = keySerializer.serialize(RedisMessageService.TOPIC_DATA_CHANGE);
+                for (PendingChange change : batch) {
+                    byte[] body = valueSerializer.serialize(change.toMessage());
+                    connection.publish(commonTopic, body);
+                    connection.publish(keySerializer.serialize("community:" + change.module.toLowerCase() + ":change"), body);
+                }
+                lastUpdate.forEach((entityType, timestamp) -> connection.stringCommands().set(
+                        keySerializer.serialize("community:last_update:" + entityType),
+                        valueSerializer.serialize(String.valueOf(timestamp))));
+                connection.stringCommands().set(
+                        keySerializer.serialize("community:last_update:all"),
+                        valueSerializer.serialize(String.valueOf(latestAll)));
+                return null;
+            });
+            published.addAndGet(batch.size());
+            log.debug("Published {} data change messages", batch.size());
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.error("Failed to publish {} data change messages", batch.size(), e);
+        }
+    }
+
+    /**
+     * 提取变更字段名：Map 取键，实体取非空字段（MyBatis-Plus 的 updateById 只更新非空字段）
+     */
+    private Set<String> changedFields(Object data) {
+        Set<String> fields = new LinkedHashSet<>();
+        if (data == null || data instanceof Number || data instanceof CharSequence || data instanceof Boolean) {
+            return fields;
+        }
+        if (data instanceof Map) {
+            for (Object key : ((Map<?, ?>) data).keySet()) {
+                fields.add(String.valueOf(key));
+            }
+            return fields;
+        }
+        for (Field field : fieldCache.computeIfAbsent(data.getClass(), this::readableFields)) {
+            try {
+                if (field.get(data) != null) {
+                    fields.add(field.getName());
+                }
+            } catch (IllegalAccessException e) {
+                // 忽略无法读取的字段
+            }
+        }
+        return fields;
+    }
+
+    private List<Field> readableFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                try {
+                    field.setAccessible(true);
+                    fields.add(field);
+                } catch (RuntimeException e) {
+                    // 忽略无法访问的字段
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 待发送的变更
+     */
+    private static class PendingChange {
+        private final String module;
+        private final String entityType;
+        private final String entityClass;
+        private final Object entityId;
+        private final Set<String> changedFields;
+        private String action;
+        private long timestamp;
+
+        private PendingChange(String module, String action, String entityType, String entityClass,
+                              Object entityId, Set<String> changedFields, long timestamp) {
+            this.module = module;
+            this.action = action;
+            this.entityType = entityType;
+            this.entityClass = entityClass;
+            this.entityId = entityId;
+            this.changedFields = changedFields;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * 合并规则：删除优先；新增后的修改仍视为新增；其余取最新操作
+         */
+        private void merge(String newAction, Set<String> fields, long newTimestamp) {
+            if ("DELETE".equals(newAction)) {
+                action = "DELETE";
+            } else if (!"CREATE".equals(action)) {
+                action = newAction;
+            }
+            changedFields.addAll(fields);
+            timestamp = Math.max(timestamp, newTimestamp);
+        }
+
+        private Map<String, Object> toMessage() {
+            Map<String, Object> message = new HashMap<>();
+            message.put("module", module);
+            message.put("action", action);
+            message.put("entityType", entityType);
+            message.put("entityClass", entityClass);
+            message.put("entityId", entityId);
+            message.put("changedFields", new ArrayList<>(changedFields));
+            message.put("timestamp", timestamp);
+            return message;
+        }
+    }
+}
@@ -0,0 +1,437 @@
+package com.community.admin.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.admin.domain.entity.AccessControlDevice;
+import com.community.admin.mapper.AccessControlDeviceDao;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 门禁设备在线状态跟踪
+ * 设备定时调用心跳接口，心跳只更新内存中的最后心跳时间（设备ID -> AtomicLong，不加锁）；
+ * 后台定时任务把本节点收到的心跳同步到 Redis 哈希（取较大值），再读回其他节点收到的心跳，多节点部署时各节点看到的心跳一致。
+ * 只有持有 Redis 租约的节点判定在线状态：超过离线时间未收到心跳的设备置为离线，恢复心跳的置为在线，
+ * 仅在状态变化时用批量 UPDATE 写库，并通过 Redis 通知频道推送上线/离线通知；最后心跳时间按较长的间隔批量写库。
+ * 启动后的离线时间内还没收到心跳的设备保持原状态，避免重启时把所有设备误判为离线
+ */
+@Slf4j
+@Service
+public class DeviceLivenessTracker {
+
+    private static final String LAST_SEEN_KEY = "community:device:last-seen";
+    private static final String LEADER_KEY = "community:device:liveness:leader";
+
+    private static final int ONLINE = 1;
+    private static final int OFFLINE = 0;
+
+    /**
+     * 一条通知中列出的设备名称数
+     */
+    private static final int MAX_NAMES = 10;
+
+    /**
+     * 只在新值较大时写入哈希字段，避免多个节点互相覆盖成较早的心跳时间
+     */
+    private static final DefaultRedisScript<Long> MAX_SEEN_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV, 2 do " +
+            "local cur = tonumber(redis.call('HGET', KEYS[1], ARGV[i])) " +
+            "if cur == nil or cur < tonumber(ARGV[i + 1]) then redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1", Long.class);
+
+    /**
+     * 租约仍由本节点持有时才续期，参数按模板的值序列化，与写入租约时的格式一致
+     */
+    private static final DefaultRedisScript<Long> RENEW_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return 0", Long.class);
+
+    /**
+     * 租约仍由本节点持有时才删除
+     */
+    private static final DefaultRedisScript<Long> RELEASE_LEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0", Long.class);
+
+    @Value("${community.device.liveness.offline-after-seconds:90}")
+    private long offlineAfterSeconds;
+
+    @Value("${community.device.liveness.check-interval-seconds:15}")
+    private long checkIntervalSeconds;
+
+    @Value("${community.device.liveness.persist-interval-seconds:300}")
+    private long persistIntervalSeconds;
+
+    @Autowired
+    private AccessControlDeviceDao accessControlDeviceDao;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisMessageService redisMessageService;
+
+    /**
+     * 设备ID -> 最后心跳时间（毫秒）
+     */
+    private final Map<Long, AtomicLong> lastSeen = new ConcurrentHashMap<>();
+
+    /**
+     * 上次同步到 Redis 之后本节点收到过心跳的设备
+     */
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 已登记的设备（由定时任务线程整体替换）
+     */
+    private volatile Map<Long, DeviceState> devices = Collections.emptyMap();
+
+    private volatile boolean devicesLoaded;
+    private volatile boolean devicesStale = true;
+    private volatile boolean leader;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final long startedAt = System.currentTimeMillis();
+    private long lastPersist = System.currentTimeMillis();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "device-liveness");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 设备在内存中的状态（只由定时任务线程修改）
+     */
+    private static class DeviceState {
+        private final Long id;
+        private final String name;
+        private Integer onlineStatus;
+        /**
+         * 已写入数据库的最后心跳时间（毫秒）
+         */
+        private long persistedSeen;
+
+        DeviceState(Long id, String name, Integer onlineStatus, long persistedSeen) {
+            this.id = id;
+            this.name = name;
+            this.onlineStatus = onlineStatus;
+            this.persistedSeen = persistedSeen;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.execute(this::reloadDevices);
+        scheduler.scheduleWithFixedDelay(this::check, checkIntervalSeconds, checkIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        if (leader) {
+            try {
+                redisTemplate.execute(RELEASE_LEASE_SCRIPT, List.of(LEADER_KEY), nodeId);
+            } catch (Exception e) {
+                log.debug("释放设备在线状态租约失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 记录一次设备心跳
+     * @return 设备未登记时返回 false
+     */
+    public boolean heartbeat(Long deviceId) {
+        if (deviceId == null || (devicesLoaded && !devices.containsKey(deviceId))) {
+            return false;
+        }
+        AtomicLong seen = lastSeen.get(deviceId);
+        if (seen == null) {
+            seen = lastSeen.computeIfAbsent(deviceId, id -> new AtomicLong());
+        }
+        seen.accumulateAndGet(System.currentTimeMillis(), Math::max);
+        dirty.add(deviceId);
+        return true;
+    }
+
+    /**
+     * 数据变更消息：门禁设备新增、修改、删除后在下次检查时重新加载设备
+     */
+    public void onDataChange(String entityType, Object entityId) {
+        if ("AccessControlDevice".equals(entityType)) {
+            devicesStale = true;
+        }
+    }
+
+    /**
+     * 各设备的最后心跳和在线状态
+     */
+    public Map<String, Object> snapshot() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> list = new ArrayList<>();
+        int online = 0;
+        for (DeviceState state : devices.values()) {
+            AtomicLong seen = lastSeen.get(state.id);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("deviceId", state.id);
+            item.put("deviceName", state.name);
+            item.put("onlineStatus", state.onlineStatus);
+            item.put("lastSeen", seen != null ? toDateTime(seen.get()) : null);
+            item.put("secondsSinceLastSeen", seen != null ? (now - seen.get()) / 1000 : null);
+            list.add(item);
+            if (state.onlineStatus != null && state.onlineStatus == ONLINE) {
+                online++;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("devices", list.size());
+        result.put("online", online);
+        result.put("leader", leader);
+        result.put("list", list);
+        return result;
+    }
+
+    private void check() {
+        try {
+            if (devicesStale) {
+                reloadDevices();
+            }
+            syncWithRedis();
+            boolean wasLeader = leader;
+            leader = acquireLease();
+            if (!leader) {
+                return;
+            }
+            if (!wasLeader) {
+                // 刚接手时以数据库中的状态为准，之前可能由其他节点修改过
+                reloadDevices();
+            }
+            evaluate();
+        } catch (Exception e) {
+            log.error("设备在线状态检查失败", e);
+        }
+    }
+
+    private void reloadDevices() {
+        try {
+            Map<Long, DeviceState> loaded = new HashMap<>();
+            for (AccessControlDevice device : accessControlDeviceDao.selectList(new QueryWrapper<AccessControlDevice>()
+                    .select("id", "device_name", "online_status", "last_heartbeat"))) {
+                long persisted = device.getLastHeartbeat() != null
+                        ? device.getLastHeartbeat().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0;
+                loaded.put(device.getId(), new DeviceState(device.getId(), device.getDeviceName(),
+                        device.getOnlineStatus(), persisted));
+            }
+            devices = loaded;
+            devicesLoaded = true;
+            devicesStale = false;
+            lastSeen.keySet().retainAll(loaded.keySet());
+        } catch (Exception e) {
+            log.warn("加载门禁设备失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 本节点收到的心跳写入 Redis（取较大值），再读回所有节点的心跳
+     */
+    private void syncWithRedis() {
+        List<Long> changed = new ArrayList<>(dirty);
+        dirty.removeAll(changed);
+        try {
+            if (!changed.isEmpty()) {
+                List<String> args = new ArrayList<>(changed.size() * 2 + 1);
+                args.add(String.valueOf(TimeUnit.DAYS.toSeconds(1)));
+                for (Long id : changed) {
+                    AtomicLong seen = lastSeen.get(id);
+                    if (seen != null) {
+                        args.add(String.valueOf(id));
+                        args.add(String.valueOf(seen.get()));
+                    }
+                }
+                redisTemplate.execute(MAX_SEEN_SCRIPT, new StringRedisSerializer(),
+                        new GenericToStringSerializer<>(Long.class), List.of(LAST_SEEN_KEY), args.toArray());
+            }
+            Map<Object, Object> entries = redisTemplate.opsForHash().entries(LAST_SEEN_KEY);
+            Map<Long, DeviceState> known = devices;
+            for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+                Long id = Long.valueOf(String.valueOf(entry.getKey()));
+                if (known.containsKey(id)) {
+                    long seen = Long.parseLong(String.valueOf(entry.getValue()));
+                    lastSeen.computeIfAbsent(id, k -> new AtomicLong()).accumulateAndGet(seen, Math::max);
+                }
+            }
+        } catch (Exception e) {
+            // Redis 不可用时按本节点收到的心跳判断，下次再同步
+            dirty.addAll(changed);
+            log.warn("同步设备心跳到Redis失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 获取或续期判定在线状态的租约，租约为两个检查周期
+     * 续期用脚本比较持有者并延长过期时间，避免读取后租约过期、被其他节点获取时延长了别人的租约；
+     * Redis 不可用时无法确认租约，本轮不判定，避免多个节点同时修改状态
+     */
+    private boolean acquireLease() {
+        try {
+            long ttl = checkIntervalSeconds * 2;
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LEADER_KEY, nodeId, ttl, TimeUnit.SECONDS);
+            if (Boolean.TRUE.equals(acquired)) {
+                return true;
+            }
+            Long renewed = redisTemplate.execute(RENEW_LEASE_SCRIPT, List.of(LEADER_KEY), nodeId, ttl);
+            return renewed != null && renewed == 1L;
+        } catch (Exception e) {
+            if (leader) {
+                log.warn("续期设备在线状态租约失败，暂停判定: {}", e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 判定在线状态，状态变化的设备批量写库并推送通知
+     */
+    private void evaluate() {
+        long now = System.currentTimeMillis();
+        long timeout = TimeUnit.SECONDS.toMillis(offlineAfterSeconds);
+        boolean inGracePeriod = now - startedAt < timeout;
+        List<DeviceState> cameOnline = new ArrayList<>();
+        List<DeviceState> wentOffline = new ArrayList<>();
+        for (DeviceState state : devices.values()) {
+            AtomicLong seen = lastSeen.get(state.id);
+            if (seen == null && inGracePeriod) {
+                continue;
+            }
+            int status = seen != null && now - seen.get() <= timeout ? ONLINE : OFFLINE;
+            if (state.onlineStatus == null || state.onlineStatus != status) {
+                (status == ONLINE ? cameOnline : wentOffline).add(state);
+            }
+        }
+
+        updateStatus(cameOnline, ONLINE);
+        updateStatus(wentOffline, OFFLINE);
+        persistHeartbeats(cameOnline, wentOffline, now);
+    }
+
+    private void updateStatus(List<DeviceState> states, int status) {
+        if (states.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(states.size());
+        for (DeviceState state : states) {
+            ids.add(state.id);
+        }
+        try {
+            accessControlDeviceDao.updateOnlineStatus(ids, status);
+        } catch (Exception e) {
+            log.warn("修改门禁设备在线状态失败，下次重试: status={}, devices={}", status, ids.size(), e);
+            return;
+        }
+        // 首次判定（数据库中没有在线状态）的设备只写库不通知
+        List<DeviceState> notify = new ArrayList<>();
+        for (DeviceState state : states) {
+            if (state.onlineStatus != null) {
+                notify.add(state);
+            }
+            state.onlineStatus = status;
+        }
+        if (!notify.isEmpty()) {
+            notifyTransition(notify, status);
+        }
+    }
+
+    /**
+     * 推送上线/离线通知，设备较多时合并为一条
+     */
+    private void notifyTransition(List<DeviceState> states, int status) {
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < Math.min(states.size(), MAX_NAMES); i++) {
+            DeviceState state = states.get(i);
+            if (i > 0) {
+                names.append("、");
+            }
+            names.append(state.name != null ? state.name : "设备" + state.id);
+        }
+        if (states.size() > MAX_NAMES) {
+            names.append("等").append(states.size()).append("台设备");
+        }
+        boolean online = status == ONLINE;
+        String content = names + (online ? "已恢复在线" : "已离线（超过" + offlineAfterSeconds + "秒未收到心跳）");
+        redisMessageService.publishNotification("admin", online ? "deviceOnline" : "deviceOffline",
+                online ? "门禁设备上线" : "门禁设备离线", content, null);
+        log.info("门禁设备{}: {}", online ? "上线" : "离线", content);
+    }
+
+    /**
+     * 写入最后心跳时间：状态变化的设备立即写，其他设备按写入间隔批量写
+     */
+    private void persistHeartbeats(List<DeviceState> cameOnline, List<DeviceState> wentOffline, long now) {
+        boolean due = now - lastPersist >= TimeUnit.SECONDS.toMillis(persistIntervalSeconds);
+        List<DeviceState> candidates = new ArrayList<>(due ? devices.values() : cameOnline);
+        if (!due) {
+            candidates.addAll(wentOffline);
+        }
+        List<AccessControlDevice> updates = new ArrayList<>();
+        Map<DeviceState, Long> written = new HashMap<>();
+        for (DeviceState state : candidates) {
+            AtomicLong seen = lastSeen.get(state.id);
+            long value = seen != null ? seen.get() : 0;
+            if (value > state.persistedSeen) {
+                AccessControlDevice device = new AccessControlDevice();
+                device.setId(state.id);
+                device.setLastHeartbeat(toDateTime(value));
+                updates.add(device);
+                written.put(state, value);
+            }
+        }
+        if (due) {
+            lastPersist = now;
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            accessControlDeviceDao.updateLastHeartbeat(updates);
+            written.forEach((state, value) -> state.persistedSeen = value);
+        } catch (Exception e) {
+            log.warn("写入门禁设备心跳时间失败: devices={}, error={}", updates.size(), e.getMessage());
+        }
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
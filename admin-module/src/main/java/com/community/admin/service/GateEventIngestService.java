@@ -0,0 +1,591 @@
+package com.community.admin.service;
+
+import com.community.admin.common.util.PlateIndex;
+import com.community.admin.domain.entity.ParkingGateEvent;
+import com.community.admin.domain.entity.ParkingRecord;
+import com.community.admin.domain.entity.Vehicle;
+import com.community.admin.domain.vo.GateEventVO;
+import com.community.admin.mapper.ParkingRecordDao;
+import com.community.admin.mapper.VehicleDao;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 道闸出入事件接入管道
+ * 接口线程只校验事件并放入有界队列，后台线程按 条数/时间 攒批处理：
+ * 按流水号去重（批内 + parking_gate_event 已处理表），入场事件新建停车记录并登记到内存中的在场车辆表（按规范化车牌），
+ * 出场事件按车牌匹配在场车辆、计算停车时长；找不到入场的出场事件单独记为一条无入场的停车记录。
+ * 一批事件的新增记录、出场更新和已处理流水号在同一事务中用多行 INSERT / 单条 UPDATE 写入，失败时整批回滚并恢复在场车辆表，
+ * 已确认接收的事件保留在内存中按递增的间隔重试，重试期间不再取新事件，队列满后新事件被拒绝，由道闸重传（按流水号幂等）。
+ * 启动时从数据库恢复未出场的记录。
+ * 队列深度、处理数、重复数、无入场出场数等指标通过 actuator 的 metrics 端点暴露（community.gate.*）
+ */
+@Slf4j
+@Service
+public class GateEventIngestService {
+
+    private static final String UNPAID = "未支付";
+
+    @Value("${community.gate.ingest.capacity:50000}")
+    private int capacity;
+
+    @Value("${community.gate.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${community.gate.ingest.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${community.gate.ingest.open-session-days:7}")
+    private int openSessionDays;
+
+    @Value("${community.gate.ingest.dedup-retention-days:30}")
+    private int dedupRetentionDays;
+
+    @Value("${community.gate.ingest.retry-max-backoff-ms:30000}")
+    private long retryMaxBackoffMs;
+
+    @Autowired
+    private ParkingRecordDao parkingRecordDao;
+
+    @Autowired
+    private VehicleDao vehicleDao;
+
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
+
+    @Autowired
+    private ParkingFeeService parkingFeeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<GateEventVO> queue;
+
+    /**
+     * 在场车辆：规范化车牌 -> 未出场的停车记录（只由写入线程修改）
+     */
+    private final Map<String, ParkingRecord> openSessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong entries = new AtomicLong();
+    private final AtomicLong exits = new AtomicLong();
+    private final AtomicLong unmatchedExits = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * 已处理完（写入或重复）的事件数
+     */
+    private final AtomicLong handled = new AtomicLong();
+
+    /**
+     * 写入失败等待重试的事件（已去重），只由写入线程访问
+     */
+    private final List<GateEventVO> retryEvents = new ArrayList<>();
+    private final AtomicInteger retryPending = new AtomicInteger();
+    private long retryBackoffMs;
+    private long retryAt;
+
+    private volatile boolean running;
+    private volatile boolean sessionsLoaded;
+    private long lastCleanup;
+    private Thread writer;
+
+    /**
+     * 一次提交的结果
+     */
+    public static class SubmitResult {
+        private final int accepted;
+        private final int invalid;
+        private final int rejected;
+
+        SubmitResult(int accepted, int invalid, int rejected) {
+            this.accepted = accepted;
+            this.invalid = invalid;
+            this.rejected = rejected;
+        }
+
+        public int getAccepted() {
+            return accepted;
+        }
+
+        public int getInvalid() {
+            return invalid;
+        }
+
+        public int getRejected() {
+            return rejected;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            parkingRecordDao.createGateEventTable();
+        } catch (Exception e) {
+            log.warn("创建道闸事件表失败: {}", e.getMessage());
+        }
+
+        queue = new ArrayBlockingQueue<>(capacity);
+        Gauge.builder("community.gate.queue.depth", queue, BlockingQueue::size)
+                .description("待处理的道闸事件数").register(meterRegistry);
+        Gauge.builder("community.gate.open.sessions", openSessions, Map::size)
+                .description("在场车辆数").register(meterRegistry);
+        Gauge.builder("community.gate.retry.pending", retryPending, AtomicInteger::get)
+                .description("写入失败等待重试的道闸事件数").register(meterRegistry);
+        FunctionCounter.builder("community.gate.received", received, AtomicLong::get)
+                .description("入队的道闸事件数").register(meterRegistry);
+        FunctionCounter.builder("community.gate.rejected", rejected, AtomicLong::get)
+                .description("队列已满被拒绝的道闸事件数").register(meterRegistry);
+        FunctionCounter.builder("community.gate.duplicates", duplicates, AtomicLong::get)
+                .description("重复上报的道闸事件数").register(meterRegistry);
+        FunctionCounter.builder("community.gate.entries", entries, AtomicLong::get)
+                .description("写入的入场事件数").register(meterRegistry);
+        FunctionCounter.builder("community.gate.exits", exits, AtomicLong::get)
+                .description("写入的出场事件数").register(meterRegistry);
+        FunctionCounter.builder("community.gate.exits.unmatched", unmatchedExits, AtomicLong::get)
+                .description("找不到入场记录的出场事件数").register(meterRegistry);
+        FunctionCounter.builder("community.gate.failed", failed, AtomicLong::get)
+                .description("写入失败（等待重试）的道闸事件次数").register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::runWriter, "gate-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 应用关闭时通知写入线程停止，由写入线程把等待重试和队列中剩余的事件处理完（各尝试一次）后退出
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (writer.isAlive()) {
+                log.warn("道闸事件写入线程未在 5 秒内结束，剩余事件由写入线程继续处理");
+            }
+        }
+        log.info("道闸事件管道已停止: entries={}, exits={}, duplicates={}, failed={}",
+                entries.get(), exits.get(), duplicates.get(), failed.get());
+    }
+
+    /**
+     * 提交一批道闸事件，立即返回；缺少必填项的事件直接丢弃，队列已满时其余事件被拒绝，由道闸稍后重传
+     */
+    public SubmitResult submit(List<GateEventVO> events) {
+        int accepted = 0;
+        int invalidCount = 0;
+        int rejectedCount = 0;
+        for (GateEventVO event : events) {
+            if (!isValid(event)) {
+                invalidCount++;
+                continue;
+            }
+            if (rejectedCount == 0 && queue.offer(event)) {
+                accepted++;
+            } else {
+                rejectedCount++;
+            }
+        }
+        received.addAndGet(accepted);
+        invalid.addAndGet(invalidCount);
+        if (rejectedCount > 0) {
+            long count = rejected.addAndGet(rejectedCount);
+            log.warn("道闸事件队列已满，拒绝事件: rejected={}, total={}", rejectedCount, count);
+        }
+        return new SubmitResult(accepted, invalidCount, rejectedCount);
+    }
+
+    /**
+     * 已处理完的事件数
+     */
+    public long handledCount() {
+        return handled.get();
+    }
+
+    /**
+     * 当前计数快照
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("received", received.get());
+        stats.put("rejected", rejected.get());
+        stats.put("invalid", invalid.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("entries", entries.get());
+        stats.put("exits", exits.get());
+        stats.put("unmatchedExits", unmatchedExits.get());
+        stats.put("failed", failed.get());
+        stats.put("retryPending", retryPending.get());
+        stats.put("queueDepth", queue.size());
+        stats.put("openSessions", openSessions.size());
+        return stats;
+    }
+
+    private boolean isValid(GateEventVO event) {
+        return event != null
+                && event.getTransactionNo() != null && !event.getTransactionNo().isBlank()
+                && event.getTransactionNo().length() <= 64
+                && !PlateIndex.normalize(event.getPlateNumber()).isEmpty()
+                && event.getEventTime() != null
+                && (GateEventVO.ENTRY.equals(event.getEventType()) || GateEventVO.EXIT.equals(event.getEventType()));
+    }
+
+    private void runWriter() {
+        List<GateEventVO> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                // 在场车辆恢复之前不处理事件，否则出场事件都会变成无入场记录
+                if (!sessionsLoaded && !loadOpenSessions()) {
+                    Thread.sleep(Math.max(flushIntervalMs, 1000));
+                    continue;
+                }
+                // 失败的批次写入成功之前不取新事件，保持事件顺序
+                if (!retryEvents.isEmpty()) {
+                    long wait = retryAt - System.currentTimeMillis();
+                    if (wait > 0) {
+                        Thread.sleep(wait);
+                    }
+                    write(new ArrayList<>(retryEvents));
+                    continue;
+                }
+                GateEventVO first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    long deadline = System.currentTimeMillis() + flushIntervalMs;
+                    while (batch.size() < batchSize && running) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (batch.size() >= batchSize || remaining <= 0) {
+                            break;
+                        }
+                        GateEventVO next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    write(batch);
+                    batch.clear();
+                }
+                cleanupProcessedEvents();
+            } catch (InterruptedException e) {
+                // 关闭时中断等待，未写入的批次在退出前处理
+                retryEvents.addAll(batch);
+                batch.clear();
+                break;
+            } catch (Exception e) {
+                log.error("道闸事件处理线程异常", e);
+            }
+        }
+        drainOnStop();
+    }
+
+    /**
+     * 写入线程退出前把等待重试和队列中剩余的事件处理完（各尝试一次），仍失败的记录流水号
+     */
+    private void drainOnStop() {
+        // 清除中断标记，避免影响收尾的数据库写入
+        Thread.interrupted();
+        if (!sessionsLoaded) {
+            return;
+        }
+        List<GateEventVO> lost = new ArrayList<>(process(new ArrayList<>(retryEvents)));
+        retryEvents.clear();
+        List<GateEventVO> batch = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            lost.addAll(process(batch));
+            batch.clear();
+        }
+        retryPending.set(lost.size());
+        if (!lost.isEmpty()) {
+            log.error("关闭时道闸事件写入失败，未写入: size={}, transactionNos={}", lost.size(),
+                    lost.stream().map(GateEventVO::getTransactionNo).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * 从数据库恢复未出场的停车记录
+     */
+    private boolean loadOpenSessions() {
+        try {
+            List<ParkingRecord> records = parkingRecordDao.selectOpenSessions(LocalDateTime.now().minusDays(openSessionDays));
+            for (ParkingRecord record : records) {
+                String key = PlateIndex.normalize(record.getPlateNumber());
+                if (!key.isEmpty()) {
+                    // 按入场时间升序，同一车牌保留最近一次入场
+                    openSessions.put(key, record);
+                }
+            }
+            sessionsLoaded = true;
+            log.info("道闸在场车辆已恢复: {}", openSessions.size());
+            return true;
+        } catch (Exception e) {
+            log.warn("恢复在场车辆失败，稍后重试: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 处理一批事件，未写入的事件留待重试，连续失败时重试间隔加倍（不超过上限）
+     */
+    private void write(List<GateEventVO> batch) {
+        List<GateEventVO> remaining = process(batch);
+        retryEvents.clear();
+        retryEvents.addAll(remaining);
+        retryPending.set(remaining.size());
+        if (remaining.isEmpty()) {
+            retryBackoffMs = 0;
+            return;
+        }
+        retryBackoffMs = retryBackoffMs == 0 ? Math.max(flushIntervalMs, 100)
+                : Math.min(retryBackoffMs * 2, retryMaxBackoffMs);
+        retryAt = System.currentTimeMillis() + retryBackoffMs;
+        log.warn("道闸事件写入失败，{}ms 后重试: size={}", retryBackoffMs, remaining.size());
+    }
+
+    /**
+     * 处理一批事件
+     * @return 写入失败的事件（已去重，在场车辆表已恢复），全部写入或重复时为空列表
+     */
+    private List<GateEventVO> process(List<GateEventVO> batch) {
+        // 批内按流水号去重，再排除已处理过的流水号
+        Map<String, GateEventVO> unique = new LinkedHashMap<>();
+        for (GateEventVO event : batch) {
+            if (unique.putIfAbsent(event.getTransactionNo(), event) != null) {
+                duplicates.incrementAndGet();
+                handled.incrementAndGet();
+            }
+        }
+        try {
+            for (String no : parkingRecordDao.selectProcessedEventNos(unique.keySet())) {
+                if (unique.remove(no) != null) {
+                    duplicates.incrementAndGet();
+                    handled.incrementAndGet();
+                }
+            }
+        } catch (Exception e) {
+            failed.addAndGet(unique.size());
+            log.warn("查询已处理道闸事件失败: size={}", unique.size(), e);
+            return new ArrayList<>(unique.values());
+        }
+        if (unique.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<GateEventVO> events = new ArrayList<>(unique.values());
+        events.sort(Comparator.comparing(GateEventVO::getEventTime));
+        Map<String, Vehicle> vehicles = loadVehicles(events);
+
+        List<ParkingRecord> inserts = new ArrayList<>();
+        List<ParkingRecord> updates = new ArrayList<>();
+        List<ParkingRecord> targets = new ArrayList<>(events.size());
+        // 本批修改前的在场车辆，写入失败时据此恢复
+        Map<String, ParkingRecord> undo = new HashMap<>();
+        int entryCount = 0;
+        int exitCount = 0;
+        int unmatchedCount = 0;
+
+        for (GateEventVO event : events) {
+            String key = PlateIndex.normalize(event.getPlateNumber());
+            if (!undo.containsKey(key)) {
+                undo.put(key, openSessions.get(key));
+            }
+            if (GateEventVO.ENTRY.equals(event.getEventType())) {
+                ParkingRecord record = newRecord(event, vehicles.get(key));
+                record.setEntryTime(event.getEventTime());
+                inserts.add(record);
+                targets.add(record);
+                // 同一车牌未出场又入场（漏记出场）时，旧记录保持未出场，以新的入场为准
+                openSessions.put(key, record);
+                entryCount++;
+                continue;
+            }
+
+            ParkingRecord open = openSessions.get(key);
+            if (open != null && !event.getEventTime().isBefore(open.getEntryTime())) {
+                openSessions.remove(key);
+                targets.add(open.getId() == null ? closePending(open, event) : closeStored(open, event, updates));
+                exitCount++;
+            } else {
+                ParkingRecord record = newRecord(event, vehicles.get(key));
+                record.setExitTime(event.getEventTime());
+                record.setPaymentStatus(UNPAID);
+                record.setRemark("无入场记录");
+                inserts.add(record);
+                targets.add(record);
+                unmatchedCount++;
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!inserts.isEmpty()) {
+                    parkingRecordDao.insertBatch(inserts);
+                }
+                if (!updates.isEmpty()) {
+                    parkingRecordDao.updateExitBatch(updates);
+                }
+                List<ParkingGateEvent> processed = new ArrayList<>(events.size());
+                for (int i = 0; i < events.size(); i++) {
+                    GateEventVO event = events.get(i);
+                    processed.add(new ParkingGateEvent(event.getTransactionNo(), event.getEventType(),
+                            targets.get(i).getId(), event.getEventTime()));
+                }
+                parkingRecordDao.insertGateEvents(processed);
+            });
+        } catch (Exception e) {
+            for (Map.Entry<String, ParkingRecord> entry : undo.entrySet()) {
+                if (entry.getValue() == null) {
+                    openSessions.remove(entry.getKey());
+                } else {
+                    openSessions.put(entry.getKey(), entry.getValue());
+                }
+            }
+            failed.addAndGet(events.size());
+            log.warn("写入道闸事件失败，本批回滚: size={}", events.size(), e);
+            return events;
+        }
+
+        entries.addAndGet(entryCount);
+        exits.addAndGet(exitCount + unmatchedCount);
+        unmatchedExits.addAndGet(unmatchedCount);
+        handled.addAndGet(events.size());
+        plateSearchIndex.indexParkingRecords(inserts);
+        return Collections.emptyList();
+    }
+
+    /**
+     * 本批内入场又出场的记录：还未写入，直接带上出场信息插入
+     */
+    private ParkingRecord closePending(ParkingRecord record, GateEventVO exit) {
+        int minutes = durationMinutes(record.getEntryTime(), exit.getEventTime());
+        record.setExitTime(exit.getEventTime());
+        record.setDurationMinutes(minutes);
+        record.setParkingFee(parkingFeeService.feeFor(record.getParkingLotId(), record.getVehicleId(), minutes));
+        record.setPaymentStatus(UNPAID);
+        return record;
+    }
+
+    /**
+     * 已入库的记录：生成出场更新，不修改在场车辆表中的原对象（失败时还要恢复）
+     */
+    private ParkingRecord closeStored(ParkingRecord record, GateEventVO exit, List<ParkingRecord> updates) {
+        ParkingRecord update = new ParkingRecord();
+        update.setId(record.getId());
+        update.setPlateNumber(record.getPlateNumber());
+        update.setVehicleId(record.getVehicleId());
+        update.setParkingLotId(record.getParkingLotId());
+        update.setEntryTime(record.getEntryTime());
+        int minutes = durationMinutes(record.getEntryTime(), exit.getEventTime());
+        update.setExitTime(exit.getEventTime());
+        update.setDurationMinutes(minutes);
+        update.setParkingFee(parkingFeeService.feeFor(record.getParkingLotId(), record.getVehicleId(), minutes));
+        update.setPaymentStatus(UNPAID);
+        updates.add(update);
+        return update;
+    }
+
+    private ParkingRecord newRecord(GateEventVO event, Vehicle vehicle) {
+        ParkingRecord record = new ParkingRecord();
+        record.setPlateNumber(event.getPlateNumber().trim());
+        record.setVehicleType(event.getVehicleType());
+        record.setParkingLotId(event.getParkingLotId());
+        record.setGateNo(event.getGateNo());
+        record.setTransactionNo(event.getTransactionNo());
+        if (vehicle != null) {
+            record.setVehicleId(vehicle.getId());
+            record.setOwnerId(vehicle.getOwnerId());
+            if (record.getVehicleType() == null) {
+                record.setVehicleType(vehicle.getVehicleType());
+            }
+        }
+        return record;
+    }
+
+    /**
+     * 一次查询本批涉及的登记车辆（车牌到车辆ID的对应由车牌索引给出）
+     * @return 规范化车牌 -> 车辆
+     */
+    private Map<String, Vehicle> loadVehicles(List<GateEventVO> events) {
+        Map<Long, String> plateByVehicleId = new HashMap<>();
+        for (GateEventVO event : events) {
+            Long id = plateSearchIndex.findVehicleId(event.getPlateNumber());
+            if (id != null) {
+                plateByVehicleId.put(id, PlateIndex.normalize(event.getPlateNumber()));
+            }
+        }
+        Map<String, Vehicle> vehicles = new HashMap<>();
+        if (plateByVehicleId.isEmpty()) {
+            return vehicles;
+        }
+        try {
+            for (Vehicle vehicle : vehicleDao.selectBatchIds(plateByVehicleId.keySet())) {
+                vehicles.put(plateByVehicleId.get(vehicle.getId()), vehicle);
+            }
+        } catch (Exception e) {
+            log.warn("查询登记车辆失败，本批停车记录不关联车辆: {}", e.getMessage());
+        }
+        return vehicles;
+    }
+
+    private static int durationMinutes(LocalDateTime entryTime, LocalDateTime exitTime) {
+        return (int) Math.max(0, Duration.between(entryTime, exitTime).toMinutes());
+    }
+
+    /**
+     * 每小时删除一次超过保留天数的已处理流水号
+     */
+    private void cleanupProcessedEvents() {
+        long now = System.currentTimeMillis();
+        if (now - lastCleanup < TimeUnit.HOURS.toMillis(1)) {
+            return;
+        }
+        lastCleanup = now;
+        try {
+            LocalDateTime before = LocalDateTime.now().minusDays(dedupRetentionDays);
+            int deleted;
+            do {
+                deleted = parkingRecordDao.deleteGateEventsBefore(before, 10000);
+            } while (deleted >= 10000 && running);
+        } catch (Exception e) {
+            log.warn("清理已处理道闸事件失败: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.community.admin.service;
+
+import com.community.admin.domain.entity.ParkingLot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 停车场计费规则（由 {@link ParkingLot} 的收费字段编译而成，不可变）
+ * 金额统一换算为分、时长为分钟，计算过程只有整数运算，不创建对象。
+ * 计费方式：
+ * 1. 停车时长不超过免费时长时不收费，超过后从入场开始计费（免费时长不抵扣）；
+ * 2. 每 24 小时为一个计费周期，周期内首段时长收首段费用，超出部分每个单位时长（不足按一个单位）收单位费用，
+ *    周期内费用不超过每日封顶；
+ * 3. 多日停车 = 完整周期数 × 完整周期费用 + 最后不足 24 小时部分的费用。
+ * 未配置首段时长/费用时只按单位计费，未配置单位时长时首段之后不再加收，未配置封顶时不封顶
+ */
+public final class ParkingFeeRule {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final long lotId;
+    private final int freeMinutes;
+    private final int firstMinutes;
+    private final long firstCents;
+    private final int unitMinutes;
+    private final long unitCents;
+    /**
+     * 每日封顶（分），小于 0 表示不封顶
+     */
+    private final long dailyCapCents;
+    /**
+     * 完整一个周期的费用（已封顶），编译时预先算好
+     */
+    private final long fullDayCents;
+
+    private ParkingFeeRule(long lotId, int freeMinutes, int firstMinutes, long firstCents,
+                           int unitMinutes, long unitCents, long dailyCapCents) {
+        this.lotId = lotId;
+        this.freeMinutes = freeMinutes;
+        this.firstMinutes = firstMinutes;
+        this.firstCents = firstCents;
+        this.unitMinutes = unitMinutes;
+        this.unitCents = unitCents;
+        this.dailyCapCents = dailyCapCents;
+        this.fullDayCents = periodCents(MINUTES_PER_DAY);
+    }
+
+    /**
+     * 编译停车场的收费字段
+     */
+    public static ParkingFeeRule compile(ParkingLot lot) {
+        return of(lot.getId() != null ? lot.getId() : 0L,
+                lot.getFreeDuration(), lot.getFirstDuration(), lot.getFirstFee(),
+                lot.getUnitDuration(), lot.getUnitFee(), lot.getDailyMaxFee());
+    }
+
+    /**
+     * 按收费参数编译（为空的参数视为未配置）
+     */
+    public static ParkingFeeRule of(long lotId, Integer freeDuration, Integer firstDuration, BigDecimal firstFee,
+                                    Integer unitDuration, BigDecimal unitFee, BigDecimal dailyMaxFee) {
+        return new ParkingFeeRule(lotId,
+                nonNegative(freeDuration),
+                nonNegative(firstDuration),
+                toCents(firstFee),
+                nonNegative(unitDuration),
+                toCents(unitFee),
+                dailyMaxFee != null && dailyMaxFee.signum() > 0 ? toCents(dailyMaxFee) : -1);
+    }
+
+    /**
+     * 计算停车费用
+     * @param minutes 停车时长（分钟）
+     * @return 费用（分）
+     */
+    public long feeCents(long minutes) {
+        if (minutes <= 0 || minutes <= freeMinutes) {
+            return 0;
+        }
+        long days = minutes / MINUTES_PER_DAY;
+        int remainder = (int) (minutes % MINUTES_PER_DAY);
+        return days * fullDayCents + (remainder > 0 ? periodCents(remainder) : 0);
+    }
+
+    /**
+     * 计算停车费用（元，保留两位小数）
+     */
+    public BigDecimal fee(long minutes) {
+        return BigDecimal.valueOf(feeCents(minutes), 2);
+    }
+
+    public long getLotId() {
+        return lotId;
+    }
+
+    /**
+     * 一个计费周期内（不超过 24 小时）的费用，已封顶
+     */
+    private long periodCents(int minutes) {
+        long cents;
+        if (minutes <= firstMinutes) {
+            cents = firstCents;
+        } else if (unitMinutes <= 0) {
+            cents = firstCents;
+        } else {
+            long units = (minutes - firstMinutes + unitMinutes - 1) / unitMinutes;
+            cents = firstCents + units * unitCents;
+        }
+        return dailyCapCents >= 0 && cents > dailyCapCents ? dailyCapCents : cents;
+    }
+
+    private static int nonNegative(Integer value) {
+        return value != null && value > 0 ? value : 0;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return 0;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    @Override
+    public String toString() {
+        return "ParkingFeeRule{lotId=" + lotId + ", free=" + freeMinutes + "m, first=" + firstMinutes + "m/" + firstCents
+                + ", unit=" + unitMinutes + "m/" + unitCents + ", dailyCap=" + dailyCapCents + "}";
+    }
+}
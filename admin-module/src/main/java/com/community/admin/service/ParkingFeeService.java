@@ -0,0 +1,287 @@
+package com.community.admin.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.admin.domain.entity.ParkingLot;
+import com.community.admin.domain.entity.ParkingRecord;
+import com.community.admin.domain.entity.ParkingSpace;
+import com.community.admin.mapper.ParkingLotDao;
+import com.community.admin.mapper.ParkingRecordDao;
+import com.community.admin.mapper.ParkingSpaceDao;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 停车费用计算
+ * 每个停车场的收费字段编译为不可变的 {@link ParkingFeeRule} 并缓存，出场时直接按规则计算费用；
+ * 停车场或车位变更（数据变更消息）时使缓存失效，下次使用时重新编译；
+ * 失效时递增版本号，加载期间发生失效的结果不写入缓存，避免旧数据覆盖失效。
+ * 在停车场绑定了车位的车辆视为月租车，临停费用为 0。
+ * 支持按月批量重新计费：按ID分批读取当月出场的记录，多线程计算并写回，已支付的记录不修改
+ */
+@Slf4j
+@Service
+public class ParkingFeeService {
+
+    private static final String UNPAID = "未支付";
+
+    @Value("${community.parking-fee.reprice-threads:4}")
+    private int repriceThreads;
+
+    @Value("${community.parking-fee.reprice-batch-size:1000}")
+    private int repriceBatchSize;
+
+    @Autowired
+    private ParkingLotDao parkingLotDao;
+
+    @Autowired
+    private ParkingSpaceDao parkingSpaceDao;
+
+    @Autowired
+    private ParkingRecordDao parkingRecordDao;
+
+    /**
+     * 停车场ID -> 计费规则
+     */
+    private final Map<Long, ParkingFeeRule> rules = new ConcurrentHashMap<>();
+
+    /**
+     * 计费规则失效次数，编译期间有变化时不写入缓存
+     */
+    private final AtomicLong rulesVersion = new AtomicLong();
+
+    /**
+     * 月租车辆（停车场ID -> 车辆ID）及加载时的版本；版本落后时重新加载
+     */
+    private volatile MonthlyVehicles monthlyVehicles;
+
+    private final AtomicLong monthlyVersion = new AtomicLong();
+
+    private static final class MonthlyVehicles {
+        private final long version;
+        private final Map<Long, Set<Long>> vehicles;
+
+        MonthlyVehicles(long version, Map<Long, Set<Long>> vehicles) {
+            this.version = version;
+            this.vehicles = vehicles;
+        }
+    }
+
+    private ExecutorService repriceExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        repriceExecutor = Executors.newFixedThreadPool(repriceThreads, r -> {
+            Thread t = new Thread(r, "parking-reprice-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        repriceExecutor.shutdownNow();
+    }
+
+    /**
+     * 取停车场的计费规则，首次使用时编译
+     * @return 计费规则，停车场不存在时返回 null
+     */
+    public ParkingFeeRule ruleFor(Long lotId) {
+        if (lotId == null) {
+            return null;
+        }
+        ParkingFeeRule rule = rules.get(lotId);
+        if (rule != null) {
+            return rule;
+        }
+        long version = rulesVersion.get();
+        ParkingLot lot = parkingLotDao.selectById(lotId);
+        if (lot == null) {
+            return null;
+        }
+        ParkingFeeRule compiled = ParkingFeeRule.compile(lot);
+        // 失效先递增版本再删除缓存，这里在同一个桶锁内比较版本，读取之后发生的失效不会被覆盖
+        rules.compute(lotId, (id, cached) -> rulesVersion.get() == version ? compiled : cached);
+        return compiled;
+    }
+
+    /**
+     * 计算一次停车的费用
+     * @param lotId 停车场ID
+     * @param vehicleId 登记车辆ID，外来车辆为空
+     * @param minutes 停车时长（分钟）
+     * @return 费用；停车场未知时返回 null
+     */
+    public BigDecimal feeFor(Long lotId, Long vehicleId, long minutes) {
+        ParkingFeeRule rule = ruleFor(lotId);
+        if (rule == null) {
+            return null;
+        }
+        if (isMonthly(lotId, vehicleId)) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return rule.fee(minutes);
+    }
+
+    /**
+     * 车辆是否在该停车场有绑定车位（月租）
+     */
+    public boolean isMonthly(Long lotId, Long vehicleId) {
+        if (lotId == null || vehicleId == null) {
+            return false;
+        }
+        MonthlyVehicles monthly = monthlyVehicles;
+        if (monthly == null || monthly.version != monthlyVersion.get()) {
+            monthly = loadMonthlyVehicles();
+        }
+        return monthly.vehicles.getOrDefault(lotId, Collections.emptySet()).contains(vehicleId);
+    }
+
+    /**
+     * 数据变更消息：停车场变更使该停车场的规则失效，车位变更使月租车辆失效
+     */
+    public void onDataChange(String entityType, Object entityId) {
+        if ("ParkingLot".equals(entityType)) {
+            Long lotId = null;
+            if (entityId != null) {
+                try {
+                    lotId = Long.valueOf(String.valueOf(entityId));
+                } catch (NumberFormatException e) {
+                    // 按全部失效处理
+                }
+            }
+            invalidateRules(lotId);
+        } else if ("ParkingSpace".equals(entityType)) {
+            monthlyVersion.incrementAndGet();
+        }
+    }
+
+    /**
+     * 使停车场的计费规则失效，lotId 为空时全部失效
+     */
+    private void invalidateRules(Long lotId) {
+        rulesVersion.incrementAndGet();
+        if (lotId != null) {
+            rules.remove(lotId);
+        } else {
+            rules.clear();
+        }
+    }
+
+    /**
+     * 按月重新计费
+     * @param month 出场月份
+     * @param lotId 停车场ID，为空时处理全部停车场
+     * @return 扫描数、费用有变化的记录数、实际更新数、耗时
+     */
+    public Map<String, Object> repriceMonth(YearMonth month, Long lotId) {
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        AtomicLong changed = new AtomicLong();
+        AtomicLong updated = new AtomicLong();
+        long scanned = 0;
+        long start = System.currentTimeMillis();
+        // 按当前的收费字段重新编译规则
+        invalidateRules(lotId);
+
+        // 读取在调用线程按ID顺序进行，计算和写回分给计费线程池
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            List<ParkingRecord> chunk = parkingRecordDao.selectForReprice(from, to, lotId, afterId, repriceBatchSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            scanned += chunk.size();
+            afterId = chunk.get(chunk.size() - 1).getId();
+            futures.add(CompletableFuture.runAsync(() -> repriceChunk(chunk, changed, updated), repriceExecutor));
+            if (chunk.size() < repriceBatchSize) {
+                break;
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("month", month.toString());
+        result.put("lotId", lotId);
+        result.put("scanned", scanned);
+        result.put("changed", changed.get());
+        result.put("updated", updated.get());
+        result.put("elapsedMs", System.currentTimeMillis() - start);
+        log.info("停车费用重新计算完成: {}", result);
+        return result;
+    }
+
+    private void repriceChunk(List<ParkingRecord> chunk, AtomicLong changed, AtomicLong updated) {
+        List<ParkingRecord> changes = new ArrayList<>();
+        for (ParkingRecord record : chunk) {
+            if (record.getEntryTime() == null || record.getExitTime() == null
+                    || (record.getPaymentStatus() != null && !UNPAID.equals(record.getPaymentStatus()))) {
+                continue;
+            }
+            long minutes = record.getDurationMinutes() != null
+                    ? record.getDurationMinutes()
+                    : Math.max(0, Duration.between(record.getEntryTime(), record.getExitTime()).toMinutes());
+            BigDecimal fee = feeFor(record.getParkingLotId(), record.getVehicleId(), minutes);
+            if (fee == null || (record.getParkingFee() != null && record.getParkingFee().compareTo(fee) == 0)) {
+                continue;
+            }
+            ParkingRecord change = new ParkingRecord();
+            change.setId(record.getId());
+            change.setParkingFee(fee);
+            changes.add(change);
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        changed.addAndGet(changes.size());
+        updated.addAndGet(parkingRecordDao.updateFeeBatch(changes));
+    }
+
+    /**
+     * 加载月租车辆，记录加载前的版本；加载期间车位变更时版本已落后，下次使用时再加载
+     */
+    private synchronized MonthlyVehicles loadMonthlyVehicles() {
+        long version = monthlyVersion.get();
+        MonthlyVehicles current = monthlyVehicles;
+        if (current != null && current.version == version) {
+            return current;
+        }
+        Map<Long, Set<Long>> monthly = new HashMap<>();
+        List<ParkingSpace> spaces = parkingSpaceDao.selectList(new QueryWrapper<ParkingSpace>()
+                .select("parking_lot_id", "vehicle_id")
+                .isNotNull("vehicle_id"));
+        for (ParkingSpace space : spaces) {
+            if (space.getParkingLotId() != null) {
+                monthly.computeIfAbsent(space.getParkingLotId(), k -> new HashSet<>()).add(space.getVehicleId());
+            }
+        }
+        current = new MonthlyVehicles(version, monthly);
+        monthlyVehicles = current;
+        return current;
+    }
+}
@@ -0,0 +1,284 @@
+package com.community.admin.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.admin.common.util.PlateIndex;
+import com.community.admin.domain.entity.ParkingRecord;
+import com.community.admin.domain.entity.Vehicle;
+import com.community.admin.mapper.ParkingRecordDao;
+import com.community.admin.mapper.VehicleDao;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 车牌检索索引
+ * 车辆（全部）和近期停车记录（入场时间在保留天数内）的车牌号保存在内存索引中，
+ * 按车牌片段搜索时先在索引中找出记录ID，再按ID查询，代替 plate_number 上的 LIKE '%片段%' 全表扫描。
+ * 启动后在后台全量构建，之后随车辆、停车记录的数据变更消息（含本模块）逐条刷新，超出保留天数的停车记录定期移出；
+ * 索引就绪前检索返回 null，调用方回退到数据库检索
+ */
+@Slf4j
+@Service
+public class PlateSearchIndex {
+
+    @Value("${community.plate-index.parking-record-days:90}")
+    private int parkingRecordDays;
+
+    @Value("${community.plate-index.prune-interval-minutes:60}")
+    private long pruneIntervalMinutes;
+
+    @Autowired
+    private VehicleDao vehicleDao;
+
+    @Autowired
+    private ParkingRecordDao parkingRecordDao;
+
+    /**
+     * 全量重建时构建新索引后整体替换，检索不会看到构建到一半的索引
+     */
+    private volatile PlateIndex vehicles = new PlateIndex();
+    private volatile PlateIndex parkingRecords = new PlateIndex();
+
+    /**
+     * 已索引的停车记录ID -> 入场时间，用于移出超出保留天数的记录
+     */
+    private volatile Map<Long, LocalDateTime> recordEntryTimes = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * 索引更新在单线程中串行执行，避免阻塞Redis监听线程
+     */
+    private final ScheduledExecutorService indexExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "plate-index");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 应用启动完成后在后台全量构建索引，并定期移出过期的停车记录
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        indexExecutor.execute(this::rebuild);
+        indexExecutor.scheduleWithFixedDelay(this::prune, pruneIntervalMinutes, pruneIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexExecutor.shutdownNow();
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public void rebuild() {
+        try {
+            PlateIndex newVehicles = new PlateIndex();
+            for (Vehicle vehicle : vehicleDao.selectList(new QueryWrapper<Vehicle>().select("id", "plate_number"))) {
+                newVehicles.put(vehicle.getId(), vehicle.getPlateNumber());
+            }
+
+            PlateIndex newRecords = new PlateIndex();
+            Map<Long, LocalDateTime> newEntryTimes = new ConcurrentHashMap<>();
+            List<ParkingRecord> records = parkingRecordDao.selectList(new QueryWrapper<ParkingRecord>()
+                    .select("id", "plate_number", "entry_time")
+                    .ge("entry_time", cutoff()));
+            for (ParkingRecord record : records) {
+                newRecords.put(record.getId(), record.getPlateNumber());
+                newEntryTimes.put(record.getId(), record.getEntryTime());
+            }
+
+            vehicles = newVehicles;
+            parkingRecords = newRecords;
+            recordEntryTimes = newEntryTimes;
+            ready = true;
+            log.info("车牌检索索引构建完成: vehicles={}, parkingRecords={}", newVehicles.size(), newRecords.size());
+        } catch (Exception e) {
+            log.error("车牌检索索引构建失败", e);
+        }
+    }
+
+    /**
+     * 数据变更消息：车辆、停车记录新增、修改、删除时刷新对应记录，无实体ID的批量变更全量重建
+     */
+    public void onDataChange(String entityType, Object entityId) {
+        if (!"Vehicle".equals(entityType) && !"ParkingRecord".equals(entityType)) {
+            return;
+        }
+        if (entityId == null) {
+            indexExecutor.execute(this::rebuild);
+            return;
+        }
+        Long id;
+        try {
+            id = Long.valueOf(String.valueOf(entityId));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        indexExecutor.execute(() -> {
+            try {
+                if ("Vehicle".equals(entityType)) {
+                    Vehicle vehicle = vehicleDao.selectById(id);
+                    if (vehicle == null) {
+                        vehicles.remove(id);
+                    } else {
+                        vehicles.put(id, vehicle.getPlateNumber());
+                    }
+                } else {
+                    refreshParkingRecord(id, parkingRecordDao.selectById(id));
+                }
+            } catch (Exception e) {
+                log.error("刷新车牌检索索引失败: entityType={}, id={}", entityType, id, e);
+            }
+        });
+    }
+
+    /**
+     * 查找车牌包含该片段的车辆
+     * @param plate 车牌片段
+     * @param limit 最多返回数量
+     * @return 车辆ID；索引尚未就绪时返回 null
+     */
+    public List<Long> searchVehicles(String plate, int limit) {
+        return ready ? vehicles.search(plate, limit) : null;
+    }
+
+    /**
+     * 查找车牌包含该片段的近期停车记录（入场时间在保留天数内）
+     * @param plate 车牌片段
+     * @param limit 最多返回数量
+     * @return 停车记录ID；索引尚未就绪时返回 null
+     */
+    public List<Long> searchRecentParkingRecords(String plate, int limit) {
+        return ready ? parkingRecords.search(plate, limit) : null;
+    }
+
+    /**
+     * 按完整车牌查找登记车辆（忽略大小写、空格和分隔符）
+     * @return 车辆ID，未登记或索引尚未就绪时返回 null
+     */
+    public Long findVehicleId(String plate) {
+        if (!ready) {
+            return null;
+        }
+        String value = PlateIndex.normalize(plate);
+        PlateIndex index = vehicles;
+        for (Long id : index.search(plate, 20)) {
+            if (PlateIndex.normalize(index.plateOf(id)).equals(value)) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 直接登记新写入的停车记录（道闸事件管道批量写入后调用，不再逐条发送数据变更消息）
+     */
+    public void indexParkingRecords(List<ParkingRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        indexExecutor.execute(() -> {
+            for (ParkingRecord record : records) {
+                if (record.getId() != null) {
+                    refreshParkingRecord(record.getId(), record);
+                }
+            }
+        });
+    }
+
+    /**
+     * 停车记录的索引保留起点：早于该时间入场的记录不在索引中
+     */
+    public LocalDateTime cutoff() {
+        return LocalDateTime.now().minusDays(parkingRecordDays);
+    }
+
+    /**
+     * 车牌联想：在登记车辆和近期停车记录中查找车牌，以输入开头的排在前面，去重
+     * @return 车牌号；索引尚未就绪时返回 null
+     */
+    public List<String> suggestPlates(String prefix, int limit) {
+        if (!ready) {
+            return null;
+        }
+        PlateIndex vehicleIndex = vehicles;
+        PlateIndex recordIndex = parkingRecords;
+        Set<String> prefixed = new LinkedHashSet<>();
+        Set<String> others = new LinkedHashSet<>();
+        collect(vehicleIndex, prefix, limit, prefixed, others);
+        collect(recordIndex, prefix, limit, prefixed, others);
+        List<String> result = new ArrayList<>(prefixed);
+        for (String plate : others) {
+            if (!prefixed.contains(plate)) {
+                result.add(plate);
+            }
+        }
+        return result.size() > limit ? result.subList(0, limit) : result;
+    }
+
+    private void collect(PlateIndex index, String prefix, int limit, Set<String> prefixed, Set<String> others) {
+        String value = PlateIndex.normalize(prefix);
+        // 同一车牌可能对应多条停车记录，多取一些再去重
+        for (Long id : index.search(prefix, limit * 4)) {
+            String plate = index.plateOf(id);
+            if (plate == null) {
+                continue;
+            }
+            if (PlateIndex.normalize(plate).startsWith(value)) {
+                prefixed.add(plate);
+            } else {
+                others.add(plate);
+            }
+        }
+    }
+
+    private void refreshParkingRecord(Long id, ParkingRecord record) {
+        LocalDateTime entryTime = record != null ? record.getEntryTime() : null;
+        if (record == null || (entryTime != null && entryTime.isBefore(cutoff()))) {
+            parkingRecords.remove(id);
+            recordEntryTimes.remove(id);
+            return;
+        }
+        parkingRecords.put(id, record.getPlateNumber());
+        recordEntryTimes.put(id, entryTime != null ? entryTime : LocalDateTime.now());
+    }
+
+    /**
+     * 移出入场时间早于保留天数的停车记录
+     */
+    private void prune() {
+        try {
+            LocalDateTime cutoff = cutoff();
+            List<Long> expired = new ArrayList<>();
+            for (Map.Entry<Long, LocalDateTime> entry : recordEntryTimes.entrySet()) {
+                if (entry.getValue() != null && entry.getValue().isBefore(cutoff)) {
+                    expired.add(entry.getKey());
+                }
+            }
+            if (!expired.isEmpty()) {
+                parkingRecords.removeAll(expired);
+                expired.forEach(recordEntryTimes::remove);
+                log.debug("车牌检索索引移出过期停车记录: {}", expired.size());
+            }
+        } catch (Exception e) {
+            log.error("移出过期停车记录失败", e);
+        }
+    }
+}
@@ -23,6 +23,9 @@ public class RedisMessageService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private DataChangePublisher dataChangePublisher;
+
     // 定义消息主题常量
     public static final String TOPIC_DATA_CHANGE = "community:data:change";
     public static final String TOPIC_OWNER_CHANGE = "community:owner:change";
@@ -31,39 +34,26 @@ public class RedisMessageService {
 
     /**
      * 发布数据变更消息
+     * 由 {@link DataChangePublisher} 异步合并、批量发送，调用方不再阻塞在 Redis 上
      * @param module 模块名称 (owner/property/admin)
      * @param action 操作类型 (CREATE/UPDATE/DELETE)
      * @param entityType 实体类型 (如: Owner, House, Notice等)
      * @param entityId 实体ID
-     * @param data 变更的数据
+     * @param data 变更的数据，只发送其中的变更字段名
      */
     public void publishDataChange(String module, String action, String entityType, Object entityId, Object data) {
-        try {
-            long timestamp = System.currentTimeMillis();
-            
-            Map<String, Object> message = new HashMap<>();
-            message.put("module", module);
-            message.put("action", action);
-            message.put("entityType", entityType);
-            message.put("entityId", entityId);
-            message.put("data", data);
-            message.put("timestamp", timestamp);
-
-            // 发布到通用主题
-            redisTemplate.convertAndSend(TOPIC_DATA_CHANGE, message);
-            
-            // 发布到模块特定主题
-            String moduleSpecificTopic = "community:" + module.toLowerCase() + ":change";
-            redisTemplate.convertAndSend(moduleSpecificTopic, message);
-            
-            // 更新最后更新时间戳，用于前端轮询检查
-            String timestampKey = "community:last_update:" + entityType;
-            redisTemplate.opsForValue().set(timestampKey, String.valueOf(timestamp));
-            
-            // 也更新通用的时间戳
-            redisTemplate.opsForValue().set("community:last_update:all", String.valueOf(timestamp));
+        publishDataChange(module, action, entityType, entityType, entityId, data);
+    }
 
-            log.info("Published data change message: module={}, action={}, entityType={}, entityId={}", 
+    /**
+     * 发布数据变更消息，实体类型和实体确切类名不同时使用（数据同步切面按Service类名推断 entityType）
+     * @param entityClass 实体的确切类名 (如: MeterInfo, ParkingLot)
+     */
+    public void publishDataChange(String module, String action, String entityType, String entityClass,
+                                  Object entityId, Object data) {
+        try {
+            dataChangePublisher.submit(module, action, entityType, entityClass, entityId, data);
+            log.debug("Queued data change message: module={}, action={}, entityType={}, entityId={}", 
                     module, action, entityType, entityId);
         } catch (Exception e) {
             log.error("Failed to publish data change message", e);
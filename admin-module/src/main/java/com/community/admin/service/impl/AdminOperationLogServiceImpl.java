@@ -3,19 +3,98 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
+import com.community.admin.common.util.OperationLogTokenizer;
 import com.community.admin.mapper.AdminOperationLogDao;
 import com.community.admin.domain.entity.AdminOperationLog;
 import com.community.admin.service.AdminOperationLogService;
+import com.community.admin.service.AdminOperationLogStorageManager;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
+@SyncEntity(AdminOperationLog.class)
 public class AdminOperationLogServiceImpl extends ServiceImpl<AdminOperationLogDao, AdminOperationLog> implements AdminOperationLogService {
 
+    @Autowired
+    private AdminOperationLogStorageManager adminOperationLogStorageManager;
+
+    @Override
+    public boolean save(AdminOperationLog entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            adminOperationLogStorageManager.indexTokens(Collections.singletonList(entity));
+        }
+        return saved;
+    }
+
     @Override
     public IPage<AdminOperationLog> selectAdminOperationLogPage(IPage<AdminOperationLog> page, AdminOperationLog adminOperationLog) {
+        LambdaQueryWrapper<AdminOperationLog> queryWrapper = buildQueryWrapper(adminOperationLog, null, null);
+        
+        // 默认按操作时间倒序排列
+        queryWrapper.orderByDesc(AdminOperationLog::getOperationTime);
+        
+        return this.page(page, queryWrapper);
+    }
+
+    @Override
+    public Map<String, Object> selectAdminOperationLogByCursor(AdminOperationLog adminOperationLog, LocalDateTime startTime,
+                                                               LocalDateTime endTime, String cursor, int size) {
+        LambdaQueryWrapper<AdminOperationLog> queryWrapper = buildQueryWrapper(adminOperationLog, startTime, endTime);
+
+        // 从上一页最后一行的 (operation_time, id) 之后继续查找，走 (operation_time, id) 索引
+        if (StringUtils.isNotEmpty(cursor)) {
+            String[] parts = decodeCursor(cursor);
+            LocalDateTime operationTime = LocalDateTime.parse(parts[0]);
+            Long id = Long.parseLong(parts[1]);
+            queryWrapper.and(w -> w.lt(AdminOperationLog::getOperationTime, operationTime)
+                    .or(x -> x.eq(AdminOperationLog::getOperationTime, operationTime).lt(AdminOperationLog::getId, id)));
+        }
+        queryWrapper.isNotNull(AdminOperationLog::getOperationTime)
+                .orderByDesc(AdminOperationLog::getOperationTime)
+                .orderByDesc(AdminOperationLog::getId)
+                .last("LIMIT " + (size + 1));
+
+        // 多取一行用于判断是否还有下一页
+        List<AdminOperationLog> rows = this.list(queryWrapper);
+        boolean hasMore = rows.size() > size;
+        List<AdminOperationLog> items = hasMore ? new ArrayList<>(rows.subList(0, size)) : rows;
+
+        Map<String, Object> pageData = new LinkedHashMap<>();
+        pageData.put("size", size);
+        pageData.put("hasMore", hasMore);
+        pageData.put("nextCursor", hasMore ? encodeCursor(items.get(items.size() - 1)) : null);
+        pageData.put("items", items);
+        return pageData;
+    }
+
+    /**
+     * 构建查询条件（不含排序）
+     */
+    private LambdaQueryWrapper<AdminOperationLog> buildQueryWrapper(AdminOperationLog adminOperationLog,
+                                                                    LocalDateTime startTime, LocalDateTime endTime) {
         LambdaQueryWrapper<AdminOperationLog> queryWrapper = new LambdaQueryWrapper<>();
         
+        // 根据操作时间范围查询，分区表只扫描范围内的分区
+        if (startTime != null) {
+            queryWrapper.ge(AdminOperationLog::getOperationTime, startTime);
+        }
+        if (endTime != null) {
+            queryWrapper.lt(AdminOperationLog::getOperationTime, endTime);
+        }
+        
         // 根据管理员ID查询
         if (adminOperationLog.getAdminId() != null) {
             queryWrapper.eq(AdminOperationLog::getAdminId, adminOperationLog.getAdminId());
@@ -31,8 +110,9 @@ public class AdminOperationLogServiceImpl extends ServiceImpl<AdminOperationLogD
             queryWrapper.eq(AdminOperationLog::getOperationType, adminOperationLog.getOperationType());
         }
         
-        // 根据操作描述模糊查询
+        // 根据操作描述模糊查询：先用分词索引缩小候选行，再用 LIKE 精确过滤
         if (StringUtils.isNotBlank(adminOperationLog.getOperationDescription())) {
+            applyTokenFilter(queryWrapper, adminOperationLog.getOperationDescription(), startTime, endTime);
             queryWrapper.like(AdminOperationLog::getOperationDescription, adminOperationLog.getOperationDescription());
         }
         
@@ -46,9 +126,53 @@ public class AdminOperationLogServiceImpl extends ServiceImpl<AdminOperationLogD
             queryWrapper.eq(AdminOperationLog::getRequestMethod, adminOperationLog.getRequestMethod());
         }
         
-        // 默认按操作时间倒序排列
-        queryWrapper.orderByDesc(AdminOperationLog::getOperationTime);
-        
-        return this.page(page, queryWrapper);
+        return queryWrapper;
+    }
+
+    /**
+     * 描述关键字的分词索引过滤：日志需包含关键字的全部中文二元组；
+     * 索引尚未覆盖全部历史日志或关键字没有可索引的词时不加过滤，只用 LIKE
+     */
+    private void applyTokenFilter(LambdaQueryWrapper<AdminOperationLog> queryWrapper, String description,
+                                  LocalDateTime startTime, LocalDateTime endTime) {
+        Set<String> tokens = OperationLogTokenizer.queryTokens(description);
+        if (tokens.isEmpty() || !adminOperationLogStorageManager.isTokenIndexComplete()) {
+            return;
+        }
+        List<Object> params = new ArrayList<>(tokens);
+        StringBuilder sql = new StringBuilder("id IN (SELECT log_id FROM ")
+                .append(AdminOperationLogStorageManager.TOKEN_TABLE).append(" WHERE token IN (");
+        for (int i = 0; i < tokens.size(); i++) {
+            sql.append(i > 0 ? ", " : "").append('{').append(i).append('}');
+        }
+        sql.append(')');
+        if (startTime != null) {
+            sql.append(" AND operation_time >= {").append(params.size()).append('}');
+            params.add(startTime);
+        }
+        if (endTime != null) {
+            sql.append(" AND operation_time < {").append(params.size()).append('}');
+            params.add(endTime);
+        }
+        sql.append(" GROUP BY log_id HAVING COUNT(DISTINCT token) = ").append(tokens.size()).append(')');
+        queryWrapper.apply(sql.toString(), params.toArray());
+    }
+
+    private String encodeCursor(AdminOperationLog last) {
+        String raw = last.getOperationTime() + "," + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
     }
-}
\ No newline at end of file
+}
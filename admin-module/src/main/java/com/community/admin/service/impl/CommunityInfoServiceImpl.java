@@ -3,6 +3,7 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.CommunityInfoDao;
 import com.community.admin.domain.entity.CommunityInfo;
 import com.community.admin.domain.entity.House;
@@ -25,6 +26,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@SyncEntity(CommunityInfo.class)
 public class CommunityInfoServiceImpl extends ServiceImpl<CommunityInfoDao, CommunityInfo> implements CommunityInfoService {
     
     @Autowired
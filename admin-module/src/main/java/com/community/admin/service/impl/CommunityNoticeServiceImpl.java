@@ -3,6 +3,7 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.common.service.OssService;
 import com.community.admin.mapper.CommunityNoticeDao;
 import com.community.admin.domain.entity.CommunityNotice;
@@ -16,6 +17,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Service
+@SyncEntity(CommunityNotice.class)
 public class CommunityNoticeServiceImpl extends ServiceImpl<CommunityNoticeDao, CommunityNotice> implements CommunityNoticeService {
     
     @Autowired
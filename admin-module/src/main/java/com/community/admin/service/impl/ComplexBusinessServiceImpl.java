@@ -2,6 +2,7 @@ package com.community.admin.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.*;
 import com.community.admin.domain.entity.*;
 import com.community.admin.domain.vo.*;
@@ -77,6 +78,7 @@ public class ComplexBusinessServiceImpl extends ServiceImpl<CommunityInfoDao, Co
     
     @Transactional(rollbackFor = Exception.class)
     @Override
+    @SyncEntity(Vehicle.class)
     public boolean addVehicleForOwner(Long ownerId, Vehicle vehicle) {
         // 设置车主ID
         vehicle.setOwnerId(ownerId);
@@ -86,6 +88,7 @@ public class ComplexBusinessServiceImpl extends ServiceImpl<CommunityInfoDao, Co
     
     @Transactional(rollbackFor = Exception.class)
     @Override
+    @SyncEntity(ParkingSpace.class)
     public boolean addParkingSpaceForOwner(Long ownerId, ParkingSpace parkingSpace) {
         // 设置业主ID
         parkingSpace.setOwnerId(ownerId);
@@ -117,6 +120,7 @@ public class ComplexBusinessServiceImpl extends ServiceImpl<CommunityInfoDao, Co
     
     @Transactional(rollbackFor = Exception.class)
     @Override
+    @SyncEntity(Owner.class)
     public boolean addFamilyMemberForOwner(Long ownerId, Owner familyMember) {
         // 保存家属信息
         if (ownerDao.insert(familyMember) > 0) {
@@ -132,6 +136,7 @@ public class ComplexBusinessServiceImpl extends ServiceImpl<CommunityInfoDao, Co
     
     @Transactional(rollbackFor = Exception.class)
     @Override
+    @SyncEntity(MeterInfo.class)
     public boolean addMeterInfoForOwnerHouse(Long ownerId, Long houseId, MeterInfo meterInfo) {
         // 设置房屋ID和社区ID
         meterInfo.setHouseId(houseId);
@@ -146,12 +151,18 @@ public class ComplexBusinessServiceImpl extends ServiceImpl<CommunityInfoDao, Co
     @Transactional(rollbackFor = Exception.class)
     @Override
     public boolean generateMeterChargeRecord(Long ownerId, MeterReading meterReading) {
-        // 保存抄表记录
-        return meterReadingDao.insert(meterReading) > 0;
+        // 保存抄表记录，并记录用量汇总待对账范围
+        boolean saved = meterReadingDao.insert(meterReading) > 0;
+        if (saved && meterReading.getMeterId() != null && meterReading.getReadingDate() != null) {
+            meterReadingDao.insertRollupDirty(meterReading.getMeterId(), null, null, meterReading.getReadingDate(),
+                    meterReading.getReadingDate());
+        }
+        return saved;
     }
     
     @Transactional(rollbackFor = Exception.class)
     @Override
+    @SyncEntity(MeterInfo.class)
     public boolean addMeterForOwner(Long ownerId, MeterInfo meterInfo) {
         // 保存仪表信息
         return meterInfoDao.insert(meterInfo) > 0;
@@ -435,14 +446,15 @@ public class ComplexBusinessServiceImpl extends ServiceImpl<CommunityInfoDao, Co
     }
     
     @Override
-    public boolean addHouseOwnerRelation(Long ownerId, Long houseId) {
+    @SyncEntity(HouseOwner.class)
+    public HouseOwner addHouseOwnerRelation(Long ownerId, Long houseId) {
         HouseOwner houseOwner = new HouseOwner();
         houseOwner.setOwnerId(ownerId);
         houseOwner.setHouseId(houseId);
         houseOwner.setRelationship("业主");
         houseOwner.setStatus("正常");
         houseOwner.setIsPrimary(1);
-        return houseOwnerDao.insert(houseOwner) > 0;
+        return houseOwnerDao.insert(houseOwner) > 0 ? houseOwner : null;
     }
     
     @Override
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.HouseOwnerDao;
 import com.community.admin.domain.entity.House;
 import com.community.admin.domain.entity.HouseOwner;
@@ -18,6 +19,7 @@ import org.springframework.stereotype.Service;
 import java.util.stream.Collectors;
 
 @Service
+@SyncEntity(HouseOwner.class)
 public class HouseOwnerServiceImpl extends ServiceImpl<HouseOwnerDao, HouseOwner> implements HouseOwnerService {
     
     @Autowired
@@ -3,6 +3,7 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.common.service.OssService;
 import com.community.admin.mapper.HouseDao;
 import com.community.admin.domain.entity.House;
@@ -15,6 +16,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 @Service
+@SyncEntity(House.class)
 public class HouseServiceImpl extends ServiceImpl<HouseDao, House> implements HouseService {
     
     @Autowired
@@ -3,15 +3,60 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.MeterInfoDao;
 import com.community.admin.domain.entity.MeterInfo;
+import com.community.admin.mapper.MeterReadingDao;
 import com.community.admin.service.MeterInfoService;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.Serializable;
+import java.util.Objects;
 
 @Service
+@SyncEntity(MeterInfo.class)
 public class MeterInfoServiceImpl extends ServiceImpl<MeterInfoDao, MeterInfo> implements MeterInfoService {
 
+    @Autowired
+    private MeterReadingDao meterReadingDao;
+
+    /**
+     * 仪表换了房屋或楼栋时，已记下归属的抄表记录仍计入原房屋/楼栋；尚未补记归属的抄表记录
+     * 由对账按新房屋/楼栋补记，因此原房屋/楼栋和新房屋/楼栋的用量汇总都需按抄表记录重新计算
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateById(MeterInfo entity) {
+        MeterInfo before = entity.getId() != null ? baseMapper.selectById(entity.getId()) : null;
+        boolean updated = super.updateById(entity);
+        if (updated && before != null) {
+            MeterInfo after = baseMapper.selectById(entity.getId());
+            if (after != null && (!Objects.equals(before.getHouseId(), after.getHouseId())
+                    || !Objects.equals(before.getBuildingId(), after.getBuildingId()))) {
+                meterReadingDao.insertRollupDirty(before.getId(), before.getHouseId(), before.getBuildingId(), null, null);
+                meterReadingDao.insertRollupDirty(after.getId(), null, null, null, null);
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * 删除仪表后其抄表记录不再计入原房屋/楼栋
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeById(Serializable id) {
+        MeterInfo before = id != null ? baseMapper.selectById(id) : null;
+        boolean removed = super.removeById(id);
+        if (removed && before != null) {
+            meterReadingDao.insertRollupDirty(before.getId(), before.getHouseId(), before.getBuildingId(), null, null);
+        }
+        return removed;
+    }
+
     @Override
     public IPage<MeterInfo> selectMeterInfoPage(IPage<MeterInfo> page, MeterInfo meterInfo) {
         LambdaQueryWrapper<MeterInfo> queryWrapper = new LambdaQueryWrapper<>();
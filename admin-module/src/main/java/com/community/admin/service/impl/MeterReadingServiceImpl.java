@@ -3,15 +3,66 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.MeterReadingDao;
 import com.community.admin.domain.entity.MeterReading;
 import com.community.admin.service.MeterReadingService;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.Serializable;
+
+@Slf4j
 @Service
+@SyncEntity(MeterReading.class)
 public class MeterReadingServiceImpl extends ServiceImpl<MeterReadingDao, MeterReading> implements MeterReadingService {
 
+    /**
+     * 新增、修改、删除抄表记录时在同一事务中记录待对账范围，由物业端按抄表记录重新计算用量汇总
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean save(MeterReading entity) {
+        boolean saved = super.save(entity);
+        if (saved) {
+            markRollupDirty(entity);
+        }
+        return saved;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean updateById(MeterReading entity) {
+        MeterReading before = entity.getId() != null ? baseMapper.selectById(entity.getId()) : null;
+        boolean updated = super.updateById(entity);
+        if (updated) {
+            // 仪表或抄表日期可能被修改，原范围和新范围都需重新计算
+            markRollupDirty(before);
+            markRollupDirty(baseMapper.selectById(entity.getId()));
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public boolean removeById(Serializable id) {
+        MeterReading before = id != null ? baseMapper.selectById(id) : null;
+        boolean removed = super.removeById(id);
+        if (removed) {
+            markRollupDirty(before);
+        }
+        return removed;
+    }
+
+    private void markRollupDirty(MeterReading reading) {
+        if (reading != null && reading.getMeterId() != null && reading.getReadingDate() != null) {
+            baseMapper.insertRollupDirty(reading.getMeterId(), null, null, reading.getReadingDate(),
+                    reading.getReadingDate());
+        }
+    }
+
     @Override
     public IPage<MeterReading> selectMeterReadingPage(IPage<MeterReading> page, MeterReading meterReading) {
         LambdaQueryWrapper<MeterReading> queryWrapper = new LambdaQueryWrapper<>();
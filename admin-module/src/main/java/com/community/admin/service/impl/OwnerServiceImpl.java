@@ -3,6 +3,7 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.common.service.OssService;
 import com.community.admin.mapper.OwnerDao;
 import com.community.admin.domain.entity.Owner;
@@ -19,6 +20,7 @@ import java.util.List;
 
 @Service
 @Transactional
+@SyncEntity(Owner.class)
 public class OwnerServiceImpl extends ServiceImpl<OwnerDao, Owner> implements OwnerService {
 
     @Autowired
@@ -3,15 +3,29 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.ParkingRecordDao;
 import com.community.admin.domain.entity.ParkingRecord;
 import com.community.admin.service.ParkingRecordService;
+import com.community.admin.service.PlateSearchIndex;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
+@SyncEntity(ParkingRecord.class)
 public class ParkingRecordServiceImpl extends ServiceImpl<ParkingRecordDao, ParkingRecord> implements ParkingRecordService {
 
+    /**
+     * 车牌片段按ID查询的最大命中数，超过时回退到 LIKE
+     */
+    private static final int PLATE_ID_LIMIT = 1000;
+
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
+
     @Override
     public IPage<ParkingRecord> selectParkingRecordPage(IPage<ParkingRecord> page, ParkingRecord parkingRecord) {
         LambdaQueryWrapper<ParkingRecord> queryWrapper = new LambdaQueryWrapper<>();
@@ -23,7 +37,7 @@ public class ParkingRecordServiceImpl extends ServiceImpl<ParkingRecordDao, Park
         
         // 根据车牌号模糊查询
         if (StringUtils.isNotBlank(parkingRecord.getPlateNumber())) {
-            queryWrapper.like(ParkingRecord::getPlateNumber, parkingRecord.getPlateNumber());
+            filterByPlate(queryWrapper, parkingRecord.getPlateNumber().trim());
         }
         
         // 根据车主ID查询
@@ -51,4 +65,23 @@ public class ParkingRecordServiceImpl extends ServiceImpl<ParkingRecordDao, Park
         
         return this.page(page, queryWrapper);
     }
-}
\ No newline at end of file
+
+    /**
+     * 车牌片段条件：先查内存索引，命中登记车辆的全部停车记录（vehicle_id）和近期停车记录（id）；
+     * 索引未就绪、命中过多或索引中没有匹配（可能是早于保留天数的外来车辆）时回退到 LIKE
+     */
+    private void filterByPlate(LambdaQueryWrapper<ParkingRecord> queryWrapper, String plate) {
+        List<Long> vehicleIds = plateSearchIndex.searchVehicles(plate, PLATE_ID_LIMIT + 1);
+        List<Long> recordIds = plateSearchIndex.searchRecentParkingRecords(plate, PLATE_ID_LIMIT + 1);
+        if (vehicleIds == null || recordIds == null
+                || vehicleIds.size() > PLATE_ID_LIMIT || recordIds.size() > PLATE_ID_LIMIT
+                || (vehicleIds.isEmpty() && recordIds.isEmpty())) {
+            queryWrapper.like(ParkingRecord::getPlateNumber, plate);
+            return;
+        }
+        queryWrapper.and(q -> q
+                .in(!vehicleIds.isEmpty(), ParkingRecord::getVehicleId, vehicleIds)
+                .or(!vehicleIds.isEmpty() && !recordIds.isEmpty())
+                .in(!recordIds.isEmpty(), ParkingRecord::getId, recordIds));
+    }
+}
@@ -3,6 +3,7 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.common.service.OssService;
 import com.community.admin.mapper.SmartQaKnowledgeDao;
 import com.community.admin.domain.entity.SmartQaKnowledge;
@@ -12,6 +13,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(value = SmartQaKnowledge.class, type = "SmartQaKnowledge")
 public class SmartQaKnowledgeServiceImpl extends ServiceImpl<SmartQaKnowledgeDao, SmartQaKnowledge> implements SmartQaKnowledgeService {
     
     @Autowired
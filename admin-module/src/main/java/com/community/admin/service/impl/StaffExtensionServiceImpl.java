@@ -3,6 +3,7 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.StaffExtensionDao;
 import com.community.admin.domain.entity.StaffExtension;
 import com.community.admin.service.StaffExtensionService;
@@ -10,6 +11,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(StaffExtension.class)
 public class StaffExtensionServiceImpl extends ServiceImpl<StaffExtensionDao, StaffExtension> implements StaffExtensionService {
 
     @Override
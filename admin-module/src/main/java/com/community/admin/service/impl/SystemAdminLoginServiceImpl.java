@@ -1,6 +1,7 @@
 package com.community.admin.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.SystemAdminDao;
 import com.community.admin.domain.entity.SystemAdmin;
 import com.community.admin.service.SystemAdminLoginService;
@@ -37,6 +38,7 @@ public class SystemAdminLoginServiceImpl implements SystemAdminLoginService {
     }
     
     @Override
+    @SyncEntity(value = SystemAdmin.class, action = "CREATE")
     public boolean register(SystemAdmin admin, PasswordEncoder passwordEncoder) {
         try {
             // 检查用户名是否已存在
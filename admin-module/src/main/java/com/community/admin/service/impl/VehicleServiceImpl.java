@@ -3,8 +3,10 @@ package com.community.admin.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.admin.common.config.SyncEntity;
 import com.community.admin.mapper.VehicleDao;
 import com.community.admin.domain.entity.Vehicle;
+import com.community.admin.service.PlateSearchIndex;
 import com.community.admin.service.VehicleService;
 import com.community.admin.common.service.OssService;
 import org.apache.commons.lang3.StringUtils;
@@ -16,13 +18,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Service
+@SyncEntity(Vehicle.class)
 public class VehicleServiceImpl extends ServiceImpl<VehicleDao, Vehicle> implements VehicleService {
+
+    /**
+     * 车牌片段按ID查询的最大命中数，超过时回退到 LIKE
+     */
+    private static final int PLATE_ID_LIMIT = 1000;
     
     @Autowired
     private VehicleDao vehicleDao;
     
     @Autowired
     private OssService ossService;
+
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
     
     @Override
     public IPage<Vehicle> selectVehiclePage(IPage<Vehicle> page, Vehicle vehicle) {
@@ -35,7 +46,7 @@ public class VehicleServiceImpl extends ServiceImpl<VehicleDao, Vehicle> impleme
         
         // 根据车牌号模糊查询
         if (StringUtils.isNotBlank(vehicle.getPlateNumber())) {
-            queryWrapper.like(Vehicle::getPlateNumber, vehicle.getPlateNumber());
+            filterByPlate(queryWrapper, vehicle.getPlateNumber().trim());
         }
         
         // 根据车辆品牌查询
@@ -60,7 +71,7 @@ public class VehicleServiceImpl extends ServiceImpl<VehicleDao, Vehicle> impleme
         
         // 根据车牌号模糊查询
         if (StringUtils.isNotBlank(plateNumber)) {
-            queryWrapper.like(Vehicle::getPlateNumber, plateNumber);
+            filterByPlate(queryWrapper, plateNumber.trim());
         }
         
         // 根据车主ID查询
@@ -145,6 +156,20 @@ public class VehicleServiceImpl extends ServiceImpl<VehicleDao, Vehicle> impleme
         return vehicle != null ? vehicle.getVehicleImages() : null;
     }
 
+    /**
+     * 车牌片段条件：先查内存索引得到车辆ID，索引未就绪或命中过多时回退到 LIKE
+     */
+    private void filterByPlate(LambdaQueryWrapper<Vehicle> queryWrapper, String plate) {
+        List<Long> ids = plateSearchIndex.searchVehicles(plate, PLATE_ID_LIMIT + 1);
+        if (ids == null || ids.size() > PLATE_ID_LIMIT) {
+            queryWrapper.like(Vehicle::getPlateNumber, plate);
+        } else if (ids.isEmpty()) {
+            queryWrapper.apply("1 = 0");
+        } else {
+            queryWrapper.in(Vehicle::getId, ids);
+        }
+    }
+
     private String saveFile(MultipartFile file, String subPath) {
         // 使用OSS服务保存文件并返回URL
         return ossService.uploadFile(file, subPath);
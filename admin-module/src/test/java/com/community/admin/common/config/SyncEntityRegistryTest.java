@@ -0,0 +1,98 @@
+package com.community.admin.common.config;
+
+import com.community.admin.domain.entity.AdminOperationLog;
+import com.community.admin.domain.entity.HouseOwner;
+import com.community.admin.domain.entity.Owner;
+import com.community.admin.domain.entity.SystemAdmin;
+import com.community.admin.domain.entity.Vehicle;
+import com.community.admin.service.impl.AdminOperationLogServiceImpl;
+import com.community.admin.service.impl.ComplexBusinessServiceImpl;
+import com.community.admin.service.impl.SystemAdminLoginServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyncEntityRegistryTest {
+
+    private final SyncEntityRegistry registry = new SyncEntityRegistry();
+
+    @Test
+    void complexBusinessWritesPublishTheirOwnEntities() {
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addVehicleForOwner").getEntityClass()).isEqualTo("Vehicle");
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addParkingSpaceForOwner").getEntityClass())
+                .isEqualTo("ParkingSpace");
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addFamilyMemberForOwner").getEntityClass()).isEqualTo("Owner");
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addMeterInfoForOwnerHouse").getEntityClass())
+                .isEqualTo("MeterInfo");
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addMeterForOwner").getEntityClass()).isEqualTo("MeterInfo");
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addHouseOwnerRelation").getEntityClass())
+                .isEqualTo("HouseOwner");
+        // 查询和未标注的方法不发布消息
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "getVehicleDetailById")).isNull();
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "linkHouseToOwner")).isNull();
+    }
+
+    @Test
+    void createReadsIdFromEntityArgumentNotOwnerId() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(11L);
+        Owner member = new Owner();
+        member.setId(12L);
+
+        SyncEntityRegistry.Binding vehicleBinding = resolve(ComplexBusinessServiceImpl.class, "addVehicleForOwner");
+        assertThat(vehicleBinding.getAction()).isEqualTo("CREATE");
+        assertThat(vehicleBinding.extractId(new Object[]{1L, vehicle}, true)).isEqualTo(11L);
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addFamilyMemberForOwner")
+                .extractId(new Object[]{1L, member}, true)).isEqualTo(12L);
+    }
+
+    @Test
+    void houseOwnerRelationReadsIdFromReturnedRelation() {
+        HouseOwner houseOwner = new HouseOwner();
+        houseOwner.setId(21L);
+
+        assertThat(resolve(ComplexBusinessServiceImpl.class, "addHouseOwnerRelation")
+                .extractId(new Object[]{1L, 2L}, houseOwner)).isEqualTo(21L);
+    }
+
+    @Test
+    void registerPublishesCreatedAdmin() {
+        SystemAdmin admin = new SystemAdmin();
+        admin.setId(31L);
+
+        SyncEntityRegistry.Binding binding = resolve(SystemAdminLoginServiceImpl.class, "register");
+        assertThat(binding.getEntityType()).isEqualTo("SystemAdmin");
+        assertThat(binding.getAction()).isEqualTo("CREATE");
+        assertThat(binding.extractId(new Object[]{admin, null}, true)).isEqualTo(31L);
+        assertThat(resolve(SystemAdminLoginServiceImpl.class, "login")).isNull();
+    }
+
+    @Test
+    void operationLogWritesArePublished() {
+        registerService(AdminOperationLogServiceImpl.class);
+        AdminOperationLog log = new AdminOperationLog();
+        log.setId(41L);
+
+        SyncEntityRegistry.Binding binding = resolve(AdminOperationLogServiceImpl.class, "save");
+        assertThat(binding.getEntityClass()).isEqualTo("AdminOperationLog");
+        assertThat(binding.extractId(new Object[]{log}, true)).isEqualTo(41L);
+        assertThat(resolve(AdminOperationLogServiceImpl.class, "selectAdminOperationLogPage")).isNull();
+    }
+
+    /**
+     * 模拟启动扫描登记类级别的实体标记
+     */
+    @SuppressWarnings("unchecked")
+    private void registerService(Class<?> serviceClass) {
+        Map<Class<?>, SyncEntity> services = (Map<Class<?>, SyncEntity>) ReflectionTestUtils.getField(registry, "services");
+        services.put(serviceClass, serviceClass.getAnnotation(SyncEntity.class));
+    }
+
+    private SyncEntityRegistry.Binding resolve(Class<?> serviceClass, String methodName) {
+        return registry.resolve(serviceClass, ReflectionUtils.findMethod(serviceClass, methodName, (Class<?>[]) null));
+    }
+}
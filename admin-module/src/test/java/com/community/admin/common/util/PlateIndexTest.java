@@ -0,0 +1,134 @@
+package com.community.admin.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlateIndexTest {
+
+    private static final String PROVINCES = "京沪粤苏浙川";
+    private static final String CHARS = "ABCDEFGHJKLMNOPQRSTUVWXYZ0123456789";
+
+    @Test
+    void searchMatchesSubstringScanAfterRandomPutsUpdatesAndRemoves() {
+        Random random = new Random(20261018L);
+        PlateIndex index = new PlateIndex();
+        Map<Long, String> plates = new HashMap<>();
+        for (int step = 0; step < 5_000; step++) {
+            long id = 1 + random.nextInt(800);
+            int op = random.nextInt(10);
+            if (op < 7) {
+                String plate = randomPlate(random);
+                index.put(id, plate);
+                plates.put(id, plate);
+            } else if (op < 9) {
+                index.remove(id);
+                plates.remove(id);
+            } else {
+                // 空车牌等同于删除
+                index.put(id, " ");
+                plates.remove(id);
+            }
+        }
+        assertThat(index.size()).isEqualTo(plates.size());
+
+        for (int i = 0; i < 500; i++) {
+            String plate = randomPlate(random);
+            int from = random.nextInt(plate.length());
+            int to = from + 1 + random.nextInt(plate.length() - from);
+            String query = decorate(plate.substring(from, to), random);
+
+            assertThat(index.search(query, Integer.MAX_VALUE))
+                    .as("query %s", query)
+                    .isEqualTo(scan(plates, query));
+        }
+    }
+
+    @Test
+    void prefixMatchesComeFirstThenNewestIdsAndLimitApplies() {
+        PlateIndex index = new PlateIndex();
+        index.put(1L, "粤B12345");
+        index.put(2L, "B12粤345");
+        index.put(3L, "粤B12999");
+        index.put(4L, "京A88888");
+
+        assertThat(index.search("粤b12", 10)).containsExactly(3L, 1L);
+        assertThat(index.search("B12", 10)).containsExactly(2L, 3L, 1L);
+        assertThat(index.search("B12", 2)).containsExactly(2L, 3L);
+        assertThat(index.search("", 10)).isEmpty();
+        assertThat(index.search("B12", 0)).isEmpty();
+    }
+
+    @Test
+    void normalizationIgnoresSeparatorsCaseAndLetterOI() {
+        PlateIndex index = new PlateIndex();
+        index.put(7L, "沪A·O1I23");
+
+        assertThat(PlateIndex.normalize("沪a-o1 i23")).isEqualTo("沪A01123");
+        assertThat(index.search("a 0112", 5)).containsExactly(7L);
+        assertThat(index.search("oii", 5)).containsExactly(7L);
+        assertThat(index.plateOf(7L)).isEqualTo("沪A·O1I23");
+    }
+
+    @Test
+    void updatingPlateUnlinksOldGrams() {
+        PlateIndex index = new PlateIndex();
+        index.put(1L, "浙C11111");
+        index.put(1L, "浙D22222");
+
+        assertThat(index.search("C1", 5)).isEmpty();
+        assertThat(index.search("D2", 5)).containsExactly(1L);
+
+        index.removeAll(List.of(1L, 99L));
+        assertThat(index.search("浙", 5)).isEmpty();
+        assertThat(index.size()).isZero();
+        assertThat(index.plateOf(1L)).isNull();
+    }
+
+    /**
+     * 参照实现：逐条比较规范化后的车牌
+     */
+    private static List<Long> scan(Map<Long, String> plates, String query) {
+        String value = PlateIndex.normalize(query);
+        List<Long> prefixed = new ArrayList<>();
+        List<Long> others = new ArrayList<>();
+        plates.forEach((id, plate) -> {
+            String normalized = PlateIndex.normalize(plate);
+            if (normalized.startsWith(value)) {
+                prefixed.add(id);
+            } else if (normalized.contains(value)) {
+                others.add(id);
+            }
+        });
+        List<Long> result = prefixed.stream().sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        others.stream().sorted(Comparator.reverseOrder()).forEach(result::add);
+        return result;
+    }
+
+    /**
+     * 短字符集让随机车牌之间有较多共同片段
+     */
+    private static String randomPlate(Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(PROVINCES.charAt(random.nextInt(PROVINCES.length())));
+        sb.append(CHARS.charAt(random.nextInt(4)));
+        int length = 5 + random.nextInt(2);
+        for (int i = 0; i < length; i++) {
+            sb.append(CHARS.charAt(CHARS.length() - 1 - random.nextInt(12)));
+        }
+        return sb.toString();
+    }
+
+    private static String decorate(String query, Random random) {
+        String value = random.nextBoolean() ? query.toLowerCase() : query;
+        return random.nextInt(4) == 0 ? " " + value.charAt(0) + "-" + value.substring(1) : value;
+    }
+}
@@ -0,0 +1,258 @@
+package com.community.admin.service;
+
+import com.community.admin.common.service.OssService;
+import com.community.admin.domain.entity.AccessControlEvent;
+import com.community.admin.domain.entity.AccessControlRecord;
+import com.community.admin.domain.vo.AccessEventVO;
+import com.community.admin.mapper.AccessControlRecordDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccessEventIngestServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 18, 8, 0);
+
+    /**
+     * 已提交的 access_control_event：设备ID:事件号 -> 记录ID
+     */
+    private final Map<String, Long> processed = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> uploaded = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger lookupFailuresLeft = new AtomicInteger();
+    private final Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+
+    private DeviceLivenessTracker tracker;
+    private AccessEventIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        AccessControlRecordDao dao = mock(AccessControlRecordDao.class);
+        when(dao.selectProcessedEvents(anyCollection())).thenAnswer(inv -> {
+            if (lookupFailuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new RuntimeException("connection reset");
+            }
+            Collection<AccessControlEvent> keys = inv.getArgument(0);
+            return keys.stream().filter(k -> processed.containsKey(k.getDeviceId() + ":" + k.getEventNo()))
+                    .collect(Collectors.toList());
+        });
+        when(dao.insertBatch(anyList())).thenAnswer(inv -> {
+            List<AccessControlRecord> records = inv.getArgument(0);
+            records.forEach(r -> r.setId(ids.incrementAndGet()));
+            return records.size();
+        });
+        // 已处理事件是事务中的最后一步，成功即视为整批提交
+        when(dao.insertAccessEvents(anyList())).thenAnswer(inv -> {
+            if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new RuntimeException("deadlock");
+            }
+            writerThreads.add(Thread.currentThread().getName());
+            List<AccessControlEvent> rows = inv.getArgument(0);
+            rows.forEach(row -> assertThat(processed.putIfAbsent(row.getDeviceId() + ":" + row.getEventNo(),
+                    row.getRecordId())).isNull());
+            return rows.size();
+        });
+
+        OssService ossService = mock(OssService.class);
+        when(ossService.urlOf(anyString())).thenAnswer(inv -> "https://oss/" + inv.getArgument(0));
+        when(ossService.uploadBytes(anyString(), any(), anyString())).thenAnswer(inv -> {
+            uploaded.put(inv.getArgument(0), inv.getArgument(1));
+            return "https://oss/" + inv.getArgument(0);
+        });
+
+        service = new AccessEventIngestService();
+        ReflectionTestUtils.setField(service, "accessControlRecordDao", dao);
+        ReflectionTestUtils.setField(service, "ossService", ossService);
+        tracker = mock(DeviceLivenessTracker.class);
+        when(tracker.heartbeat(anyLong())).thenReturn(true);
+        ReflectionTestUtils.setField(service, "deviceLivenessTracker", tracker);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "capacity", 1000);
+        ReflectionTestUtils.setField(service, "deviceCapacity", 500);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(service, "dedupRetentionDays", 30);
+        ReflectionTestUtils.setField(service, "uploadThreads", 1);
+        ReflectionTestUtils.setField(service, "uploadRetries", 1);
+        ReflectionTestUtils.setField(service, "maxImageKb", 64);
+        ReflectionTestUtils.setField(service, "maxBufferedImageMb", 1L);
+        ReflectionTestUtils.setField(service, "retryMaxBackoffMs", 200L);
+        ReflectionTestUtils.setField(service, "idleBufferMinutes", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void failedWritesAreRetriedUntilEveryAcceptedEventIsStoredOnce() throws Exception {
+        failuresLeft.set(2);
+        lookupFailuresLeft.set(1);
+        service.init();
+
+        List<AccessEventVO> first = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            first.add(event("A" + i, T0.plusSeconds(i), null));
+        }
+        first.add(event("A7", T0.plusSeconds(7), null));
+        assertThat(service.submit(1L, first).getAccepted()).isEqualTo(16);
+        assertThat(service.submit(2L, List.of(event("A1", T0, null))).getAccepted()).isEqualTo(1);
+
+        awaitHandled(17);
+
+        assertThat(processed.keySet()).hasSize(16).contains("1:A14", "2:A1");
+        assertThat(service.stats()).containsEntry("written", 16L)
+                .containsEntry("duplicates", 1L)
+                .containsEntry("retryPending", 0);
+        assertThat((Long) service.stats().get("failed")).isGreaterThan(0L);
+    }
+
+    @Test
+    void imageQuotaIsHeldUntilRetriedEventIsWrittenAndUploaded() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        service.init();
+        byte[] image = "jpeg-bytes".getBytes(StandardCharsets.UTF_8);
+
+        service.submit(5L, List.of(event("P1", T0, Base64.getEncoder().encodeToString(image))));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Integer.valueOf(1).equals(service.stats().get("retryPending")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.stats()).containsEntry("pendingImageBytes", (long) image.length);
+        assertThat(service.handledCount()).isZero();
+
+        failuresLeft.set(0);
+        awaitHandled(1);
+        service.shutdown();
+
+        String objectName = AccessEventIngestService.captureObjectName(5L, "P1", T0);
+        assertThat(uploaded.get(objectName)).isEqualTo(image);
+        assertThat(service.stats()).containsEntry("pendingImageBytes", 0L);
+    }
+
+    @Test
+    void pendingRetryIsWrittenOnShutdown() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        service.init();
+
+        service.submit(3L, List.of(event("S1", T0, null)));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Integer.valueOf(1).equals(service.stats().get("retryPending")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        failuresLeft.set(0);
+        service.shutdown();
+
+        assertThat(processed).containsKey("3:S1");
+        assertThat(service.handledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void bufferedEventsAreWrittenByWriterThreadOnShutdown() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        service.init();
+        service.submit(4L, List.of(event("B1", T0, null)));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Integer.valueOf(1).equals(service.stats().get("retryPending")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 写入线程等待重试期间新到的事件留在缓冲区中，关闭时由写入线程自己处理
+        List<AccessEventVO> buffered = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            buffered.add(event("B" + (i + 2), T0.plusSeconds(i), null));
+        }
+        service.submit(4L, buffered);
+        failuresLeft.set(0);
+        service.shutdown();
+
+        assertThat(processed).hasSize(13);
+        assertThat(service.handledCount()).isEqualTo(13);
+        assertThat(writerThreads).containsExactly("access-event-writer");
+    }
+
+    @Test
+    void eventsFromUnknownDeviceAreRejected() throws Exception {
+        when(tracker.heartbeat(99L)).thenReturn(false);
+        service.init();
+
+        AccessEventIngestService.SubmitResult result = service.submit(99L,
+                List.of(event("U1", T0, null), event("U2", T0, null)));
+
+        assertThat(result.isUnknownDevice()).isTrue();
+        assertThat(result.getAccepted()).isZero();
+        assertThat(result.getRejected()).isEqualTo(2);
+        assertThat(service.stats()).containsEntry("devices", 0)
+                .containsEntry("unknownDevices", 2L)
+                .containsEntry("buffered", 0);
+    }
+
+    @Test
+    void idleEmptyBuffersAreEvictedAndRecreatedOnNextSubmit() throws Exception {
+        ReflectionTestUtils.setField(service, "idleBufferMinutes", 0L);
+        service.init();
+
+        for (long deviceId = 1; deviceId <= 5; deviceId++) {
+            assertThat(service.submit(deviceId, List.of(event("I" + deviceId, T0, null))).getAccepted()).isEqualTo(1);
+        }
+        awaitHandled(5);
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Integer.valueOf(0).equals(service.stats().get("devices")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.stats()).containsEntry("devices", 0);
+
+        // 缓冲区被移除后设备再次上报不受影响
+        for (int i = 0; i < 50; i++) {
+            assertThat(service.submit(1L, List.of(event("J" + i, T0.plusSeconds(i), null))).getAccepted()).isEqualTo(1);
+        }
+        awaitHandled(55);
+        assertThat(processed).hasSize(55);
+    }
+
+    private void awaitHandled(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (service.handledCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.handledCount()).isEqualTo(count);
+    }
+
+    private static AccessEventVO event(String no, LocalDateTime time, String image) {
+        AccessEventVO event = new AccessEventVO();
+        event.setEventNo(no);
+        event.setAccessTime(time);
+        event.setAccessType("进入");
+        event.setCaptureImageData(image);
+        return event;
+    }
+}
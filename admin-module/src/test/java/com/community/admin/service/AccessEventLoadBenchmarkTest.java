@@ -0,0 +1,227 @@
+package com.community.admin.service;
+
+import com.community.admin.common.service.OssService;
+import com.community.admin.domain.entity.AccessControlEvent;
+import com.community.admin.domain.entity.AccessControlRecord;
+import com.community.admin.domain.vo.AccessEventVO;
+import com.community.admin.mapper.AccessControlRecordDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 门禁事件压测：模拟多台门禁设备同时上报（每台设备一个线程，按批提交刷脸/刷卡事件），
+ * 约 5% 的批次原样重传一次（模拟设备未收到响应后的重试），缓冲区已满时稍后重传未接收的部分；
+ * 数据访问和对象存储用内存数据模拟，验证每个事件只写入一次、抓拍图片全部上传，并输出吞吐量（事件/秒）
+ */
+class AccessEventLoadBenchmarkTest {
+
+    private static final int DEVICES = 50;
+    private static final int EVENTS_PER_DEVICE = 200;
+    private static final int BATCH_SIZE = 20;
+    private static final String[] METHODS = {"人脸识别", "刷卡", "二维码"};
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 10, 17, 0, 0);
+
+    /**
+     * 已提交的 access_control_event：设备ID:事件号 -> 记录ID
+     */
+    private final Map<String, Long> processed = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> uploaded = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private AccessEventIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        AccessControlRecordDao dao = mock(AccessControlRecordDao.class);
+        when(dao.selectProcessedEvents(anyCollection())).thenAnswer(inv -> {
+            Collection<AccessControlEvent> keys = inv.getArgument(0);
+            return keys.stream().filter(k -> processed.containsKey(k.getDeviceId() + ":" + k.getEventNo()))
+                    .collect(Collectors.toList());
+        });
+        when(dao.insertBatch(anyList())).thenAnswer(inv -> {
+            List<AccessControlRecord> records = inv.getArgument(0);
+            records.forEach(r -> r.setId(ids.incrementAndGet()));
+            return records.size();
+        });
+        when(dao.insertAccessEvents(anyList())).thenAnswer(inv -> {
+            List<AccessControlEvent> rows = inv.getArgument(0);
+            rows.forEach(row -> assertThat(processed.putIfAbsent(row.getDeviceId() + ":" + row.getEventNo(),
+                    row.getRecordId())).isNull());
+            return rows.size();
+        });
+
+        OssService ossService = mock(OssService.class);
+        when(ossService.urlOf(anyString())).thenAnswer(inv -> "https://oss/" + inv.getArgument(0));
+        when(ossService.uploadBytes(anyString(), any(), anyString())).thenAnswer(inv -> {
+            uploaded.put(inv.getArgument(0), inv.getArgument(1));
+            return "https://oss/" + inv.getArgument(0);
+        });
+
+        service = new AccessEventIngestService();
+        ReflectionTestUtils.setField(service, "accessControlRecordDao", dao);
+        ReflectionTestUtils.setField(service, "ossService", ossService);
+        DeviceLivenessTracker tracker = mock(DeviceLivenessTracker.class);
+        when(tracker.heartbeat(anyLong())).thenReturn(true);
+        ReflectionTestUtils.setField(service, "deviceLivenessTracker", tracker);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "capacity", 20000);
+        ReflectionTestUtils.setField(service, "deviceCapacity", 500);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(service, "dedupRetentionDays", 30);
+        ReflectionTestUtils.setField(service, "uploadThreads", 4);
+        ReflectionTestUtils.setField(service, "uploadRetries", 1);
+        ReflectionTestUtils.setField(service, "maxImageKb", 64);
+        ReflectionTestUtils.setField(service, "maxBufferedImageMb", 16L);
+        ReflectionTestUtils.setField(service, "retryMaxBackoffMs", 200L);
+        ReflectionTestUtils.setField(service, "idleBufferMinutes", 10L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void concurrentDevicesStoreEveryEventOnceAndUploadEveryImage() throws Exception {
+        String imageData = Base64.getEncoder().encodeToString(fakeJpeg(2));
+        AtomicLong submitted = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(DEVICES);
+
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(DEVICES);
+            for (int d = 0; d < DEVICES; d++) {
+                long deviceId = 1 + d;
+                futures.add(pool.submit(() -> runDevice(deviceId, imageData, submitted)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        // 图片上传完成后才释放占用的缓冲额度，以此判断上传全部结束
+        while ((service.handledCount() < submitted.get() || !Long.valueOf(0).equals(service.stats().get("pendingImageBytes")))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        long events = (long) DEVICES * EVENTS_PER_DEVICE;
+        System.out.printf("%-10s %10s %10s %10s %12s%n", "devices", "events", "retried", "elapsedMs", "eventsPerSec");
+        System.out.printf("%-10d %10d %10d %10d %12d%n", DEVICES, events, submitted.get() - events,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(events * 1e9 / elapsedNanos));
+
+        assertThat(service.handledCount()).isEqualTo(submitted.get());
+        assertThat(processed).hasSize((int) events);
+        assertThat(service.stats())
+                .containsEntry("written", events)
+                .containsEntry("duplicates", submitted.get() - events)
+                .containsEntry("imagesUploaded", events)
+                .containsEntry("imageFailures", 0L)
+                .containsEntry("failed", 0L)
+                .containsEntry("pendingImageBytes", 0L);
+        assertThat(uploaded).hasSize((int) events);
+    }
+
+    /**
+     * 单台设备：按批上报，被拒绝的部分稍后重传，偶尔整批重传一次
+     */
+    private void runDevice(long deviceId, String imageData, AtomicLong submitted) {
+        Random random = new Random(deviceId);
+        for (int i = 0; i < EVENTS_PER_DEVICE; i += BATCH_SIZE) {
+            List<AccessEventVO> batch = new ArrayList<>(BATCH_SIZE);
+            for (int seq = i; seq < Math.min(EVENTS_PER_DEVICE, i + BATCH_SIZE); seq++) {
+                batch.add(event(random, deviceId, seq, imageData));
+            }
+            submitted.addAndGet(submitAll(deviceId, batch));
+            if (random.nextInt(100) < 5) {
+                submitted.addAndGet(submitAll(deviceId, batch));
+            }
+        }
+    }
+
+    private int submitAll(long deviceId, List<AccessEventVO> batch) {
+        int total = 0;
+        for (int offset = 0; offset < batch.size(); ) {
+            int accepted = service.submit(deviceId, batch.subList(offset, batch.size())).getAccepted();
+            total += accepted;
+            offset += accepted;
+            if (offset < batch.size()) {
+                // 缓冲区已满：像设备一样稍后重传未接收的部分
+                sleep(5);
+            }
+        }
+        return total;
+    }
+
+    private static AccessEventVO event(Random random, long deviceId, int seq, String imageData) {
+        AccessEventVO event = new AccessEventVO();
+        event.setEventNo("LOAD-" + deviceId + "-" + seq);
+        event.setPersonId((long) random.nextInt(5000) + 1);
+        event.setPersonType(random.nextInt(10) < 8 ? "owner" : "visitor");
+        event.setPersonName("压测人员" + event.getPersonId());
+        event.setAccessType(random.nextBoolean() ? "entry" : "exit");
+        event.setAccessMethod(METHODS[random.nextInt(METHODS.length)]);
+        event.setAccessTime(BASE_TIME.plusSeconds(seq));
+        event.setGateName("压测闸机" + deviceId);
+        event.setVerifyResult(random.nextInt(100) < 97 ? "成功" : "失败");
+        event.setCaptureImageData(imageData);
+        return event;
+    }
+
+    /**
+     * 指定大小的模拟JPEG内容（带 SOI/EOI 标记的随机字节）
+     */
+    private static byte[] fakeJpeg(int kb) {
+        byte[] data = new byte[kb * 1024];
+        new Random(kb).nextBytes(data);
+        data[0] = (byte) 0xFF;
+        data[1] = (byte) 0xD8;
+        data[data.length - 2] = (byte) 0xFF;
+        data[data.length - 1] = (byte) 0xD9;
+        return data;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.community.admin.service;
+
+import com.community.admin.common.util.OperationLogTokenizer;
+import com.community.admin.domain.entity.AdminOperationLog;
+import com.community.admin.domain.entity.AdminOperationLogToken;
+import com.community.admin.mapper.AdminOperationLogDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+
+class AdminOperationLogStorageManagerTest {
+
+    private final TreeMap<Long, AdminOperationLog> logs = new TreeMap<>();
+    private final Set<String> tokens = ConcurrentHashMap.newKeySet();
+
+    private AdminOperationLogDao dao;
+    private AdminOperationLogStorageManager manager;
+
+    @BeforeEach
+    void setUp() {
+        dao = mock(AdminOperationLogDao.class);
+        stubDao();
+        manager = new AdminOperationLogStorageManager();
+        ReflectionTestUtils.setField(manager, "adminOperationLogDao", dao);
+        ReflectionTestUtils.setField(manager, "backfillBatchSize", 10);
+    }
+
+    @Test
+    void logsWrittenBeforeTokenTableIsReadyAreBackfilled() {
+        List<AdminOperationLog> early = insert(1, 25, "修改业主信息");
+        manager.indexTokens(early);
+        assertThat(tokens).isEmpty();
+
+        ReflectionTestUtils.setField(manager, "tokenTableReady", true);
+        manager.indexTokens(insert(26, 30, "新增停车记录"));
+        runBackfill();
+
+        assertThat(manager.isTokenIndexComplete()).isTrue();
+        for (long id = 1; id <= 30; id++) {
+            assertThat(tokens).contains(AdminOperationLogStorageManager.INDEXED_MARKER + "|" + id);
+        }
+        assertThat(tokens).contains("业主|1", "停车|30");
+    }
+
+    @Test
+    void failedIndexWriteReopensIndexAndIsRepaired() {
+        ReflectionTestUtils.setField(manager, "tokenTableReady", true);
+        manager.indexTokens(insert(1, 5, "删除车位"));
+        runBackfill();
+        assertThat(manager.isTokenIndexComplete()).isTrue();
+
+        doThrow(new RuntimeException("deadlock")).when(dao).insertTokens(anyList());
+        manager.indexTokens(insert(6, 8, "删除车位"));
+        assertThat(manager.isTokenIndexComplete()).isFalse();
+        assertThat(tokens).doesNotContain(AdminOperationLogStorageManager.INDEXED_MARKER + "|7");
+
+        reset(dao);
+        stubDao();
+        runBackfill();
+
+        assertThat(manager.isTokenIndexComplete()).isTrue();
+        assertThat(tokens).contains("车位|6", "车位|7", "车位|8");
+    }
+
+    @Test
+    void longDescriptionsAreIndexedWithoutTruncation() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            description.append("批量导入").append(i).append("号楼业主资料，");
+        }
+        description.append("末尾关键字");
+        Set<String> all = OperationLogTokenizer.tokenize(description.toString());
+
+        assertThat(all.size()).isGreaterThan(100);
+        assertThat(all).contains("关键", "键字");
+    }
+
+    private void runBackfill() {
+        for (int i = 0; i < 20 && !manager.isTokenIndexComplete(); i++) {
+            manager.backfillTokens();
+        }
+    }
+
+    private List<AdminOperationLog> insert(long fromId, long toId, String description) {
+        List<AdminOperationLog> inserted = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            AdminOperationLog operationLog = new AdminOperationLog();
+            operationLog.setId(id);
+            operationLog.setOperationTime(LocalDateTime.now());
+            operationLog.setOperationDescription(description);
+            logs.put(id, operationLog);
+            inserted.add(operationLog);
+        }
+        return inserted;
+    }
+
+    private void stubDao() {
+        when(dao.insertTokens(anyList())).thenAnswer(inv -> {
+            List<AdminOperationLogToken> rows = inv.getArgument(0);
+            rows.forEach(row -> tokens.add(row.getToken() + "|" + row.getLogId()));
+            return rows.size();
+        });
+        when(dao.selectMaxLogId()).thenAnswer(inv -> logs.isEmpty() ? null : logs.lastKey());
+        when(dao.selectUnindexedLogs(anyLong(), anyLong(), anyString(), anyInt())).thenAnswer(inv -> {
+            long fromId = inv.getArgument(0);
+            long toId = inv.getArgument(1);
+            String marker = inv.getArgument(2);
+            int limit = inv.getArgument(3);
+            return logs.subMap(fromId, toId).values().stream()
+                    .filter(l -> !tokens.contains(marker + "|" + l.getId()))
+                    .sorted(Comparator.comparing(AdminOperationLog::getId).reversed())
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        });
+    }
+}
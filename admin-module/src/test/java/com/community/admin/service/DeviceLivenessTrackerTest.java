@@ -0,0 +1,90 @@
+package com.community.admin.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeviceLivenessTrackerTest {
+
+    private static final String LEADER_KEY = "community:device:liveness:leader";
+
+    private RedisTemplate<String, Object> redisTemplate;
+    private ValueOperations<String, Object> valueOps;
+    private DeviceLivenessTracker tracker;
+    private String nodeId;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOps = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOps);
+        tracker = new DeviceLivenessTracker();
+        ReflectionTestUtils.setField(tracker, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(tracker, "checkIntervalSeconds", 15L);
+        nodeId = (String) ReflectionTestUtils.getField(tracker, "nodeId");
+    }
+
+    @Test
+    void freeLeaseIsAcquired() {
+        when(valueOps.setIfAbsent(LEADER_KEY, nodeId, 30L, TimeUnit.SECONDS)).thenReturn(true);
+
+        assertThat(acquireLease()).isTrue();
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+
+    @Test
+    void heldLeaseIsRenewedOnlyThroughCompareAndExpireScript() {
+        when(valueOps.setIfAbsent(anyString(), any(), anyLong(), any())).thenReturn(false);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(LEADER_KEY)), eq(nodeId), eq(30L)))
+                .thenReturn(1L, 0L);
+
+        // 本节点仍持有租约
+        assertThat(acquireLease()).isTrue();
+        // 租约已被其他节点获取
+        assertThat(acquireLease()).isFalse();
+        verify(redisTemplate, never()).expire(anyString(), anyLong(), any());
+        verify(valueOps, never()).get(any());
+    }
+
+    @Test
+    void redisErrorMeansNoLease() {
+        ReflectionTestUtils.setField(tracker, "leader", true);
+        when(valueOps.setIfAbsent(anyString(), any(), anyLong(), any()))
+                .thenThrow(new RedisConnectionFailureException("connection refused"));
+
+        assertThat(acquireLease()).isFalse();
+    }
+
+    @Test
+    void shutdownReleasesOnlyOwnLease() {
+        ReflectionTestUtils.setField(tracker, "leader", true);
+
+        tracker.shutdown();
+
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(LEADER_KEY)), eq(nodeId));
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    private boolean acquireLease() {
+        return ReflectionTestUtils.invokeMethod(tracker, "acquireLease");
+    }
+}
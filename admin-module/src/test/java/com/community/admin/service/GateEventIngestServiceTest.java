@@ -0,0 +1,212 @@
+package com.community.admin.service;
+
+import com.community.admin.domain.entity.ParkingGateEvent;
+import com.community.admin.domain.entity.ParkingRecord;
+import com.community.admin.domain.vo.GateEventVO;
+import com.community.admin.mapper.ParkingRecordDao;
+import com.community.admin.mapper.VehicleDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GateEventIngestServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 18, 8, 0);
+
+    /**
+     * 已提交的 parking_gate_event：流水号 -> 记录ID
+     */
+    private final Map<String, Long> processed = new ConcurrentHashMap<>();
+    private final List<ParkingRecord> exitUpdates = new CopyOnWriteArrayList<>();
+    private final List<ParkingRecord> uncommittedUpdates = new CopyOnWriteArrayList<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger lookupFailuresLeft = new AtomicInteger();
+    private final Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+
+    private GateEventIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        ParkingRecordDao dao = mock(ParkingRecordDao.class);
+        when(dao.selectOpenSessions(any())).thenReturn(List.of());
+        when(dao.selectProcessedEventNos(anyCollection())).thenAnswer(inv -> {
+            if (lookupFailuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new RuntimeException("connection reset");
+            }
+            Collection<String> nos = inv.getArgument(0);
+            return nos.stream().filter(processed::containsKey).collect(Collectors.toList());
+        });
+        when(dao.insertBatch(anyList())).thenAnswer(inv -> {
+            List<ParkingRecord> records = inv.getArgument(0);
+            records.forEach(r -> r.setId(ids.incrementAndGet()));
+            return records.size();
+        });
+        when(dao.updateExitBatch(anyList())).thenAnswer(inv -> {
+            List<ParkingRecord> updates = inv.getArgument(0);
+            uncommittedUpdates.addAll(updates);
+            return updates.size();
+        });
+        // 已处理流水号是事务中的最后一步，成功即视为整批提交
+        when(dao.insertGateEvents(anyList())).thenAnswer(inv -> {
+            if (failuresLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                uncommittedUpdates.clear();
+                throw new RuntimeException("deadlock");
+            }
+            writerThreads.add(Thread.currentThread().getName());
+            exitUpdates.addAll(uncommittedUpdates);
+            uncommittedUpdates.clear();
+            List<ParkingGateEvent> rows = inv.getArgument(0);
+            rows.forEach(row -> assertThat(processed.putIfAbsent(row.getTransactionNo(), row.getRecordId())).isNull());
+            return rows.size();
+        });
+
+        ParkingFeeService feeService = mock(ParkingFeeService.class);
+        when(feeService.feeFor(any(), any(), anyLong())).thenReturn(BigDecimal.TEN);
+
+        service = new GateEventIngestService();
+        ReflectionTestUtils.setField(service, "parkingRecordDao", dao);
+        ReflectionTestUtils.setField(service, "vehicleDao", mock(VehicleDao.class));
+        ReflectionTestUtils.setField(service, "plateSearchIndex", mock(PlateSearchIndex.class));
+        ReflectionTestUtils.setField(service, "parkingFeeService", feeService);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "capacity", 1000);
+        ReflectionTestUtils.setField(service, "batchSize", 10);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(service, "openSessionDays", 7);
+        ReflectionTestUtils.setField(service, "dedupRetentionDays", 30);
+        ReflectionTestUtils.setField(service, "retryMaxBackoffMs", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void failedWritesAreRetriedUntilEveryAcceptedEventIsStoredOnce() throws Exception {
+        failuresLeft.set(3);
+        service.init();
+
+        List<GateEventVO> events = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            events.add(event("T" + i, GateEventVO.ENTRY, "粤B" + (10000 + i), T0.plusMinutes(i)));
+        }
+        // 重传的事件按流水号去重
+        events.add(event("T3", GateEventVO.ENTRY, "粤B10003", T0.plusMinutes(3)));
+        assertThat(service.submit(events).getAccepted()).isEqualTo(26);
+
+        awaitHandled(26);
+
+        assertThat(processed.keySet()).hasSize(25);
+        assertThat(service.stats()).containsEntry("retryPending", 0)
+                .containsEntry("entries", 25L);
+        assertThat((Long) service.stats().get("failed")).isGreaterThanOrEqualTo(10L);
+    }
+
+    @Test
+    void failedDedupLookupKeepsBatchAndExitStillMatchesEntry() throws Exception {
+        service.init();
+        service.submit(List.of(event("E1", GateEventVO.ENTRY, "京A12345", T0)));
+        awaitHandled(1);
+
+        lookupFailuresLeft.set(2);
+        failuresLeft.set(1);
+        service.submit(List.of(event("X1", GateEventVO.EXIT, "京a-12345", T0.plusMinutes(90))));
+        awaitHandled(2);
+
+        assertThat(processed).containsKeys("E1", "X1");
+        assertThat(processed.get("X1")).isEqualTo(processed.get("E1"));
+        assertThat(exitUpdates).singleElement().satisfies(update -> {
+            assertThat(update.getId()).isEqualTo(processed.get("E1"));
+            assertThat(update.getDurationMinutes()).isEqualTo(90);
+        });
+        assertThat(service.stats()).containsEntry("unmatchedExits", 0L);
+    }
+
+    @Test
+    void pendingRetryIsWrittenOnShutdown() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        service.init();
+
+        service.submit(List.of(event("S1", GateEventVO.ENTRY, "沪C00001", T0)));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Integer.valueOf(1).equals(service.stats().get("retryPending")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.handledCount()).isZero();
+        failuresLeft.set(0);
+        service.shutdown();
+
+        assertThat(processed).containsKey("S1");
+        assertThat(service.handledCount()).isEqualTo(1);
+    }
+
+    @Test
+    void queuedEventsAreWrittenByWriterThreadOnShutdown() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        service.init();
+        service.submit(List.of(event("Q1", GateEventVO.ENTRY, "苏E00001", T0)));
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!Integer.valueOf(1).equals(service.stats().get("retryPending")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 写入线程等待重试期间新到的事件留在队列中，关闭时由写入线程自己处理
+        List<GateEventVO> queued = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            queued.add(event("Q" + (i + 2), GateEventVO.ENTRY, "苏E1" + (1000 + i), T0.plusMinutes(i)));
+        }
+        service.submit(queued);
+        failuresLeft.set(0);
+        service.shutdown();
+
+        assertThat(processed).hasSize(16);
+        assertThat(service.handledCount()).isEqualTo(16);
+        assertThat(writerThreads).containsExactly("gate-event-writer");
+    }
+
+    private void awaitHandled(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (service.handledCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.handledCount()).isEqualTo(count);
+    }
+
+    private static GateEventVO event(String no, String type, String plate, LocalDateTime time) {
+        GateEventVO event = new GateEventVO();
+        event.setTransactionNo(no);
+        event.setEventType(type);
+        event.setPlateNumber(plate);
+        event.setParkingLotId(1L);
+        event.setEventTime(time);
+        return event;
+    }
+}
@@ -0,0 +1,225 @@
+package com.community.admin.service;
+
+import com.community.admin.domain.entity.ParkingGateEvent;
+import com.community.admin.domain.entity.ParkingRecord;
+import com.community.admin.domain.vo.GateEventVO;
+import com.community.admin.mapper.ParkingRecordDao;
+import com.community.admin.mapper.VehicleDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 道闸事件回放基准：生成一天的模拟出入流量（早晚高峰集中入场、停车时长从十几分钟到十小时不等、
+ * 少量重复上报和无入场的出场），按批提交到 {@link GateEventIngestService}，数据访问用内存数据模拟；
+ * 验证入场、出场、无入场出场和重复的计数与生成的流量一致，并输出吞吐量（事件/秒）
+ */
+class GateEventReplayBenchmarkTest {
+
+    private static final LocalDateTime DAY_START = LocalDate.of(2026, 10, 17).atStartOfDay();
+
+    /**
+     * 已提交的 parking_gate_event：流水号 -> 记录ID
+     */
+    private final Map<String, Long> processed = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private GateEventIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        ParkingRecordDao dao = mock(ParkingRecordDao.class);
+        when(dao.selectOpenSessions(any())).thenReturn(List.of());
+        when(dao.selectProcessedEventNos(anyCollection())).thenAnswer(inv -> {
+            Collection<String> nos = inv.getArgument(0);
+            return nos.stream().filter(processed::containsKey).collect(Collectors.toList());
+        });
+        when(dao.insertBatch(anyList())).thenAnswer(inv -> {
+            List<ParkingRecord> records = inv.getArgument(0);
+            records.forEach(r -> r.setId(ids.incrementAndGet()));
+            return records.size();
+        });
+        when(dao.updateExitBatch(anyList())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        when(dao.insertGateEvents(anyList())).thenAnswer(inv -> {
+            List<ParkingGateEvent> rows = inv.getArgument(0);
+            rows.forEach(row -> assertThat(processed.putIfAbsent(row.getTransactionNo(), row.getRecordId())).isNull());
+            return rows.size();
+        });
+
+        ParkingFeeService feeService = mock(ParkingFeeService.class);
+        when(feeService.feeFor(any(), any(), anyLong())).thenReturn(BigDecimal.TEN);
+
+        service = new GateEventIngestService();
+        ReflectionTestUtils.setField(service, "parkingRecordDao", dao);
+        ReflectionTestUtils.setField(service, "vehicleDao", mock(VehicleDao.class));
+        ReflectionTestUtils.setField(service, "plateSearchIndex", mock(PlateSearchIndex.class));
+        ReflectionTestUtils.setField(service, "parkingFeeService", feeService);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "capacity", 10000);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(service, "openSessionDays", 7);
+        ReflectionTestUtils.setField(service, "dedupRetentionDays", 30);
+        ReflectionTestUtils.setField(service, "retryMaxBackoffMs", 200L);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void replayedDayMatchesGeneratedTraffic() throws Exception {
+        Traffic traffic = generateDay(new Random(20261018L), 2000);
+
+        long start = System.nanoTime();
+        long submitted = 0;
+        for (int i = 0; i < traffic.events.size(); ) {
+            List<GateEventVO> chunk = traffic.events.subList(i, Math.min(traffic.events.size(), i + 50));
+            int accepted = service.submit(chunk).getAccepted();
+            submitted += accepted;
+            i += accepted;
+            if (accepted < chunk.size()) {
+                // 队列已满：像道闸一样稍后重传未接收的部分
+                Thread.sleep(5);
+            }
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (service.handledCount() < submitted && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        System.out.printf("%-10s %10s %10s %12s%n", "vehicles", "events", "elapsedMs", "eventsPerSec");
+        System.out.printf("%-10d %10d %10d %12d%n", 2000, traffic.events.size(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(traffic.events.size() * 1e9 / elapsedNanos));
+
+        assertThat(service.handledCount()).isEqualTo(traffic.events.size());
+        assertThat(service.stats())
+                .containsEntry("entries", traffic.entries)
+                .containsEntry("exits", traffic.exits)
+                .containsEntry("unmatchedExits", traffic.unmatchedExits)
+                .containsEntry("duplicates", traffic.duplicates)
+                .containsEntry("failed", 0L);
+        assertThat(processed).hasSize((int) (traffic.entries + traffic.exits));
+    }
+
+    /**
+     * 生成的一天流量及其中各类事件数
+     */
+    private static class Traffic {
+        private final List<GateEventVO> events = new ArrayList<>();
+        private long entries;
+        private long exits;
+        private long unmatchedExits;
+        private long duplicates;
+    }
+
+    /**
+     * 生成一天的事件：每辆车 1~3 次进出，入场时间 35% 集中在早高峰、35% 在晚高峰、其余分布在 6~23 点；
+     * 当天未出场的车辆只有入场事件；约 2% 的出场没有对应入场，约 3% 的事件重复上报
+     */
+    private static Traffic generateDay(Random random, int vehicles) {
+        Traffic traffic = new Traffic();
+        LocalDateTime dayEnd = DAY_START.plusDays(1);
+        long seq = 0;
+
+        for (int v = 0; v < vehicles; v++) {
+            String plate = "测R" + String.format("%05d", v);
+            long gateLot = 1 + random.nextInt(3);
+            LocalDateTime earliest = DAY_START;
+            int trips = 1 + random.nextInt(3);
+            for (int t = 0; t < trips; t++) {
+                LocalDateTime entry = sampleEntryTime(random);
+                if (entry.isBefore(earliest)) {
+                    entry = earliest.plusMinutes(5 + random.nextInt(30));
+                }
+                if (!entry.isBefore(dayEnd)) {
+                    break;
+                }
+                // 停车时长：对数分布，约 15 分钟 ~ 10 小时
+                long minutes = Math.round(Math.exp(2.7 + random.nextDouble() * 3.7));
+                LocalDateTime exit = entry.plusMinutes(minutes);
+
+                boolean missingEntry = random.nextInt(100) < 2;
+                if (!missingEntry) {
+                    traffic.events.add(event("R-" + (seq++), GateEventVO.ENTRY, plate, gateLot, entry));
+                    traffic.entries++;
+                }
+                if (!exit.isBefore(dayEnd)) {
+                    break;
+                }
+                traffic.events.add(event("R-" + (seq++), GateEventVO.EXIT, plate, gateLot, exit));
+                traffic.exits++;
+                if (missingEntry) {
+                    traffic.unmatchedExits++;
+                }
+                earliest = exit;
+            }
+        }
+
+        // 重复上报：原样再发一次
+        int duplicateCount = traffic.events.size() * 3 / 100;
+        for (int i = 0; i < duplicateCount; i++) {
+            traffic.events.add(traffic.events.get(random.nextInt(traffic.events.size())));
+        }
+        traffic.duplicates = duplicateCount;
+        traffic.events.sort(Comparator.comparing(GateEventVO::getEventTime));
+        return traffic;
+    }
+
+    private static LocalDateTime sampleEntryTime(Random random) {
+        double hour;
+        int bucket = random.nextInt(100);
+        if (bucket < 35) {
+            hour = 8 + random.nextGaussian() * 0.75;
+        } else if (bucket < 70) {
+            hour = 18 + random.nextGaussian();
+        } else {
+            hour = 6 + random.nextDouble() * 17;
+        }
+        hour = Math.max(0, Math.min(23.99, hour));
+        return DAY_START.plusSeconds(Math.round(hour * 3600));
+    }
+
+    private static GateEventVO event(String no, String type, String plate, long lotId, LocalDateTime time) {
+        GateEventVO event = new GateEventVO();
+        event.setTransactionNo(no);
+        event.setEventType(type);
+        event.setPlateNumber(plate);
+        event.setVehicleType("小型车");
+        event.setParkingLotId(lotId);
+        event.setGateNo("G" + lotId + (GateEventVO.ENTRY.equals(type) ? "-IN" : "-OUT"));
+        event.setEventTime(time);
+        return event;
+    }
+}
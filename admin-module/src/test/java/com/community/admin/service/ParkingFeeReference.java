@@ -0,0 +1,109 @@
+package com.community.admin.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+/**
+ * 停车计费参考实现：直接按收费标准描述计算，每次都从原始字段出发，逐个 24 小时周期用 BigDecimal 累加，
+ * 用来校验 {@link ParkingFeeRule} 的结果并作为基准测试的对照
+ */
+final class ParkingFeeReference {
+
+    private ParkingFeeReference() {
+    }
+
+    static BigDecimal fee(Tariff tariff, long minutes) {
+        BigDecimal zero = BigDecimal.ZERO.setScale(2);
+        if (minutes <= 0) {
+            return zero;
+        }
+        if (tariff.freeDuration != null && tariff.freeDuration > 0 && minutes <= tariff.freeDuration) {
+            return zero;
+        }
+        BigDecimal firstFee = positive(tariff.firstFee);
+        BigDecimal unitFee = positive(tariff.unitFee);
+        int firstDuration = tariff.firstDuration != null && tariff.firstDuration > 0 ? tariff.firstDuration : 0;
+        int unitDuration = tariff.unitDuration != null && tariff.unitDuration > 0 ? tariff.unitDuration : 0;
+        boolean capped = tariff.dailyMaxFee != null && tariff.dailyMaxFee.signum() > 0;
+
+        BigDecimal total = zero;
+        long remaining = minutes;
+        while (remaining > 0) {
+            long period = Math.min(remaining, ParkingFeeRule.MINUTES_PER_DAY);
+            BigDecimal fee = firstFee;
+            if (period > firstDuration && unitDuration > 0) {
+                BigDecimal units = BigDecimal.valueOf(period - firstDuration)
+                        .divide(BigDecimal.valueOf(unitDuration), 0, RoundingMode.CEILING);
+                fee = fee.add(unitFee.multiply(units));
+            }
+            if (capped && fee.compareTo(tariff.dailyMaxFee) > 0) {
+                fee = tariff.dailyMaxFee;
+            }
+            total = total.add(fee);
+            remaining -= period;
+        }
+        return total.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal positive(BigDecimal amount) {
+        return amount != null && amount.signum() > 0 ? amount.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    /**
+     * 随机收费参数，约 10% 的字段未配置
+     */
+    static Tariff randomTariff(Random random) {
+        Tariff tariff = new Tariff();
+        tariff.freeDuration = random.nextInt(10) == 0 ? null : random.nextInt(4) * 15;
+        tariff.firstDuration = random.nextInt(10) == 0 ? null : (1 + random.nextInt(4)) * 30;
+        tariff.firstFee = random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(2001), 2);
+        tariff.unitDuration = random.nextInt(10) == 0 ? null : (1 + random.nextInt(4)) * 15;
+        tariff.unitFee = random.nextInt(10) == 0 ? null : BigDecimal.valueOf(random.nextInt(1001), 2);
+        tariff.dailyMaxFee = random.nextInt(4) == 0 ? null : BigDecimal.valueOf(1000 + random.nextInt(9001), 2);
+        return tariff;
+    }
+
+    /**
+     * 随机停车时长：一半落在免费时长、首段、整日附近的边界上，其余在 0~7 天内均匀分布
+     */
+    static long randomMinutes(Random random, Tariff tariff) {
+        if (random.nextBoolean()) {
+            return random.nextInt(7 * ParkingFeeRule.MINUTES_PER_DAY + 1);
+        }
+        long base;
+        switch (random.nextInt(3)) {
+            case 0:
+                base = tariff.freeDuration != null ? tariff.freeDuration : 0;
+                break;
+            case 1:
+                base = tariff.firstDuration != null ? tariff.firstDuration : 0;
+                break;
+            default:
+                base = (long) (1 + random.nextInt(6)) * ParkingFeeRule.MINUTES_PER_DAY;
+        }
+        return Math.max(0, base + random.nextInt(3) - 1);
+    }
+
+    /**
+     * 停车场收费字段（与 ParkingLot 同名）
+     */
+    static class Tariff {
+        Integer freeDuration;
+        Integer firstDuration;
+        BigDecimal firstFee;
+        Integer unitDuration;
+        BigDecimal unitFee;
+        BigDecimal dailyMaxFee;
+
+        ParkingFeeRule compile() {
+            return ParkingFeeRule.of(0L, freeDuration, firstDuration, firstFee, unitDuration, unitFee, dailyMaxFee);
+        }
+
+        @Override
+        public String toString() {
+            return "Tariff{free=" + freeDuration + ", first=" + firstDuration + "/" + firstFee
+                    + ", unit=" + unitDuration + "/" + unitFee + ", dailyMax=" + dailyMaxFee + "}";
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.community.admin.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 停车计费基准：预热后分别计时编译规则和参考实现，
+ * 两种实现的合计结果必须一致（同时防止计算被优化掉），并输出每次计算的耗时
+ */
+class ParkingFeeRuleBenchmarkTest {
+
+    /**
+     * 停车时长样本数（2 的幂，按位取模）
+     */
+    private static final int DURATION_SAMPLES = 1 << 12;
+    private static final int ITERATIONS = 200_000;
+
+    @Test
+    void compiledRuleIsConsistentWithAndFasterThanReference() {
+        Random random = new Random(20261018L);
+        System.out.printf("%-90s %14s %14s %10s%n", "rule", "compiledNs", "referenceNs", "speedup");
+        for (int round = 0; round < 3; round++) {
+            ParkingFeeReference.Tariff tariff = ParkingFeeReference.randomTariff(random);
+            ParkingFeeRule rule = tariff.compile();
+            long[] minutes = new long[DURATION_SAMPLES];
+            for (int i = 0; i < minutes.length; i++) {
+                minutes[i] = ParkingFeeReference.randomMinutes(random, tariff);
+            }
+
+            // 预热，让JIT完成编译
+            runCompiled(rule, minutes, ITERATIONS);
+            runReference(tariff, minutes, ITERATIONS / 10);
+
+            long start = System.nanoTime();
+            long compiledSum = runCompiled(rule, minutes, ITERATIONS);
+            long compiledNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            long referenceSum = runReference(tariff, minutes, ITERATIONS);
+            long referenceNanos = System.nanoTime() - start;
+
+            double compiledNs = (double) compiledNanos / ITERATIONS;
+            double referenceNs = (double) referenceNanos / ITERATIONS;
+            System.out.printf("%-90s %14.1f %14.1f %10.1f%n", rule, compiledNs, referenceNs, referenceNs / compiledNs);
+            assertThat(compiledSum).as("%s", tariff).isEqualTo(referenceSum);
+            assertThat(compiledNanos).isLessThan(referenceNanos);
+        }
+    }
+
+    private static long runCompiled(ParkingFeeRule rule, long[] minutes, int iterations) {
+        long sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            sum += rule.feeCents(minutes[i & (DURATION_SAMPLES - 1)]);
+        }
+        return sum;
+    }
+
+    private static long runReference(ParkingFeeReference.Tariff tariff, long[] minutes, int iterations) {
+        long sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            sum += ParkingFeeReference.fee(tariff, minutes[i & (DURATION_SAMPLES - 1)]).movePointRight(2).longValue();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,85 @@
+package com.community.admin.service;
+
+import com.community.admin.domain.entity.ParkingLot;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParkingFeeRuleTest {
+
+    @Test
+    void compiledRuleMatchesReferenceOnRandomTariffsAndBoundaryDurations() {
+        long seed = 20261018L;
+        Random random = new Random(seed);
+        for (int t = 0; t < 2_000; t++) {
+            ParkingFeeReference.Tariff tariff = ParkingFeeReference.randomTariff(random);
+            ParkingFeeRule rule = tariff.compile();
+            for (int d = 0; d < 200; d++) {
+                long minutes = ParkingFeeReference.randomMinutes(random, tariff);
+                assertThat(rule.fee(minutes))
+                        .as("seed=%d %s minutes=%d", seed, tariff, minutes)
+                        .isEqualByComparingTo(ParkingFeeReference.fee(tariff, minutes));
+            }
+        }
+    }
+
+    @Test
+    void feeIsMonotonicWithinDayAndMultiDayStaysAreWholeDaysPlusRemainder() {
+        Random random = new Random(7L);
+        for (int t = 0; t < 500; t++) {
+            ParkingFeeReference.Tariff tariff = ParkingFeeReference.randomTariff(random);
+            ParkingFeeRule rule = tariff.compile();
+            long previous = 0;
+            for (long minutes = 0; minutes <= ParkingFeeRule.MINUTES_PER_DAY; minutes++) {
+                long fee = rule.feeCents(minutes);
+                assertThat(fee).as("%s minutes=%d", rule, minutes).isGreaterThanOrEqualTo(previous);
+                previous = fee;
+            }
+
+            // 免费时长只看总时长，最后不足一天的部分按无免费时长计费
+            tariff.freeDuration = null;
+            ParkingFeeRule noFree = tariff.compile();
+            long day = rule.feeCents(ParkingFeeRule.MINUTES_PER_DAY);
+            int days = 1 + random.nextInt(5);
+            int remainder = random.nextInt(ParkingFeeRule.MINUTES_PER_DAY);
+            long minutes = (long) days * ParkingFeeRule.MINUTES_PER_DAY + remainder;
+            assertThat(rule.feeCents(minutes)).as("%s minutes=%d", rule, minutes)
+                    .isEqualTo(days * day + noFree.feeCents(remainder));
+        }
+    }
+
+    @Test
+    void unconfiguredFieldsFallBackToUnitOnlyFirstOnlyOrUncapped() {
+        assertThat(ParkingFeeRule.of(0L, null, null, null, 30, new BigDecimal("2"), null).fee(61))
+                .isEqualByComparingTo("6.00");
+        assertThat(ParkingFeeRule.of(0L, null, 60, new BigDecimal("8"), null, new BigDecimal("2"), null).fee(600))
+                .isEqualByComparingTo("8.00");
+        assertThat(ParkingFeeRule.of(0L, 0, 60, new BigDecimal("5"), 60, new BigDecimal("1"), BigDecimal.ZERO)
+                .fee(ParkingFeeRule.MINUTES_PER_DAY)).isEqualByComparingTo("28.00");
+        assertThat(ParkingFeeRule.of(0L, null, null, null, null, null, null).fee(3000)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void compileReadsParkingLotFields() {
+        ParkingLot lot = new ParkingLot();
+        lot.setId(9L);
+        lot.setFreeDuration(15);
+        lot.setFirstDuration(60);
+        lot.setFirstFee(new BigDecimal("5"));
+        lot.setUnitDuration(30);
+        lot.setUnitFee(new BigDecimal("2.005"));
+        lot.setDailyMaxFee(new BigDecimal("30"));
+        ParkingFeeRule rule = ParkingFeeRule.compile(lot);
+
+        assertThat(rule.getLotId()).isEqualTo(9L);
+        assertThat(rule.fee(15)).isEqualByComparingTo("0");
+        assertThat(rule.fee(16)).isEqualByComparingTo("5.00");
+        assertThat(rule.fee(61)).isEqualByComparingTo("7.01");
+        assertThat(rule.fee(24 * 60)).isEqualByComparingTo("30.00");
+        assertThat(rule.fee(24 * 60 + 20)).isEqualByComparingTo("35.00");
+        assertThat(rule.fee(-5)).isEqualByComparingTo("0");
+    }
+}
@@ -0,0 +1,132 @@
+package com.community.admin.service;
+
+import com.community.admin.domain.entity.ParkingLot;
+import com.community.admin.domain.entity.ParkingSpace;
+import com.community.admin.mapper.ParkingLotDao;
+import com.community.admin.mapper.ParkingRecordDao;
+import com.community.admin.mapper.ParkingSpaceDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ParkingFeeServiceTest {
+
+    private static final Long LOT_ID = 1L;
+
+    private final AtomicReference<BigDecimal> firstFee = new AtomicReference<>(new BigDecimal("5"));
+    private final AtomicReference<Long> monthlyVehicle = new AtomicReference<>(100L);
+    /**
+     * 下一次读取时先返回旧数据，并在读取期间模拟一次变更
+     */
+    private volatile Runnable duringLoad;
+
+    private ParkingLotDao lotDao;
+    private ParkingSpaceDao spaceDao;
+    private ParkingFeeService service;
+
+    @BeforeEach
+    void setUp() {
+        lotDao = mock(ParkingLotDao.class);
+        spaceDao = mock(ParkingSpaceDao.class);
+        when(lotDao.selectById(anyLong())).thenAnswer(inv -> {
+            ParkingLot lot = lot(inv.getArgument(0), firstFee.get());
+            runDuringLoad();
+            return lot;
+        });
+        when(spaceDao.selectList(any())).thenAnswer(inv -> {
+            ParkingSpace space = new ParkingSpace();
+            space.setParkingLotId(LOT_ID);
+            space.setVehicleId(monthlyVehicle.get());
+            runDuringLoad();
+            return List.of(space);
+        });
+        service = new ParkingFeeService();
+        ReflectionTestUtils.setField(service, "parkingLotDao", lotDao);
+        ReflectionTestUtils.setField(service, "parkingSpaceDao", spaceDao);
+        ReflectionTestUtils.setField(service, "parkingRecordDao", mock(ParkingRecordDao.class));
+    }
+
+    @Test
+    void ruleIsCachedUntilLotChanges() {
+        assertThat(service.feeFor(LOT_ID, null, 30)).isEqualByComparingTo("5.00");
+        assertThat(service.feeFor(LOT_ID, null, 30)).isEqualByComparingTo("5.00");
+        verify(lotDao, times(1)).selectById(LOT_ID);
+
+        firstFee.set(new BigDecimal("6"));
+        service.onDataChange("ParkingLot", String.valueOf(LOT_ID));
+
+        assertThat(service.feeFor(LOT_ID, null, 30)).isEqualByComparingTo("6.00");
+        verify(lotDao, times(2)).selectById(LOT_ID);
+    }
+
+    @Test
+    void ruleLoadedBeforeConcurrentChangeIsNotCached() {
+        // 读取停车场之后、写入缓存之前收到变更消息
+        duringLoad = () -> {
+            firstFee.set(new BigDecimal("8"));
+            service.onDataChange("ParkingLot", LOT_ID);
+        };
+
+        assertThat(service.feeFor(LOT_ID, null, 30)).isEqualByComparingTo("5.00");
+        assertThat(service.feeFor(LOT_ID, null, 30)).isEqualByComparingTo("8.00");
+        assertThat(service.feeFor(LOT_ID, null, 30)).isEqualByComparingTo("8.00");
+        verify(lotDao, times(2)).selectById(LOT_ID);
+    }
+
+    @Test
+    void unknownLotChangeInvalidatesAllRules() {
+        service.ruleFor(LOT_ID);
+        service.ruleFor(2L);
+
+        service.onDataChange("ParkingLot", "not-a-number");
+        service.ruleFor(LOT_ID);
+        service.ruleFor(2L);
+
+        verify(lotDao, times(2)).selectById(LOT_ID);
+        verify(lotDao, times(2)).selectById(2L);
+    }
+
+    @Test
+    void monthlyVehiclesLoadedBeforeConcurrentChangeAreReloaded() {
+        duringLoad = () -> {
+            monthlyVehicle.set(200L);
+            service.onDataChange("ParkingSpace", 9L);
+        };
+
+        assertThat(service.isMonthly(LOT_ID, 100L)).isTrue();
+        assertThat(service.isMonthly(LOT_ID, 200L)).isTrue();
+        assertThat(service.isMonthly(LOT_ID, 100L)).isFalse();
+        assertThat(service.feeFor(LOT_ID, 200L, 600)).isEqualByComparingTo("0.00");
+        verify(spaceDao, times(2)).selectList(any());
+    }
+
+    private void runDuringLoad() {
+        Runnable action = duringLoad;
+        duringLoad = null;
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    private static ParkingLot lot(Long id, BigDecimal firstFee) {
+        ParkingLot lot = new ParkingLot();
+        lot.setId(id);
+        lot.setFirstDuration(60);
+        lot.setFirstFee(firstFee);
+        lot.setUnitDuration(30);
+        lot.setUnitFee(BigDecimal.ONE);
+        return lot;
+    }
+}
@@ -0,0 +1,36 @@
+package com.community.owner.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 当前登录用户
+ * 由 JWT 过滤器在认证时解析一次并保存在请求属性上，Controller 通过 {@link CurrentUser} 注入，
+ * 不再每个请求按用户名查询业主表
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthPrincipal {
+
+    /**
+     * 业主ID
+     */
+    private final Long id;
+
+    /**
+     * 用户名
+     */
+    private final String username;
+
+    /**
+     * 姓名
+     */
+    private final String name;
+
+    /**
+     * 角色(owner/staff)
+     */
+    private final String role;
+}
@@ -0,0 +1,17 @@
+package com.community.owner.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 注入当前登录用户
+ * 标在 Controller 方法的 {@link AuthPrincipal} 参数上，值为 JWT 过滤器解析好的当前用户，未登录或用户不存在时为 null
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+}
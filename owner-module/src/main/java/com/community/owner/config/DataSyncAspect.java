@@ -4,16 +4,20 @@ import com.community.owner.service.RedisMessageService;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import lombok.extern.slf4j.Slf4j;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 
 /**
  * 数据同步切面
- * 自动在增删改操作后发布Redis消息，实现实时数据同步
+ * 自动在增删改操作后发布Redis消息，实现实时数据同步。
+ * 只处理标有 {@link SyncEntity} 的Service，实体类型、操作类型和ID访问器由 {@link SyncEntityRegistry} 预先解析
  */
 @Aspect
 @Component
@@ -24,122 +28,68 @@ public class DataSyncAspect {
     private RedisMessageService redisMessageService;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private SyncEntityRegistry syncEntityRegistry;
+
+    /**
+     * 新增实体取不到ID时直接抛出异常（开发环境开启），否则只记录错误日志
+     */
+    @Value("${data-sync.strict-id:false}")
+    private boolean strictId;
 
     /**
      * 拦截Service层的增删改操作
-     * 包括MyBatis Plus的标准方法和自定义方法
+     * 按方法名匹配（含继承自 MyBatis-Plus 的标准方法），或方法上显式标注了 SyncEntity
      */
-    @AfterReturning(pointcut = "execution(* com.community.owner.service..*Service*.save*(..)) || " +
-                              "execution(* com.community.owner.service..*Service*.update*(..)) || " +
-                              "execution(* com.community.owner.service..*Service*.delete*(..)) || " +
-                              "execution(* com.community.owner.service..*Service*.remove*(..)) || " +
-                              "execution(* com.community.owner.service..*Service*.create*(..)) || " +
-                              "execution(* com.community.owner.service..*Service*.add*(..)) || " +
-                              "execution(* com.community.owner.service..*ServiceImpl.save*(..)) || " +
-                              "execution(* com.community.owner.service..*ServiceImpl.update*(..)) || " +
-                              "execution(* com.community.owner.service..*ServiceImpl.delete*(..)) || " +
-                              "execution(* com.community.owner.service..*ServiceImpl.remove*(..)) || " +
-                              "execution(* com.community.owner.service..*ServiceImpl.create*(..)) || " +
-                              "execution(* com.community.owner.service..*ServiceImpl.add*(..))", 
+    @AfterReturning(pointcut = "bean(*ServiceImpl) && (" +
+                              "execution(* save*(..)) || " +
+                              "execution(* update*(..)) || " +
+                              "execution(* delete*(..)) || " +
+                              "execution(* remove*(..)) || " +
+                              "execution(* create*(..)) || " +
+                              "execution(* add*(..)) || " +
+                              "@annotation(com.community.owner.config.SyncEntity))", 
                     returning = "result")
     public void afterDataModification(JoinPoint joinPoint, Object result) {
+        String missingId = null;
         try {
-            String methodName = joinPoint.getSignature().getName();
-            String className = joinPoint.getTarget().getClass().getSimpleName();
-            Object[] args = joinPoint.getArgs();
+            Class<?> targetClass = AopUtils.getTargetClass(joinPoint.getTarget());
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            SyncEntityRegistry.Binding binding = syncEntityRegistry.resolve(targetClass, method);
+            if (binding == null || isFailed(result)) {
+                return;
+            }
 
-            // 确定操作类型
-            String action = determineAction(methodName);
-            
-            // 确定实体类型
-            String entityType = determineEntityType(className);
-            
-            // 获取实体ID（通常是第一个参数或返回结果中的ID）
-            Object entityId = extractEntityId(args, result);
-            
-            if (action != null && entityType != null) {
-                // 发布数据变更消息
-                redisMessageService.publishOwnerChange(action, entityType, entityId, result);
-                
-                // 更新最后更新时间
-                String key = "community:last_update:" + entityType;
-                redisTemplate.opsForValue().set(key, String.valueOf(System.currentTimeMillis()));
-                
-                log.info("Published data sync message: action={}, entityType={}, entityId={}", 
-                        action, entityType, entityId);
+            Object[] args = joinPoint.getArgs();
+            Object entityId = binding.extractId(args, result);
+            if (entityId == null && binding.requiresId(args)) {
+                missingId = binding.getEntityClass() + " <- " + targetClass.getSimpleName() + "." + method.getName();
             }
-            
+
+            // 发布数据变更消息
+            redisMessageService.publishDataChange("owner", binding.getAction(), binding.getEntityType(),
+                    binding.getEntityClass(), entityId, result);
+
+            log.debug("Published data sync message: action={}, entityType={}, entityClass={}, entityId={}", 
+                    binding.getAction(), binding.getEntityType(), binding.getEntityClass(), entityId);
         } catch (Exception e) {
             log.error("Error in data sync aspect", e);
         }
-    }
-
-    /**
-     * 根据方法名确定操作类型
-     */
-    private String determineAction(String methodName) {
-        if (methodName.startsWith("save") || methodName.startsWith("create") || methodName.startsWith("add")) {
-            return "CREATE";
-        } else if (methodName.startsWith("update")) {
-            return "UPDATE";
-        } else if (methodName.startsWith("delete") || methodName.startsWith("remove")) {
-            return "DELETE";
-        }
-        return null;
-    }
-
-    /**
-     * 根据Service类名确定实体类型
-     */
-    private String determineEntityType(String className) {
-        if (className.contains("Owner")) {
-            return "Owner";
-        } else if (className.contains("House")) {
-            return "House";
-        } else if (className.contains("Notice")) {
-            return "CommunityNotice";
-        } else if (className.contains("Community")) {
-            return "CommunityInfo";
-        } else if (className.contains("Issue")) {
-            return "OwnerIssue";
-        } else if (className.contains("Vehicle")) {
-            return "Vehicle";
-        } else if (className.contains("Parking")) {
-            return "ParkingSpace";
+        if (missingId != null) {
+            // 没有ID的新增消息会让下游按“全部失效”处理
+            if (strictId) {
+                throw new IllegalStateException("Data sync CREATE message has no entity id: " + missingId);
+            }
+            log.error("Data sync CREATE message has no entity id: {}", missingId);
         }
-        return className.replace("Service", "");
     }
 
     /**
-     * 提取实体ID
+     * 操作未成功（返回 false 或 success=false 的响应）时不发布消息
      */
-    private Object extractEntityId(Object[] args, Object result) {
-        // 尝试从参数中获取ID
-        if (args != null && args.length > 0) {
-            Object firstArg = args[0];
-            if (firstArg instanceof Number) {
-                return firstArg;
-            }
-            // 尝试通过反射获取ID字段
-            try {
-                Method getIdMethod = firstArg.getClass().getMethod("getId");
-                return getIdMethod.invoke(firstArg);
-            } catch (Exception e) {
-                // 忽略异常，继续尝试其他方式
-            }
-        }
-        
-        // 尝试从返回结果中获取ID
-        if (result != null) {
-            try {
-                Method getIdMethod = result.getClass().getMethod("getId");
-                return getIdMethod.invoke(result);
-            } catch (Exception e) {
-                // 忽略异常
-            }
+    private boolean isFailed(Object result) {
+        if (Boolean.FALSE.equals(result)) {
+            return true;
         }
-        
-        return null;
+        return result instanceof Map && Boolean.FALSE.equals(((Map<?, ?>) result).get("success"));
     }
 }
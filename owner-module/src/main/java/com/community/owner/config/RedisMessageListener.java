@@ -1,5 +1,12 @@
 package com.community.owner.config;
 
+import com.community.owner.service.AuthPrincipalService;
+import com.community.owner.service.OwnerBillingProjectionService;
+import com.community.owner.service.RealtimePushHub;
+import com.community.owner.service.RedisMessageService;
+import com.community.owner.service.KnowledgeDocumentCache;
+import com.community.owner.service.KnowledgeRetrievalIndex;
+import com.community.owner.service.SmartQaAnswerCache;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.stereotype.Component;
@@ -20,6 +27,24 @@ public class RedisMessageListener implements MessageListener {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private RealtimePushHub realtimePushHub;
+
+    @Autowired
+    private KnowledgeDocumentCache knowledgeDocumentCache;
+
+    @Autowired
+    private KnowledgeRetrievalIndex knowledgeRetrievalIndex;
+
+    @Autowired
+    private SmartQaAnswerCache smartQaAnswerCache;
+
+    @Autowired
+    private AuthPrincipalService authPrincipalService;
+
+    @Autowired
+    private OwnerBillingProjectionService ownerBillingProjectionService;
+
     @Override
     public void onMessage(Message message, byte[] pattern) {
         try {
@@ -30,6 +55,9 @@ public class RedisMessageListener implements MessageListener {
             
             // 解析消息内容
             Map<String, Object> messageData = objectMapper.readValue(messageBody, Map.class);
+
+            // 推送给本节点订阅了该事件的SSE客户端
+            forwardToSse(channel, messageData);
             
             // 检查消息类型
             String messageType = (String) messageData.get("type");
@@ -43,6 +71,19 @@ public class RedisMessageListener implements MessageListener {
                 String action = (String) messageData.get("action");
                 String entityType = (String) messageData.get("entityType");
                 Object entityId = messageData.get("entityId");
+                // 实体的确切类名；entityType 是按Service类名推断的名称，可能是多个实体共用的
+                String entityClass = messageData.get("entityClass") != null
+                        ? (String) messageData.get("entityClass") : entityType;
+
+                // 业主信息变更（含本模块）失效当前用户缓存，数据变更只取通用主题上的消息
+                if ("Owner".equals(entityClass) && RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+                    authPrincipalService.evict(entityId);
+                }
+
+                // 抄表、车位、问题费用等变更（含本模块）刷新受影响业主的缴费卡片投影
+                if (RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+                    ownerBillingProjectionService.onDataChange(entityClass, entityId, messageData.get("data"));
+                }
                 
                 // 如果是来自其他模块的消息，处理数据同步
                 if (!"owner".equals(module)) {
@@ -85,6 +126,12 @@ public class RedisMessageListener implements MessageListener {
             case "OwnerIssue":
                 handleOwnerIssueSync(action, entityId, messageData);
                 break;
+            case "SmartQaKnowledge":
+                // 管理端的变更会同时发到通用主题和管理端主题，只处理通用主题上的一份
+                if (RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+                    handleKnowledgeSync(action, entityId, messageData);
+                }
+                break;
             default:
                 log.debug("No specific sync handler for entity type: {}", entityType);
         }
@@ -117,6 +164,17 @@ public class RedisMessageListener implements MessageListener {
         // 这里可以添加具体的缓存更新或其他同步逻辑
     }
 
+    private void handleKnowledgeSync(String action, Object entityId, Map<String, Object> messageData) {
+        // 知识库文档变更，失效已解析的文档缓存、增量更新检索索引并清空答案缓存
+        log.info("Syncing knowledge data: action={}, entityId={}", action, entityId);
+        if (entityId instanceof Number) {
+            Long knowledgeId = ((Number) entityId).longValue();
+            knowledgeDocumentCache.evict(knowledgeId);
+            knowledgeRetrievalIndex.refreshAsync(knowledgeId);
+        }
+        smartQaAnswerCache.invalidateAll();
+    }
+
     /**
      * 处理通知消息
      */
@@ -139,4 +197,20 @@ public class RedisMessageListener implements MessageListener {
             // 这里可以通过WebSocket或SSE通知前端刷新
         }
     }
+
+    /**
+     * 转发到本节点的SSE连接：数据变更只取通用主题上的消息（模块主题上是同一消息的副本），
+     * 通知按目标用户定向投递，连接的订阅条件在推送中心内过滤
+     */
+    private void forwardToSse(String channel, Map<String, Object> messageData) {
+        messageData.remove("@class");
+        if ("notification".equals(messageData.get("type"))) {
+            Object targetUserId = messageData.get("targetUserId");
+            realtimePushHub.publish("notification", messageData, null, null,
+                    targetUserId != null ? String.valueOf(targetUserId) : null);
+        } else if (RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+            realtimePushHub.publish("dataChange", messageData,
+                    (String) messageData.get("module"), (String) messageData.get("entityType"), null);
+        }
+    }
 }
@@ -1,15 +1,15 @@
 package com.community.owner.controller;
 
+import com.community.owner.config.AuthPrincipal;
+import com.community.owner.service.AuthPrincipalService;
 import com.community.owner.domain.dto.vo.NoticeListVO;
 import com.community.owner.domain.dto.vo.NoticeDetailVO;
 import com.community.owner.domain.dto.request.NoticeFilterRequest;
 import com.community.owner.domain.dto.request.NoticeSearchRequest;
 import com.community.owner.service.RedisMessageService;
-import com.community.owner.utils.JwtUtil;
-import com.community.owner.domain.entity.Owner;
 import com.community.owner.service.CommunityNoticeService;
-import com.community.owner.service.OwnerService;
 import com.community.owner.service.OwnerQueryService;
+import com.community.owner.service.ViewCounterService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -37,13 +37,13 @@ public class CommunityNoticeController {
     private CommunityNoticeService communityNoticeService;
     
     @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
     
     @Autowired
-    private JwtUtil jwtUtil;
+    private OwnerQueryService ownerQueryService;
 
     @Autowired
-    private OwnerQueryService ownerQueryService;
+    private ViewCounterService viewCounterService;
     
     @Value("${aliyun.oss.bucket-name}")
     private String bucketName;
@@ -89,11 +89,7 @@ public class CommunityNoticeController {
             System.out.println("========== 开始查询首页公告 ==========");
             System.out.println("请求参数 - page: " + page + ", size: " + size);
             
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            System.out.println("用户名: " + username);
-            
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             if (owner == null) {
                 System.out.println("错误：用户不存在");
                 response.put("success", false);
@@ -143,9 +139,9 @@ public class CommunityNoticeController {
                         vo.setPublishTime(new java.sql.Timestamp((Long) timeObj).toLocalDateTime());
                     }
                 }
-                if (raw.get("read_count") != null) {
-                    vo.setReadCount(((Number) raw.get("read_count")).intValue());
-                }
+                // 阅读次数合并尚未写入数据库的增量
+                Integer readCount = raw.get("read_count") != null ? ((Number) raw.get("read_count")).intValue() : null;
+                vo.setReadCount(viewCounterService.noticeReadCount(vo.getId(), readCount));
                 items.add(vo);
             }
             System.out.println("转换后的VO数据数量: " + items.size());
@@ -188,10 +184,7 @@ public class CommunityNoticeController {
         
         Map<String, Object> response = new HashMap<>();
         try {
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             if (owner == null) {
                 response.put("success", false);
                 response.put("message", "用户不存在");
@@ -230,10 +223,7 @@ public class CommunityNoticeController {
         
         Map<String, Object> response = new HashMap<>();
         try {
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             if (owner == null) {
                 response.put("success", false);
                 response.put("message", "用户不存在");
@@ -266,10 +256,7 @@ public class CommunityNoticeController {
         
         Map<String, Object> response = new HashMap<>();
         try {
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             if (owner == null) {
                 response.put("success", false);
                 response.put("message", "用户不存在");
@@ -300,10 +287,7 @@ public class CommunityNoticeController {
         
         Map<String, Object> response = new HashMap<>();
         try {
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             if (owner == null) {
                 response.put("success", false);
                 response.put("message", "用户不存在");
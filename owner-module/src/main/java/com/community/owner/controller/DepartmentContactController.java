@@ -1,10 +1,9 @@
 package com.community.owner.controller;
 
+import com.community.owner.config.AuthPrincipal;
+import com.community.owner.service.AuthPrincipalService;
 import com.community.owner.domain.dto.vo.DepartmentContactVO;
 import com.community.owner.service.RedisMessageService;
-import com.community.owner.utils.JwtUtil;
-import com.community.owner.domain.entity.Owner;
-import com.community.owner.service.OwnerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -33,10 +32,7 @@ public class DepartmentContactController {
     private RedisMessageService redisMessageService;
     
     @Autowired
-    private OwnerService ownerService;
-    
-    @Autowired
-    private JwtUtil jwtUtil;
+    private AuthPrincipalService authPrincipalService;
     
     @Autowired
     private JdbcTemplate jdbcTemplate;
@@ -60,9 +56,7 @@ public class DepartmentContactController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
@@ -129,9 +123,7 @@ public class DepartmentContactController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
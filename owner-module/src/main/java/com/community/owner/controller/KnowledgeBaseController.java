@@ -1,11 +1,10 @@
 package com.community.owner.controller;
 
+import com.community.owner.config.AuthPrincipal;
+import com.community.owner.service.AuthPrincipalService;
 import com.community.owner.domain.dto.response.AIDialogResponse;
 import com.community.owner.domain.entity.SmartQaKnowledge;
 import com.community.owner.service.RedisMessageService;
-import com.community.owner.utils.JwtUtil;
-import com.community.owner.domain.entity.Owner;
-import com.community.owner.service.OwnerService;
 import com.community.owner.service.AIDialogService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -39,11 +38,8 @@ public class KnowledgeBaseController {
     private AIDialogService aiDialogService;
     
     @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
     
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @Autowired
     private RedisMessageService redisMessageService;
     
@@ -69,9 +65,7 @@ public class KnowledgeBaseController {
         
         try {
             // 验证用户
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 logger.warn("用户验证失败: token无效");
@@ -131,9 +125,7 @@ public class KnowledgeBaseController {
         
         try {
             // 验证用户
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 logger.warn("用户验证失败: token无效");
@@ -188,9 +180,7 @@ public class KnowledgeBaseController {
         
         try {
             // 验证用户
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 resp.put("success", false);
@@ -234,9 +224,7 @@ public class KnowledgeBaseController {
         
         try {
             // 验证用户
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 resp.put("success", false);
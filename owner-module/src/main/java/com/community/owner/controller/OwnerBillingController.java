@@ -1,15 +1,15 @@
 package com.community.owner.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.owner.config.AuthPrincipal;
 import com.community.owner.service.*;
-import com.community.owner.utils.JwtUtil;
 import com.community.owner.domain.entity.HouseOwner;
 import com.community.owner.domain.entity.MeterConfig;
 import com.community.owner.domain.entity.MeterInfo;
 import com.community.owner.domain.entity.MeterReading;
-import com.community.owner.domain.entity.Owner;
 import com.community.owner.domain.entity.House;
 import com.community.owner.domain.entity.Building;
+import com.fasterxml.jackson.databind.util.RawValue;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,10 +24,7 @@ import java.util.*;
 public class OwnerBillingController {
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
 
     @Autowired
     private HouseOwnerService houseOwnerService;
@@ -50,13 +47,14 @@ public class OwnerBillingController {
     @Autowired
     private OwnerQueryService ownerQueryService;
 
+    @Autowired
+    private OwnerBillingProjectionService ownerBillingProjectionService;
+
     @Autowired
     private RedisMessageService redisMessageService;
 
-    private Owner getCurrentOwner(String token) {
-        String realToken = token.replace("Bearer ", "");
-        String username = jwtUtil.getUsernameFromToken(realToken);
-        return ownerService.findByUsername(username);
+    private AuthPrincipal getCurrentOwner(String token) {
+        return authPrincipalService.resolve(token);
     }
 
     @GetMapping("/cards")
@@ -66,125 +64,18 @@ public class OwnerBillingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
                 return resp;
             }
 
-            List<Map<String, Object>> cards = new ArrayList<>();
-
-            // 1. 查询仪表账单（仅包含有抄表记录的仪表）
-            List<Map<String, Object>> meterItems = ownerQueryService.listOwnerBillingCardsWithDetails(me.getId());
-            if (meterItems != null && !meterItems.isEmpty()) {
-                for (Map<String, Object> row : meterItems) {
-                    Map<String, Object> card = new LinkedHashMap<>();
-                    card.put("billType", "meter");  // 账单类型：仪表
-                    card.put("meterId", row.get("id"));
-                    card.put("houseId", row.get("house_id"));
-                    card.put("meterName", row.get("meter_name"));
-                    card.put("categoryName", row.get("category_name"));
-                    card.put("meterType", row.get("meter_type"));
-                    card.put("unit", row.get("unit"));
-                    card.put("roomNo", row.get("room_no"));
-                    card.put("fullRoomNo", row.get("full_room_no"));
-                    card.put("buildingNo", row.get("building_no"));
-                    card.put("buildingName", row.get("building_name"));
-                    
-                    // 从meter_reading获取用量信息
-                    BigDecimal usage = row.get("usage_amount") != null ? 
-                            new BigDecimal(row.get("usage_amount").toString()) : BigDecimal.ZERO;
-                    
-                    // 获取单价（从meter_config）
-                    BigDecimal unitPrice = row.get("unit_price") != null ? 
-                            new BigDecimal(row.get("unit_price").toString()) : BigDecimal.ZERO;
-                    
-                    // 计算应缴金额 = 用量 × 单价
-                    BigDecimal amount = usage.multiply(unitPrice);
-                    
-                    // 仅添加有待缴费用的账单
-                    if (amount.compareTo(BigDecimal.ZERO) > 0) {
-                        card.put("usage", usage);
-                        card.put("unitPrice", unitPrice);
-                        card.put("amount", amount);
-                        card.put("lastReadingDate", row.get("reading_date"));
-                        card.put("readingUnit", row.get("reading_unit"));
-                        cards.add(card);
-                    }
-                }
-            }
-
-            // 2. 查询停车位账单
-            List<Map<String, Object>> parkingItems = ownerQueryService.listOwnerParkingBillingWithDetails(me.getId());
-            if (parkingItems != null && !parkingItems.isEmpty()) {
-                for (Map<String, Object> row : parkingItems) {
-                    Map<String, Object> card = new LinkedHashMap<>();
-                    card.put("billType", "parking");  // 账单类型：停车位
-                    card.put("parkingSpaceId", row.get("parking_space_id"));
-                    card.put("spaceNo", row.get("space_no"));
-                    card.put("fullSpaceNo", row.get("full_space_no"));
-                    card.put("spaceType", row.get("space_type"));
-                    card.put("lotName", row.get("lot_name"));
-                    card.put("lotCode", row.get("lot_code"));
-                    card.put("zoneName", row.get("zone_name"));
-                    card.put("plateNumber", row.get("plate_number"));
-                    card.put("vehicleType", row.get("vehicle_type"));
-                    card.put("chargeMethod", row.get("charge_method"));
-                    card.put("chargeStandard", row.get("charge_standard"));
-                    
-                    // 停车位账单金额为月租费用
-                    BigDecimal monthlyFee = row.get("monthly_fee") != null ? 
-                            new BigDecimal(row.get("monthly_fee").toString()) : BigDecimal.ZERO;
-                    
-                    // 仅添加有待缴费用的账单
-                    if (monthlyFee.compareTo(BigDecimal.ZERO) > 0) {
-                        card.put("amount", monthlyFee);
-                        cards.add(card);
-                    }
-                }
-            }
-
-            // 3. 查询问题反馈费用账单
-            List<Map<String, Object>> issueItems = ownerQueryService.listOwnerIssueBillingWithDetails(me.getId());
-            if (issueItems != null && !issueItems.isEmpty()) {
-                for (Map<String, Object> row : issueItems) {
-                    Map<String, Object> card = new LinkedHashMap<>();
-                    card.put("billType", "issue");  // 账单类型：问题反馈
-                    card.put("issueId", row.get("id"));
-                    card.put("houseId", row.get("house_id"));
-                    card.put("issueTitle", row.get("issue_title"));
-                    card.put("issueType", row.get("issue_type"));
-                    card.put("subType", row.get("sub_type"));
-                    card.put("roomNo", row.get("room_no"));
-                    card.put("fullRoomNo", row.get("full_room_no"));
-                    card.put("buildingNo", row.get("building_no"));
-                    card.put("buildingName", row.get("building_name"));
-                    card.put("communityName", row.get("community_name"));
-                    
-                    // 获取费用信息
-                    BigDecimal materialCost = row.get("material_cost") != null ? 
-                            new BigDecimal(row.get("material_cost").toString()) : BigDecimal.ZERO;
-                    BigDecimal laborCost = row.get("labor_cost") != null ? 
-                            new BigDecimal(row.get("labor_cost").toString()) : BigDecimal.ZERO;
-                    BigDecimal totalCost = row.get("total_cost") != null ? 
-                            new BigDecimal(row.get("total_cost").toString()) : BigDecimal.ZERO;
-                    
-                    card.put("materialCost", materialCost);
-                    card.put("laborCost", laborCost);
-                    card.put("amount", totalCost);
-                    card.put("reportedTime", row.get("reported_time"));
-                    card.put("completedTime", row.get("actual_complete_time"));
-                    
-                    // 仅添加有待缴费用的账单
-                    if (totalCost.compareTo(BigDecimal.ZERO) > 0) {
-                        cards.add(card);
-                    }
-                }
-            }
+            // 缴费卡片由投影按业主预先组装，按主键读取一行，JSON 原样输出
+            OwnerBillingProjectionService.BillingCards cards = ownerBillingProjectionService.getCards(me.getId());
 
             // 如果没有任何账单
-            if (cards.isEmpty()) {
+            if (cards.getCount() == 0) {
                 resp.put("success", true);
                 resp.put("data", Collections.emptyList());
                 resp.put("message", "无待缴费项目");
@@ -192,7 +83,7 @@ public class OwnerBillingController {
             }
 
             resp.put("success", true);
-            resp.put("data", cards);
+            resp.put("data", new RawValue(cards.getJson()));
             resp.put("message", "查询成功");
             return resp;
         } catch (Exception e) {
@@ -248,7 +139,7 @@ public class OwnerBillingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -300,7 +191,7 @@ public class OwnerBillingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -340,7 +231,7 @@ public class OwnerBillingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
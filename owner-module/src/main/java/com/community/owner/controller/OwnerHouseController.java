@@ -1,13 +1,12 @@
 package com.community.owner.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.owner.config.AuthPrincipal;
 import com.community.owner.service.*;
-import com.community.owner.utils.JwtUtil;
 import com.community.owner.domain.entity.Building;
 import com.community.owner.domain.entity.CommunityInfo;
 import com.community.owner.domain.entity.House;
 import com.community.owner.domain.entity.HouseOwner;
-import com.community.owner.domain.entity.Owner;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -23,10 +22,7 @@ import java.util.*;
 public class OwnerHouseController {
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
 
     @Autowired
     private HouseService houseService;
@@ -46,10 +42,8 @@ public class OwnerHouseController {
     @Autowired
     private RedisMessageService redisMessageService;
 
-    private Owner getCurrentOwner(String token) {
-        String realToken = token.replace("Bearer ", "");
-        String username = jwtUtil.getUsernameFromToken(realToken);
-        return ownerService.findByUsername(username);
+    private AuthPrincipal getCurrentOwner(String token) {
+        return authPrincipalService.resolve(token);
     }
 
     @GetMapping("/cards")
@@ -62,7 +56,7 @@ public class OwnerHouseController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -133,7 +127,7 @@ public class OwnerHouseController {
         try {
             System.out.println("📍 getHouseDetail - 开始加载房屋详情，houseId: " + houseId);
             
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 System.out.println("❌ getHouseDetail - 用户不存在");
                 resp.put("success", false);
@@ -240,7 +234,7 @@ public class OwnerHouseController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -317,7 +311,7 @@ public class OwnerHouseController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -364,7 +358,7 @@ public class OwnerHouseController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -444,7 +438,7 @@ public class OwnerHouseController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -493,7 +487,7 @@ public class OwnerHouseController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
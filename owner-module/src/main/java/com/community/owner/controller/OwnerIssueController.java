@@ -1,14 +1,13 @@
 package com.community.owner.controller;
 
+import com.community.owner.config.AuthPrincipal;
+import com.community.owner.service.AuthPrincipalService;
 import com.community.owner.domain.dto.vo.IssueDetailVO;
 import com.community.owner.domain.dto.request.IssueEvaluationRequest;
 import com.community.owner.domain.dto.request.IssueFollowUpRequest;
 import com.community.owner.domain.dto.request.IssueSubmitRequest;
-import com.community.owner.utils.JwtUtil;
-import com.community.owner.domain.entity.Owner;
 import com.community.owner.domain.entity.OwnerIssue;
 import com.community.owner.service.OwnerIssueService;
-import com.community.owner.service.OwnerService;
 import com.community.owner.service.RedisMessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,10 +34,7 @@ public class OwnerIssueController {
     private OwnerIssueService ownerIssueService;
     
     @Autowired
-    private OwnerService ownerService;
-    
-    @Autowired
-    private JwtUtil jwtUtil;
+    private AuthPrincipalService authPrincipalService;
     
     @Autowired
     private RedisMessageService redisMessageService;
@@ -64,9 +60,7 @@ public class OwnerIssueController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
@@ -124,9 +118,7 @@ public class OwnerIssueController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
@@ -170,9 +162,7 @@ public class OwnerIssueController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
@@ -220,9 +210,7 @@ public class OwnerIssueController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
@@ -268,9 +256,7 @@ public class OwnerIssueController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
@@ -319,9 +305,7 @@ public class OwnerIssueController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 response.put("success", false);
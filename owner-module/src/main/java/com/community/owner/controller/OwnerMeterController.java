@@ -1,13 +1,12 @@
 package com.community.owner.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.owner.config.AuthPrincipal;
 import com.community.owner.service.*;
-import com.community.owner.utils.JwtUtil;
 import com.community.owner.domain.entity.House;
 import com.community.owner.domain.entity.HouseOwner;
 import com.community.owner.domain.entity.MeterConfig;
 import com.community.owner.domain.entity.MeterInfo;
-import com.community.owner.domain.entity.Owner;
 import com.community.owner.domain.entity.Building;
 import com.community.owner.domain.entity.CommunityInfo;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,10 +22,7 @@ import java.util.*;
 public class OwnerMeterController {
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
 
     @Autowired
     private HouseOwnerService houseOwnerService;
@@ -52,10 +48,8 @@ public class OwnerMeterController {
     @Autowired
     private RedisMessageService redisMessageService;
 
-    private Owner getCurrentOwner(String token) {
-        String realToken = token.replace("Bearer ", "");
-        String username = jwtUtil.getUsernameFromToken(realToken);
-        return ownerService.findByUsername(username);
+    private AuthPrincipal getCurrentOwner(String token) {
+        return authPrincipalService.resolve(token);
     }
 
     @GetMapping("/cards")
@@ -65,7 +59,7 @@ public class OwnerMeterController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -155,7 +149,7 @@ public class OwnerMeterController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -272,6 +266,87 @@ public class OwnerMeterController {
         }
     }
 
+    @GetMapping("/{meterId}/usage")
+    @Operation(summary = "仪表用量汇总", description = "按日/月/年查询本人仪表的用量，以及最新一次抄表读数")
+    public Map<String, Object> getMeterUsage(
+            @RequestHeader("Authorization") String token,
+            @PathVariable("meterId") Long meterId,
+            @RequestParam(value = "periodType", defaultValue = "M") String periodType
+    ) {
+        Map<String, Object> resp = new LinkedHashMap<>();
+        try {
+            AuthPrincipal me = getCurrentOwner(token);
+            if (me == null) {
+                resp.put("success", false);
+                resp.put("message", "用户不存在");
+                return resp;
+            }
+            MeterInfo m = meterInfoService.getById(meterId);
+            if (m == null) {
+                resp.put("success", false);
+                resp.put("message", "仪表不存在");
+                return resp;
+            }
+            QueryWrapper<HouseOwner> hoQ = new QueryWrapper<>();
+            hoQ.eq("house_id", m.getHouseId()).eq("owner_id", me.getId());
+            if (houseOwnerService.count(hoQ) == 0) {
+                resp.put("success", false);
+                resp.put("message", "无权查看该仪表");
+                return resp;
+            }
+
+            // 日汇总取最近30天，月汇总取最近12个月，年汇总取最近5年
+            String period = periodType.toUpperCase();
+            java.time.LocalDate today = java.time.LocalDate.now();
+            java.time.LocalDate from;
+            if ("D".equals(period)) {
+                from = today.minusDays(29);
+            } else if ("Y".equals(period)) {
+                from = today.minusYears(4).withDayOfYear(1);
+            } else {
+                period = "M";
+                from = today.minusMonths(11).withDayOfMonth(1);
+            }
+
+            List<Map<String, Object>> items = new ArrayList<>();
+            for (Map<String, Object> row : ownerQueryService.listUsageRollups("METER", meterId, period, from, today)) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("periodStart", row.get("period_start"));
+                item.put("usageAmount", row.get("usage_amount"));
+                item.put("readingCount", row.get("reading_count"));
+                items.add(item);
+            }
+
+            Map<String, Object> latest = null;
+            Map<String, Object> latestRow = ownerQueryService.getLatestMeterReading(meterId);
+            if (latestRow != null) {
+                latest = new LinkedHashMap<>();
+                latest.put("readingId", latestRow.get("reading_id"));
+                latest.put("previousReading", latestRow.get("previous_reading"));
+                latest.put("currentReading", latestRow.get("current_reading"));
+                latest.put("usageAmount", latestRow.get("usage_amount"));
+                latest.put("unit", latestRow.get("unit"));
+                latest.put("readingDate", latestRow.get("reading_date"));
+                latest.put("readingTime", latestRow.get("reading_time"));
+            }
+
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("meterId", meterId);
+            data.put("periodType", period);
+            data.put("items", items);
+            data.put("latest", latest);
+
+            resp.put("success", true);
+            resp.put("data", data);
+            resp.put("message", "获取成功");
+            return resp;
+        } catch (Exception e) {
+            resp.put("success", false);
+            resp.put("message", "获取失败: " + e.getMessage());
+            return resp;
+        }
+    }
+
     public static class ApplyAddMeterRequest {
         public Long communityId; // 必填
         public Long houseId; // 必填
@@ -293,7 +368,7 @@ public class OwnerMeterController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -370,7 +445,7 @@ public class OwnerMeterController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -420,7 +495,7 @@ public class OwnerMeterController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -1,9 +1,8 @@
 package com.community.owner.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.owner.config.AuthPrincipal;
 import com.community.owner.service.*;
-import com.community.owner.utils.JwtUtil;
-import com.community.owner.domain.entity.Owner;
 import com.community.owner.domain.entity.ParkingLot;
 import com.community.owner.domain.entity.ParkingSpace;
 import io.swagger.v3.oas.annotations.Operation;
@@ -24,10 +23,7 @@ public class OwnerParkingController {
     private static final Logger logger = LoggerFactory.getLogger(OwnerParkingController.class);
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
 
     @Autowired
     private ParkingSpaceService parkingSpaceService;
@@ -41,10 +37,8 @@ public class OwnerParkingController {
     @Autowired
     private RedisMessageService redisMessageService;
 
-    private Owner getCurrentOwner(String token) {
-        String realToken = token.replace("Bearer ", "");
-        String username = jwtUtil.getUsernameFromToken(realToken);
-        return ownerService.findByUsername(username);
+    private AuthPrincipal getCurrentOwner(String token) {
+        return authPrincipalService.resolve(token);
     }
 
     public static class ApplySpaceRequest {
@@ -63,7 +57,7 @@ public class OwnerParkingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -133,7 +127,7 @@ public class OwnerParkingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -197,7 +191,7 @@ public class OwnerParkingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -260,7 +254,7 @@ public class OwnerParkingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -309,7 +303,7 @@ public class OwnerParkingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -379,7 +373,7 @@ public class OwnerParkingController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 logger.warn("获取业主信息失败：用户不存在");
                 resp.put("success", false);
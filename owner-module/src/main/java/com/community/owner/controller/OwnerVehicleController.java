@@ -1,9 +1,8 @@
 package com.community.owner.controller;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.owner.config.AuthPrincipal;
 import com.community.owner.service.*;
-import com.community.owner.utils.JwtUtil;
-import com.community.owner.domain.entity.Owner;
 import com.community.owner.domain.entity.ParkingLot;
 import com.community.owner.domain.entity.ParkingSpace;
 import com.community.owner.domain.entity.Vehicle;
@@ -22,10 +21,7 @@ import java.util.*;
 public class OwnerVehicleController {
 
     @Autowired
-    private JwtUtil jwtUtil;
-
-    @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
 
     @Autowired
     private VehicleService vehicleService;
@@ -42,10 +38,8 @@ public class OwnerVehicleController {
     @Autowired
     private RedisMessageService redisMessageService;
 
-    private Owner getCurrentOwner(String token) {
-        String realToken = token.replace("Bearer ", "");
-        String username = jwtUtil.getUsernameFromToken(realToken);
-        return ownerService.findByUsername(username);
+    private AuthPrincipal getCurrentOwner(String token) {
+        return authPrincipalService.resolve(token);
     }
 
     public static class VehicleApplyRequest {
@@ -72,7 +66,7 @@ public class OwnerVehicleController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -147,7 +141,7 @@ public class OwnerVehicleController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -209,7 +203,7 @@ public class OwnerVehicleController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -290,7 +284,7 @@ public class OwnerVehicleController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -362,7 +356,7 @@ public class OwnerVehicleController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -408,7 +402,7 @@ public class OwnerVehicleController {
     ) {
         Map<String, Object> resp = new LinkedHashMap<>();
         try {
-            Owner me = getCurrentOwner(token);
+            AuthPrincipal me = getCurrentOwner(token);
             if (me == null) {
                 resp.put("success", false);
                 resp.put("message", "用户不存在");
@@ -1,10 +1,9 @@
 package com.community.owner.controller;
 
+import com.community.owner.config.AuthPrincipal;
+import com.community.owner.service.AuthPrincipalService;
 import com.community.owner.domain.dto.request.QaRequest;
 import com.community.owner.service.RedisMessageService;
-import com.community.owner.utils.JwtUtil;
-import com.community.owner.domain.entity.Owner;
-import com.community.owner.service.OwnerService;
 import com.community.owner.service.SmartQaService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -41,11 +40,8 @@ public class SmartQaController {
     private SmartQaService smartQaService;
     
     @Autowired
-    private OwnerService ownerService;
+    private AuthPrincipalService authPrincipalService;
     
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @Autowired
     private RedisMessageService redisMessageService;
     
@@ -73,9 +69,7 @@ public class SmartQaController {
                 logger.info("收到流式问答请求: {}", request.getQuestion());
                 
                 // 1. 解析并验证用户信息
-                String realToken = token.replace("Bearer ", "");
-                String username = jwtUtil.getUsernameFromToken(realToken);
-                Owner owner = ownerService.findByUsername(username);
+                AuthPrincipal owner = authPrincipalService.resolve(token);
                 
                 if (owner == null) {
                     logger.warn("用户验证失败: token无效");
@@ -170,9 +164,7 @@ public class SmartQaController {
             logger.info("收到异步问答请求: {}", request.getQuestion());
             
             // 1. 解析并验证用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Owner owner = ownerService.findByUsername(username);
+            AuthPrincipal owner = authPrincipalService.resolve(token);
             
             if (owner == null) {
                 logger.warn("用户验证失败: token无效");
@@ -1,6 +1,9 @@
 package com.community.owner.filter;
 
+import com.community.owner.config.AuthPrincipal;
+import com.community.owner.service.AuthPrincipalService;
 import com.community.owner.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,6 +18,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 @Component
@@ -22,6 +26,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     @Autowired
     private JwtUtil jwtUtil;
+
+    @Autowired
+    private AuthPrincipalService authPrincipalService;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -70,9 +77,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         if (token != null && !token.isEmpty()) {
             
             try {
-                if (!jwtUtil.isTokenExpired(token)) {
-                    String username = jwtUtil.getUsernameFromToken(token);
-                    String role = jwtUtil.getRoleFromToken(token);
+                // 只验签一次，Claims 同时保存在请求属性上，后续 Controller 读取时不再重复解析
+                Claims claims = jwtUtil.getClaimsFromToken(token);
+                if (!claims.getExpiration().before(new Date())) {
+                    String username = claims.getSubject();
+                    String role = (String) claims.get("role");
                     
                     if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
                         // 创建包含角色信息的权限列表
@@ -86,6 +95,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         
                         // 将角色信息添加到请求属性中
                         request.setAttribute("role", role);
+
+                        // 解析一次当前用户（带缓存），Controller 直接从请求属性读取
+                        AuthPrincipal principal = authPrincipalService.load(username, role);
+                        if (principal != null) {
+                            request.setAttribute(AuthPrincipalService.PRINCIPAL_ATTRIBUTE, principal);
+                        }
                         
                         // 添加调试日志
                         logger.debug("Successfully authenticated user: " + username + " with role: " + role);
@@ -3,12 +3,26 @@ package com.community.owner.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.community.owner.domain.entity.CommunityNotice;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Map;
 
 /**
  * 社区公告DAO接口
  */
 @Mapper
 public interface CommunityNoticeMapper extends BaseMapper<CommunityNotice> {
-    // 可以添加自定义的查询方法
-}
 
+    /**
+     * 批量累加阅读次数
+     * @param deltas 公告ID -> 增量
+     */
+    @Update("<script>" +
+            "UPDATE community_notice SET read_count = IFNULL(read_count, 0) + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int addReadCounts(@Param("deltas") Map<Long, Long> deltas);
+}
@@ -0,0 +1,116 @@
+package com.community.owner.mapper;
+
+import org.apache.ibatis.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 业主缴费卡片投影DAO
+ * owner_billing_projection：每个业主一行，cards 为已组装好的缴费卡片 JSON；
+ * version 在相关数据变更时递增，built_version 为生成 cards 时的 version，两者相等才视为最新。
+ * owner_billing_ref：投影引用的仪表(M)/抄表记录(R)/车位(P)/问题(I)，用于变更时找到受影响的业主（含已不再关联的原业主）
+ */
+@Mapper
+public interface OwnerBillingProjectionMapper {
+
+    @Update("CREATE TABLE IF NOT EXISTS owner_billing_projection (" +
+            "owner_id BIGINT NOT NULL, " +
+            "cards MEDIUMTEXT NOT NULL, " +
+            "card_count INT NOT NULL DEFAULT 0, " +
+            "total_amount DECIMAL(18,2) NOT NULL DEFAULT 0, " +
+            "version BIGINT NOT NULL DEFAULT 0, " +
+            "built_version BIGINT NOT NULL DEFAULT -1, " +
+            "built_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (owner_id)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='业主缴费卡片投影'")
+    void createProjectionTable();
+
+    @Update("CREATE TABLE IF NOT EXISTS owner_billing_ref (" +
+            "ref_type CHAR(1) NOT NULL, " +
+            "ref_id BIGINT NOT NULL, " +
+            "owner_id BIGINT NOT NULL, " +
+            "PRIMARY KEY (ref_type, ref_id, owner_id), " +
+            "KEY idx_owner (owner_id)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='业主缴费卡片投影引用'")
+    void createRefTable();
+
+    /**
+     * 按业主ID读取投影，fresh 表示 built_version 与 version 一致且未超过最长保留时间
+     */
+    @Select("SELECT owner_id AS ownerId, cards, card_count AS cardCount, version, " +
+            "(built_version = version AND built_at > NOW() - INTERVAL #{maxAgeMinutes} MINUTE) AS fresh " +
+            "FROM owner_billing_projection WHERE owner_id = #{ownerId}")
+    Map<String, Object> selectByOwnerId(@Param("ownerId") Long ownerId, @Param("maxAgeMinutes") int maxAgeMinutes);
+
+    /**
+     * 首次生成前插入未生成的占位行（built_version = -1），使生成期间的变更能递增 version，避免把旧数据写成最新
+     */
+    @Insert("INSERT IGNORE INTO owner_billing_projection (owner_id, cards, card_count, version, built_version) " +
+            "VALUES (#{ownerId}, '[]', 0, 0, -1)")
+    int insertPlaceholder(@Param("ownerId") Long ownerId);
+
+    /**
+     * 写入投影；仅当生成期间 version 未变化时覆盖，否则保留旧内容等待下次重建
+     */
+    @Insert("INSERT INTO owner_billing_projection (owner_id, cards, card_count, total_amount, version, built_version, built_at) " +
+            "VALUES (#{ownerId}, #{cards}, #{cardCount}, #{totalAmount}, #{version}, #{version}, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "cards = IF(version = VALUES(built_version), VALUES(cards), cards), " +
+            "card_count = IF(version = VALUES(built_version), VALUES(card_count), card_count), " +
+            "total_amount = IF(version = VALUES(built_version), VALUES(total_amount), total_amount), " +
+            "built_at = IF(version = VALUES(built_version), VALUES(built_at), built_at), " +
+            "built_version = IF(version = VALUES(built_version), VALUES(built_version), built_version)")
+    int upsertProjection(@Param("ownerId") Long ownerId, @Param("cards") String cards,
+                         @Param("cardCount") int cardCount, @Param("totalAmount") BigDecimal totalAmount,
+                         @Param("version") long version);
+
+    @Update("<script>" +
+            "UPDATE owner_billing_projection SET version = version + 1 WHERE owner_id IN " +
+            "<foreach collection='ownerIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markStale(@Param("ownerIds") Collection<Long> ownerIds);
+
+    @Update("UPDATE owner_billing_projection SET version = version + 1")
+    int markAllStale();
+
+    @Delete("DELETE FROM owner_billing_ref WHERE owner_id = #{ownerId}")
+    int deleteRefs(@Param("ownerId") Long ownerId);
+
+    /**
+     * 批量写入引用，每项为 {refType, refId}
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO owner_billing_ref (ref_type, ref_id, owner_id) VALUES " +
+            "<foreach collection='refs' item='ref' separator=','>(#{ref.refType}, #{ref.refId}, #{ownerId})</foreach>" +
+            "</script>")
+    int insertRefs(@Param("ownerId") Long ownerId, @Param("refs") List<Map<String, Object>> refs);
+
+    @Select("SELECT owner_id FROM owner_billing_ref WHERE ref_type = #{refType} AND ref_id = #{refId}")
+    List<Long> selectOwnersByRef(@Param("refType") String refType, @Param("refId") Long refId);
+
+    /**
+     * 仪表所在房屋当前的业主
+     */
+    @Select("SELECT DISTINCT ho.owner_id FROM meter_info mi " +
+            "INNER JOIN house_owner ho ON ho.house_id = mi.house_id " +
+            "WHERE mi.id = #{meterId} AND ho.owner_id IS NOT NULL")
+    List<Long> selectOwnersByMeterId(@Param("meterId") Long meterId);
+
+    /**
+     * 房屋当前的业主
+     */
+    @Select("SELECT DISTINCT owner_id FROM house_owner WHERE house_id = #{houseId} AND owner_id IS NOT NULL")
+    List<Long> selectOwnersByHouseId(@Param("houseId") Long houseId);
+
+    @Select("SELECT meter_id FROM meter_reading WHERE id = #{readingId}")
+    Long selectMeterIdByReadingId(@Param("readingId") Long readingId);
+
+    @Select("SELECT owner_id FROM parking_space WHERE id = #{spaceId} AND owner_id IS NOT NULL")
+    List<Long> selectOwnersByParkingSpaceId(@Param("spaceId") Long spaceId);
+
+    @Select("SELECT owner_id FROM owner_issue WHERE id = #{issueId} AND owner_id IS NOT NULL")
+    List<Long> selectOwnersByIssueId(@Param("issueId") Long issueId);
+}
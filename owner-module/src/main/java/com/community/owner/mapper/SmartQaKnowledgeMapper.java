@@ -3,11 +3,26 @@ package com.community.owner.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.community.owner.domain.entity.SmartQaKnowledge;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Map;
 
 /**
  * 智能问答知识库DAO接口
  */
 @Mapper
 public interface SmartQaKnowledgeMapper extends BaseMapper<SmartQaKnowledge> {
-}
 
+    /**
+     * 批量累加查看次数
+     * @param deltas 文档ID -> 增量
+     */
+    @Update("<script>" +
+            "UPDATE smart_qa_knowledge SET view_count = IFNULL(view_count, 0) + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int addViewCounts(@Param("deltas") Map<Long, Long> deltas);
+}
@@ -0,0 +1,149 @@
+package com.community.owner.service;
+
+import com.community.owner.config.AuthPrincipal;
+import com.community.owner.domain.entity.Owner;
+import com.community.owner.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 当前登录用户解析
+ * 按 角色 + 用户名 缓存业主的ID和姓名（LRU + TTL），JWT 过滤器认证时解析一次并保存在请求属性上；
+ * 业主数据变更时由 Redis 数据变更消息按业主ID失效
+ */
+@Slf4j
+@Service
+public class AuthPrincipalService {
+
+    /**
+     * 请求属性：当前登录用户
+     */
+    public static final String PRINCIPAL_ATTRIBUTE = AuthPrincipal.class.getName();
+
+    @Value("${auth.principal-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${auth.principal-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * 角色:用户名 -> 缓存的用户（access-order 实现 LRU）
+     */
+    private final Map<String, CachedPrincipal> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * 按用户名加载当前用户，优先取缓存
+     * @param username 用户名（JWT subject）
+     * @param role 角色
+     * @return 当前用户，用户不存在时返回 null
+     */
+    public AuthPrincipal load(String username, String role) {
+        if (username == null) {
+            return null;
+        }
+        String key = role + ":" + username;
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedPrincipal cached = entries.get(key);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    return cached.principal;
+                }
+                entries.remove(key);
+            }
+        }
+
+        Owner owner = ownerService.findByUsername(username);
+        if (owner == null) {
+            return null;
+        }
+        AuthPrincipal principal = new AuthPrincipal(owner.getId(), owner.getUsername(), owner.getName(), role);
+        synchronized (entries) {
+            entries.put(key, new CachedPrincipal(principal, now + ttlMinutes * 60_000));
+        }
+        return principal;
+    }
+
+    /**
+     * 当前请求上已解析的用户
+     * @return 当前用户，未认证时返回 null
+     */
+    public AuthPrincipal current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (AuthPrincipal) attributes.getAttribute(PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * 获取请求头 Token 对应的当前用户：过滤器已解析时直接返回，否则按 Token 解析并保存到请求属性
+     * @param token Authorization 请求头
+     * @return 当前用户，用户不存在时返回 null
+     */
+    public AuthPrincipal resolve(String token) {
+        AuthPrincipal principal = current();
+        if (principal != null) {
+            return principal;
+        }
+        Claims claims = jwtUtil.getClaimsFromToken(token.replace("Bearer ", ""));
+        principal = load(claims.getSubject(), (String) claims.get("role"));
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (principal != null && attributes != null) {
+            attributes.setAttribute(PRINCIPAL_ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        }
+        return principal;
+    }
+
+    /**
+     * 业主数据变更后失效对应的缓存
+     * @param ownerId 业主ID，为空时清空全部缓存
+     */
+    public void evict(Object ownerId) {
+        synchronized (entries) {
+            if (ownerId == null) {
+                entries.clear();
+                return;
+            }
+            Iterator<CachedPrincipal> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Long id = iterator.next().principal.getId();
+                if (id != null && Objects.equals(String.valueOf(id), String.valueOf(ownerId))) {
+                    iterator.remove();
+                }
+            }
+        }
+        log.debug("Evicted cached principal: ownerId={}", ownerId);
+    }
+
+    private static class CachedPrincipal {
+        private final AuthPrincipal principal;
+        private final long expiresAt;
+
+        private CachedPrincipal(AuthPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
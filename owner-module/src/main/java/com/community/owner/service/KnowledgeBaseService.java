@@ -19,6 +19,9 @@ public class KnowledgeBaseService {
     
     @Autowired
     private DocumentContentService contentService;
+
+    @Autowired
+    private ViewCounterService viewCounterService;
     
     /**
      * 在知识库中搜索相关文档
@@ -90,11 +93,8 @@ public class KnowledgeBaseService {
      * 增加文档查看次数
      */
     public void increaseViewCount(Long docId) {
-        SmartQaKnowledge doc = kbMapper.selectById(docId);
-        if (doc != null) {
-            doc.setViewCount((doc.getViewCount() == null ? 0 : doc.getViewCount()) + 1);
-            kbMapper.updateById(doc);
-        }
+        // 内存累加，定期批量写入数据库
+        viewCounterService.recordKnowledgeView(docId);
     }
 }
 
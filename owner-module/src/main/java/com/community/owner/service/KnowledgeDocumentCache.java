@@ -0,0 +1,170 @@
+package com.community.owner.service;
+
+import com.community.owner.domain.entity.SmartQaKnowledge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 知识库文档解析结果缓存
+ * 内存LRU + 磁盘两级缓存，按 知识库ID + 文件指纹(文件路径/更新时间) 索引，
+ * 避免智能问答每次检索都重新下载、解析同一份文档
+ */
+@Slf4j
+@Service
+public class KnowledgeDocumentCache {
+
+    @Value("${smart-qa.knowledge-cache.max-entries:64}")
+    private int maxEntries;
+
+    @Value("${smart-qa.knowledge-cache.dir:./temp/knowledge/parsed}")
+    private String cacheDir;
+
+    /**
+     * 内存缓存：知识库ID -> 解析结果（access-order 实现 LRU）
+     */
+    private final Map<Long, CachedDocument> memoryCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedDocument> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * 获取文档解析内容，未命中时调用 loader 下载解析并写入缓存
+     * @param knowledge 知识库记录
+     * @param loader 下载并解析文档的回调
+     * @return 解析后的文本，无法解析时返回空字符串
+     */
+    public String getOrLoad(SmartQaKnowledge knowledge, Supplier<String> loader) {
+        if (knowledge == null || knowledge.getId() == null) {
+            return loader.get();
+        }
+        Long id = knowledge.getId();
+        String fingerprint = fingerprint(knowledge);
+
+        // 1. 内存缓存
+        synchronized (memoryCache) {
+            CachedDocument cached = memoryCache.get(id);
+            if (cached != null && cached.fingerprint.equals(fingerprint)) {
+                return cached.content;
+            }
+        }
+
+        // 2. 磁盘缓存
+        File diskFile = diskFile(id, fingerprint);
+        if (diskFile.exists()) {
+            try {
+                String content = Files.readString(diskFile.toPath(), StandardCharsets.UTF_8);
+                putMemory(id, fingerprint, content);
+                return content;
+            } catch (IOException e) {
+                log.warn("读取知识库磁盘缓存失败: id={}, file={}", id, diskFile.getAbsolutePath(), e);
+            }
+        }
+
+        // 3. 下载并解析，仅缓存非空结果，避免把临时下载失败固化下来
+        String content = loader.get();
+        if (content != null && !content.isEmpty()) {
+            putMemory(id, fingerprint, content);
+            writeDisk(id, diskFile, content);
+        }
+        return content != null ? content : "";
+    }
+
+    /**
+     * 失效指定知识库文档的所有缓存（内存 + 磁盘）
+     * @param knowledgeId 知识库ID
+     */
+    public void evict(Long knowledgeId) {
+        if (knowledgeId == null) {
+            return;
+        }
+        synchronized (memoryCache) {
+            memoryCache.remove(knowledgeId);
+        }
+        deleteDiskFiles(knowledgeId);
+        log.info("知识库文档缓存已失效: id={}", knowledgeId);
+    }
+
+    private void putMemory(Long id, String fingerprint, String content) {
+        synchronized (memoryCache) {
+            memoryCache.put(id, new CachedDocument(fingerprint, content));
+        }
+    }
+
+    private void writeDisk(Long id, File target, String content) {
+        try {
+            File dir = target.getParentFile();
+            if (!dir.exists() && !dir.mkdirs()) {
+                log.warn("创建知识库缓存目录失败: {}", dir.getAbsolutePath());
+                return;
+            }
+            // 同一文档只保留最新指纹的解析结果
+            deleteDiskFiles(id);
+            File tmp = new File(dir, target.getName() + ".tmp");
+            Files.writeString(tmp.toPath(), content, StandardCharsets.UTF_8);
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("写入知识库磁盘缓存失败: id={}", id, e);
+        }
+    }
+
+    private void deleteDiskFiles(Long id) {
+        File[] files = new File(cacheDir).listFiles((d, name) -> name.startsWith(filePrefix(id)));
+        if (files == null) {
+            return;
+        }
+        for (File f : files) {
+            if (!f.delete()) {
+                log.warn("删除知识库磁盘缓存失败: {}", f.getAbsolutePath());
+            }
+        }
+    }
+
+    private File diskFile(Long id, String fingerprint) {
+        return new File(cacheDir, filePrefix(id) + fingerprint + ".txt");
+    }
+
+    private String filePrefix(Long id) {
+        return "knowledge_" + id + "_";
+    }
+
+    /**
+     * 文件指纹：文件路径 + 更新时间，任一变化即视为新版本
+     */
+    private String fingerprint(SmartQaKnowledge knowledge) {
+        String raw = knowledge.getFilePath() + "|" + knowledge.getUpdatedAt() + "|" + knowledge.getFileType();
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            byte[] digest = md.digest(raw.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                sb.append(String.format("%02x", digest[i]));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(raw.hashCode());
+        }
+    }
+
+    private static class CachedDocument {
+        private final String fingerprint;
+        private final String content;
+
+        private CachedDocument(String fingerprint, String content) {
+            this.fingerprint = fingerprint;
+            this.content = content;
+        }
+    }
+}
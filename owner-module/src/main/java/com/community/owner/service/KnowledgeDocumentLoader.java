@@ -0,0 +1,202 @@
+package com.community.owner.service;
+
+import com.community.owner.domain.entity.SmartQaKnowledge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 知识库文档加载服务
+ * 负责下载OSS上的知识库文档并解析为纯文本，解析结果经 KnowledgeDocumentCache 缓存
+ */
+@Slf4j
+@Service
+public class KnowledgeDocumentLoader {
+
+    @Autowired
+    private KnowledgeDocumentCache knowledgeDocumentCache;
+
+    /**
+     * 获取知识库文档的纯文本内容（命中缓存时不再重复下载解析）
+     * @param knowledge 知识库记录
+     * @return 带文档标题前缀的文本内容，无法解析时返回空字符串
+     */
+    public String load(SmartQaKnowledge knowledge) {
+        return knowledgeDocumentCache.getOrLoad(knowledge, () -> downloadAndParseFile(knowledge));
+    }
+
+    private String downloadAndParseFile(SmartQaKnowledge knowledge) {
+        if (knowledge == null || knowledge.getFilePath() == null || knowledge.getFilePath().trim().isEmpty()) {
+            log.warn("知识库记录为空或文件路径不存在");
+            return "";
+        }
+
+        java.io.File f = null;
+        try {
+            log.info("开始处理知识库文档: id={}, 标题={}, 分类={}, 类型={}, 路径={}", knowledge.getId(),
+                    knowledge.getTitle(), knowledge.getCategory(), knowledge.getFileType(), knowledge.getFilePath());
+
+            java.io.File dir = new java.io.File("./temp/knowledge");
+            if (!dir.exists() && !dir.mkdirs()) {
+                log.warn("创建临时目录失败: {}", dir.getAbsolutePath());
+            }
+
+            f = downloadFile(knowledge.getFilePath(), knowledge.getId());
+            if (f == null || !f.exists() || f.length() == 0) {
+                log.warn("知识库文档下载失败或文件为空: id={}", knowledge.getId());
+                return "";
+            }
+            log.debug("知识库文档下载成功: {}，{} 字节", f.getAbsolutePath(), f.length());
+
+            String t = knowledge.getFileType();
+            if (t == null || t.trim().isEmpty()) {
+                String path = knowledge.getFilePath().toLowerCase();
+                if (path.endsWith(".docx")) {
+                    t = "docx";
+                } else if (path.endsWith(".pdf")) {
+                    t = "pdf";
+                } else {
+                    t = "txt";
+                }
+                log.debug("文件类型为空，按文件路径推断为 {}", t);
+            }
+
+            String content;
+            if ("docx".equalsIgnoreCase(t)) {
+                content = parseDocFile(f);
+            } else if ("pdf".equalsIgnoreCase(t)) {
+                content = parsePdfFile(f);
+            } else {
+                content = parseTxtFile(f);
+            }
+
+            if (content != null && !content.isEmpty()) {
+                log.info("知识库文档解析成功: id={}，内容长度 {} 字符", knowledge.getId(), content.length());
+                return "【来自文档: " + knowledge.getTitle() + " ("+knowledge.getFileType()+")】\n" + content;
+            }
+
+            log.warn("知识库文档内容为空，可能是文件本身为空或解析失败: id={}", knowledge.getId());
+            return "";
+        } catch (Exception e) {
+            log.error("处理知识库文档出错: id={}", knowledge.getId(), e);
+            return "";
+        } finally {
+            // 删除临时文件
+            if (f != null && f.exists() && !f.delete()) {
+                log.warn("删除临时文件失败: {}", f.getAbsolutePath());
+            }
+        }
+    }
+
+    private java.io.File downloadFile(String url, Long id) {
+        try {
+            java.net.URL u = new java.net.URL(url);
+            java.net.URLConnection c = u.openConnection();
+            c.setConnectTimeout(30000);
+            c.setReadTimeout(30000);
+            c.setRequestProperty("User-Agent", "Mozilla/5.0");
+
+            if (c.getContentLength() == 0) {
+                log.warn("知识库文档内容大小为 0: {}", url);
+                return null;
+            }
+
+            java.io.File f = new java.io.File("./temp/knowledge", "knowledge_" + id + "_" + System.currentTimeMillis() + getFileExt(url));
+            try (java.io.InputStream in = c.getInputStream();
+                 java.io.FileOutputStream out = new java.io.FileOutputStream(f)) {
+                byte[] b = new byte[4096];
+                int n;
+                long totalBytes = 0;
+                while ((n = in.read(b)) > 0) {
+                    out.write(b, 0, n);
+                    totalBytes += n;
+                }
+
+                if (totalBytes == 0) {
+                    log.warn("下载的知识库文档为空: {}", url);
+                    f.delete();
+                    return null;
+                }
+
+                return f;
+            }
+        } catch (java.net.MalformedURLException e) {
+            log.warn("知识库文档 URL 格式错误: {} - {}", url, e.getMessage());
+            return null;
+        } catch (java.net.ConnectException | java.net.SocketTimeoutException e) {
+            log.warn("下载知识库文档连接失败或超时: {} - {}", url, e.getMessage());
+            return null;
+        } catch (Exception e) {
+            log.error("下载知识库文档异常: {}", url, e);
+            return null;
+        }
+    }
+
+    private String getFileExt(String url) {
+        if (!url.contains(".")) return "";
+        String e = url.substring(url.lastIndexOf("."));
+        return e.contains("?") ? e.substring(0, e.indexOf("?")) : e;
+    }
+
+    private String parsePdfFile(java.io.File f) {
+        return "（PDF解析需要PDFBox库）";
+    }
+
+    private String parseTxtFile(java.io.File f) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            try (java.io.BufferedReader br = new java.io.BufferedReader(
+                    new java.io.InputStreamReader(new java.io.FileInputStream(f), "UTF-8"))) {
+                String line;
+                int cnt = 0;
+                while ((line = br.readLine()) != null && cnt < 100) {
+                    sb.append(line).append("\n");
+                    cnt++;
+                }
+            }
+            return sb.toString();
+        } catch (Exception e) { return ""; }
+    }
+
+    private String parseDocFile(java.io.File f) {
+        try {
+            Class.forName("org.apache.poi.xwpf.usermodel.XWPFDocument");
+            return parseDocWithPOI(f);
+        } catch (Exception e) {
+            log.warn("解析 DOCX 文件失败: {}", e.getMessage());
+            return "（需要POI库支持）";
+        }
+    }
+
+    private String parseDocWithPOI(java.io.File f) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        try (org.apache.poi.xwpf.usermodel.XWPFDocument doc = 
+             new org.apache.poi.xwpf.usermodel.XWPFDocument(new java.io.FileInputStream(f))) {
+
+            int paragraphCount = 0;
+            for (org.apache.poi.xwpf.usermodel.XWPFParagraph p : doc.getParagraphs()) {
+                String txt = p.getText();
+                if (txt != null && !txt.isEmpty()) {
+                    sb.append(txt).append("\n");
+                    paragraphCount++;
+                }
+            }
+
+            int tableCount = 0;
+            int rowCount = 0;
+            for (org.apache.poi.xwpf.usermodel.XWPFTable tbl : doc.getTables()) {
+                tableCount++;
+                for (org.apache.poi.xwpf.usermodel.XWPFTableRow row : tbl.getRows()) {
+                    rowCount++;
+                    for (org.apache.poi.xwpf.usermodel.XWPFTableCell cell : row.getTableCells()) {
+                        String ct = cell.getText();
+                        if (ct != null && !ct.isEmpty()) sb.append(ct).append(" ");
+                    }
+                    sb.append("\n");
+                }
+            }
+            log.debug("DOCX 解析完成: {} 个段落，{} 个表格，共 {} 行", paragraphCount, tableCount, rowCount);
+        }
+        return sb.toString();
+    }
+}
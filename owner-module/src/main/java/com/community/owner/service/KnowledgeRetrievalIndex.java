@@ -0,0 +1,411 @@
+package com.community.owner.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.owner.domain.entity.SmartQaKnowledge;
+import com.community.owner.mapper.SmartQaKnowledgeMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 智能问答知识库检索索引
+ * 将知识库文档切分为段落块，建立倒排索引（中文按二元组切分），按 BM25 打分返回最相关的段落，
+ * 代替逐关键词的 LIKE '%kw%' 全表扫描。
+ * 启动后在后台构建索引（失败时按递增间隔重试），之后随管理端的知识库变更消息增量更新；
+ * 索引就绪前 search 返回 null，调用方回退到数据库检索。
+ */
+@Slf4j
+@Service
+public class KnowledgeRetrievalIndex {
+
+    /**
+     * 单个段落块的最大字符数
+     */
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * BM25 参数
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    @Autowired
+    private SmartQaKnowledgeMapper knowledgeMapper;
+
+    @Autowired
+    private KnowledgeDocumentLoader knowledgeDocumentLoader;
+
+    /**
+     * 启动构建失败后的首次重试间隔，之后每次翻倍
+     */
+    @Value("${smart-qa.index.retry-initial-ms:5000}")
+    private long retryInitialMs;
+
+    @Value("${smart-qa.index.retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 段落块ID -> 段落块
+     */
+    private final Map<Integer, Chunk> chunks = new HashMap<>();
+
+    /**
+     * 词项 -> (段落块ID -> 词频)
+     */
+    private final Map<String, Map<Integer, Integer>> postings = new HashMap<>();
+
+    /**
+     * 知识库ID -> 所属段落块ID
+     */
+    private final Map<Long, List<Integer>> docChunks = new HashMap<>();
+
+    private long totalTokens;
+    private int nextChunkId;
+    private volatile boolean ready;
+
+    /**
+     * 索引更新在单线程中串行执行，避免阻塞Redis监听线程
+     */
+    private final ScheduledExecutorService indexExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "knowledge-index");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 应用启动完成后在后台全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        indexExecutor.execute(() -> buildWithRetry(retryInitialMs));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexExecutor.shutdownNow();
+    }
+
+    /**
+     * 构建索引，失败时按递增间隔重试直到成功（已索引的文档重建时会被替换，不会重复）
+     */
+    private void buildWithRetry(long delayMs) {
+        if (rebuild() || indexExecutor.isShutdown()) {
+            return;
+        }
+        log.warn("知识库检索索引将在 {} ms 后重试构建", delayMs);
+        indexExecutor.schedule(() -> buildWithRetry(Math.min(delayMs * 2, retryMaxMs)), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 全量重建索引
+     * @return 是否构建成功
+     */
+    public boolean rebuild() {
+        try {
+            List<SmartQaKnowledge> list = knowledgeMapper.selectList(
+                    new QueryWrapper<SmartQaKnowledge>().eq("status", "启用"));
+            for (SmartQaKnowledge knowledge : list) {
+                indexDocument(knowledge);
+            }
+            ready = true;
+            log.info("知识库检索索引构建完成: documents={}, chunks={}, terms={}",
+                    docChunks.size(), chunks.size(), postings.size());
+            return true;
+        } catch (Exception e) {
+            log.error("知识库检索索引构建失败", e);
+            return false;
+        }
+    }
+
+    /**
+     * 异步刷新单个知识库文档（新增、修改、删除、启用/禁用均适用）
+     * @param knowledgeId 知识库ID
+     */
+    public void refreshAsync(Long knowledgeId) {
+        if (knowledgeId == null) {
+            return;
+        }
+        indexExecutor.execute(() -> {
+            try {
+                SmartQaKnowledge knowledge = knowledgeMapper.selectById(knowledgeId);
+                if (knowledge == null || !"启用".equals(knowledge.getStatus())) {
+                    removeDocument(knowledgeId);
+                } else {
+                    indexDocument(knowledge);
+                }
+            } catch (Exception e) {
+                log.error("刷新知识库检索索引失败: id={}", knowledgeId, e);
+            }
+        });
+    }
+
+    /**
+     * 检索与问题最相关的段落块
+     * @param question 用户问题
+     * @param topK 返回数量
+     * @return 按得分降序的段落块；索引尚未就绪时返回 null
+     */
+    public List<ScoredChunk> search(String question, int topK) {
+        if (!ready) {
+            return null;
+        }
+        Set<String> terms = new LinkedHashSet<>(tokenize(question));
+        if (terms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int n = chunks.size();
+            if (n == 0) {
+                return new ArrayList<>();
+            }
+            double avgLength = (double) totalTokens / n;
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Integer, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<Integer, Integer> entry : posting.entrySet()) {
+                    Chunk chunk = chunks.get(entry.getKey());
+                    int tf = entry.getValue();
+                    double norm = tf + K1 * (1 - B + B * chunk.length / avgLength);
+                    scores.merge(entry.getKey(), idf * tf * (K1 + 1) / norm, Double::sum);
+                }
+            }
+
+            List<ScoredChunk> result = new ArrayList<>(scores.size());
+            scores.forEach((chunkId, score) -> result.add(new ScoredChunk(chunks.get(chunkId), score)));
+            result.sort(Comparator.comparingDouble(ScoredChunk::getScore).reversed());
+            return result.size() > topK ? new ArrayList<>(result.subList(0, topK)) : result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void indexDocument(SmartQaKnowledge knowledge) {
+        String body = knowledgeDocumentLoader.load(knowledge);
+        // 去掉加载器附加的“来自文档”标题行，标题单独参与打分
+        if (body.startsWith("【来自文档:")) {
+            int lineEnd = body.indexOf('\n');
+            body = lineEnd >= 0 ? body.substring(lineEnd + 1) : "";
+        }
+        // 标题、标签、摘要参与每个段落块的打分
+        String meta = join(knowledge.getTitle(), knowledge.getTags(), knowledge.getDescription());
+        List<String> pieces = splitChunks(body);
+        if (pieces.isEmpty()) {
+            pieces.add(knowledge.getDescription() != null ? knowledge.getDescription() : "");
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDocumentLocked(knowledge.getId());
+            List<Integer> ids = new ArrayList<>(pieces.size());
+            for (String piece : pieces) {
+                int chunkId = nextChunkId++;
+                List<String> tokens = tokenize(meta + " " + piece);
+                Map<String, Integer> tf = new HashMap<>();
+                for (String token : tokens) {
+                    tf.merge(token, 1, Integer::sum);
+                }
+                tf.forEach((term, count) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(chunkId, count));
+                chunks.put(chunkId, new Chunk(chunkId, knowledge.getId(), knowledge.getTitle(),
+                        knowledge.getCategory(), knowledge.getDescription(), knowledge.getFileType(),
+                        piece, tokens.size(), tf.keySet().toArray(new String[0])));
+                totalTokens += tokens.size();
+                ids.add(chunkId);
+            }
+            docChunks.put(knowledge.getId(), ids);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocument(Long knowledgeId) {
+        lock.writeLock().lock();
+        try {
+            removeDocumentLocked(knowledgeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeDocumentLocked(Long knowledgeId) {
+        List<Integer> ids = docChunks.remove(knowledgeId);
+        if (ids == null) {
+            return;
+        }
+        for (Integer chunkId : ids) {
+            Chunk chunk = chunks.remove(chunkId);
+            if (chunk == null) {
+                continue;
+            }
+            totalTokens -= chunk.length;
+            // 只处理该段落块包含的词项
+            for (String term : chunk.terms) {
+                Map<Integer, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(chunkId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 按段落打包切分，单段超长时硬切
+     */
+    private List<String> splitChunks(String body) {
+        List<String> result = new ArrayList<>();
+        if (body == null || body.isEmpty()) {
+            return result;
+        }
+        StringBuilder current = new StringBuilder();
+        for (String paragraph : body.split("\n")) {
+            String p = paragraph.trim();
+            if (p.isEmpty()) {
+                continue;
+            }
+            if (current.length() > 0 && current.length() + p.length() > CHUNK_SIZE) {
+                result.add(current.toString());
+                current.setLength(0);
+            }
+            while (p.length() > CHUNK_SIZE) {
+                result.add(p.substring(0, CHUNK_SIZE));
+                p = p.substring(CHUNK_SIZE);
+            }
+            current.append(p).append("\n");
+        }
+        if (current.length() > 0) {
+            result.add(current.toString());
+        }
+        return result;
+    }
+
+    /**
+     * 分词：连续中文按二元组切分（单字保留单字），英文数字按整词小写
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        int i = 0;
+        int len = text.length();
+        while (i < len) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < len && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    tokens.add(String.valueOf(c));
+                } else {
+                    for (int j = start; j < i - 1; j++) {
+                        tokens.add(text.substring(j, j + 2));
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < len && Character.isLetterOrDigit(text.charAt(i)) && !isCjk(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i).toLowerCase());
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isCjk(char c) {
+        return Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+
+    private static String join(String... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isEmpty()) {
+                sb.append(part).append(' ');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 段落块
+     */
+    public static class Chunk {
+        private final int id;
+        private final Long knowledgeId;
+        private final String title;
+        private final String category;
+        private final String description;
+        private final String fileType;
+        private final String text;
+        private final int length;
+        /**
+         * 段落块包含的词项（去重），删除时只需清理这些词项的倒排表
+         */
+        private final String[] terms;
+
+        Chunk(int id, Long knowledgeId, String title, String category, String description,
+              String fileType, String text, int length, String[] terms) {
+            this.id = id;
+            this.knowledgeId = knowledgeId;
+            this.title = title;
+            this.category = category;
+            this.description = description;
+            this.fileType = fileType;
+            this.text = text;
+            this.length = length;
+            this.terms = terms;
+        }
+
+        public Long getKnowledgeId() { return knowledgeId; }
+        public String getTitle() { return title; }
+        public String getCategory() { return category; }
+        public String getDescription() { return description; }
+        public String getFileType() { return fileType; }
+        public String getText() { return text; }
+    }
+
+    /**
+     * 带得分的检索结果
+     */
+    public static class ScoredChunk {
+        private final Chunk chunk;
+        private final double score;
+
+        ScoredChunk(Chunk chunk, double score) {
+            this.chunk = chunk;
+            this.score = score;
+        }
+
+        public Chunk getChunk() { return chunk; }
+        public double getScore() { return score; }
+    }
+}
@@ -0,0 +1,470 @@
+package com.community.owner.service;
+
+import com.community.owner.mapper.OwnerBillingProjectionMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 业主缴费卡片投影
+ * 缴费页的卡片（仪表、车位、问题费用三类账单）按业主预先组装成 JSON 存入 owner_billing_projection，
+ * 打开缴费页时按主键读取一行直接返回，不再执行三条多表关联查询。
+ * 抄表、仪表、车位、问题等数据变更时（Redis 数据变更消息）只找出受影响的业主，递增其 version 并在后台重建；
+ * 首次生成前先插入占位行，生成期间的变更同样会递增 version，使生成结果不会被当作最新写入；
+ * 影响面无法确定的变更（计费配置、房屋绑定等）把全部投影标记为过期，在下次读取时重建。
+ * 超过最长保留时间的投影也视为过期，用于兜底未发布变更消息的写入
+ */
+@Slf4j
+@Service
+public class OwnerBillingProjectionService {
+
+    private static final String REF_METER = "M";
+    private static final String REF_READING = "R";
+    private static final String REF_PARKING_SPACE = "P";
+    private static final String REF_VEHICLE = "V";
+    private static final String REF_ISSUE = "I";
+
+    @Value("${owner-billing.max-age-minutes:30}")
+    private int maxAgeMinutes;
+
+    @Autowired
+    private OwnerBillingProjectionMapper projectionMapper;
+
+    @Autowired
+    private OwnerQueryService ownerQueryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 已排队等待后台重建的业主，避免同一业主重复排队
+     */
+    private final Set<Long> pendingRebuilds = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "owner-billing-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 一个业主的缴费卡片
+     */
+    public static class BillingCards {
+        private final String json;
+        private final int count;
+
+        BillingCards(String json, int count) {
+            this.json = json;
+            this.count = count;
+        }
+
+        /**
+         * 卡片数组的 JSON
+         */
+        public String getJson() {
+            return json;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            projectionMapper.createProjectionTable();
+            projectionMapper.createRefTable();
+        } catch (Exception e) {
+            log.error("创建缴费卡片投影表失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 读取业主的缴费卡片：投影最新时直接返回，否则重建后返回
+     */
+    public BillingCards getCards(Long ownerId) {
+        Map<String, Object> row = projectionMapper.selectByOwnerId(ownerId, maxAgeMinutes);
+        if (row != null && isTrue(row.get("fresh"))) {
+            return new BillingCards((String) row.get("cards"), ((Number) row.get("cardCount")).intValue());
+        }
+        if (row == null) {
+            row = insertPlaceholder(ownerId);
+            if (row != null && isTrue(row.get("fresh"))) {
+                return new BillingCards((String) row.get("cards"), ((Number) row.get("cardCount")).intValue());
+            }
+        }
+        // 占位行写入失败时只生成不保存，否则生成期间的变更无法记录
+        Long version = row != null ? ((Number) row.get("version")).longValue() : null;
+        return rebuild(ownerId, version);
+    }
+
+    /**
+     * 插入占位行后重新读取，返回当前行（其他请求可能已先生成）；写入失败时返回 null
+     */
+    private Map<String, Object> insertPlaceholder(Long ownerId) {
+        try {
+            projectionMapper.insertPlaceholder(ownerId);
+            return projectionMapper.selectByOwnerId(ownerId, maxAgeMinutes);
+        } catch (Exception e) {
+            log.warn("插入缴费卡片投影占位行失败: ownerId={}", ownerId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 处理数据变更消息，在后台线程中执行，不阻塞消息监听
+     * @param data 消息中的变更数据（实体、实体列表或ID列表），用于确定已删除记录所属的仪表/房屋
+     */
+    public void onDataChange(String entityType, Object entityId, Object data) {
+        if (entityType == null) {
+            return;
+        }
+        switch (entityType) {
+            case "MeterReading":
+            case "MeterInfo":
+            case "ParkingSpace":
+            case "Vehicle":
+            case "OwnerIssue":
+            case "MeterConfig":
+            case "ParkingLot":
+            case "HouseOwner":
+            case "House":
+            case "Building":
+            case "CommunityInfo":
+                break;
+            default:
+                return;
+        }
+        Long id = toLong(entityId);
+        try {
+            refreshExecutor.execute(() -> applyChange(entityType, id, data));
+        } catch (Exception e) {
+            log.warn("提交缴费卡片刷新任务失败: entityType={}, entityId={}", entityType, entityId, e);
+        }
+    }
+
+    private void applyChange(String entityType, Long id, Object data) {
+        try {
+            Set<Long> owners = new LinkedHashSet<>();
+            switch (entityType) {
+                case "MeterReading":
+                    if (!collectReadingOwners(id, data, owners)) {
+                        // 既没有记录ID也没有变更数据，无法确定影响范围
+                        markAllStale(entityType);
+                        return;
+                    }
+                    break;
+                case "MeterInfo":
+                    if (id == null) {
+                        markAllStale(entityType);
+                        return;
+                    }
+                    collectMeterOwners(id, owners);
+                    break;
+                case "ParkingSpace":
+                    if (id == null) {
+                        markAllStale(entityType);
+                        return;
+                    }
+                    owners.addAll(projectionMapper.selectOwnersByRef(REF_PARKING_SPACE, id));
+                    owners.addAll(projectionMapper.selectOwnersByParkingSpaceId(id));
+                    break;
+                case "Vehicle":
+                    // 车辆只影响车位卡片上的车牌，新车辆在绑定车位时会有车位变更消息
+                    if (id != null) {
+                        owners.addAll(projectionMapper.selectOwnersByRef(REF_VEHICLE, id));
+                    }
+                    break;
+                case "OwnerIssue":
+                    if (id == null) {
+                        markAllStale(entityType);
+                        return;
+                    }
+                    owners.addAll(projectionMapper.selectOwnersByRef(REF_ISSUE, id));
+                    owners.addAll(projectionMapper.selectOwnersByIssueId(id));
+                    break;
+                default:
+                    // 计费配置、停车场收费标准、房屋绑定及房屋/楼栋/社区名称，影响的业主无法低成本确定
+                    markAllStale(entityType);
+                    return;
+            }
+            if (owners.isEmpty()) {
+                return;
+            }
+            projectionMapper.markStale(owners);
+            for (Long ownerId : owners) {
+                scheduleRebuild(ownerId);
+            }
+        } catch (Exception e) {
+            log.error("刷新缴费卡片投影失败: entityType={}, entityId={}", entityType, id, e);
+        }
+    }
+
+    /**
+     * 抄表记录变更影响的业主：按变更数据中的仪表/房屋，已删除的记录按投影引用，其余按记录当前所属仪表
+     * @return 变更是否可识别（有记录ID或变更数据）
+     */
+    private boolean collectReadingOwners(Long id, Object data, Set<Long> owners) {
+        List<Object> items = new ArrayList<>();
+        if (data instanceof Collection) {
+            items.addAll((Collection<?>) data);
+        } else if (data != null) {
+            items.add(data);
+        }
+        Set<Long> readingIds = new LinkedHashSet<>();
+        if (id != null) {
+            readingIds.add(id);
+        }
+        Set<Long> meterIds = new LinkedHashSet<>();
+        for (Object item : items) {
+            if (item instanceof Map) {
+                Map<?, ?> reading = (Map<?, ?>) item;
+                addIfPresent(readingIds, toLong(reading.get("id")));
+                addIfPresent(meterIds, toLong(reading.get("meterId")));
+                Long houseId = toLong(reading.get("houseId"));
+                if (houseId != null) {
+                    owners.addAll(projectionMapper.selectOwnersByHouseId(houseId));
+                }
+            } else {
+                // 批量删除时数据为记录ID
+                addIfPresent(readingIds, toLong(item));
+            }
+        }
+        if (readingIds.isEmpty() && meterIds.isEmpty() && owners.isEmpty()) {
+            return false;
+        }
+        for (Long readingId : readingIds) {
+            owners.addAll(projectionMapper.selectOwnersByRef(REF_READING, readingId));
+            if (meterIds.isEmpty()) {
+                // 部分字段更新的数据里可能没有仪表ID；记录已删除时查不到，由上面的引用覆盖
+                addIfPresent(meterIds, projectionMapper.selectMeterIdByReadingId(readingId));
+            }
+        }
+        for (Long meterId : meterIds) {
+            collectMeterOwners(meterId, owners);
+        }
+        return true;
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+
+    private void collectMeterOwners(Long meterId, Set<Long> owners) {
+        owners.addAll(projectionMapper.selectOwnersByRef(REF_METER, meterId));
+        owners.addAll(projectionMapper.selectOwnersByMeterId(meterId));
+    }
+
+    private void markAllStale(String entityType) {
+        int rows = projectionMapper.markAllStale();
+        log.debug("缴费卡片投影全部标记为过期: entityType={}, rows={}", entityType, rows);
+    }
+
+    /**
+     * 后台重建已有投影的业主；没有投影的业主在首次打开缴费页时生成
+     */
+    private void scheduleRebuild(Long ownerId) {
+        if (!pendingRebuilds.add(ownerId)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            pendingRebuilds.remove(ownerId);
+            try {
+                Map<String, Object> row = projectionMapper.selectByOwnerId(ownerId, maxAgeMinutes);
+                if (row != null && !isTrue(row.get("fresh"))) {
+                    rebuild(ownerId, ((Number) row.get("version")).longValue());
+                }
+            } catch (Exception e) {
+                log.error("重建缴费卡片投影失败: ownerId={}", ownerId, e);
+            }
+        });
+    }
+
+    /**
+     * 按当前数据生成业主的缴费卡片并写入投影
+     * @param version 生成前读到的 version，写入时若已变化则不覆盖（本次结果仍返回给调用方）；为空时不写入
+     */
+    private BillingCards rebuild(Long ownerId, Long version) {
+        List<Map<String, Object>> refs = new ArrayList<>();
+        List<Map<String, Object>> cards = buildCards(ownerId, refs);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map<String, Object> card : cards) {
+            total = total.add((BigDecimal) card.get("amount"));
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(cards);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化缴费卡片失败", e);
+        }
+        if (version == null) {
+            return new BillingCards(json, cards.size());
+        }
+        try {
+            projectionMapper.deleteRefs(ownerId);
+            if (!refs.isEmpty()) {
+                projectionMapper.insertRefs(ownerId, refs);
+            }
+            projectionMapper.upsertProjection(ownerId, json, cards.size(), total, version);
+        } catch (Exception e) {
+            // 投影写入失败不影响本次返回，下次读取时重建
+            log.error("写入缴费卡片投影失败: ownerId={}", ownerId, e);
+        }
+        return new BillingCards(json, cards.size());
+    }
+
+    /**
+     * 组装缴费卡片（仪表、车位、问题费用），仅保留金额大于0的卡片
+     * @param refs 输出卡片引用的仪表/车位/车辆/问题
+     */
+    private List<Map<String, Object>> buildCards(Long ownerId, List<Map<String, Object>> refs) {
+        List<Map<String, Object>> cards = new ArrayList<>();
+        Set<String> refKeys = new LinkedHashSet<>();
+
+        // 1. 仪表账单（仅包含有未缴抄表记录的仪表）
+        for (Map<String, Object> row : ownerQueryService.listOwnerBillingCardsWithDetails(ownerId)) {
+            addRef(refs, refKeys, REF_METER, row.get("id"));
+            addRef(refs, refKeys, REF_READING, row.get("reading_id"));
+            BigDecimal usage = decimal(row.get("usage_amount"));
+            BigDecimal unitPrice = decimal(row.get("unit_price"));
+            BigDecimal amount = usage.multiply(unitPrice);
+            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
+            }
+            Map<String, Object> card = new LinkedHashMap<>();
+            card.put("billType", "meter");
+            card.put("meterId", row.get("id"));
+            card.put("houseId", row.get("house_id"));
+            card.put("meterName", row.get("meter_name"));
+            card.put("categoryName", row.get("category_name"));
+            card.put("meterType", row.get("meter_type"));
+            card.put("unit", row.get("unit"));
+            card.put("roomNo", row.get("room_no"));
+            card.put("fullRoomNo", row.get("full_room_no"));
+            card.put("buildingNo", row.get("building_no"));
+            card.put("buildingName", row.get("building_name"));
+            card.put("usage", usage);
+            card.put("unitPrice", unitPrice);
+            card.put("amount", amount);
+            card.put("lastReadingDate", row.get("reading_date"));
+            card.put("readingUnit", row.get("reading_unit"));
+            cards.add(card);
+        }
+
+        // 2. 停车位月租账单
+        for (Map<String, Object> row : ownerQueryService.listOwnerParkingBillingWithDetails(ownerId)) {
+            addRef(refs, refKeys, REF_PARKING_SPACE, row.get("parking_space_id"));
+            addRef(refs, refKeys, REF_VEHICLE, row.get("vehicle_id"));
+            BigDecimal monthlyFee = decimal(row.get("monthly_fee"));
+            if (monthlyFee.compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
+            }
+            Map<String, Object> card = new LinkedHashMap<>();
+            card.put("billType", "parking");
+            card.put("parkingSpaceId", row.get("parking_space_id"));
+            card.put("spaceNo", row.get("space_no"));
+            card.put("fullSpaceNo", row.get("full_space_no"));
+            card.put("spaceType", row.get("space_type"));
+            card.put("lotName", row.get("lot_name"));
+            card.put("lotCode", row.get("lot_code"));
+            card.put("zoneName", row.get("zone_name"));
+            card.put("plateNumber", row.get("plate_number"));
+            card.put("vehicleType", row.get("vehicle_type"));
+            card.put("chargeMethod", row.get("charge_method"));
+            card.put("chargeStandard", row.get("charge_standard"));
+            card.put("amount", monthlyFee);
+            cards.add(card);
+        }
+
+        // 3. 问题反馈费用账单
+        for (Map<String, Object> row : ownerQueryService.listOwnerIssueBillingWithDetails(ownerId)) {
+            addRef(refs, refKeys, REF_ISSUE, row.get("id"));
+            BigDecimal totalCost = decimal(row.get("total_cost"));
+            if (totalCost.compareTo(BigDecimal.ZERO) <= 0) {
+                continue;
+            }
+            Map<String, Object> card = new LinkedHashMap<>();
+            card.put("billType", "issue");
+            card.put("issueId", row.get("id"));
+            card.put("houseId", row.get("house_id"));
+            card.put("issueTitle", row.get("issue_title"));
+            card.put("issueType", row.get("issue_type"));
+            card.put("subType", row.get("sub_type"));
+            card.put("roomNo", row.get("room_no"));
+            card.put("fullRoomNo", row.get("full_room_no"));
+            card.put("buildingNo", row.get("building_no"));
+            card.put("buildingName", row.get("building_name"));
+            card.put("communityName", row.get("community_name"));
+            card.put("materialCost", decimal(row.get("material_cost")));
+            card.put("laborCost", decimal(row.get("labor_cost")));
+            card.put("amount", totalCost);
+            card.put("reportedTime", row.get("reported_time"));
+            card.put("completedTime", row.get("actual_complete_time"));
+            cards.add(card);
+        }
+        return cards;
+    }
+
+    private static void addRef(List<Map<String, Object>> refs, Set<String> refKeys, String refType, Object refId) {
+        Long id = toLong(refId);
+        if (id == null || !refKeys.add(refType + id)) {
+            return;
+        }
+        Map<String, Object> ref = new HashMap<>();
+        ref.put("refType", refType);
+        ref.put("refId", id);
+        refs.add(ref);
+    }
+
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static boolean isTrue(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() != 0 : Boolean.TRUE.equals(value);
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.valueOf((String) value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
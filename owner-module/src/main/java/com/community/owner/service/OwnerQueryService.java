@@ -3,6 +3,8 @@ package com.community.owner.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -269,6 +271,29 @@ public class OwnerQueryService {
         return jdbcTemplate.queryForList(sql, ownerId);
     }
 
+    /**
+     * 查询用量汇总（meter_usage_rollup，由物业端抄表时维护）
+     * @param scopeType 范围：METER / HOUSE / BUILDING
+     * @param periodType 周期：D / M / Y
+     */
+    public List<Map<String, Object>> listUsageRollups(String scopeType, Long scopeId, String periodType,
+                                                      LocalDate from, LocalDate to) {
+        String sql = "SELECT period_start, usage_amount, reading_count FROM meter_usage_rollup " +
+                "WHERE scope_type = ? AND scope_id = ? AND period_type = ? AND period_start BETWEEN ? AND ? " +
+                "ORDER BY period_start";
+        return jdbcTemplate.queryForList(sql, scopeType, scopeId, periodType, from, to);
+    }
+
+    /**
+     * 查询仪表的最新读数（meter_reading_latest），没有抄表记录时返回 null
+     */
+    public Map<String, Object> getLatestMeterReading(Long meterId) {
+        String sql = "SELECT reading_id, previous_reading, current_reading, usage_amount, unit, reading_date, reading_time " +
+                "FROM meter_reading_latest WHERE meter_id = ?";
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, meterId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
     /**
      * 查询社区的物业人员列表（包含部门和职务信息）
      */
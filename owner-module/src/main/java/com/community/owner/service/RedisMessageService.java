@@ -38,6 +38,15 @@ public class RedisMessageService {
      * @param data 变更的数据
      */
     public void publishDataChange(String module, String action, String entityType, Object entityId, Object data) {
+        publishDataChange(module, action, entityType, entityType, entityId, data);
+    }
+
+    /**
+     * 发布数据变更消息，实体类型和实体确切类名不同时使用（数据同步切面按Service类名推断 entityType）
+     * @param entityClass 实体的确切类名 (如: MeterInfo, ParkingLot)
+     */
+    public void publishDataChange(String module, String action, String entityType, String entityClass,
+                                  Object entityId, Object data) {
         try {
             long timestamp = System.currentTimeMillis();
             
@@ -45,6 +54,7 @@ public class RedisMessageService {
             message.put("module", module);
             message.put("action", action);
             message.put("entityType", entityType);
+            message.put("entityClass", entityClass);
             message.put("entityId", entityId);
             message.put("data", data);
             message.put("timestamp", timestamp);
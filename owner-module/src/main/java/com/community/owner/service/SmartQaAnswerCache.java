@@ -0,0 +1,238 @@
+package com.community.owner.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 智能问答答案缓存
+ * 以 作用域 + 归一化问题 为键缓存模型的完整回答：没有用到业主数据的通用回答按知识库上下文指纹共享给所有业主，
+ * 用到业主数据的回答按 业主ID + 完整提示词指纹 单独缓存；同一作用域内支持近似问题匹配（二元组 Jaccard 相似度）；
+ * 命中时以模拟的流式片段回放，保持SSE输出形式不变
+ */
+@Slf4j
+@Service
+public class SmartQaAnswerCache {
+
+    /**
+     * 归一化时去除的语气词
+     */
+    private static final String[] FILLER_WORDS = {"请问", "一下", "吗", "呢", "啊", "呀", "吧"};
+
+    /**
+     * 回放时每个片段的字符数
+     */
+    private static final int REPLAY_CHUNK_SIZE = 6;
+
+    @Value("${smart-qa.answer-cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    @Value("${smart-qa.answer-cache.max-entries:500}")
+    private int maxEntries;
+
+    @Value("${smart-qa.answer-cache.similarity:0.85}")
+    private double similarityThreshold;
+
+    @Value("${smart-qa.answer-cache.replay-delay-ms:15}")
+    private long replayDelayMs;
+
+    /**
+     * 作用域 + 归一化问题 -> 缓存答案（access-order 实现 LRU）
+     */
+    private final Map<String, CachedAnswer> entries = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedAnswer> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * 通用回答的作用域：只由检索到的知识库上下文决定，所有业主共享
+     * @param knowledgeContext 发给模型的知识库上下文
+     */
+    public String generalScope(String knowledgeContext) {
+        return "G:" + digest(knowledgeContext);
+    }
+
+    /**
+     * 用到业主数据的回答的作用域：业主ID + 发给模型的完整提示词指纹，
+     * 提示词中的业主信息、知识库和数据库上下文任一不同都不会命中
+     * @param ownerId 当前业主ID
+     * @param systemPrompt 发给模型的完整提示词
+     */
+    public String ownerScope(Long ownerId, String systemPrompt) {
+        return "O:" + (ownerId != null ? ownerId : "-") + ":" + digest(systemPrompt);
+    }
+
+    /**
+     * 查找缓存答案，先精确匹配，再在同一作用域内做近似匹配
+     * @return 命中的答案，未命中返回 null
+     */
+    public String lookup(String scope, String question) {
+        String normalized = normalize(question);
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedAnswer exact = entries.get(scope + "|" + normalized);
+            if (exact != null) {
+                if (exact.expiresAt > now) {
+                    return exact.answer;
+                }
+                entries.remove(scope + "|" + normalized);
+            }
+
+            Set<String> bigrams = bigrams(normalized);
+            CachedAnswer best = null;
+            double bestScore = similarityThreshold;
+            Iterator<CachedAnswer> it = entries.values().iterator();
+            while (it.hasNext()) {
+                CachedAnswer candidate = it.next();
+                if (candidate.expiresAt <= now) {
+                    it.remove();
+                    continue;
+                }
+                if (!candidate.scope.equals(scope)) {
+                    continue;
+                }
+                double score = jaccard(bigrams, candidate.bigrams);
+                if (score >= bestScore) {
+                    best = candidate;
+                    bestScore = score;
+                }
+            }
+            if (best != null) {
+                log.debug("智能问答近似命中缓存: question={}, cached={}, score={}", question, best.question, bestScore);
+                return best.answer;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 写入完整答案
+     */
+    public void put(String scope, String question, String answer) {
+        String normalized = normalize(question);
+        if (normalized.isEmpty() || answer == null || answer.isEmpty()) {
+            return;
+        }
+        CachedAnswer cached = new CachedAnswer(scope, question, bigrams(normalized), answer,
+                System.currentTimeMillis() + Duration.ofMinutes(ttlMinutes).toMillis());
+        synchronized (entries) {
+            entries.put(scope + "|" + normalized, cached);
+        }
+    }
+
+    /**
+     * 知识库变更时清空全部缓存答案
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        log.info("智能问答答案缓存已清空");
+    }
+
+    /**
+     * 将缓存答案拆成小片段按固定间隔输出，模拟模型的流式返回
+     */
+    public Flux<String> replay(String answer) {
+        List<String> pieces = new ArrayList<>();
+        for (int i = 0; i < answer.length(); i += REPLAY_CHUNK_SIZE) {
+            pieces.add(answer.substring(i, Math.min(answer.length(), i + REPLAY_CHUNK_SIZE)));
+        }
+        return Flux.fromIterable(pieces).delayElements(Duration.ofMillis(replayDelayMs));
+    }
+
+    /**
+     * 问题归一化：去掉空白、标点和语气词，英文转小写
+     */
+    private String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String s = question.toLowerCase();
+        for (String word : FILLER_WORDS) {
+            s = s.replace(word, "");
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private Set<String> bigrams(String normalized) {
+        Set<String> result = new HashSet<>();
+        if (normalized.length() == 1) {
+            result.add(normalized);
+            return result;
+        }
+        for (int i = 0; i < normalized.length() - 1; i++) {
+            result.add(normalized.substring(i, i + 2));
+        }
+        return result;
+    }
+
+    private double jaccard(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int intersection = 0;
+        for (String s : a) {
+            if (b.contains(s)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (a.size() + b.size() - intersection);
+    }
+
+    private String digest(String text) {
+        if (text == null || text.isEmpty()) {
+            return "-";
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                sb.append(String.format("%02x", hash[i]));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(text.hashCode());
+        }
+    }
+
+    private static class CachedAnswer {
+        private final String scope;
+        private final String question;
+        private final Set<String> bigrams;
+        private final String answer;
+        private final long expiresAt;
+
+        private CachedAnswer(String scope, String question, Set<String> bigrams, String answer, long expiresAt) {
+            this.scope = scope;
+            this.question = question;
+            this.bigrams = bigrams;
+            this.answer = answer;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.domain.entity.Building;
 import com.community.owner.mapper.BuildingMapper;
 import com.community.owner.service.BuildingService;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(Building.class)
 public class BuildingServiceImpl extends ServiceImpl<BuildingMapper, Building> implements BuildingService {
 }
@@ -1,11 +1,13 @@
 package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.domain.entity.CommunityInfo;
 import com.community.owner.mapper.CommunityInfoMapper;
 import com.community.owner.service.CommunityInfoService;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(CommunityInfo.class)
 public class CommunityInfoServiceImpl extends ServiceImpl<CommunityInfoMapper, CommunityInfo> implements CommunityInfoService {
 }
@@ -2,6 +2,7 @@ package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.domain.dto.vo.NoticeDetailVO;
 import com.community.owner.domain.dto.request.NoticeFilterRequest;
 import com.community.owner.domain.dto.vo.NoticeListVO;
@@ -9,10 +10,11 @@ import com.community.owner.domain.dto.request.NoticeSearchRequest;
 import com.community.owner.domain.entity.CommunityNotice;
 import com.community.owner.mapper.CommunityNoticeMapper;
 import com.community.owner.service.CommunityNoticeService;
+import com.community.owner.service.ViewCounterService;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -22,6 +24,7 @@ import java.util.stream.Collectors;
  * 社区公告服务实现类
  */
 @Service
+@SyncEntity(CommunityNotice.class)
 public class CommunityNoticeServiceImpl extends ServiceImpl<CommunityNoticeMapper, CommunityNotice> implements CommunityNoticeService {
     
     @Value("${aliyun.oss.bucket-name}")
@@ -29,6 +32,9 @@ public class CommunityNoticeServiceImpl extends ServiceImpl<CommunityNoticeMappe
 
     @Value("${aliyun.oss.endpoint}")
     private String endpoint;
+
+    @Autowired
+    private ViewCounterService viewCounterService;
     
     /**
      * 将OSS路径转换为完整URL
@@ -85,7 +91,7 @@ public class CommunityNoticeServiceImpl extends ServiceImpl<CommunityNoticeMappe
             vo.setIsUrgent(notice.getIsUrgent());
             vo.setIsTop(notice.getIsTop());
             vo.setPublishTime(notice.getPublishTime());
-            vo.setReadCount(notice.getReadCount());
+            vo.setReadCount(viewCounterService.noticeReadCount(notice.getId(), notice.getReadCount()));
             return vo;
         }).collect(Collectors.toList());
         
@@ -111,20 +117,19 @@ public class CommunityNoticeServiceImpl extends ServiceImpl<CommunityNoticeMappe
     }
     
     @Override
-    @Transactional
     public NoticeDetailVO getNoticeDetail(Long noticeId) {
         CommunityNotice notice = getById(noticeId);
         if (notice == null) {
             return null;
         }
         
-        // 增加阅读次数
-        notice.setReadCount(notice.getReadCount() == null ? 1 : notice.getReadCount() + 1);
-        updateById(notice);
+        // 增加阅读次数（内存累加，定期批量写入数据库）
+        viewCounterService.recordNoticeRead(noticeId);
         
         // 转换为详情VO
         NoticeDetailVO detailVO = new NoticeDetailVO();
         BeanUtils.copyProperties(notice, detailVO);
+        detailVO.setReadCount(viewCounterService.noticeReadCount(noticeId, notice.getReadCount()));
         
         // 转换图片URL
         if (notice.getNoticeImages() != null && !notice.getNoticeImages().isEmpty()) {
@@ -183,7 +188,7 @@ public class CommunityNoticeServiceImpl extends ServiceImpl<CommunityNoticeMappe
             vo.setIsUrgent(notice.getIsUrgent());
             vo.setIsTop(notice.getIsTop());
             vo.setPublishTime(notice.getPublishTime());
-            vo.setReadCount(notice.getReadCount());
+            vo.setReadCount(viewCounterService.noticeReadCount(notice.getId(), notice.getReadCount()));
             return vo;
         }).collect(Collectors.toList());
         
@@ -286,7 +291,7 @@ public class CommunityNoticeServiceImpl extends ServiceImpl<CommunityNoticeMappe
             vo.setIsUrgent(notice.getIsUrgent());
             vo.setIsTop(notice.getIsTop());
             vo.setPublishTime(notice.getPublishTime());
-            vo.setReadCount(notice.getReadCount());
+            vo.setReadCount(viewCounterService.noticeReadCount(notice.getId(), notice.getReadCount()));
             return vo;
         }).collect(Collectors.toList());
         
@@ -2,12 +2,14 @@ package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.mapper.HouseOwnerMapper;
 import com.community.owner.domain.entity.HouseOwner;
 import com.community.owner.service.HouseOwnerService;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(HouseOwner.class)
 public class HouseOwnerServiceImpl extends ServiceImpl<HouseOwnerMapper, HouseOwner> implements HouseOwnerService {
 
     @Override
@@ -1,12 +1,14 @@
 package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.mapper.HouseMapper;
 import com.community.owner.domain.entity.House;
 import com.community.owner.service.HouseService;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(House.class)
 public class HouseServiceImpl extends ServiceImpl<HouseMapper, House> implements HouseService {
 }
 
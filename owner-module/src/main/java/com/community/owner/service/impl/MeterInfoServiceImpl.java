@@ -1,12 +1,14 @@
 package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.mapper.MeterInfoMapper;
 import com.community.owner.domain.entity.MeterInfo;
 import com.community.owner.service.MeterInfoService;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(MeterInfo.class)
 public class MeterInfoServiceImpl extends ServiceImpl<MeterInfoMapper, MeterInfo> implements MeterInfoService {
 }
 
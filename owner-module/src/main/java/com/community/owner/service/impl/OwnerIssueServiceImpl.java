@@ -2,6 +2,7 @@ package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.domain.entity.*;
 import com.community.owner.mapper.IssueFollowUpMapper;
 import com.community.owner.mapper.OwnerIssueMapper;
@@ -23,6 +24,7 @@ import java.util.stream.Collectors;
  * 业主问题服务实现类
  */
 @Service
+@SyncEntity(OwnerIssue.class)
 public class OwnerIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, OwnerIssue> implements OwnerIssueService {
     
     @Autowired
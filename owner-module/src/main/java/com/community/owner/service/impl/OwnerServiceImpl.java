@@ -2,12 +2,14 @@ package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.domain.entity.Owner;
 import com.community.owner.service.OwnerService;
 import com.community.owner.mapper.OwnerMapper;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(Owner.class)
 public class OwnerServiceImpl extends ServiceImpl<OwnerMapper, Owner> implements OwnerService {
     
     @Override
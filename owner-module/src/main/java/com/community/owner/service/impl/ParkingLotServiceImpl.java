@@ -1,12 +1,14 @@
 package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.mapper.ParkingLotMapper;
 import com.community.owner.domain.entity.ParkingLot;
 import com.community.owner.service.ParkingLotService;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(ParkingLot.class)
 public class ParkingLotServiceImpl extends ServiceImpl<ParkingLotMapper, ParkingLot> implements ParkingLotService {
 }
 
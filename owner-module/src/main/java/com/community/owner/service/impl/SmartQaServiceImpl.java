@@ -6,19 +6,30 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.community.owner.domain.entity.*;
 import com.community.owner.mapper.*;
 import com.community.owner.domain.dto.request.QaRequest;
+import com.community.owner.service.KnowledgeDocumentLoader;
+import com.community.owner.service.KnowledgeRetrievalIndex;
 import com.community.owner.service.OwnerService;
+import com.community.owner.service.SmartQaAnswerCache;
 import com.community.owner.service.SmartQaService;
 import org.springframework.ai.chat.messages.AssistantMessage;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * 智能问答服务实现类
@@ -27,6 +38,11 @@ import java.util.List;
 @Service
 public class SmartQaServiceImpl implements SmartQaService {
     
+    /**
+     * 检索返回的段落块数量
+     */
+    private static final int KNOWLEDGE_TOP_K = 8;
+    
     @Autowired
     private SmartQaKnowledgeMapper knowledgeDao;
     
@@ -49,6 +65,27 @@ public class SmartQaServiceImpl implements SmartQaService {
     @Autowired
     private DashScopeChatModel chatModel;
     
+    @Autowired
+    private KnowledgeDocumentLoader knowledgeDocumentLoader;
+    
+    @Autowired
+    private KnowledgeRetrievalIndex knowledgeRetrievalIndex;
+    
+    @Autowired
+    private SmartQaAnswerCache answerCache;
+    
+    /**
+     * 各路上下文检索的超时预算（毫秒）
+     */
+    @Value("${smart-qa.context.owner-timeout-ms:800}")
+    private long ownerInfoTimeoutMs;
+    
+    @Value("${smart-qa.context.knowledge-timeout-ms:3000}")
+    private long knowledgeTimeoutMs;
+    
+    @Value("${smart-qa.context.database-timeout-ms:1500}")
+    private long databaseTimeoutMs;
+    
     @Override
     public Flux<String> streamChat(QaRequest request, Long ownerId) {
         try {
@@ -57,70 +94,76 @@ public class SmartQaServiceImpl implements SmartQaService {
                 return Flux.just("请输入有效的问题。");
             }
             
-            // 1. 获取当前业主信息（确保不返回 null）
-            String ownerInfo = "";
-            try {
-                ownerInfo = retrieveOwnerInfo(ownerId);
-                if (ownerInfo == null) {
-                    ownerInfo = "";
-                }
-            } catch (Exception e) {
-                ownerInfo = "业主信息：查询异常";
-            }
-            
-            // 2. 从知识库检索相关信息（RAG）（确保不返回 null）
-            String knowledgeContext = "";
-            try {
-                knowledgeContext = retrieveKnowledge(request.getQuestion());
-                if (knowledgeContext == null) {
-                    knowledgeContext = "";
-                }
-            } catch (Exception e) {
-                knowledgeContext = "";
-            }
-            
-            // 3. 从数据库检索相关信息（基于问题关键词）（确保不返回 null）
-            String databaseContext = "";
-            try {
-                databaseContext = retrieveDatabaseInfo(request.getQuestion(), ownerId);
-                if (databaseContext == null) {
-                    databaseContext = "";
-                }
-            } catch (Exception e) {
-                databaseContext = "";
-            }
-            
-            // 4. 判断是否有有效信息
-            boolean hasLocalInfo = hasValidLocalInfo(knowledgeContext, databaseContext);
-            
-            // 5. 构建系统提示词
-            String systemPrompt = buildSystemPrompt(ownerInfo, knowledgeContext, databaseContext, hasLocalInfo);
-            
-            // 6. 构建消息列表（包含历史对话，支持多轮对话）
-            List<Message> messages = buildMessages(systemPrompt, request);
-            
-            // 7. 调用通义千问模型（流式输出）- 使用 Spring AI Alibaba
-            Prompt prompt = new Prompt(messages, DashScopeChatOptions.builder()
-                    .withModel("qwen-max")
-                    .withTemperature(0.7)
-                    .build());
-            
-            // 8. 返回流式响应（不过滤空内容，让模型决定输出）
-            return chatModel.stream(prompt)
-                    .map(response -> {
-                        if (response != null && response.getResult() != null) {
-                            var output = response.getResult().getOutput();
-                            if (output != null) {
-                                String text = output.getText();
-                                return text != null ? text : "";
+            // 1~3. 业主信息、知识库（RAG）、数据库信息三路并行检索，各自有超时预算；
+            // 某一路超时或异常时使用降级内容，不阻塞模型调用（确保不返回 null），此时的回答不写入缓存
+            AtomicBoolean degraded = new AtomicBoolean();
+            Mono<String> ownerInfoMono = retrieveWithBudget(() -> retrieveOwnerInfo(ownerId),
+                    ownerInfoTimeoutMs, "业主信息：查询异常", degraded);
+            Mono<String> knowledgeMono = retrieveWithBudget(() -> retrieveKnowledge(request.getQuestion()),
+                    knowledgeTimeoutMs, "", degraded);
+            Mono<String> databaseMono = retrieveWithBudget(() -> retrieveDatabaseInfo(request.getQuestion(), ownerId),
+                    databaseTimeoutMs, "", degraded);
+            
+            return Mono.zip(ownerInfoMono, knowledgeMono, databaseMono)
+                    .flatMapMany(context -> {
+                        String ownerInfo = context.getT1();
+                        String knowledgeContext = context.getT2();
+                        String databaseContext = context.getT3();
+                        
+                        // 判断是否有有效信息
+                        boolean hasLocalInfo = hasValidLocalInfo(knowledgeContext, databaseContext);
+                        
+                        // 4. 构建系统提示词；没有查到业主数据时不带业主信息，回答只取决于知识库上下文，可在业主之间共享
+                        boolean usesOwnerData = databaseContext != null && !databaseContext.isEmpty();
+                        String systemPrompt = buildSystemPrompt(usesOwnerData ? ownerInfo : null,
+                                knowledgeContext, databaseContext, hasLocalInfo);
+                        
+                        // 5. 单轮问题先查答案缓存（用到业主数据的回答按业主ID和完整提示词区分，不与其他业主共享）
+                        boolean cacheable = request.getHistory() == null || request.getHistory().isEmpty();
+                        String cacheScope = usesOwnerData ? answerCache.ownerScope(ownerId, systemPrompt)
+                                : answerCache.generalScope(knowledgeContext);
+                        if (cacheable) {
+                            String cachedAnswer = answerCache.lookup(cacheScope, request.getQuestion());
+                            if (cachedAnswer != null) {
+                                return answerCache.replay(cachedAnswer);
                             }
                         }
-                        return "";
+                        
+                        // 6. 构建消息列表（包含历史对话，支持多轮对话）
+                        List<Message> messages = buildMessages(systemPrompt, request);
+                        
+                        // 7. 调用通义千问模型（流式输出）- 使用 Spring AI Alibaba
+                        Prompt prompt = new Prompt(messages, DashScopeChatOptions.builder()
+                                .withModel("qwen-max")
+                                .withTemperature(0.7)
+                                .build());
+                        
+                        // 8. 返回流式响应（不过滤空内容，让模型决定输出），正常完整输出且上下文未降级时写入答案缓存；
+                        // 模型出错时返回的提示在缓存之后拼接，不会被缓存
+                        StringBuilder answer = new StringBuilder();
+                        return chatModel.stream(prompt)
+                                .map(response -> {
+                                    if (response != null && response.getResult() != null) {
+                                        var output = response.getResult().getOutput();
+                                        if (output != null) {
+                                            String text = output.getText();
+                                            return text != null ? text : "";
+                                        }
+                                    }
+                                    return "";
+                                })
+                                .doOnNext(answer::append)
+                                .doOnComplete(() -> {
+                                    if (cacheable && !degraded.get()) {
+                                        answerCache.put(cacheScope, request.getQuestion(), answer.toString());
+                                    }
+                                })
+                                .onErrorResume(e -> {
+                                    // 如果流式输出出错，返回错误信息
+                                    return Flux.just("抱歉，智能问答服务暂时不可用，请稍后再试。错误信息：" + e.getMessage());
+                                });
                     })
-                    .onErrorResume(e -> {
-                        // 如果流式输出出错，返回错误信息
-                        return Flux.just("抱歉，智能问答服务暂时不可用，请稍后再试。错误信息：" + e.getMessage());
-                    });
+                    .onErrorResume(e -> Flux.just("抱歉，处理您的问题时出现异常，请稍后再试。"));
                     
         } catch (Exception e) {
             // 捕获所有异常，返回友好的错误信息
@@ -128,6 +171,28 @@ public class SmartQaServiceImpl implements SmartQaService {
         }
     }
     
+    /**
+     * 在弹性线程池上执行一路上下文检索，超时或异常时返回降级内容
+     * @param retrieval 检索逻辑（阻塞的 MyBatis / 文件下载调用）
+     * @param timeoutMs 该路检索的时间预算
+     * @param fallback 降级内容
+     * @param degraded 使用了降级内容时置为 true
+     */
+    private Mono<String> retrieveWithBudget(Supplier<String> retrieval, long timeoutMs, String fallback,
+                                            AtomicBoolean degraded) {
+        Mono<String> degradedFallback = Mono.fromSupplier(() -> {
+            degraded.set(true);
+            return fallback;
+        });
+        return Mono.fromCallable(() -> {
+                    String result = retrieval.get();
+                    return result != null ? result : "";
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(Duration.ofMillis(timeoutMs), degradedFallback)
+                .onErrorResume(e -> degradedFallback);
+    }
+    
     /**
      * 获取当前业主基本信息
      */
@@ -183,8 +248,8 @@ public class SmartQaServiceImpl implements SmartQaService {
             
             return info.toString();
         } catch (Exception e) {
-            // 出现异常时返回空字符串，不中断整个流程
-            return "";
+            // 交给 retrieveWithBudget 返回降级内容，不中断整个流程
+            throw new IllegalStateException("查询业主信息失败", e);
         }
     }
     
@@ -193,6 +258,13 @@ public class SmartQaServiceImpl implements SmartQaService {
      */
     private String retrieveKnowledge(String question) {
         try {
+            // 优先使用内存检索索引，只把相关段落放进提示词
+            List<KnowledgeRetrievalIndex.ScoredChunk> chunks = knowledgeRetrievalIndex.search(question, KNOWLEDGE_TOP_K);
+            if (chunks != null) {
+                return buildChunkContext(chunks);
+            }
+            
+            // 索引尚未就绪时回退到数据库关键词匹配
             // 提取关键词进行匹配
             QueryWrapper<SmartQaKnowledge> queryWrapper = new QueryWrapper<>();
             queryWrapper.eq("status", "启用");
@@ -235,8 +307,8 @@ public class SmartQaServiceImpl implements SmartQaService {
                     context.append("   摘要：").append(knowledge.getDescription()).append("\n");
                 }
                 
-                // 添加文件内容（关键步骤：下载并解析文件）
-                String fileContent = downloadAndParseFile(knowledge);
+                // 添加文件内容（关键步骤：下载并解析文件，命中缓存时不再重复下载解析）
+                String fileContent = knowledgeDocumentLoader.load(knowledge);
                 if (fileContent != null && !fileContent.isEmpty()) {
                     context.append(fileContent).append("\n");
                 }
@@ -245,10 +317,42 @@ public class SmartQaServiceImpl implements SmartQaService {
             
             return context.toString();
         } catch (Exception e) {
-            System.out.println("❌ 知识库检索异常: " + e.getMessage());
-            e.printStackTrace();
+            // 交给 retrieveWithBudget 返回降级内容
+            throw new IllegalStateException("知识库检索失败", e);
+        }
+    }
+    
+    /**
+     * 按文档聚合检索到的段落块，构建知识库上下文
+     */
+    private String buildChunkContext(List<KnowledgeRetrievalIndex.ScoredChunk> chunks) {
+        if (chunks.isEmpty()) {
             return "";
         }
+        
+        // 保持得分顺序，同一文档的段落放在一起
+        Map<Long, List<KnowledgeRetrievalIndex.Chunk>> byDocument = new LinkedHashMap<>();
+        for (KnowledgeRetrievalIndex.ScoredChunk scored : chunks) {
+            byDocument.computeIfAbsent(scored.getChunk().getKnowledgeId(), k -> new ArrayList<>())
+                    .add(scored.getChunk());
+        }
+        
+        StringBuilder context = new StringBuilder("【社区知识库相关信息】\n");
+        for (List<KnowledgeRetrievalIndex.Chunk> docChunks : byDocument.values()) {
+            KnowledgeRetrievalIndex.Chunk first = docChunks.get(0);
+            context.append("📄 ").append(first.getTitle());
+            context.append(" [").append(first.getCategory()).append("]\n");
+            if (first.getDescription() != null && !first.getDescription().isEmpty()) {
+                context.append("   摘要：").append(first.getDescription()).append("\n");
+            }
+            context.append("【来自文档: ").append(first.getTitle())
+                    .append(" (").append(first.getFileType()).append(")】\n");
+            for (KnowledgeRetrievalIndex.Chunk chunk : docChunks) {
+                context.append(chunk.getText()).append("\n");
+            }
+            context.append("\n");
+        }
+        return context.toString();
     }
     
     /**
@@ -298,7 +402,8 @@ public class SmartQaServiceImpl implements SmartQaService {
             
             return context.toString();
         } catch (Exception e) {
-            return "";
+            // 交给 retrieveWithBudget 返回降级内容
+            throw new IllegalStateException("查询数据库信息失败", e);
         }
     }
     
@@ -579,243 +684,5 @@ public class SmartQaServiceImpl implements SmartQaService {
         
         return messages;
     }
-
-    private String downloadAndParseFile(SmartQaKnowledge knowledge) {
-        if (knowledge == null || knowledge.getFilePath() == null) {
-            System.out.println("⚠️ 知识库记录为空或文件路径不存在");
-            return "";
-        }
-        
-        java.io.File f = null;
-        try {
-            System.out.println("\n========== 开始处理知识库文档 ==========");
-            System.out.println("📚 文档标题: " + knowledge.getTitle());
-            System.out.println("📂 文档分类: " + knowledge.getCategory());
-            System.out.println("🔗 文件路径: " + knowledge.getFilePath());
-            System.out.println("📄 文件类型: " + knowledge.getFileType());
-            
-            // 改进：添加文件路径的有效性检查
-            if (knowledge.getFilePath().trim().isEmpty()) {
-                System.out.println("❌ 文件路径为空字符串");
-                return "";
-            }
-            
-            java.io.File dir = new java.io.File("./temp/knowledge");
-            if (!dir.exists()) {
-                boolean created = dir.mkdirs();
-                if (created) {
-                    System.out.println("✅ 创建临时目录: " + dir.getAbsolutePath());
-                } else {
-                    System.out.println("❌ 创建临时目录失败");
-                }
-            }
-            
-            System.out.println("⬇️  正在下载文件...");
-            f = downloadFile(knowledge.getFilePath(), knowledge.getId());
-            if (f == null) {
-                System.out.println("❌ 文件下载失败，downloadFile 返回 null");
-                return "";
-            }
-            
-            if (!f.exists()) {
-                System.out.println("❌ 下载的文件不存在: " + f.getAbsolutePath());
-                return "";
-            }
-            
-            System.out.println("✅ 文件下载成功: " + f.getAbsolutePath());
-            System.out.println("📊 文件大小: " + f.length() + " 字节");
-            
-            if (f.length() == 0) {
-                System.out.println("❌ 下载的文件大小为 0 字节");
-                return "";
-            }
-            
-            String t = knowledge.getFileType();
-            if (t == null || t.trim().isEmpty()) {
-                System.out.println("⚠️ 文件类型为空，尝试从文件路径推断");
-                String path = knowledge.getFilePath().toLowerCase();
-                if (path.endsWith(".docx")) {
-                    t = "docx";
-                } else if (path.endsWith(".pdf")) {
-                    t = "pdf";
-                } else {
-                    t = "txt";
-                }
-            }
-            
-            String content = "";
-            System.out.println("🔄 正在解析文件内容 (" + t + ")...");
-            
-            if ("docx".equalsIgnoreCase(t)) {
-                content = parseDocFile(f);
-            } else if ("pdf".equalsIgnoreCase(t)) {
-                content = parsePdfFile(f);
-            } else {
-                content = parseTxtFile(f);
-            }
-            
-            if (content != null && !content.isEmpty()) {
-                System.out.println("✅ 文件解析成功，内容长度: " + content.length() + " 字符");
-                return "【来自文档: " + knowledge.getTitle() + " ("+knowledge.getFileType()+")】\n" + content;
-            }
-            
-            System.out.println("⚠️ 文件内容为空，可能是文件内容本身为空或解析失败");
-            return "";
-        } catch (Exception e) {
-            System.out.println("❌ 处理文档时出错: " + e.getMessage());
-            e.printStackTrace();
-            return "";
-        } finally {
-            // 删除临时文件
-            if (f != null && f.exists()) {
-                try {
-                    boolean deleted = f.delete();
-                    if (deleted) {
-                        System.out.println("🗑️  临时文件已删除: " + f.getAbsolutePath());
-                    } else {
-                        System.out.println("⚠️ 删除临时文件失败: " + f.getAbsolutePath());
-                    }
-                } catch (Exception e) {
-                    System.out.println("❌ 删除临时文件时出错: " + e.getMessage());
-                }
-            }
-            System.out.println("========== 文档处理完成 ==========\n");
-        }
-    }
-
-    private java.io.File downloadFile(String url, Long id) {
-        try {
-            // 改进：验证URL
-            if (url == null || url.trim().isEmpty()) {
-                System.out.println("  [下载] URL 为空");
-                return null;
-            }
-            
-            System.out.println("  [下载] URL: " + url);
-            System.out.println("  [下载] 文档ID: " + id);
-            
-            java.net.URL u = new java.net.URL(url);
-            java.net.URLConnection c = u.openConnection();
-            c.setConnectTimeout(30000);
-            c.setReadTimeout(30000);
-            c.setRequestProperty("User-Agent", "Mozilla/5.0");
-            System.out.println("  [下载] 连接建立成功，开始传输...");
-            
-            int contentLength = c.getContentLength();
-            System.out.println("  [下载] 内容大小: " + (contentLength > 0 ? contentLength + " 字节" : "未知"));
-            
-            if (contentLength == 0) {
-                System.out.println("  [下载] ⚠️ 警告：内容大小为 0");
-                return null;
-            }
-            
-            java.io.File f = new java.io.File("./temp/knowledge", "knowledge_" + id + "_" + System.currentTimeMillis() + getFileExt(url));
-            try (java.io.InputStream in = c.getInputStream();
-                 java.io.FileOutputStream out = new java.io.FileOutputStream(f)) {
-                byte[] b = new byte[4096];
-                int n;
-                long totalBytes = 0;
-                while ((n = in.read(b)) > 0) {
-                    out.write(b, 0, n);
-                    totalBytes += n;
-                }
-                System.out.println("  [下载] 传输完成，共 " + totalBytes + " 字节");
-                
-                if (totalBytes == 0) {
-                    System.out.println("  [下载] ❌ 错误：下载的文件为空");
-                    f.delete();
-                    return null;
-                }
-                
-                return f;
-            }
-        } catch (java.net.MalformedURLException e) {
-            System.out.println("  [下载] URL 格式错误: " + e.getMessage());
-            return null;
-        } catch (java.net.ConnectException e) {
-            System.out.println("  [下载] 连接错误: " + e.getMessage());
-            return null;
-        } catch (java.net.SocketTimeoutException e) {
-            System.out.println("  [下载] 超时: " + e.getMessage());
-            return null;
-        } catch (Exception e) { 
-            System.out.println("  [下载] 异常: " + e.getClass().getName() + " - " + e.getMessage());
-            e.printStackTrace();
-            return null; 
-        }
-    }
-
-    private String getFileExt(String url) {
-        if (!url.contains(".")) return "";
-        String e = url.substring(url.lastIndexOf("."));
-        return e.contains("?") ? e.substring(0, e.indexOf("?")) : e;
-    }
-
-    private String parsePdfFile(java.io.File f) {
-        return "（PDF解析需要PDFBox库）";
-    }
-
-    private String parseTxtFile(java.io.File f) {
-        try {
-            StringBuilder sb = new StringBuilder();
-            try (java.io.BufferedReader br = new java.io.BufferedReader(
-                    new java.io.InputStreamReader(new java.io.FileInputStream(f), "UTF-8"))) {
-                String line;
-                int cnt = 0;
-                while ((line = br.readLine()) != null && cnt < 100) {
-                    sb.append(line).append("\n");
-                    cnt++;
-                }
-            }
-            return sb.toString();
-        } catch (Exception e) { return ""; }
-    }
-
-    private String parseDocFile(java.io.File f) {
-        try {
-            System.out.println("  [解析] 检查POI库...");
-            Class.forName("org.apache.poi.xwpf.usermodel.XWPFDocument");
-            System.out.println("  [解析] POI库可用，开始解析DOCX文件...");
-            return parseDocWithPOI(f);
-        } catch (Exception e) { 
-            System.out.println("  [解析] 错误: " + e.getMessage());
-            return "（需要POI库支持）"; 
-        }
-    }
-
-    private String parseDocWithPOI(java.io.File f) throws Exception {
-        StringBuilder sb = new StringBuilder();
-        try (org.apache.poi.xwpf.usermodel.XWPFDocument doc = 
-             new org.apache.poi.xwpf.usermodel.XWPFDocument(new java.io.FileInputStream(f))) {
-            
-            System.out.println("  [解析] 开始提取段落内容...");
-            int paragraphCount = 0;
-            for (org.apache.poi.xwpf.usermodel.XWPFParagraph p : doc.getParagraphs()) {
-                String txt = p.getText();
-                if (txt != null && !txt.isEmpty()) {
-                    sb.append(txt).append("\n");
-                    paragraphCount++;
-                }
-            }
-            System.out.println("  [解析] 成功提取 " + paragraphCount + " 个段落");
-            
-            System.out.println("  [解析] 开始提取表格内容...");
-            int tableCount = 0;
-            int rowCount = 0;
-            for (org.apache.poi.xwpf.usermodel.XWPFTable tbl : doc.getTables()) {
-                tableCount++;
-                for (org.apache.poi.xwpf.usermodel.XWPFTableRow row : tbl.getRows()) {
-                    rowCount++;
-                    for (org.apache.poi.xwpf.usermodel.XWPFTableCell cell : row.getTableCells()) {
-                        String ct = cell.getText();
-                        if (ct != null && !ct.isEmpty()) sb.append(ct).append(" ");
-                    }
-                    sb.append("\n");
-                }
-            }
-            System.out.println("  [解析] 成功提取 " + tableCount + " 个表格，共 " + rowCount + " 行");
-        }
-        return sb.toString();
-    }
 }
 
@@ -2,12 +2,14 @@ package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.domain.entity.Staff;
 import com.community.owner.service.StaffService;
 import com.community.owner.mapper.StaffMapper;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(Staff.class)
 public class StaffServiceImpl extends ServiceImpl<StaffMapper, Staff> implements StaffService {
     
     @Override
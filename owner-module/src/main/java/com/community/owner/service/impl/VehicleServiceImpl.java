@@ -1,12 +1,14 @@
 package com.community.owner.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.owner.config.SyncEntity;
 import com.community.owner.mapper.VehicleMapper;
 import com.community.owner.domain.entity.Vehicle;
 import com.community.owner.service.VehicleService;
 import org.springframework.stereotype.Service;
 
 @Service
+@SyncEntity(Vehicle.class)
 public class VehicleServiceImpl extends ServiceImpl<VehicleMapper, Vehicle> implements VehicleService {
 }
 
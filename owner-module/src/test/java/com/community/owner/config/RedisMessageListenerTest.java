@@ -0,0 +1,60 @@
+package com.community.owner.config;
+
+import com.community.owner.service.AuthPrincipalService;
+import com.community.owner.service.KnowledgeDocumentCache;
+import com.community.owner.service.KnowledgeRetrievalIndex;
+import com.community.owner.service.OwnerBillingProjectionService;
+import com.community.owner.service.RealtimePushHub;
+import com.community.owner.service.RedisMessageService;
+import com.community.owner.service.SmartQaAnswerCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RedisMessageListenerTest {
+
+    private KnowledgeDocumentCache knowledgeDocumentCache;
+    private KnowledgeRetrievalIndex knowledgeRetrievalIndex;
+    private SmartQaAnswerCache smartQaAnswerCache;
+    private RedisMessageListener listener;
+
+    @BeforeEach
+    void setUp() {
+        knowledgeDocumentCache = mock(KnowledgeDocumentCache.class);
+        knowledgeRetrievalIndex = mock(KnowledgeRetrievalIndex.class);
+        smartQaAnswerCache = mock(SmartQaAnswerCache.class);
+        listener = new RedisMessageListener();
+        ReflectionTestUtils.setField(listener, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(listener, "realtimePushHub", mock(RealtimePushHub.class));
+        ReflectionTestUtils.setField(listener, "knowledgeDocumentCache", knowledgeDocumentCache);
+        ReflectionTestUtils.setField(listener, "knowledgeRetrievalIndex", knowledgeRetrievalIndex);
+        ReflectionTestUtils.setField(listener, "smartQaAnswerCache", smartQaAnswerCache);
+        ReflectionTestUtils.setField(listener, "authPrincipalService", mock(AuthPrincipalService.class));
+        ReflectionTestUtils.setField(listener, "ownerBillingProjectionService", mock(OwnerBillingProjectionService.class));
+    }
+
+    @Test
+    void knowledgeChangePublishedOnBothTopicsIsHandledOnce() {
+        String body = "{\"module\":\"admin\",\"action\":\"UPDATE\",\"entityType\":\"SmartQaKnowledge\"," +
+                "\"entityClass\":\"SmartQaKnowledge\",\"entityId\":7}";
+
+        listener.onMessage(message(RedisMessageService.TOPIC_DATA_CHANGE, body), null);
+        listener.onMessage(message(RedisMessageService.TOPIC_ADMIN_CHANGE, body), null);
+
+        verify(knowledgeDocumentCache, times(1)).evict(7L);
+        verify(knowledgeRetrievalIndex, times(1)).refreshAsync(7L);
+        verify(smartQaAnswerCache, times(1)).invalidateAll();
+    }
+
+    private static DefaultMessage message(String channel, String body) {
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), body.getBytes(StandardCharsets.UTF_8));
+    }
+}
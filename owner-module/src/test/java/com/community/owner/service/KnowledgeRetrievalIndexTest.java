@@ -0,0 +1,170 @@
+package com.community.owner.service;
+
+import com.community.owner.domain.entity.SmartQaKnowledge;
+import com.community.owner.mapper.SmartQaKnowledgeMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KnowledgeRetrievalIndexTest {
+
+    private SmartQaKnowledgeMapper knowledgeMapper;
+    private KnowledgeDocumentLoader knowledgeDocumentLoader;
+    private KnowledgeRetrievalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        knowledgeMapper = mock(SmartQaKnowledgeMapper.class);
+        knowledgeDocumentLoader = mock(KnowledgeDocumentLoader.class);
+        index = new KnowledgeRetrievalIndex();
+        ReflectionTestUtils.setField(index, "knowledgeMapper", knowledgeMapper);
+        ReflectionTestUtils.setField(index, "knowledgeDocumentLoader", knowledgeDocumentLoader);
+        ReflectionTestUtils.setField(index, "retryInitialMs", 10L);
+        ReflectionTestUtils.setField(index, "retryMaxMs", 40L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void tokenizeSplitsChineseIntoBigramsAndLowercasesWords() {
+        assertThat(KnowledgeRetrievalIndex.tokenize("物业费WiFi 2024年")).containsExactly(
+                "物业", "业费", "wifi", "2024", "年");
+        assertThat(KnowledgeRetrievalIndex.tokenize("，。！")).isEmpty();
+        assertThat(KnowledgeRetrievalIndex.tokenize(null)).isEmpty();
+    }
+
+    @Test
+    void searchReturnsNullBeforeIndexIsReady() {
+        assertThat(index.search("物业费", 3)).isNull();
+    }
+
+    @Test
+    void searchRanksChunksContainingRareQueryTermsFirst() {
+        SmartQaKnowledge fee = knowledge(1L, "物业费缴纳说明", "物业费按季度缴纳，逾期将产生滞纳金。");
+        SmartQaKnowledge parking = knowledge(2L, "停车管理规定", "小区停车位按月租赁，临时停车按小时收费。");
+        SmartQaKnowledge pets = knowledge(3L, "文明养宠公约", "遛狗请牵绳，及时清理宠物粪便。");
+        when(knowledgeMapper.selectList(any())).thenReturn(List.of(fee, parking, pets));
+
+        index.rebuild();
+
+        List<KnowledgeRetrievalIndex.ScoredChunk> result = index.search("临时停车怎么收费？", 3);
+        assertThat(result).isNotEmpty();
+        assertThat(result.get(0).getChunk().getKnowledgeId()).isEqualTo(2L);
+        assertThat(result).isSortedAccordingTo((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        assertThat(result).extracting(r -> r.getChunk().getKnowledgeId()).doesNotContain(3L);
+
+        assertThat(index.search("物业费滞纳金", 1)).singleElement()
+                .satisfies(r -> assertThat(r.getChunk().getKnowledgeId()).isEqualTo(1L));
+        assertThat(index.search("电梯维保", 3)).isEmpty();
+    }
+
+    @Test
+    void longDocumentsAreSplitIntoChunksAndOnlyMatchingChunkIsReturned() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            body.append("第").append(i).append("段介绍小区绿化养护与保洁安排，内容较长需要切分。".repeat(3)).append('\n');
+        }
+        body.append("装修施工时间为工作日上午八点至十二点。\n");
+        SmartQaKnowledge manual = knowledge(5L, "业主手册", body.toString());
+        when(knowledgeMapper.selectList(any())).thenReturn(List.of(manual));
+
+        index.rebuild();
+
+        List<KnowledgeRetrievalIndex.ScoredChunk> result = index.search("装修施工时间", 1);
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getChunk().getText()).contains("装修施工时间");
+        assertThat(index.search("绿化养护", 100).size()).isGreaterThan(1);
+    }
+
+    @Test
+    void refreshRemovesDisabledDocumentFromIndex() throws Exception {
+        SmartQaKnowledge parking = knowledge(2L, "停车管理规定", "临时停车按小时收费。");
+        when(knowledgeMapper.selectList(any())).thenReturn(List.of(parking));
+        index.rebuild();
+        assertThat(index.search("临时停车", 3)).hasSize(1);
+
+        SmartQaKnowledge disabled = knowledge(2L, "停车管理规定", "临时停车按小时收费。");
+        disabled.setStatus("禁用");
+        when(knowledgeMapper.selectById(2L)).thenReturn(disabled);
+        index.refreshAsync(2L);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!index.search("临时停车", 3).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(index.search("临时停车", 3)).isEmpty();
+    }
+
+    @Test
+    void failedStartupBuildIsRetriedUntilIndexIsReady() throws Exception {
+        SmartQaKnowledge parking = knowledge(2L, "停车管理规定", "临时停车按小时收费。");
+        when(knowledgeMapper.selectList(any()))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenThrow(new RuntimeException("connection refused"))
+                .thenReturn(List.of(parking));
+
+        index.buildOnStartup();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (index.search("临时停车", 3) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(index.search("临时停车", 3)).hasSize(1);
+        verify(knowledgeMapper, atLeast(3)).selectList(any());
+    }
+
+    @Test
+    void reindexingDocumentDropsOnlyItsOwnPostings() throws Exception {
+        SmartQaKnowledge parking = knowledge(2L, "停车管理规定", "临时停车按小时收费。");
+        SmartQaKnowledge pets = knowledge(3L, "文明养宠公约", "遛狗请牵绳，临时寄养请联系物业。");
+        when(knowledgeMapper.selectList(any())).thenReturn(List.of(parking, pets));
+        index.rebuild();
+
+        SmartQaKnowledge updated = knowledge(2L, "停车管理规定", "访客车辆凭登记入场。");
+        when(knowledgeMapper.selectById(2L)).thenReturn(updated);
+        index.refreshAsync(2L);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (index.search("访客登记", 3).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(index.search("访客登记", 3)).singleElement()
+                .satisfies(r -> assertThat(r.getChunk().getKnowledgeId()).isEqualTo(2L));
+        // 旧内容独有的词项整条删除，共享词项只去掉该文档的段落块
+        Map<String, Map<Integer, Integer>> postings = postings();
+        assertThat(postings).doesNotContainKeys("小时", "收费");
+        assertThat(postings.get("临时")).hasSize(1);
+        assertThat(index.search("临时", 3)).singleElement()
+                .satisfies(r -> assertThat(r.getChunk().getKnowledgeId()).isEqualTo(3L));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<Integer, Integer>> postings() {
+        return (Map<String, Map<Integer, Integer>>) ReflectionTestUtils.getField(index, "postings");
+    }
+
+    private SmartQaKnowledge knowledge(Long id, String title, String body) {
+        SmartQaKnowledge knowledge = new SmartQaKnowledge();
+        knowledge.setId(id);
+        knowledge.setTitle(title);
+        knowledge.setStatus("启用");
+        knowledge.setFilePath("https://example.com/" + id + ".txt");
+        when(knowledgeDocumentLoader.load(knowledge)).thenReturn("【来自文档: " + title + " (txt)】\n" + body);
+        return knowledge;
+    }
+}
@@ -0,0 +1,205 @@
+package com.community.owner.service;
+
+import com.community.owner.mapper.OwnerBillingProjectionMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OwnerBillingProjectionServiceTest {
+
+    private static final Long OWNER_ID = 1L;
+
+    /**
+     * owner_id -> {version, built_version}
+     */
+    private final Map<Long, long[]> versions = new ConcurrentHashMap<>();
+    private final Map<Long, String> cards = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> refs = new ConcurrentHashMap<>();
+
+    private OwnerBillingProjectionMapper mapper;
+    private OwnerQueryService queryService;
+    private OwnerBillingProjectionService service;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(OwnerBillingProjectionMapper.class);
+        queryService = mock(OwnerQueryService.class);
+        stubMapper();
+        when(queryService.listOwnerBillingCardsWithDetails(OWNER_ID)).thenReturn(List.of(meterRow(10L, 100L, "3")));
+        when(queryService.listOwnerParkingBillingWithDetails(OWNER_ID)).thenReturn(List.of());
+        when(queryService.listOwnerIssueBillingWithDetails(OWNER_ID)).thenReturn(List.of());
+        service = new OwnerBillingProjectionService();
+        ReflectionTestUtils.setField(service, "projectionMapper", mapper);
+        ReflectionTestUtils.setField(service, "ownerQueryService", queryService);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "maxAgeMinutes", 30);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void changeDuringFirstBuildKeepsProjectionStale() {
+        when(queryService.listOwnerBillingCardsWithDetails(OWNER_ID)).thenAnswer(inv -> {
+            // 生成期间抄表记录发生变更
+            mapper.markStale(List.of(OWNER_ID));
+            return List.of(meterRow(10L, 100L, "3"));
+        });
+
+        service.getCards(OWNER_ID);
+
+        assertThat(versions.get(OWNER_ID)[0]).isEqualTo(1L);
+        assertThat(versions.get(OWNER_ID)[1]).isNotEqualTo(1L);
+
+        doReturn(List.of(meterRow(10L, 100L, "5"))).when(queryService).listOwnerBillingCardsWithDetails(OWNER_ID);
+        OwnerBillingProjectionService.BillingCards rebuilt = service.getCards(OWNER_ID);
+
+        assertThat(rebuilt.getJson()).contains("\"usage\":5");
+        assertThat(versions.get(OWNER_ID)).containsExactly(1L, 1L);
+        assertThat(service.getCards(OWNER_ID).getJson()).isEqualTo(rebuilt.getJson());
+        verify(queryService, times(2)).listOwnerBillingCardsWithDetails(OWNER_ID);
+    }
+
+    @Test
+    void deletedReadingResolvesOwnerFromProjectionRefs() throws Exception {
+        service.getCards(OWNER_ID);
+        when(mapper.selectMeterIdByReadingId(100L)).thenReturn(null);
+
+        service.onDataChange("MeterReading", 100L, 100L);
+        drain();
+
+        verify(mapper).markStale(Set.of(OWNER_ID));
+        verify(mapper, never()).markAllStale();
+        assertThat(versions.get(OWNER_ID)).containsExactly(1L, 1L);
+    }
+
+    @Test
+    void readingWithoutIdResolvesOwnerFromItsMeter() throws Exception {
+        when(mapper.selectOwnersByMeterId(10L)).thenReturn(List.of(OWNER_ID));
+        when(mapper.selectOwnersByHouseId(20L)).thenReturn(List.of(2L));
+        Map<String, Object> reading = new HashMap<>();
+        reading.put("meterId", 10);
+        reading.put("houseId", 20);
+
+        service.onDataChange("MeterReading", null, List.of(reading));
+        drain();
+
+        verify(mapper).markStale(Set.of(2L, OWNER_ID));
+        verify(mapper, never()).markAllStale();
+    }
+
+    @Test
+    void unidentifiableReadingChangeMarksAllStale() throws Exception {
+        service.onDataChange("MeterReading", null, null);
+        drain();
+
+        verify(mapper).markAllStale();
+        verify(mapper, never()).markStale(anyCollection());
+    }
+
+    /**
+     * 等待后台线程处理完变更及其排队的重建
+     */
+    private void drain() throws Exception {
+        ExecutorService executor = (ExecutorService) ReflectionTestUtils.getField(service, "refreshExecutor");
+        for (int i = 0; i < 3; i++) {
+            executor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Map<String, Object> meterRow(Long meterId, Long readingId, String usage) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", meterId);
+        row.put("reading_id", readingId);
+        row.put("house_id", 20L);
+        row.put("usage_amount", new BigDecimal(usage));
+        row.put("unit_price", BigDecimal.ONE);
+        return row;
+    }
+
+    private void stubMapper() {
+        when(mapper.selectByOwnerId(anyLong(), anyInt())).thenAnswer(inv -> {
+            Long ownerId = inv.getArgument(0);
+            long[] v = versions.get(ownerId);
+            if (v == null) {
+                return null;
+            }
+            Map<String, Object> row = new HashMap<>();
+            row.put("cards", cards.get(ownerId));
+            row.put("cardCount", 1);
+            row.put("version", v[0]);
+            row.put("fresh", v[0] == v[1] ? 1 : 0);
+            return row;
+        });
+        when(mapper.insertPlaceholder(anyLong())).thenAnswer(inv -> {
+            Long ownerId = inv.getArgument(0);
+            cards.putIfAbsent(ownerId, "[]");
+            return versions.putIfAbsent(ownerId, new long[]{0, -1}) == null ? 1 : 0;
+        });
+        when(mapper.upsertProjection(anyLong(), anyString(), anyInt(), any(), anyLong())).thenAnswer(inv -> {
+            Long ownerId = inv.getArgument(0);
+            long version = inv.getArgument(4);
+            long[] v = versions.computeIfAbsent(ownerId, k -> new long[]{version, -1});
+            if (v[0] == version) {
+                v[1] = version;
+                cards.put(ownerId, inv.getArgument(1));
+            }
+            return 1;
+        });
+        when(mapper.markStale(anyCollection())).thenAnswer(inv -> {
+            Collection<Long> ownerIds = inv.getArgument(0);
+            int rows = 0;
+            for (Long ownerId : ownerIds) {
+                long[] v = versions.get(ownerId);
+                if (v != null) {
+                    v[0]++;
+                    rows++;
+                }
+            }
+            return rows;
+        });
+        when(mapper.deleteRefs(anyLong())).thenAnswer(inv -> {
+            Long ownerId = inv.getArgument(0);
+            refs.values().forEach(owners -> owners.remove(ownerId));
+            return 1;
+        });
+        when(mapper.insertRefs(anyLong(), anyList())).thenAnswer(inv -> {
+            Long ownerId = inv.getArgument(0);
+            List<Map<String, Object>> rows = inv.getArgument(1);
+            rows.forEach(ref -> refs.computeIfAbsent(ref.get("refType") + ":" + ref.get("refId"),
+                    k -> ConcurrentHashMap.newKeySet()).add(ownerId));
+            return rows.size();
+        });
+        when(mapper.selectOwnersByRef(anyString(), anyLong())).thenAnswer(inv ->
+                new ArrayList<>(refs.getOrDefault(inv.getArgument(0) + ":" + inv.getArgument(1), Set.of())));
+    }
+}
@@ -0,0 +1,60 @@
+package com.community.owner.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SmartQaAnswerCacheTest {
+
+    private SmartQaAnswerCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SmartQaAnswerCache();
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "similarityThreshold", 0.85);
+    }
+
+    @Test
+    void generalAnswersAreSharedBetweenOwnersWithSameKnowledgeContext() {
+        String knowledge = "【社区知识库相关信息】\n📄 垃圾分类管理规定 [生活服务]\n";
+        cache.put(cache.generalScope(knowledge), "垃圾分类怎么投放？", "分四类投放");
+
+        assertThat(cache.generalScope(knowledge)).isEqualTo(cache.generalScope(knowledge));
+        assertThat(cache.lookup(cache.generalScope(knowledge), "请问垃圾分类怎么投放")).isEqualTo("分四类投放");
+        assertThat(cache.lookup(cache.generalScope(knowledge + "📄 装修管理规定\n"), "垃圾分类怎么投放？")).isNull();
+        assertThat(cache.lookup(cache.ownerScope(1L, knowledge), "垃圾分类怎么投放？")).isNull();
+    }
+
+    @Test
+    void ownerDataAnswersAreNotSharedBetweenOwners() {
+        String prompt = "【当前业主信息】\n姓名：张三\n房屋：1-101\n";
+        cache.put(cache.ownerScope(1L, prompt), "我家的物业费是多少？", "张三的物业费为每月300元");
+
+        assertThat(cache.lookup(cache.ownerScope(1L, prompt), "我家的物业费是多少")).isEqualTo("张三的物业费为每月300元");
+        assertThat(cache.lookup(cache.ownerScope(2L, prompt), "我家的物业费是多少？")).isNull();
+        assertThat(cache.lookup(cache.ownerScope(1L, prompt + "车位：A-12\n"), "我家的物业费是多少？")).isNull();
+        assertThat(cache.lookup(cache.generalScope(""), "我家的物业费是多少？")).isNull();
+    }
+
+    @Test
+    void nearDuplicateQuestionsHitWithinSameScope() {
+        String scope = cache.generalScope("prompt");
+        cache.put(scope, "小区停车怎么收费", "按小时收费");
+
+        assertThat(cache.lookup(scope, "请问小区停车怎么收费呢？")).isEqualTo("按小时收费");
+        assertThat(cache.lookup(scope, "小区绿化怎么安排")).isNull();
+    }
+
+    @Test
+    void invalidateAllDropsEntries() {
+        String scope = cache.generalScope("prompt");
+        cache.put(scope, "垃圾分类规定", "分四类");
+        cache.invalidateAll();
+
+        assertThat(cache.lookup(scope, "垃圾分类规定")).isNull();
+    }
+}
@@ -0,0 +1,84 @@
+package com.community.owner.service;
+
+import com.community.owner.mapper.CommunityNoticeMapper;
+import com.community.owner.mapper.SmartQaKnowledgeMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ViewCounterServiceTest {
+
+    private final Map<Long, Long> persisted = new ConcurrentHashMap<>();
+
+    private CommunityNoticeMapper noticeMapper;
+    private ViewCounterService counter;
+
+    @BeforeEach
+    void setUp() {
+        noticeMapper = mock(CommunityNoticeMapper.class);
+        when(noticeMapper.addReadCounts(anyMap())).thenAnswer(inv -> {
+            Map<Long, Long> deltas = inv.getArgument(0);
+            deltas.forEach((id, delta) -> persisted.merge(id, delta, Long::sum));
+            return deltas.size();
+        });
+        counter = new ViewCounterService();
+        ReflectionTestUtils.setField(counter, "communityNoticeMapper", noticeMapper);
+        ReflectionTestUtils.setField(counter, "smartQaKnowledgeMapper", mock(SmartQaKnowledgeMapper.class));
+        ReflectionTestUtils.setField(counter, "batchSize", 2);
+    }
+
+    @Test
+    void noIncrementIsLostWhileFlushingConcurrently() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    counter.recordNoticeRead((long) (i % 3));
+                }
+                done.countDown();
+            });
+        }
+        AtomicBoolean finished = new AtomicBoolean();
+        Thread flusher = new Thread(() -> {
+            while (!finished.get()) {
+                counter.flush();
+            }
+        });
+        flusher.start();
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+        finished.set(true);
+        flusher.join();
+        pool.shutdown();
+        counter.flush();
+
+        long total = persisted.values().stream().mapToLong(Long::longValue).sum();
+        assertThat(total).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    void readCountIncludesPendingDeltaAndFailedWritesAreRetried() {
+        counter.recordNoticeRead(1L);
+        counter.recordNoticeRead(1L);
+        assertThat(counter.noticeReadCount(1L, 10)).isEqualTo(12);
+
+        when(noticeMapper.addReadCounts(anyMap())).thenThrow(new RuntimeException("lock wait timeout"));
+        counter.flush();
+        assertThat(counter.noticeReadCount(1L, 10)).isEqualTo(12);
+    }
+}
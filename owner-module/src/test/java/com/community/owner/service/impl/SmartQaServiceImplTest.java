@@ -0,0 +1,135 @@
+package com.community.owner.service.impl;
+
+import com.alibaba.cloud.ai.dashscope.chat.DashScopeChatModel;
+import com.community.owner.domain.dto.request.QaRequest;
+import com.community.owner.domain.entity.House;
+import com.community.owner.domain.entity.HouseOwner;
+import com.community.owner.domain.entity.Owner;
+import com.community.owner.mapper.HouseMapper;
+import com.community.owner.mapper.HouseOwnerMapper;
+import com.community.owner.mapper.MeterInfoMapper;
+import com.community.owner.mapper.VehicleMapper;
+import com.community.owner.service.KnowledgeRetrievalIndex;
+import com.community.owner.service.OwnerService;
+import com.community.owner.service.SmartQaAnswerCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SmartQaServiceImplTest {
+
+    /**
+     * 发给模型的提示词（第一条消息）
+     */
+    private final List<String> prompts = new CopyOnWriteArrayList<>();
+
+    private DashScopeChatModel chatModel;
+    private HouseOwnerMapper houseOwnerMapper;
+    private HouseMapper houseMapper;
+    private SmartQaServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        chatModel = mock(DashScopeChatModel.class);
+        when(chatModel.stream(any(Prompt.class))).thenAnswer(inv -> {
+            Prompt prompt = inv.getArgument(0);
+            prompts.add(prompt.getInstructions().get(0).getText());
+            return Flux.just(response("按可回收物、"), response("有害垃圾分类投放"));
+        });
+
+        OwnerService ownerService = mock(OwnerService.class);
+        when(ownerService.getById(1L)).thenReturn(owner(1L, "张三"));
+        when(ownerService.getById(2L)).thenReturn(owner(2L, "李四"));
+
+        KnowledgeRetrievalIndex index = mock(KnowledgeRetrievalIndex.class);
+        when(index.search(anyString(), anyInt())).thenReturn(List.of());
+
+        houseOwnerMapper = mock(HouseOwnerMapper.class);
+        houseMapper = mock(HouseMapper.class);
+
+        SmartQaAnswerCache cache = new SmartQaAnswerCache();
+        ReflectionTestUtils.setField(cache, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(cache, "maxEntries", 100);
+        ReflectionTestUtils.setField(cache, "similarityThreshold", 0.85);
+        ReflectionTestUtils.setField(cache, "replayDelayMs", 1L);
+
+        service = new SmartQaServiceImpl();
+        ReflectionTestUtils.setField(service, "chatModel", chatModel);
+        ReflectionTestUtils.setField(service, "ownerService", ownerService);
+        ReflectionTestUtils.setField(service, "knowledgeRetrievalIndex", index);
+        ReflectionTestUtils.setField(service, "houseOwnerMapper", houseOwnerMapper);
+        ReflectionTestUtils.setField(service, "houseDao", houseMapper);
+        ReflectionTestUtils.setField(service, "vehicleMapper", mock(VehicleMapper.class));
+        ReflectionTestUtils.setField(service, "meterInfoMapper", mock(MeterInfoMapper.class));
+        ReflectionTestUtils.setField(service, "answerCache", cache);
+        ReflectionTestUtils.setField(service, "ownerInfoTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(service, "knowledgeTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(service, "databaseTimeoutMs", 5000L);
+    }
+
+    @Test
+    void generalAnswerIsCachedOnceAndSharedBetweenOwners() {
+        String first = ask("垃圾分类怎么投放？", 1L);
+        String second = ask("请问垃圾分类怎么投放", 2L);
+
+        assertThat(first).isEqualTo("按可回收物、有害垃圾分类投放");
+        assertThat(second).isEqualTo(first);
+        verify(chatModel, times(1)).stream(any(Prompt.class));
+        // 通用回答的提示词不带业主信息
+        assertThat(prompts).singleElement().satisfies(prompt ->
+                assertThat(prompt).doesNotContain("张三").doesNotContain("【当前业主信息】"));
+    }
+
+    @Test
+    void answerUsingOwnerDataIsNotSharedBetweenOwners() {
+        HouseOwner houseOwner = new HouseOwner();
+        houseOwner.setHouseId(10L);
+        when(houseOwnerMapper.selectList(any())).thenReturn(List.of(houseOwner));
+        House house = new House();
+        house.setFullRoomNo("1栋1单元101");
+        when(houseMapper.selectById(10L)).thenReturn(house);
+
+        ask("我的房屋户型是什么", 1L);
+        ask("我的房屋户型是什么", 1L);
+        ask("我的房屋户型是什么", 2L);
+
+        verify(chatModel, times(2)).stream(any(Prompt.class));
+        assertThat(prompts.get(0)).contains("张三").contains("1栋1单元101");
+        assertThat(prompts.get(1)).contains("李四");
+    }
+
+    private String ask(String question, Long ownerId) {
+        QaRequest request = new QaRequest();
+        request.setQuestion(question);
+        return String.join("", service.streamChat(request, ownerId).collectList().block(Duration.ofSeconds(10)));
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+
+    private static Owner owner(Long id, String name) {
+        Owner owner = new Owner();
+        owner.setId(id);
+        owner.setName(name);
+        return owner;
+    }
+}
@@ -1,5 +1,10 @@
 package com.community.property.config;
 
+import com.community.property.service.AuthPrincipalService;
+import com.community.property.service.IssueStatisticsService;
+import com.community.property.service.PlateSearchIndex;
+import com.community.property.service.RealtimePushHub;
+import com.community.property.service.RedisMessageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.redis.connection.Message;
@@ -21,6 +26,18 @@ public class RedisMessageListener implements MessageListener {
 
     @Autowired
     private ObjectMapper objectMapper;
+
+    @Autowired
+    private RealtimePushHub realtimePushHub;
+
+    @Autowired
+    private AuthPrincipalService authPrincipalService;
+
+    @Autowired
+    private IssueStatisticsService issueStatisticsService;
+
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
     
     @Autowired
     @Lazy
@@ -49,11 +66,36 @@ public class RedisMessageListener implements MessageListener {
             // 解析消息内容
             @SuppressWarnings("unchecked")
             Map<String, Object> messageData = objectMapper.readValue(messageBody, Map.class);
+
+            // 推送给本节点订阅了该事件的SSE客户端
+            forwardToSse(channel, messageData);
+            if ("notification".equals(messageData.get("type"))) {
+                return;
+            }
             
             String module = (String) messageData.get("module");
             String action = (String) messageData.get("action");
             String entityType = (String) messageData.get("entityType");
             Object entityId = messageData.get("entityId");
+            // 实体的确切类名；entityType 是按Service类名推断的名称，可能是多个实体共用的
+            String entityClass = messageData.get("entityClass") != null
+                    ? (String) messageData.get("entityClass") : entityType;
+
+            // 员工信息变更（含本模块）失效当前用户缓存，数据变更只取通用主题上的消息
+            if ("Staff".equals(entityClass) && RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+                authPrincipalService.evict(entityId);
+            }
+
+            // 车辆变更（含本模块）刷新车牌检索索引
+            if (RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+                plateSearchIndex.onDataChange(entityClass, entityId);
+            }
+
+            // 其他模块修改了问题，统计计数下次读取时重建
+            if ("OwnerIssue".equals(entityClass) && !"property".equals(module)
+                    && RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+                issueStatisticsService.invalidate();
+            }
             
             // 如果是来自其他模块的消息，处理数据同步
             if (!"property".equals(module)) {
@@ -134,4 +176,20 @@ public class RedisMessageListener implements MessageListener {
             log.error("Failed to update Redis timestamp for OwnerIssue sync", e);
         }
     }
+
+    /**
+     * 转发到本节点的SSE连接：数据变更只取通用主题上的消息（模块主题上是同一消息的副本），
+     * 通知按目标用户定向投递，连接的订阅条件在推送中心内过滤
+     */
+    private void forwardToSse(String channel, Map<String, Object> messageData) {
+        messageData.remove("@class");
+        if ("notification".equals(messageData.get("type"))) {
+            Object targetUserId = messageData.get("targetUserId");
+            realtimePushHub.publish("notification", messageData, null, null,
+                    targetUserId != null ? String.valueOf(targetUserId) : null);
+        } else if (RedisMessageService.TOPIC_DATA_CHANGE.equals(channel)) {
+            realtimePushHub.publish("dataChange", messageData,
+                    (String) messageData.get("module"), (String) messageData.get("entityType"), null);
+        }
+    }
 }
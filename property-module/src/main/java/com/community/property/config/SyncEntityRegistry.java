@@ -0,0 +1,258 @@
+package com.community.property.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据同步实体注册表
+ * 启动时扫描标有 {@link SyncEntity} 的Service，解析实体类和 getId 的 MethodHandle；
+ * 每个 (Service类, 方法) 的同步绑定只解析一次并缓存，切面调用时不再做反射和类名匹配。
+ * 消息中的 entityType 沿用按Service类名推断的名称（前端轮询的 last_update 键和各模块监听器依赖该名称），
+ * 实体的确切类名另放在 entityClass 中
+ */
+@Slf4j
+@Component
+public class SyncEntityRegistry implements SmartInitializingSingleton {
+
+    /**
+     * 不需要发布消息的方法
+     */
+    private static final Binding NONE = new Binding(null, null, null, null, null);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    /**
+     * 实体类 -> 实体元数据
+     */
+    private final Map<Class<?>, EntityMeta> entities = new ConcurrentHashMap<>();
+
+    /**
+     * Service类 -> 类级别的实体标记
+     */
+    private final Map<Class<?>, SyncEntity> services = new ConcurrentHashMap<>();
+
+    /**
+     * Service类 -> (方法 -> 同步绑定)
+     */
+    private final Map<Class<?>, Map<Method, Binding>> bindings = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String beanName : applicationContext.getBeanNamesForAnnotation(SyncEntity.class)) {
+            Class<?> beanType = applicationContext.getType(beanName);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            SyncEntity annotation = AnnotationUtils.findAnnotation(userClass, SyncEntity.class);
+            if (annotation != null) {
+                services.put(userClass, annotation);
+                entityMeta(annotation);
+            }
+            // 预先解析所有写方法
+            ReflectionUtils.doWithMethods(userClass, method -> resolve(userClass, method),
+                    method -> !method.isBridge() && !method.isSynthetic());
+        }
+        log.info("Data sync registry initialized: services={}, entities={}", services.size(), entities.size());
+    }
+
+    /**
+     * 获取方法的同步绑定
+     * @param targetClass 目标Service类
+     * @param method 被调用的方法
+     * @return 同步绑定，不需要发布消息时返回 null
+     */
+    public Binding resolve(Class<?> targetClass, Method method) {
+        Binding binding = bindings.computeIfAbsent(targetClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, m -> createBinding(targetClass, m));
+        return binding == NONE ? null : binding;
+    }
+
+    private Binding createBinding(Class<?> targetClass, Method method) {
+        Method specific = ClassUtils.getMostSpecificMethod(method, targetClass);
+        SyncEntity methodAnnotation = AnnotationUtils.findAnnotation(specific, SyncEntity.class);
+
+        SyncEntity annotation;
+        String action;
+        if (methodAnnotation != null) {
+            annotation = methodAnnotation;
+            action = methodAnnotation.action().isEmpty() ? determineAction(method.getName()) : methodAnnotation.action();
+        } else {
+            annotation = services.get(targetClass);
+            action = determineAction(method.getName());
+        }
+        if (annotation == null || action == null) {
+            return NONE;
+        }
+        EntityMeta meta = entityMeta(annotation);
+        String entityType = annotation.type().isEmpty() ? determineEntityType(targetClass.getSimpleName()) : annotation.type();
+        return new Binding(entityType, action, meta.entityClass, meta.idGetter, annotation.idKey());
+    }
+
+    private EntityMeta entityMeta(SyncEntity annotation) {
+        return entities.computeIfAbsent(annotation.value(), c -> new EntityMeta(c, idGetter(c)));
+    }
+
+    /**
+     * 解析实体的 getId 访问器，统一转换为 (Object)Object 签名以便 invokeExact
+     */
+    private MethodHandle idGetter(Class<?> entityClass) {
+        try {
+            Method getId = entityClass.getMethod("getId");
+            return MethodHandles.publicLookup().unreflect(getId)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            log.warn("Entity has no accessible getId method: {}", entityClass.getName());
+            return null;
+        }
+    }
+
+    /**
+     * 根据方法名确定操作类型
+     */
+    private String determineAction(String methodName) {
+        if (methodName.startsWith("save") || methodName.startsWith("create") || methodName.startsWith("add")) {
+            return "CREATE";
+        } else if (methodName.startsWith("update")) {
+            return "UPDATE";
+        } else if (methodName.startsWith("delete") || methodName.startsWith("remove")) {
+            return "DELETE";
+        }
+        return null;
+    }
+
+    /**
+     * 根据Service类名确定消息中的实体类型（与改造前的命名保持一致）
+     */
+    private String determineEntityType(String className) {
+        if (className.contains("Owner")) {
+            return "Owner";
+        } else if (className.contains("House")) {
+            return "House";
+        } else if (className.contains("Notice")) {
+            return "CommunityNotice";
+        } else if (className.contains("Community")) {
+            return "CommunityInfo";
+        } else if (className.contains("Issue")) {
+            return "OwnerIssue";
+        } else if (className.contains("Vehicle")) {
+            return "Vehicle";
+        } else if (className.contains("Parking")) {
+            return "ParkingSpace";
+        } else if (className.contains("Meter")) {
+            return "MeterReading";
+        } else if (className.contains("Staff")) {
+            return "Staff";
+        }
+        return className.replace("Service", "");
+    }
+
+    private static class EntityMeta {
+        private final Class<?> entityClass;
+        private final MethodHandle idGetter;
+
+        private EntityMeta(Class<?> entityClass, MethodHandle idGetter) {
+            this.entityClass = entityClass;
+            this.idGetter = idGetter;
+        }
+    }
+
+    /**
+     * 方法的同步绑定：实体类型、操作类型和ID提取方式
+     */
+    public static class Binding {
+        private final String entityType;
+        private final String action;
+        private final Class<?> entityClass;
+        private final MethodHandle idGetter;
+        private final String idKey;
+
+        private Binding(String entityType, String action, Class<?> entityClass, MethodHandle idGetter, String idKey) {
+            this.entityType = entityType;
+            this.action = action;
+            this.entityClass = entityClass;
+            this.idGetter = idGetter;
+            this.idKey = idKey;
+        }
+
+        public String getEntityType() {
+            return entityType;
+        }
+
+        /**
+         * 实体的确切类名
+         */
+        public String getEntityClass() {
+            return entityClass.getSimpleName();
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        /**
+         * 新增单个实体时必须能取到ID（批量新增的第一个参数为集合，没有单一ID）
+         */
+        public boolean requiresId(Object[] args) {
+            return "CREATE".equals(action) && !(args != null && args.length > 0 && args[0] instanceof Collection);
+        }
+
+        /**
+         * 提取实体ID：修改/删除时第一个参数为数值即为ID；
+         * 否则依次从实体参数（插入后已回填自增ID）、返回的实体、返回的 Map（idKey 键或 data 中的实体）中读取
+         */
+        public Object extractId(Object[] args, Object result) {
+            Object first = args != null && args.length > 0 ? args[0] : null;
+            if (first instanceof Number && !"CREATE".equals(action)) {
+                return first;
+            }
+            if (args != null) {
+                for (Object arg : args) {
+                    if (entityClass.isInstance(arg)) {
+                        Object id = idOf(arg);
+                        if (id != null) {
+                            return id;
+                        }
+                    }
+                }
+            }
+            if (result instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) result;
+                Object id = map.get(idKey);
+                if (id != null) {
+                    return id;
+                }
+                Object data = map.get("data");
+                return data instanceof Map ? ((Map<?, ?>) data).get(idKey) : idOf(data);
+            }
+            return idOf(result);
+        }
+
+        private Object idOf(Object entity) {
+            if (idGetter == null || !entityClass.isInstance(entity)) {
+                return null;
+            }
+            try {
+                return (Object) idGetter.invokeExact(entity);
+            } catch (Throwable e) {
+                // 忽略，按无ID处理
+                return null;
+            }
+        }
+    }
+}
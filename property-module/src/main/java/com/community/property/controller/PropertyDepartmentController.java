@@ -1,8 +1,8 @@
 package com.community.property.controller;
 
 import com.community.property.service.RedisMessageService;
-import com.community.property.utils.JwtUtil;
-import com.community.property.domain.entity.Staff;
+import com.community.property.config.AuthPrincipal;
+import com.community.property.service.AuthPrincipalService;
 import com.community.property.domain.entity.Department;
 import com.community.property.service.StaffService;
 import com.community.property.service.DepartmentService;
@@ -38,7 +38,7 @@ public class PropertyDepartmentController {
     private PropertyQueryService propertyQueryService;
     
     @Autowired
-    private JwtUtil jwtUtil;
+    private AuthPrincipalService authPrincipalService;
 
     @Autowired
     private RedisMessageService redisMessageService;
@@ -61,9 +61,7 @@ public class PropertyDepartmentController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Staff staff = staffService.findByUsername(username);
+            AuthPrincipal staff = authPrincipalService.resolve(token);
             
             if (staff == null) {
                 response.put("success", false);
@@ -126,9 +124,7 @@ public class PropertyDepartmentController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Staff staff = staffService.findByUsername(username);
+            AuthPrincipal staff = authPrincipalService.resolve(token);
             
             if (staff == null) {
                 response.put("success", false);
@@ -173,9 +169,7 @@ public class PropertyDepartmentController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Staff staff = staffService.findByUsername(username);
+            AuthPrincipal staff = authPrincipalService.resolve(token);
             
             if (staff == null) {
                 response.put("success", false);
@@ -73,13 +73,17 @@ public class PropertyHouseController {
             @RequestParam(defaultValue = "10") Integer size,
             @Parameter(description = "搜索关键词（房间号或房屋编码）", required = false)
             @RequestParam(required = false) String keyword,
+            @Parameter(description = "分页游标（首页传空字符串，之后传上一页返回的 nextCursor；不传则按页码分页）", required = false)
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "游标分页时是否统计总数", required = false)
+            @RequestParam(defaultValue = "false") Boolean withTotal,
             @Parameter(description = "Authorization Token", required = true)
             @RequestHeader("Authorization") String token) {
 
         Map<String, Object> response = new HashMap<>();
         try {
             // 调用propertyService的listAllHouses方法
-            return propertyService.listAllHouses(page, size, keyword);
+            return propertyService.listAllHouses(page, size, keyword, cursor, withTotal);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "查询房屋列表失败: " + e.getMessage());
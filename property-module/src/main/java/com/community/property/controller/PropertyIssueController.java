@@ -120,6 +120,17 @@ public class PropertyIssueController {
         }
     }
 
+    /**
+     * 获取社区的问题统计数据
+     */
+    @GetMapping("/statistics/community/{communityId}")
+    @Operation(summary = "获取社区的问题统计数据", description = "按问题状态、工作状态、紧急程度、问题类型统计社区已分配的问题数量")
+    public Map<String, Object> getCommunityIssueStatistics(
+            @Parameter(description = "社区ID", required = true)
+            @PathVariable Long communityId) {
+        return propertyIssueService.getIssueStatisticsForCommunity(communityId);
+    }
+
     /**
      * 获取问题详情
      */
@@ -1,15 +1,23 @@
 package com.community.property.controller;
 
+import com.community.property.service.MeterReadingImportService;
+import com.community.property.service.MeterTimeSeriesService;
 import com.community.property.service.PropertyService;
 import com.community.property.service.RedisMessageService;
 import com.community.property.utils.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,6 +39,12 @@ public class PropertyMeterController {
     @Autowired
     private RedisMessageService redisMessageService;
 
+    @Autowired
+    private MeterTimeSeriesService meterTimeSeriesService;
+
+    @Autowired
+    private MeterReadingImportService meterReadingImportService;
+
     /**
      * 获取仪表详细信息（包含配置信息）
      */
@@ -237,10 +251,75 @@ public class PropertyMeterController {
             @RequestParam(defaultValue = "1") Integer page,
             @Parameter(description = "每页大小", required = true)
             @RequestParam(defaultValue = "10") Integer size,
+            @Parameter(description = "分页游标（首页传空字符串，之后传上一页返回的 nextCursor；不传则按页码分页）。游标分页按录入时间倒序，页码分页按抄表日期倒序", required = false)
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "游标分页时是否统计总数", required = false)
+            @RequestParam(defaultValue = "false") Boolean withTotal,
+            @Parameter(description = "Authorization Token", required = true)
+            @RequestHeader("Authorization") String token) {
+
+        return propertyService.listMeterReadings(meterId, page, size, cursor, withTotal);
+    }
+
+    /**
+     * 查询用量汇总
+     */
+    @GetMapping("/usage")
+    @Operation(summary = "查询用量汇总", description = "按仪表、房屋或楼栋查询日/月/年用量汇总，数据来自抄表时维护的汇总表")
+    public Map<String, Object> getUsage(
+            @Parameter(description = "汇总范围：METER/HOUSE/BUILDING", required = true)
+            @RequestParam(defaultValue = "METER") String scopeType,
+            @Parameter(description = "范围ID（仪表ID/房屋ID/楼栋ID）", required = true)
+            @RequestParam Long scopeId,
+            @Parameter(description = "汇总周期：D(日)/M(月)/Y(年)", required = false)
+            @RequestParam(defaultValue = "M") String periodType,
+            @Parameter(description = "起始日期 yyyy-MM-dd", required = false)
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "截止日期 yyyy-MM-dd", required = false)
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
             @Parameter(description = "Authorization Token", required = true)
             @RequestHeader("Authorization") String token) {
 
-        return propertyService.listMeterReadings(meterId, page, size);
+        return meterTimeSeriesService.getUsage(scopeType, scopeId, periodType, from, to);
+    }
+
+    /**
+     * 批量导入抄表记录（请求体）
+     */
+    @PostMapping(value = "/reading/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    @Operation(summary = "批量导入抄表记录", description = "请求体为 JSON 数组（application/json）或带表头的 CSV（text/csv），逐行校验后分批写入，返回每行结果")
+    public Map<String, Object> importMeterReadings(
+            HttpServletRequest request,
+            @Parameter(description = "Authorization Token", required = true)
+            @RequestHeader("Authorization") String token) throws IOException {
+
+        Long staffId = jwtUtil.getStaffIdFromToken(token.replace("Bearer ", ""));
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase().startsWith("text/csv")) {
+            return meterReadingImportService.importCsv(request.getInputStream(), staffId);
+        }
+        return meterReadingImportService.importJson(request.getInputStream(), staffId);
+    }
+
+    /**
+     * 批量导入抄表记录（文件上传）
+     */
+    @PostMapping("/reading/import/file")
+    @Operation(summary = "上传文件批量导入抄表记录", description = "上传 .csv 或 .json 文件，按文件扩展名解析")
+    public Map<String, Object> importMeterReadingFile(
+            @Parameter(description = "抄表数据文件（.csv / .json）", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Authorization Token", required = true)
+            @RequestHeader("Authorization") String token) throws IOException {
+
+        Long staffId = jwtUtil.getStaffIdFromToken(token.replace("Bearer ", ""));
+        String fileName = file.getOriginalFilename();
+        try (InputStream in = file.getInputStream()) {
+            if (fileName != null && fileName.toLowerCase().endsWith(".json")) {
+                return meterReadingImportService.importJson(in, staffId);
+            }
+            return meterReadingImportService.importCsv(in, staffId);
+        }
     }
 
     /**
@@ -1,9 +1,8 @@
 package com.community.property.controller;
 
 import com.community.property.service.RedisMessageService;
-import com.community.property.utils.JwtUtil;
-import com.community.property.domain.entity.Staff;
-import com.community.property.service.StaffService;
+import com.community.property.config.AuthPrincipal;
+import com.community.property.service.AuthPrincipalService;
 import com.community.property.service.CommunityNoticeService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -29,14 +28,11 @@ import com.community.property.domain.entity.CommunityNotice;
 public class PropertyNoticeController {
     
     @Autowired
-    private StaffService staffService;
+    private AuthPrincipalService authPrincipalService;
     
     @Autowired
     private CommunityNoticeService communityNoticeService;
 
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @Autowired
     private RedisMessageService redisMessageService;
     
@@ -65,9 +61,7 @@ public class PropertyNoticeController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Staff staff = staffService.findByUsername(username);
+            AuthPrincipal staff = authPrincipalService.resolve(token);
             
             if (staff == null) {
                 response.put("success", false);
@@ -130,9 +124,7 @@ public class PropertyNoticeController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Staff staff = staffService.findByUsername(username);
+            AuthPrincipal staff = authPrincipalService.resolve(token);
             
             if (staff == null) {
                 response.put("success", false);
@@ -179,9 +171,7 @@ public class PropertyNoticeController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Staff staff = staffService.findByUsername(username);
+            AuthPrincipal staff = authPrincipalService.resolve(token);
             
             if (staff == null) {
                 response.put("success", false);
@@ -452,9 +442,7 @@ public class PropertyNoticeController {
         Map<String, Object> response = new HashMap<>();
         try {
             // 解析用户信息
-            String realToken = token.replace("Bearer ", "");
-            String username = jwtUtil.getUsernameFromToken(realToken);
-            Staff staff = staffService.findByUsername(username);
+            AuthPrincipal staff = authPrincipalService.resolve(token);
             
             if (staff == null) {
                 response.put("success", false);
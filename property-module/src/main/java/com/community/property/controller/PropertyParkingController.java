@@ -203,9 +203,13 @@ public class PropertyParkingController {
             @RequestParam(defaultValue = "10") Integer size,
             @Parameter(description = "车位状态（空闲/已租/占用/维修）", required = false)
             @RequestParam(required = false) String status,
+            @Parameter(description = "分页游标（首页传空字符串，之后传上一页返回的 nextCursor；不传则按页码分页）。游标分页按创建时间倒序，页码分页按车位号升序", required = false)
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "游标分页时是否统计总数", required = false)
+            @RequestParam(defaultValue = "false") Boolean withTotal,
             @Parameter(description = "Authorization Token", required = true)
             @RequestHeader("Authorization") String token) {
 
-        return propertyService.listAllParkingSpaces(page, size, status);
+        return propertyService.listAllParkingSpaces(page, size, status, cursor, withTotal);
     }
 }
@@ -1,8 +1,6 @@
 package com.community.property.controller;
 
-import com.aliyun.oss.OSS;
-import com.aliyun.oss.model.PutObjectRequest;
-import com.community.property.config.OssConfig;
+import com.community.property.service.ImageService;
 import com.community.property.service.RedisMessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,10 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/property/upload")
@@ -22,10 +18,7 @@ import java.util.UUID;
 public class PropertyUploadController {
     
     @Autowired
-    private OSS ossClient;
-    
-    @Autowired
-    private OssConfig ossConfig;
+    private ImageService imageService;
 
     @Autowired
     private RedisMessageService redisMessageService;
@@ -69,35 +62,16 @@ public class PropertyUploadController {
                 return response;
             }
 
-            // 生成唯一的文件名 - 使用统一的路径格式：community/notice/{uuid}_{filename}.ext
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-            String filenameWithoutExt = originalFilename != null ?
-                    originalFilename.substring(0, originalFilename.lastIndexOf(".")) : UUID.randomUUID().toString();
-            String objectKey = String.format("community/notice/%s_%s%s",
-                    UUID.randomUUID().toString(),
-                    filenameWithoutExt,
-                    fileExtension);
-
-            System.out.println("开始上传文件: " + originalFilename + " (" + (fileSize / 1024.0) + "KB)");
-            System.out.println("OSS对象键: " + objectKey);
-
-            // 上传到OSS
-            try (InputStream inputStream = file.getInputStream()) {
-                PutObjectRequest putObjectRequest = new PutObjectRequest(ossConfig.getBucketName(), objectKey, inputStream);
-                ossClient.putObject(putObjectRequest);
-            }
-
-            // 返回HTTPS OSS路径（虚拟主机风格：https://bucket.endpoint/object）
-            String endpoint = ossConfig.getEndpoint().replaceFirst("https?://", "");
-            String ossUrl = String.format("https://%s.%s/%s", ossConfig.getBucketName(), endpoint, objectKey);
-
-            System.out.println("文件上传成功: " + ossUrl);
+            // 统一走图片上传流程（去除元数据、生成缩略图）：community/notice/{uuid}_{filename}.ext
+            String ossUrl = imageService.uploadImage(file, "community/notice", null);
+            String objectKey = imageService.extractPathFromUrl(ossUrl);
+            String thumbnailUrl = imageService.getThumbnailUrl(ossUrl);
 
             response.put("success", true);
             response.put("data", new HashMap<String, Object>() {{
                 put("imageUrl", ossUrl);
                 put("path", objectKey);
+                put("thumbnailUrl", thumbnailUrl);
             }});
             response.put("message", "上传成功");
             return response;
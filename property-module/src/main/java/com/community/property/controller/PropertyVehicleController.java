@@ -3,6 +3,7 @@ package com.community.property.controller;
 import com.community.property.service.RedisMessageService;
 import com.community.property.service.VehicleService;
 import com.community.property.service.PropertyService;
+import com.community.property.service.PlateSearchIndex;
 import com.community.property.utils.JwtUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -29,6 +31,9 @@ public class PropertyVehicleController {
     @Autowired
     private PropertyService propertyService;
 
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
+
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -335,13 +340,17 @@ public class PropertyVehicleController {
             @RequestParam(defaultValue = "10") Integer size,
             @Parameter(description = "搜索关键词（车牌号或品牌）", required = false)
             @RequestParam(required = false) String keyword,
+            @Parameter(description = "分页游标（首页传空字符串，之后传上一页返回的 nextCursor；不传则按页码分页）", required = false)
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "游标分页时是否统计总数", required = false)
+            @RequestParam(defaultValue = "false") Boolean withTotal,
             @Parameter(description = "Authorization Token", required = true)
             @RequestHeader("Authorization") String token) {
 
         Map<String, Object> response = new HashMap<>();
         try {
             // 调用propertyService的listAllVehicles方法
-            return propertyService.listAllVehicles(page, size, keyword);
+            return propertyService.listAllVehicles(page, size, keyword, cursor, withTotal);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "查询车辆列表失败: " + e.getMessage());
@@ -349,6 +358,31 @@ public class PropertyVehicleController {
         }
     }
 
+    /**
+     * 车牌号联想（输入车牌片段，返回匹配的车牌号）
+     */
+    @GetMapping("/plate-suggest")
+    @Operation(summary = "车牌号联想", description = "按车牌片段返回匹配的车牌号，以片段开头的排在前面；忽略大小写、空格和分隔符")
+    public Map<String, Object> suggestPlates(
+            @Parameter(description = "车牌片段", required = true)
+            @RequestParam String keyword,
+            @Parameter(description = "最多返回数量", required = false)
+            @RequestParam(defaultValue = "10") Integer limit,
+            @Parameter(description = "Authorization Token", required = true)
+            @RequestHeader("Authorization") String token) {
+
+        Map<String, Object> response = new HashMap<>();
+        List<String> plates = plateSearchIndex.suggestPlates(keyword, Math.max(1, Math.min(limit, 50)));
+        if (plates == null) {
+            response.put("success", false);
+            response.put("message", "车牌索引正在构建，请稍后重试");
+            return response;
+        }
+        response.put("success", true);
+        response.put("data", plates);
+        return response;
+    }
+
     /**
      * 查询业主车辆列表
      */
@@ -1,5 +1,6 @@
 package com.community.property.controller;
 
+import com.community.property.service.RealtimePushHub;
 import com.community.property.service.RedisMessageService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -7,10 +8,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.IOException;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 实时同步控制器
@@ -27,53 +25,29 @@ public class RealtimeSyncController {
     @Autowired
     private RedisMessageService redisMessageService;
 
-
-    // 存储活跃的SSE连接
-    private final Map<String, CopyOnWriteArrayList<SseEmitter>> sseConnections = new ConcurrentHashMap<>();
+    @Autowired
+    private RealtimePushHub realtimePushHub;
 
     /**
      * 建立SSE连接，用于实时推送数据变更
      * @param userId 用户ID
      * @param clientType 客户端类型 (miniprogram/web)
+     * @param modules 只接收这些模块的变更，逗号分隔，不传表示全部
+     * @param entityTypes 只接收这些实体类型的变更，逗号分隔，不传表示全部
+     * @param lastEventId 断线重连时最后收到的事件编号（实例纪元-序号），用于补发断线期间的事件
      * @return SseEmitter
      */
     @GetMapping("/subscribe/{userId}")
     public SseEmitter subscribe(@PathVariable String userId, 
-                               @RequestParam(defaultValue = "miniprogram") String clientType) {
+                               @RequestParam(defaultValue = "miniprogram") String clientType,
+                               @RequestParam(required = false) String modules,
+                               @RequestParam(required = false) String entityTypes,
+                               @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
         
-        SseEmitter emitter = new SseEmitter(30 * 60 * 1000L); // 30分钟超时
         String connectionKey = clientType + ":" + userId;
+        SseEmitter emitter = realtimePushHub.subscribe(connectionKey, userId, modules, entityTypes, lastEventId);
         
-        // 添加到连接池
-        sseConnections.computeIfAbsent(connectionKey, k -> new CopyOnWriteArrayList<>()).add(emitter);
-        
-        log.info("New SSE connection established: userId={}, clientType={}", userId, clientType);
-        
-        // 设置连接完成和超时的回调
-        emitter.onCompletion(() -> {
-            removeConnection(connectionKey, emitter);
-            log.info("SSE connection completed: userId={}, clientType={}", userId, clientType);
-        });
-        
-        emitter.onTimeout(() -> {
-            removeConnection(connectionKey, emitter);
-            log.info("SSE connection timeout: userId={}, clientType={}", userId, clientType);
-        });
-        
-        emitter.onError((ex) -> {
-            removeConnection(connectionKey, emitter);
-            log.error("SSE connection error: userId={}, clientType={}", userId, clientType, ex);
-        });
-        
-        try {
-            // 发送连接成功消息
-            emitter.send(SseEmitter.event()
-                    .name("connected")
-                    .data("Connection established successfully"));
-        } catch (IOException e) {
-            log.error("Error sending initial SSE message", e);
-            removeConnection(connectionKey, emitter);
-        }
+        log.info("New SSE connection established: userId={}, clientType={}, lastEventId={}", userId, clientType, lastEventId);
         
         return emitter;
     }
@@ -129,58 +103,16 @@ public class RealtimeSyncController {
         String key = "community:last_update:" + entityType;
         redisTemplate.opsForValue().set(key, String.valueOf(System.currentTimeMillis()));
         
-        // 通过SSE推送给所有连接的客户端
-        broadcastToAllConnections("dataChange", request);
+        // SSE推送由各节点的Redis监听器收到消息后完成，保证所有副本上的连接都能收到
         
         return Map.of("success", true, "message", "数据变更通知已发送");
     }
 
-    /**
-     * 移除SSE连接
-     */
-    private void removeConnection(String connectionKey, SseEmitter emitter) {
-        CopyOnWriteArrayList<SseEmitter> connections = sseConnections.get(connectionKey);
-        if (connections != null) {
-            connections.remove(emitter);
-            if (connections.isEmpty()) {
-                sseConnections.remove(connectionKey);
-            }
-        }
-    }
-
-    /**
-     * 向所有连接广播消息
-     */
-    private void broadcastToAllConnections(String eventName, Object data) {
-        sseConnections.forEach((connectionKey, emitters) -> {
-            emitters.removeIf(emitter -> {
-                try {
-                    emitter.send(SseEmitter.event().name(eventName).data(data));
-                    return false;
-                } catch (IOException e) {
-                    log.warn("Failed to send SSE message to connection: {}", connectionKey);
-                    return true; // 移除失败的连接
-                }
-            });
-        });
-    }
-
     /**
      * 获取当前活跃连接数
      */
     @GetMapping("/connections/count")
     public Map<String, Object> getConnectionCount() {
-        int totalConnections = sseConnections.values().stream()
-                .mapToInt(CopyOnWriteArrayList::size)
-                .sum();
-        
-        return Map.of(
-            "totalConnections", totalConnections,
-            "connectionsByType", sseConnections.entrySet().stream()
-                .collect(java.util.stream.Collectors.toMap(
-                    Map.Entry::getKey,
-                    entry -> entry.getValue().size()
-                ))
-        );
+        return realtimePushHub.stats();
     }
 }
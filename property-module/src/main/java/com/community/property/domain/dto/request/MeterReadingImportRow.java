@@ -0,0 +1,49 @@
+package com.community.property.domain.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 批量抄表导入的一行
+ * CSV 表头与字段名一致（meterId,currentReading,readingDate,...），列的顺序不限
+ */
+@Data
+@Schema(description = "批量抄表导入行")
+public class MeterReadingImportRow {
+
+    @Schema(description = "仪表ID", required = true)
+    private Long meterId;
+
+    @Schema(description = "当前读数", required = true)
+    private Double currentReading;
+
+    @Schema(description = "抄表日期 yyyy-MM-dd，为空时取当天")
+    private String readingDate;
+
+    @Schema(description = "抄表时间 HH:mm[:ss] 或 yyyy-MM-ddTHH:mm[:ss]，为空时取当前时间")
+    private String readingTime;
+
+    @Schema(description = "上次读数，为空时取该仪表最近一次读数（没有抄表记录时取初始读数）")
+    private Double previousReading;
+
+    @Schema(description = "用量，为空时按 当前读数 - 上次读数 计算")
+    private Double usageAmount;
+
+    @Schema(description = "抄表人ID，为空时为当前登录员工")
+    private Long readerId;
+
+    @Schema(description = "计量单位，为空时取仪表的单位")
+    private String unit;
+
+    @Schema(description = "抄表类型，默认 批量导入")
+    private String readingType;
+
+    @Schema(description = "抄表状态，默认 正常")
+    private String readingStatus;
+
+    @Schema(description = "异常原因")
+    private String abnormalReason;
+
+    @Schema(description = "备注")
+    private String remark;
+}
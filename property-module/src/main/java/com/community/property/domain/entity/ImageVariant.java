@@ -0,0 +1,36 @@
+package com.community.property.domain.entity;
+
+import lombok.Data;
+
+/**
+ * 图片派生版本（image_variant）
+ * 每张上传的原图一行，记录缩略图、中等尺寸图及其 WebP 版本的对象键，列表页据此返回缩略图地址
+ */
+@Data
+public class ImageVariant {
+
+    /**
+     * 原图对象键
+     */
+    private String objectKey;
+
+    /**
+     * 缩略图（JPEG）对象键
+     */
+    private String thumbKey;
+
+    /**
+     * 中等尺寸图（JPEG）对象键，原图不大于该尺寸时为空
+     */
+    private String mediumKey;
+
+    /**
+     * 缩略图（WebP）对象键，没有 WebP 编码器时为空
+     */
+    private String thumbWebpKey;
+
+    /**
+     * 中等尺寸图（WebP）对象键
+     */
+    private String mediumWebpKey;
+}
@@ -21,6 +21,18 @@ public class MeterReading extends BaseEntity {
     @TableField("meter_id")
     private Long meterId;
     
+    /**
+     * 抄表时仪表所属的房屋ID，用量汇总按此归属
+     */
+    @TableField("house_id")
+    private Long houseId;
+    
+    /**
+     * 抄表时仪表所属的楼栋ID，用量汇总按此归属
+     */
+    @TableField("building_id")
+    private Long buildingId;
+    
     /**
      * 上次读数
      */
@@ -0,0 +1,41 @@
+package com.community.property.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 待对账的用量汇总范围（meter_rollup_dirty）
+ * 抄表记录新增、修改、删除时写入一行，对账任务按抄表记录重新计算对应 仪表/房屋/楼栋 在日期范围内的汇总后删除
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeterRollupDirty {
+
+    private Long id;
+
+    /**
+     * 仪表ID，房屋/楼栋为空时按仪表当前所属的房屋/楼栋处理
+     */
+    private Long meterId;
+
+    /**
+     * 变更时仪表所属的房屋ID
+     */
+    private Long houseId;
+
+    /**
+     * 变更时仪表所属的楼栋ID
+     */
+    private Long buildingId;
+
+    /**
+     * 受影响的抄表日期范围（含），为空表示全部日期
+     */
+    private LocalDate dateFrom;
+
+    private LocalDate dateTo;
+}
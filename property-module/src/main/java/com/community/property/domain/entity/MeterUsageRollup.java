@@ -0,0 +1,48 @@
+package com.community.property.domain.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 仪表用量汇总行（meter_usage_rollup）
+ * 主键为 (scope_type, scope_id, period_type, period_start)，由抄表写入时增量累加
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MeterUsageRollup {
+
+    /**
+     * 汇总范围：METER / HOUSE / BUILDING
+     */
+    private String scopeType;
+
+    /**
+     * 范围ID（仪表ID / 房屋ID / 楼栋ID）
+     */
+    private Long scopeId;
+
+    /**
+     * 汇总周期：D（日）/ M（月）/ Y（年）
+     */
+    private String periodType;
+
+    /**
+     * 周期起始日期（日为当天，月为当月1日，年为当年1月1日）
+     */
+    private LocalDate periodStart;
+
+    /**
+     * 周期内用量
+     */
+    private BigDecimal usageAmount;
+
+    /**
+     * 周期内抄表次数
+     */
+    private Integer readingCount;
+}
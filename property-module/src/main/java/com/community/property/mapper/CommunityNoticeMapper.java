@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 社区公告Mapper
@@ -35,10 +36,16 @@ public interface CommunityNoticeMapper extends BaseMapper<CommunityNotice> {
                           @Param("noticeType") String noticeType);
     
     /**
-     * 增加阅读次数
+     * 批量累加阅读次数
+     * @param deltas 公告ID -> 增量
      */
-    @Update("UPDATE community_notice SET read_count = read_count + 1 WHERE id = #{noticeId}")
-    int incrementReadCount(Long noticeId);
+    @Update("<script>" +
+            "UPDATE community_notice SET read_count = IFNULL(read_count, 0) + CASE id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END WHERE id IN " +
+            "<foreach collection='deltas' index='id' item='delta' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int addReadCounts(@Param("deltas") Map<Long, Long> deltas);
     
     class CommunityNoticeDaoProvider {
         public String findByConditions(@Param("communityId") Long communityId, 
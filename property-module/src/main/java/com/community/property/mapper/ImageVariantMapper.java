@@ -0,0 +1,46 @@
+package com.community.property.mapper;
+
+import com.community.property.domain.entity.ImageVariant;
+import org.apache.ibatis.annotations.*;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 图片派生版本Mapper
+ */
+@Mapper
+public interface ImageVariantMapper {
+
+    @Update("CREATE TABLE IF NOT EXISTS image_variant (" +
+            "object_key VARCHAR(512) NOT NULL, " +
+            "thumb_key VARCHAR(512) NULL, " +
+            "medium_key VARCHAR(512) NULL, " +
+            "thumb_webp_key VARCHAR(512) NULL, " +
+            "medium_webp_key VARCHAR(512) NULL, " +
+            "created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (object_key)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='图片派生版本'")
+    void createTable();
+
+    @Insert("<script>" +
+            "INSERT INTO image_variant (object_key, thumb_key, medium_key, thumb_webp_key, medium_webp_key) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.objectKey}, #{item.thumbKey}, #{item.mediumKey}, #{item.thumbWebpKey}, #{item.mediumWebpKey})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE thumb_key = VALUES(thumb_key), medium_key = VALUES(medium_key), " +
+            "thumb_webp_key = VALUES(thumb_webp_key), medium_webp_key = VALUES(medium_webp_key)" +
+            "</script>")
+    int insertBatch(@Param("list") List<ImageVariant> list);
+
+    @Select("<script>" +
+            "SELECT object_key AS objectKey, thumb_key AS thumbKey, medium_key AS mediumKey, " +
+            "thumb_webp_key AS thumbWebpKey, medium_webp_key AS mediumWebpKey " +
+            "FROM image_variant WHERE object_key IN " +
+            "<foreach collection='keys' item='key' open='(' separator=',' close=')'>#{key}</foreach>" +
+            "</script>")
+    List<ImageVariant> selectByKeys(@Param("keys") Collection<String> keys);
+
+    @Delete("DELETE FROM image_variant WHERE object_key = #{objectKey}")
+    int deleteByKey(@Param("objectKey") String objectKey);
+}
@@ -2,10 +2,29 @@ package com.community.property.mapper;
 
 import com.community.property.domain.entity.MeterReading;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface MeterReadingMapper extends BaseMapper<MeterReading> {
-}
-
 
+    /**
+     * 批量插入抄表记录（单条多行 INSERT），插入后回填自增ID
+     */
+    @Insert("<script>" +
+            "INSERT INTO meter_reading (meter_id, house_id, building_id, previous_reading, current_reading, usage_amount, unit, reading_date, " +
+            "reading_time, reader_id, reader_name, category_name, reading_type, reading_status, abnormal_reason, " +
+            "processed, remark, created_at) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.meterId}, #{item.houseId}, #{item.buildingId}, #{item.previousReading}, #{item.currentReading}, #{item.usageAmount}, #{item.unit}, " +
+            "#{item.readingDate}, #{item.readingTime}, #{item.readerId}, #{item.readerName}, #{item.categoryName}, " +
+            "#{item.readingType}, #{item.readingStatus}, #{item.abnormalReason}, #{item.processed}, #{item.remark}, NOW())" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "list.id", keyColumn = "id")
+    int insertBatch(@Param("list") List<MeterReading> list);
+}
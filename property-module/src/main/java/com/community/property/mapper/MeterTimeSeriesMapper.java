@@ -0,0 +1,341 @@
+package com.community.property.mapper;
+
+import com.community.property.domain.entity.MeterReading;
+import com.community.property.domain.entity.MeterRollupDirty;
+import com.community.property.domain.entity.MeterUsageRollup;
+import org.apache.ibatis.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 抄表时序数据Mapper：每个仪表的最新读数（meter_reading_latest）和 日/月/年 用量汇总（meter_usage_rollup），
+ * 以及待对账范围（meter_rollup_dirty）和构建状态/租约（meter_rollup_state）
+ */
+@Mapper
+public interface MeterTimeSeriesMapper {
+
+    /**
+     * 最新读数按 (抄表日期, 抄表记录ID) 取较新的一条；reading_id、reading_date 必须放在最后赋值，
+     * 因为 MySQL 按顺序赋值，前面的条件会读到已更新的列值
+     */
+    String LATEST_NEWER_WINS = " ON DUPLICATE KEY UPDATE " +
+            "house_id = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(house_id), house_id), " +
+            "building_id = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(building_id), building_id), " +
+            "previous_reading = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(previous_reading), previous_reading), " +
+            "current_reading = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(current_reading), current_reading), " +
+            "usage_amount = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(usage_amount), usage_amount), " +
+            "unit = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(unit), unit), " +
+            "reading_time = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(reading_time), reading_time), " +
+            "reading_id = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(reading_id), reading_id), " +
+            "reading_date = IF((VALUES(reading_date), VALUES(reading_id)) >= (reading_date, reading_id), VALUES(reading_date), reading_date)";
+
+    @Update("CREATE TABLE IF NOT EXISTS meter_reading_latest (" +
+            "meter_id BIGINT NOT NULL, " +
+            "reading_id BIGINT NOT NULL, " +
+            "house_id BIGINT NULL, " +
+            "building_id BIGINT NULL, " +
+            "previous_reading DECIMAL(18,4) NULL, " +
+            "current_reading DECIMAL(18,4) NULL, " +
+            "usage_amount DECIMAL(18,4) NULL, " +
+            "unit VARCHAR(20) NULL, " +
+            "reading_date DATE NOT NULL, " +
+            "reading_time DATETIME NULL, " +
+            "updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (meter_id), " +
+            "KEY idx_house (house_id)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='仪表最新抄表记录'")
+    void createLatestTable();
+
+    @Update("CREATE TABLE IF NOT EXISTS meter_usage_rollup (" +
+            "scope_type VARCHAR(16) NOT NULL, " +
+            "scope_id BIGINT NOT NULL, " +
+            "period_type CHAR(1) NOT NULL, " +
+            "period_start DATE NOT NULL, " +
+            "usage_amount DECIMAL(20,4) NOT NULL DEFAULT 0, " +
+            "reading_count INT NOT NULL DEFAULT 0, " +
+            "updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (scope_type, scope_id, period_type, period_start)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='仪表用量日/月/年汇总'")
+    void createRollupTable();
+
+    @Update("CREATE TABLE IF NOT EXISTS meter_rollup_dirty (" +
+            "id BIGINT NOT NULL AUTO_INCREMENT, " +
+            "meter_id BIGINT NULL, " +
+            "house_id BIGINT NULL, " +
+            "building_id BIGINT NULL, " +
+            "date_from DATE NULL, " +
+            "date_to DATE NULL, " +
+            "created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, " +
+            "PRIMARY KEY (id)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='仪表用量汇总待对账范围'")
+    void createDirtyTable();
+
+    @Update("CREATE TABLE IF NOT EXISTS meter_rollup_state (" +
+            "name VARCHAR(32) NOT NULL, " +
+            "built_max_reading_id BIGINT NULL, " +
+            "built_at DATETIME NULL, " +
+            "lease_owner VARCHAR(64) NULL, " +
+            "lease_until DATETIME NULL, " +
+            "PRIMARY KEY (name)" +
+            ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='仪表用量汇总构建状态与对账租约'")
+    void createStateTable();
+
+    @Insert("INSERT IGNORE INTO meter_rollup_state (name) VALUES (#{name})")
+    int insertState(@Param("name") String name);
+
+    /**
+     * 获取或续期对账租约：租约空闲、已过期或本来就属于 owner 时成功
+     * @return 成功时为 1
+     */
+    @Update("UPDATE meter_rollup_state SET lease_owner = #{owner}, " +
+            "lease_until = DATE_ADD(NOW(), INTERVAL #{seconds} SECOND) " +
+            "WHERE name = #{name} AND (lease_owner IS NULL OR lease_owner = #{owner} OR lease_until < NOW())")
+    int acquireLease(@Param("name") String name, @Param("owner") String owner, @Param("seconds") long seconds);
+
+    /**
+     * 汇总已全量构建时返回构建时的最大抄表记录ID，从未构建时返回空
+     */
+    @Select("SELECT built_max_reading_id FROM meter_rollup_state WHERE name = #{name}")
+    Long selectBuiltMaxReadingId(@Param("name") String name);
+
+    @Update("UPDATE meter_rollup_state SET built_max_reading_id = #{maxId}, built_at = NOW() WHERE name = #{name}")
+    int markBuilt(@Param("name") String name, @Param("maxId") long maxId);
+
+    /**
+     * 清空构建状态，持有租约的节点下次对账时全量构建
+     */
+    @Update("UPDATE meter_rollup_state SET built_max_reading_id = NULL WHERE name = #{name}")
+    int resetBuilt(@Param("name") String name);
+
+    /**
+     * 抄表记录增加抄表时仪表所属的房屋、楼栋列，以及按范围重新计算汇总用的索引
+     */
+    @Update("ALTER TABLE meter_reading " +
+            "ADD COLUMN house_id BIGINT NULL COMMENT '抄表时仪表所属房屋ID', " +
+            "ADD COLUMN building_id BIGINT NULL COMMENT '抄表时仪表所属楼栋ID', " +
+            "ADD INDEX idx_house_date (house_id, reading_date), " +
+            "ADD INDEX idx_building_date (building_id, reading_date)")
+    void addReadingScopeColumns();
+
+    /**
+     * 为未记录房屋和楼栋的抄表记录（管理端写入的和历史数据）按仪表当前所属补记，
+     * meterIds 为空时补记全部抄表记录
+     */
+    @Update("<script>" +
+            "UPDATE meter_reading mr JOIN meter_info mi ON mi.id = mr.meter_id " +
+            "SET mr.house_id = mi.house_id, mr.building_id = mi.building_id " +
+            "WHERE mr.house_id IS NULL AND mr.building_id IS NULL " +
+            "AND (mi.house_id IS NOT NULL OR mi.building_id IS NOT NULL)" +
+            "<if test='meterIds != null'> AND mr.meter_id IN " +
+            "<foreach collection='meterIds' item='id' open='(' separator=',' close=')'>#{id}</foreach></if>" +
+            "</script>")
+    int fillReadingScope(@Param("meterIds") Collection<Long> meterIds);
+
+    /**
+     * 当前最大抄表记录ID
+     */
+    @Select("SELECT MAX(id) FROM meter_reading")
+    Long selectMaxReadingId();
+
+    /**
+     * 记录待对账范围
+     */
+    @Insert("INSERT INTO meter_rollup_dirty (meter_id, house_id, building_id, date_from, date_to) VALUES " +
+            "(#{meterId}, #{houseId}, #{buildingId}, #{dateFrom}, #{dateTo})")
+    int insertDirty(MeterRollupDirty dirty);
+
+    /**
+     * 批量记录待对账范围
+     */
+    @Insert("<script>" +
+            "INSERT INTO meter_rollup_dirty (meter_id, house_id, building_id, date_from, date_to) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.meterId}, #{item.houseId}, #{item.buildingId}, #{item.dateFrom}, #{item.dateTo})" +
+            "</foreach>" +
+            "</script>")
+    int insertDirtyBatch(@Param("list") List<MeterRollupDirty> list);
+
+    /**
+     * 按写入顺序取待对账范围
+     */
+    @Select("SELECT id, meter_id AS meterId, house_id AS houseId, building_id AS buildingId, " +
+            "date_from AS dateFrom, date_to AS dateTo FROM meter_rollup_dirty ORDER BY id LIMIT #{limit}")
+    List<MeterRollupDirty> selectDirty(@Param("limit") int limit);
+
+    @Delete("<script>" +
+            "DELETE FROM meter_rollup_dirty WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteDirty(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 写入一条抄表记录对应的最新读数
+     */
+    @Insert("INSERT INTO meter_reading_latest (meter_id, reading_id, house_id, building_id, previous_reading, " +
+            "current_reading, usage_amount, unit, reading_date, reading_time) VALUES " +
+            "(#{reading.meterId}, #{reading.id}, #{houseId}, #{buildingId}, #{reading.previousReading}, " +
+            "#{reading.currentReading}, #{reading.usageAmount}, #{reading.unit}, #{reading.readingDate}, #{reading.readingTime})" +
+            LATEST_NEWER_WINS)
+    int upsertLatest(@Param("reading") MeterReading reading, @Param("houseId") Long houseId,
+                     @Param("buildingId") Long buildingId);
+
+    /**
+     * 批量写入最新读数，每个仪表只需传一条
+     */
+    @Insert("<script>" +
+            "INSERT INTO meter_reading_latest (meter_id, reading_id, house_id, building_id, previous_reading, " +
+            "current_reading, usage_amount, unit, reading_date, reading_time) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.meterId}, #{item.id}, #{item.houseId}, #{item.buildingId}, #{item.previousReading}, " +
+            "#{item.currentReading}, #{item.usageAmount}, #{item.unit}, #{item.readingDate}, #{item.readingTime})" +
+            "</foreach>" +
+            LATEST_NEWER_WINS +
+            "</script>")
+    int upsertLatestBatch(@Param("list") List<Map<String, Object>> list);
+
+    /**
+     * 批量累加用量汇总
+     */
+    @Insert("<script>" +
+            "INSERT INTO meter_usage_rollup (scope_type, scope_id, period_type, period_start, usage_amount, reading_count) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.scopeType}, #{item.scopeId}, #{item.periodType}, #{item.periodStart}, #{item.usageAmount}, #{item.readingCount})" +
+            "</foreach>" +
+            " ON DUPLICATE KEY UPDATE usage_amount = usage_amount + VALUES(usage_amount), " +
+            "reading_count = reading_count + VALUES(reading_count)" +
+            "</script>")
+    int upsertRollups(@Param("list") List<MeterUsageRollup> list);
+
+    /**
+     * 从抄表记录重建最新读数，meterId 为空时重建全部仪表；房屋、楼栋取抄表记录上记录的值
+     */
+    @Insert("<script>" +
+            "INSERT INTO meter_reading_latest (meter_id, reading_id, house_id, building_id, previous_reading, " +
+            "current_reading, usage_amount, unit, reading_date, reading_time) " +
+            "SELECT t.meter_id, t.id, t.house_id, t.building_id, t.previous_reading, t.current_reading, " +
+            "t.usage_amount, t.unit, t.reading_date, t.reading_time FROM (" +
+            "SELECT mr.id, mr.meter_id, mr.house_id, mr.building_id, mr.previous_reading, mr.current_reading, " +
+            "mr.usage_amount, mr.unit, mr.reading_date, mr.reading_time, " +
+            "ROW_NUMBER() OVER (PARTITION BY mr.meter_id ORDER BY mr.reading_date DESC, mr.id DESC) AS rn " +
+            "FROM meter_reading mr WHERE mr.reading_date IS NOT NULL" +
+            "<if test='meterId != null'> AND mr.meter_id = #{meterId}</if>) t WHERE t.rn = 1" +
+            LATEST_NEWER_WINS +
+            "</script>")
+    int rebuildLatest(@Param("meterId") Long meterId);
+
+    /**
+     * 删除最新读数，meterId 为空时删除全部
+     */
+    @Delete("<script>" +
+            "DELETE FROM meter_reading_latest<if test='meterId != null'> WHERE meter_id = #{meterId}</if>" +
+            "</script>")
+    int deleteLatest(@Param("meterId") Long meterId);
+
+    /**
+     * 按抄表记录重新计算一个 范围 + 周期 的用量汇总（覆盖原值，不累加），
+     * 房屋、楼栋按抄表记录上记录的抄表时所属计算，与增量累加一致
+     * @param scopeId 范围ID，为空时计算该范围类型的全部ID
+     * @param from 抄表日期下限（含），为空表示不限；应为周期起始日期
+     * @param to 抄表日期上限（含），为空表示不限；应为周期结束日期
+     */
+    @InsertProvider(type = MeterTimeSeriesDaoProvider.class, method = "rebuildRollup")
+    int rebuildRollup(@Param("scopeType") String scopeType, @Param("periodType") String periodType,
+                      @Param("scopeId") Long scopeId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 删除一个 范围 + 周期 在周期起始日期范围内的汇总行，与 rebuildRollup 配合删除已没有抄表记录的周期
+     * @param scopeId 范围ID，为空时删除该范围类型的全部汇总
+     */
+    @Delete("<script>" +
+            "DELETE FROM meter_usage_rollup WHERE scope_type = #{scopeType} AND period_type = #{periodType}" +
+            "<if test='scopeId != null'> AND scope_id = #{scopeId}</if>" +
+            "<if test='from != null'> AND period_start &gt;= #{from}</if>" +
+            "<if test='to != null'> AND period_start &lt;= #{to}</if>" +
+            "</script>")
+    int deleteRollups(@Param("scopeType") String scopeType, @Param("periodType") String periodType,
+                      @Param("scopeId") Long scopeId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * 查询用量汇总
+     */
+    @Select("SELECT period_start AS periodStart, usage_amount AS usageAmount, reading_count AS readingCount " +
+            "FROM meter_usage_rollup WHERE scope_type = #{scopeType} AND scope_id = #{scopeId} " +
+            "AND period_type = #{periodType} AND period_start BETWEEN #{from} AND #{to} ORDER BY period_start")
+    List<Map<String, Object>> selectUsage(@Param("scopeType") String scopeType, @Param("scopeId") Long scopeId,
+                                          @Param("periodType") String periodType, @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to);
+
+    /**
+     * 查询仪表的最新读数
+     */
+    @Select("SELECT meter_id AS meterId, reading_id AS readingId, previous_reading AS previousReading, " +
+            "current_reading AS currentReading, usage_amount AS usageAmount, unit, reading_date AS readingDate, " +
+            "reading_time AS readingTime FROM meter_reading_latest WHERE meter_id = #{meterId}")
+    Map<String, Object> selectLatest(@Param("meterId") Long meterId);
+
+    /**
+     * 批量查询仪表的最新读数
+     */
+    @Select("<script>" +
+            "SELECT meter_id AS meterId, current_reading AS currentReading, reading_date AS readingDate " +
+            "FROM meter_reading_latest WHERE meter_id IN " +
+            "<foreach collection='meterIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Map<String, Object>> selectLatestByMeterIds(@Param("meterIds") Collection<Long> meterIds);
+
+    class MeterTimeSeriesDaoProvider {
+        public String rebuildRollup(@Param("scopeType") String scopeType, @Param("periodType") String periodType,
+                                    @Param("scopeId") Long scopeId, @Param("from") LocalDate from,
+                                    @Param("to") LocalDate to) {
+            String scopeColumn;
+            switch (scopeType) {
+                case "HOUSE":
+                    scopeColumn = "mr.house_id";
+                    break;
+                case "BUILDING":
+                    scopeColumn = "mr.building_id";
+                    break;
+                default:
+                    scopeColumn = "mr.meter_id";
+            }
+            String periodColumn;
+            switch (periodType) {
+                case "M":
+                    periodColumn = "DATE_FORMAT(mr.reading_date, '%Y-%m-01')";
+                    break;
+                case "Y":
+                    periodColumn = "DATE_FORMAT(mr.reading_date, '%Y-01-01')";
+                    break;
+                default:
+                    periodColumn = "mr.reading_date";
+            }
+
+            StringBuilder sql = new StringBuilder();
+            sql.append("INSERT INTO meter_usage_rollup (scope_type, scope_id, period_type, period_start, usage_amount, reading_count) ");
+            sql.append("SELECT #{scopeType}, ").append(scopeColumn).append(", #{periodType}, ").append(periodColumn).append(", ");
+            sql.append("SUM(IFNULL(mr.usage_amount, 0)), COUNT(*) ");
+            sql.append("FROM meter_reading mr ");
+            sql.append("WHERE mr.reading_date IS NOT NULL AND ").append(scopeColumn).append(" IS NOT NULL ");
+            if (!"METER".equals(scopeType)) {
+                // 已删除仪表的抄表记录不再计入房屋、楼栋
+                sql.append("AND EXISTS (SELECT 1 FROM meter_info mi WHERE mi.id = mr.meter_id) ");
+            }
+            if (scopeId != null) {
+                sql.append("AND ").append(scopeColumn).append(" = #{scopeId} ");
+            }
+            if (from != null) {
+                sql.append("AND mr.reading_date >= #{from} ");
+            }
+            if (to != null) {
+                sql.append("AND mr.reading_date <= #{to} ");
+            }
+            sql.append("GROUP BY ").append(scopeColumn).append(", ").append(periodColumn).append(" ");
+            sql.append("ON DUPLICATE KEY UPDATE usage_amount = VALUES(usage_amount), ");
+            sql.append("reading_count = VALUES(reading_count)");
+            return sql.toString();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.*;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 业主问题Mapper
@@ -33,6 +34,15 @@ public interface OwnerIssueMapper extends BaseMapper<OwnerIssue> {
     @Select("SELECT COUNT(*) FROM owner_issue WHERE assigned_department_id = #{departmentId}")
     int countByDepartmentId(Long departmentId);
     
+    /**
+     * 已分配问题的分组计数，供统计服务一次性构建各维度的计数
+     */
+    @Select("SELECT community_id AS communityId, assigned_staff_id AS staffId, issue_status AS issueStatus, " +
+            "work_status AS workStatus, urgency_level AS urgencyLevel, issue_type AS issueType, COUNT(*) AS total " +
+            "FROM owner_issue WHERE assigned_staff_id IS NOT NULL " +
+            "GROUP BY community_id, assigned_staff_id, issue_status, work_status, urgency_level, issue_type")
+    List<Map<String, Object>> selectStatisticsGroups();
+    
     /**
      * 根据ID和员工ID查询（验证归属）
      */
@@ -0,0 +1,30 @@
+package com.community.property.mapper;
+
+import org.apache.ibatis.annotations.*;
+
+/**
+ * 表结构维护Mapper（索引检查和DDL）
+ */
+@Mapper
+public interface SchemaMapper {
+
+    /**
+     * 索引是否存在
+     */
+    @Select("SELECT COUNT(*) FROM information_schema.STATISTICS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table} AND INDEX_NAME = #{index}")
+    int countIndex(@Param("table") String table, @Param("index") String index);
+
+    /**
+     * 列是否存在
+     */
+    @Select("SELECT COUNT(*) FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table} AND COLUMN_NAME = #{column}")
+    int countColumn(@Param("table") String table, @Param("column") String column);
+
+    /**
+     * 执行DDL（语句由调用方按固定模板生成）
+     */
+    @Update("${sql}")
+    void executeDdl(@Param("sql") String sql);
+}
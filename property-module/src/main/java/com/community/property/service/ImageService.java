@@ -1,15 +1,26 @@
 package com.community.property.service;
 
-import com.aliyun.oss.OSS;
+import com.community.property.domain.entity.ImageVariant;
+import com.community.property.mapper.ImageVariantMapper;
+import com.community.property.utils.ImageUtil;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.InputStream;
+import java.awt.image.BufferedImage;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 图片管理服务 - 处理OSS上传、删除和JSON图片数组操作
@@ -57,12 +68,39 @@ import java.util.*;
  * - OwnerIssue.additional_images: 0-多张 (TEXT JSON数组)
  * - CommunityNotice.notice_images: 0-多张 (TEXT JSON数组)
  * - MeterReading.reading_image: 1张 (VARCHAR 单个)
+ *
+ * ========== 上传处理 ==========
+ * 多个文件在有界线程池中并行上传；原图去除 EXIF 等元数据后保存（带方向信息的 JPEG 按方向旋正后重新编码），
+ * 同时生成缩略图和中等尺寸图（有 WebP 编码器时另存 WebP 版本），派生版本的对象键记录在 image_variant 表，
+ * 列表页通过 getThumbnailUrl 取缩略图地址。任一文件失败时删除本批已上传的全部对象
  */
+@Slf4j
 @Service
 public class ImageService {
 
+    private static final float ORIGINAL_QUALITY = 0.92f;
+    private static final float VARIANT_QUALITY = 0.8f;
+
+    @Autowired
+    private ObjectStorage objectStorage;
+
     @Autowired
-    private OSS ossClient;
+    private ImageVariantMapper imageVariantMapper;
+
+    @Value("${image.upload.threads:4}")
+    private int uploadThreads;
+
+    @Value("${image.upload.queue-capacity:64}")
+    private int uploadQueueCapacity;
+
+    @Value("${image.variant.thumb-edge:320}")
+    private int thumbEdge;
+
+    @Value("${image.variant.medium-edge:1280}")
+    private int mediumEdge;
+
+    @Value("${image.variant.cache-size:10000}")
+    private int thumbnailCacheSize;
 
     @Value("${aliyun.oss.bucket-name}")
     private String bucketName;
@@ -72,6 +110,60 @@ public class ImageService {
 
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    private ThreadPoolExecutor uploadExecutor;
+
+    /**
+     * 原图对象键 -> 缩略图地址（没有派生版本的旧图片为原图地址），LRU
+     */
+    private Map<String, String> thumbnailCache;
+
+    /**
+     * 一个文件上传后的结果：原图对象键、已写入的全部对象键（用于失败回滚）和派生版本
+     */
+    private static class StoredImage {
+        private final String objectKey;
+        private final List<String> keys = new ArrayList<>();
+        private ImageVariant variant;
+
+        StoredImage(String objectKey) {
+            this.objectKey = objectKey;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        uploadExecutor = new ThreadPoolExecutor(uploadThreads, uploadThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(uploadQueueCapacity), r -> {
+                    Thread t = new Thread(r, "image-upload-" + threadIndex.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        uploadExecutor.allowCoreThreadTimeOut(true);
+
+        int cacheSize = thumbnailCacheSize;
+        thumbnailCache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        try {
+            imageVariantMapper.createTable();
+        } catch (Exception e) {
+            log.error("创建图片派生版本表失败", e);
+        }
+        if (!ImageUtil.webpSupported()) {
+            log.info("未找到 WebP 编码器，图片只生成 JPEG 派生版本");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
     /**
      * 将OSS路径转换为完整URL
      * @param osspath OSS对象路径（如：property/notice/images/4/1761798885999_ba6f7222.jpg）
@@ -127,6 +219,57 @@ public class ImageService {
      * @return OSS路径
      */
     public String uploadImage(MultipartFile file, String folder, Long entityId) throws Exception {
+        StoredImage stored = storeImage(file, folder);
+        recordVariants(Collections.singletonList(stored));
+        // 返回完整的阿里云URL而不是对象键
+        return getImageUrl(stored.objectKey);
+    }
+
+    /**
+     * 批量上传文件到OSS，各文件并行处理，返回顺序与传入顺序一致
+     */
+    public List<String> uploadImages(List<MultipartFile> files, String folder, Long entityId) throws Exception {
+        List<String> paths = new ArrayList<>();
+        if (files == null || files.isEmpty()) {
+            return paths;
+        }
+        List<Future<StoredImage>> futures = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (file != null && !file.isEmpty()) {
+                futures.add(uploadExecutor.submit(() -> storeImage(file, folder)));
+            }
+        }
+
+        List<StoredImage> storedImages = new ArrayList<>();
+        Exception failure = null;
+        for (Future<StoredImage> future : futures) {
+            try {
+                storedImages.add(future.get());
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        if (failure != null) {
+            for (StoredImage stored : storedImages) {
+                deleteObjects(stored.keys);
+            }
+            throw failure;
+        }
+
+        recordVariants(storedImages);
+        for (StoredImage stored : storedImages) {
+            paths.add(getImageUrl(stored.objectKey));
+        }
+        return paths;
+    }
+
+    /**
+     * 处理并上传一个文件：原图去除元数据后保存，可解码的 JPEG/PNG 另外生成派生版本
+     * 失败时删除该文件已写入的对象
+     */
+    private StoredImage storeImage(MultipartFile file, String folder) throws Exception {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("文件为空");
         }
@@ -139,9 +282,10 @@ public class ImageService {
 
         // 生成文件名：folder/{uuid}_{original_filename_without_extension}.ext
         String originalFilename = file.getOriginalFilename();
-        String fileExtension = originalFilename != null ?
+        boolean hasExtension = originalFilename != null && originalFilename.lastIndexOf(".") > 0;
+        String fileExtension = hasExtension ?
                 originalFilename.substring(originalFilename.lastIndexOf(".")) : ".jpg";
-        String filenameWithoutExt = originalFilename != null ?
+        String filenameWithoutExt = hasExtension ?
                 originalFilename.substring(0, originalFilename.lastIndexOf(".")) : UUID.randomUUID().toString();
         String objectKey = String.format("%s/%s_%s%s",
                 folder, 
@@ -149,33 +293,175 @@ public class ImageService {
                 filenameWithoutExt,
                 fileExtension);
 
-        // 上传到OSS
-        try (InputStream inputStream = file.getInputStream()) {
-            ossClient.putObject(bucketName, objectKey, inputStream);
+        StoredImage stored = new StoredImage(objectKey);
+        try {
+            byte[] data = file.getBytes();
+            String format = ImageUtil.detectFormat(data);
+            int orientation = ImageUtil.FORMAT_JPEG.equals(format) ? ImageUtil.readJpegOrientation(data) : 1;
+
+            // 原图：去除元数据；带方向信息的 JPEG 去掉 EXIF 后会显示为未旋转，需要旋正后重新编码
+            BufferedImage decoded = null;
+            byte[] original = data;
+            if (ImageUtil.FORMAT_JPEG.equals(format)) {
+                if (orientation != 1) {
+                    BufferedImage image = decodeQuietly(data, 0, objectKey);
+                    decoded = image != null ? ImageUtil.applyOrientation(image, orientation) : null;
+                }
+                original = decoded != null
+                        ? ImageUtil.writeJpeg(decoded, ORIGINAL_QUALITY)
+                        : ImageUtil.stripJpegMetadata(data);
+            } else if (ImageUtil.FORMAT_PNG.equals(format)) {
+                original = ImageUtil.stripPngMetadata(data);
+            }
+            put(stored, objectKey, original, contentType);
+
+            // 派生版本：只需中等尺寸的精度，按降采样解码
+            if (format != null) {
+                if (decoded == null) {
+                    BufferedImage image = decodeQuietly(data, mediumEdge, objectKey);
+                    decoded = image != null ? ImageUtil.applyOrientation(image, orientation) : null;
+                }
+                if (decoded != null) {
+                    stored.variant = storeVariants(stored, decoded);
+                }
+            }
+            return stored;
+        } catch (Exception e) {
+            deleteObjects(stored.keys);
+            throw e;
         }
+    }
 
-        // 返回完整的阿里云URL而不是对象键
-        return getImageUrl(objectKey);
+    private ImageVariant storeVariants(StoredImage stored, BufferedImage image) throws Exception {
+        String objectKey = stored.objectKey;
+        String base = objectKey.lastIndexOf('.') > objectKey.lastIndexOf('/')
+                ? objectKey.substring(0, objectKey.lastIndexOf('.')) : objectKey;
+        ImageVariant variant = new ImageVariant();
+        variant.setObjectKey(objectKey);
+
+        BufferedImage medium = null;
+        if (Math.max(image.getWidth(), image.getHeight()) > mediumEdge) {
+            medium = ImageUtil.resize(image, mediumEdge);
+            variant.setMediumKey(put(stored, base + "_medium.jpg", ImageUtil.writeJpeg(medium, VARIANT_QUALITY), "image/jpeg"));
+        }
+        BufferedImage thumb = ImageUtil.resize(medium != null ? medium : image, thumbEdge);
+        variant.setThumbKey(put(stored, base + "_thumb.jpg", ImageUtil.writeJpeg(thumb, VARIANT_QUALITY), "image/jpeg"));
+
+        byte[] thumbWebp = ImageUtil.writeWebp(thumb, VARIANT_QUALITY);
+        if (thumbWebp != null) {
+            variant.setThumbWebpKey(put(stored, base + "_thumb.webp", thumbWebp, "image/webp"));
+            if (medium != null) {
+                variant.setMediumWebpKey(put(stored, base + "_medium.webp", ImageUtil.writeWebp(medium, VARIANT_QUALITY), "image/webp"));
+            }
+        }
+        return variant;
+    }
+
+    private String put(StoredImage stored, String key, byte[] content, String contentType) {
+        objectStorage.put(key, content, contentType);
+        stored.keys.add(key);
+        return key;
     }
 
     /**
-     * 批量上传文件到OSS
+     * 解码图片，无法解码（格式不支持、CMYK JPEG、像素数超限等）时返回 null，只保存原图
      */
-    public List<String> uploadImages(List<MultipartFile> files, String folder, Long entityId) throws Exception {
-        List<String> paths = new ArrayList<>();
-        if (files == null || files.isEmpty()) {
-            return paths;
+    private BufferedImage decodeQuietly(byte[] data, int minLongEdge, String objectKey) {
+        try {
+            return ImageUtil.read(data, minLongEdge);
+        } catch (Exception e) {
+            log.warn("图片无法解码，不生成派生版本: key={}, error={}", objectKey, e.getMessage());
+            return null;
         }
-        for (MultipartFile file : files) {
-            if (!file.isEmpty()) {
-                paths.add(uploadImage(file, folder, entityId));
+    }
+
+    /**
+     * 记录派生版本并放入缩略图缓存；记录失败只影响列表页取缩略图，不影响上传结果
+     */
+    private void recordVariants(List<StoredImage> storedImages) {
+        List<ImageVariant> variants = new ArrayList<>();
+        for (StoredImage stored : storedImages) {
+            if (stored.variant != null) {
+                variants.add(stored.variant);
             }
         }
-        return paths;
+        if (variants.isEmpty()) {
+            return;
+        }
+        try {
+            imageVariantMapper.insertBatch(variants);
+            synchronized (thumbnailCache) {
+                for (ImageVariant variant : variants) {
+                    thumbnailCache.put(variant.getObjectKey(), getImageUrl(variant.getThumbKey()));
+                }
+            }
+        } catch (Exception e) {
+            log.error("记录图片派生版本失败: count={}", variants.size(), e);
+        }
+    }
+
+    /**
+     * 获取图片的缩略图地址，没有缩略图（旧图片或无法解码的格式）时返回原图地址
+     * @param path 原图路径或完整URL
+     */
+    public String getThumbnailUrl(String path) {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        return getThumbnailUrls(Collections.singletonList(path)).get(path);
     }
 
     /**
-     * 从OSS删除文件
+     * 批量获取缩略图地址，缓存未命中的图片一次查询
+     * @return 原图路径 -> 缩略图地址（没有缩略图时为原图地址）
+     */
+    public Map<String, String> getThumbnailUrls(Collection<String> paths) {
+        Map<String, String> result = new HashMap<>();
+        Map<String, String> missing = new HashMap<>();
+        synchronized (thumbnailCache) {
+            for (String path : paths) {
+                if (path == null || path.isEmpty()) {
+                    continue;
+                }
+                String key = extractPathFromUrl(path);
+                String cached = thumbnailCache.get(key);
+                if (cached != null) {
+                    result.put(path, cached);
+                } else {
+                    missing.put(key, path);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<String, String> loaded = new HashMap<>();
+        try {
+            for (ImageVariant variant : imageVariantMapper.selectByKeys(missing.keySet())) {
+                if (variant.getThumbKey() != null) {
+                    loaded.put(variant.getObjectKey(), getImageUrl(variant.getThumbKey()));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("查询图片派生版本失败: {}", e.getMessage());
+            for (Map.Entry<String, String> entry : missing.entrySet()) {
+                result.put(entry.getValue(), getImageUrl(entry.getKey()));
+            }
+            return result;
+        }
+        synchronized (thumbnailCache) {
+            for (Map.Entry<String, String> entry : missing.entrySet()) {
+                String url = loaded.getOrDefault(entry.getKey(), getImageUrl(entry.getKey()));
+                thumbnailCache.put(entry.getKey(), url);
+                result.put(entry.getValue(), url);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 从OSS删除文件（连同派生版本）
      */
     public boolean deleteImage(String osspath) {
         try {
@@ -194,7 +480,8 @@ public class ImageService {
                         }
                     }
                 }
-                ossClient.deleteObject(bucketName, objectKey);
+                objectStorage.delete(objectKey);
+                deleteVariants(objectKey);
             }
             return true;
         } catch (Exception e) {
@@ -203,6 +490,33 @@ public class ImageService {
         }
     }
 
+    private void deleteVariants(String objectKey) {
+        synchronized (thumbnailCache) {
+            thumbnailCache.remove(objectKey);
+        }
+        List<ImageVariant> variants = imageVariantMapper.selectByKeys(Collections.singletonList(objectKey));
+        if (variants.isEmpty()) {
+            return;
+        }
+        ImageVariant variant = variants.get(0);
+        deleteObjects(Arrays.asList(variant.getThumbKey(), variant.getMediumKey(),
+                variant.getThumbWebpKey(), variant.getMediumWebpKey()));
+        imageVariantMapper.deleteByKey(objectKey);
+    }
+
+    private void deleteObjects(List<String> keys) {
+        for (String key : keys) {
+            if (key == null) {
+                continue;
+            }
+            try {
+                objectStorage.delete(key);
+            } catch (Exception e) {
+                log.warn("删除对象失败: key={}", key, e);
+            }
+        }
+    }
+
     /**
      * 批量删除文件
      */
@@ -243,6 +557,21 @@ public class ImageService {
         }
     }
 
+    /**
+     * 取图片字段中的第一张（字段可能是JSON数组，也可能是单个路径）
+     */
+    public String firstImage(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.startsWith("[")) {
+            List<String> images = jsonToImages(trimmed);
+            return images.isEmpty() ? null : images.get(0);
+        }
+        return trimmed;
+    }
+
     /**
      * 添加单个图片到JSON数组
      */
@@ -0,0 +1,64 @@
+package com.community.property.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 进程内对象存储（OSS 替身）
+ * storage.type=memory 时启用，对象保存在内存中，用于本地开发和离线测试，重启后丢失
+ */
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "memory")
+public class InMemoryObjectStorage implements ObjectStorage {
+
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+
+    /**
+     * 已保存的对象
+     */
+    public static class StoredObject {
+        private final byte[] content;
+        private final String contentType;
+
+        StoredObject(byte[] content, String contentType) {
+            this.content = content;
+            this.contentType = contentType;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    @Override
+    public void put(String key, byte[] content, String contentType) {
+        objects.put(key, new StoredObject(content.clone(), contentType));
+    }
+
+    @Override
+    public void delete(String key) {
+        objects.remove(key);
+    }
+
+    /**
+     * 读取对象，不存在时返回 null
+     */
+    public StoredObject get(String key) {
+        return objects.get(key);
+    }
+
+    /**
+     * 当前保存的全部对象键
+     */
+    public Set<String> keys() {
+        return Set.copyOf(objects.keySet());
+    }
+}
@@ -0,0 +1,275 @@
+package com.community.property.service;
+
+import com.community.property.domain.entity.OwnerIssue;
+import com.community.property.mapper.OwnerIssueMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 业主问题统计
+ * 已分配问题的计数按 全部 / 员工 / 社区 三个范围物化在内存中，每个范围再按 问题状态、工作状态、紧急程度、问题类型 细分；
+ * 首次读取或失效后用一条 GROUP BY 查询构建，本模块的分配、开始处理、标记解决、重新分配在事务提交后按变更前后的差值增量更新，
+ * 读取只是取内存中的计数。其他模块修改问题时由 Redis 数据变更消息标记失效；多节点部署时各节点只增量应用自己的修改，按固定周期整体重建以纠正偏差
+ */
+@Slf4j
+@Service
+public class IssueStatisticsService {
+
+    @Value("${issue-statistics.refresh-seconds:300}")
+    private long refreshSeconds;
+
+    @Autowired
+    private OwnerIssueMapper ownerIssueMapper;
+
+    private Bucket global = new Bucket();
+    private Map<Long, Bucket> byStaff = new HashMap<>();
+    private Map<Long, Bucket> byCommunity = new HashMap<>();
+
+    private final Object rebuildLock = new Object();
+
+    private boolean stale = true;
+    private long builtAt;
+
+    /**
+     * 每次增量更新或失效时递增，重建期间有变化则重建结果只用到下次读取
+     */
+    private long version;
+
+    /**
+     * 全部已分配问题的统计
+     */
+    public Map<String, Object> global() {
+        ensureFresh();
+        synchronized (this) {
+            return global.toMap();
+        }
+    }
+
+    /**
+     * 分配给指定员工的问题统计
+     */
+    public Map<String, Object> forStaff(Long staffId) {
+        ensureFresh();
+        synchronized (this) {
+            return byStaff.getOrDefault(staffId, Bucket.EMPTY).toMap();
+        }
+    }
+
+    /**
+     * 指定社区已分配问题的统计
+     */
+    public Map<String, Object> forCommunity(Long communityId) {
+        ensureFresh();
+        synchronized (this) {
+            return byCommunity.getOrDefault(communityId, Bucket.EMPTY).toMap();
+        }
+    }
+
+    /**
+     * 记录问题变更前参与统计的字段，修改实体前调用
+     */
+    public static IssueKey keyOf(OwnerIssue issue) {
+        return new IssueKey(issue.getCommunityId(), issue.getAssignedStaffId(), issue.getIssueStatus(),
+                issue.getWorkStatus(), issue.getUrgencyLevel(), issue.getIssueType());
+    }
+
+    /**
+     * 问题已修改：按变更前后的差值更新计数，处于事务中时在提交后生效
+     * @param before 修改前的统计字段
+     * @param after 修改后的问题
+     */
+    public void onIssueChanged(IssueKey before, OwnerIssue after) {
+        IssueKey current = keyOf(after);
+        if (current.equals(before)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(before, current);
+                }
+            });
+        } else {
+            apply(before, current);
+        }
+    }
+
+    /**
+     * 计数失效，下次读取时重建（其他模块修改了问题）
+     */
+    public synchronized void invalidate() {
+        stale = true;
+        version++;
+    }
+
+    private synchronized void apply(IssueKey before, IssueKey after) {
+        if (stale) {
+            // 下次读取会整体重建
+            return;
+        }
+        add(before, -1);
+        add(after, 1);
+        version++;
+    }
+
+    private void add(IssueKey key, long delta) {
+        if (key.staffId == null) {
+            return;
+        }
+        global.add(key, delta);
+        byStaff.computeIfAbsent(key.staffId, k -> new Bucket()).add(key, delta);
+        if (key.communityId != null) {
+            byCommunity.computeIfAbsent(key.communityId, k -> new Bucket()).add(key, delta);
+        }
+    }
+
+    private synchronized boolean isFresh() {
+        return !stale && System.currentTimeMillis() - builtAt < refreshSeconds * 1000;
+    }
+
+    private void ensureFresh() {
+        if (isFresh()) {
+            return;
+        }
+        // 同一时间只有一个线程重建，其余线程等待后直接读取重建结果
+        synchronized (rebuildLock) {
+            if (!isFresh()) {
+                rebuild();
+            }
+        }
+    }
+
+    private void rebuild() {
+        long startVersion;
+        synchronized (this) {
+            startVersion = version;
+        }
+
+        List<Map<String, Object>> groups = ownerIssueMapper.selectStatisticsGroups();
+        Bucket newGlobal = new Bucket();
+        Map<Long, Bucket> newByStaff = new HashMap<>();
+        Map<Long, Bucket> newByCommunity = new HashMap<>();
+        for (Map<String, Object> group : groups) {
+            IssueKey key = new IssueKey(toLong(group.get("communityId")), toLong(group.get("staffId")),
+                    (String) group.get("issueStatus"), (String) group.get("workStatus"),
+                    (String) group.get("urgencyLevel"), (String) group.get("issueType"));
+            long count = ((Number) group.get("total")).longValue();
+            newGlobal.add(key, count);
+            newByStaff.computeIfAbsent(key.staffId, k -> new Bucket()).add(key, count);
+            if (key.communityId != null) {
+                newByCommunity.computeIfAbsent(key.communityId, k -> new Bucket()).add(key, count);
+            }
+        }
+
+        synchronized (this) {
+            global = newGlobal;
+            byStaff = newByStaff;
+            byCommunity = newByCommunity;
+            builtAt = System.currentTimeMillis();
+            // 查询期间有变更时结果可能已过期，本次照常返回，下次读取再重建
+            stale = version != startVersion;
+        }
+        log.debug("Rebuilt issue statistics: groups={}, staff={}, communities={}",
+                groups.size(), newByStaff.size(), newByCommunity.size());
+    }
+
+    private static Long toLong(Object value) {
+        return value == null ? null : ((Number) value).longValue();
+    }
+
+    /**
+     * 参与统计的问题字段
+     */
+    public static final class IssueKey {
+        private final Long communityId;
+        private final Long staffId;
+        private final String issueStatus;
+        private final String workStatus;
+        private final String urgencyLevel;
+        private final String issueType;
+
+        private IssueKey(Long communityId, Long staffId, String issueStatus, String workStatus,
+                         String urgencyLevel, String issueType) {
+            this.communityId = communityId;
+            this.staffId = staffId;
+            this.issueStatus = issueStatus;
+            this.workStatus = workStatus;
+            this.urgencyLevel = urgencyLevel;
+            this.issueType = issueType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IssueKey)) {
+                return false;
+            }
+            IssueKey that = (IssueKey) o;
+            return Objects.equals(communityId, that.communityId) && Objects.equals(staffId, that.staffId)
+                    && Objects.equals(issueStatus, that.issueStatus) && Objects.equals(workStatus, that.workStatus)
+                    && Objects.equals(urgencyLevel, that.urgencyLevel) && Objects.equals(issueType, that.issueType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(communityId, staffId, issueStatus, workStatus, urgencyLevel, issueType);
+        }
+    }
+
+    /**
+     * 一个统计范围内的计数
+     */
+    private static class Bucket {
+        private static final Bucket EMPTY = new Bucket();
+
+        private long total;
+        private final Map<String, Long> byIssueStatus = new LinkedHashMap<>();
+        private final Map<String, Long> byWorkStatus = new LinkedHashMap<>();
+        private final Map<String, Long> byUrgencyLevel = new LinkedHashMap<>();
+        private final Map<String, Long> byIssueType = new LinkedHashMap<>();
+
+        private void add(IssueKey key, long delta) {
+            total += delta;
+            addTo(byIssueStatus, key.issueStatus, delta);
+            addTo(byWorkStatus, key.workStatus, delta);
+            addTo(byUrgencyLevel, key.urgencyLevel, delta);
+            addTo(byIssueType, key.issueType, delta);
+        }
+
+        private static void addTo(Map<String, Long> counts, String name, long delta) {
+            String key = name != null ? name : "未设置";
+            long value = counts.getOrDefault(key, 0L) + delta;
+            if (value > 0) {
+                counts.put(key, value);
+            } else {
+                counts.remove(key);
+            }
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> statistics = new LinkedHashMap<>();
+            statistics.put("totalIssues", total);
+            statistics.put("pendingIssues", byIssueStatus.getOrDefault("待处理", 0L));
+            statistics.put("processingIssues", byIssueStatus.getOrDefault("处理中", 0L));
+            statistics.put("completedIssues", byIssueStatus.getOrDefault("已完成", 0L));
+            statistics.put("byIssueStatus", new LinkedHashMap<>(byIssueStatus));
+            statistics.put("byWorkStatus", new LinkedHashMap<>(byWorkStatus));
+            statistics.put("byUrgencyLevel", new LinkedHashMap<>(byUrgencyLevel));
+            statistics.put("byIssueType", new LinkedHashMap<>(byIssueType));
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.community.property.service;
+
+import com.community.property.mapper.SchemaMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 游标分页索引检查
+ * 游标分页按 (created_at DESC, id DESC) 排序并从上一页末尾查找，
+ * 每个列表需要 (等值筛选列, created_at, id) 复合索引才能直接定位，否则每页都要扫描筛选出的全部行再排序。
+ * 启动时检查各列表的索引，缺少时在线创建；关闭自动创建时只在日志中输出建索引语句
+ */
+@Slf4j
+@Component
+public class KeysetIndexInitializer {
+
+    /**
+     * 各游标分页列表需要的索引：表名、索引名、索引列
+     */
+    static final List<String[]> INDEXES = List.of(
+            // listMeterReadings：meter_id = ?
+            new String[]{"meter_reading", "idx_meter_created_id", "meter_id, created_at, id"},
+            // listAllVehicles：status = '正常'（关键词条件不走索引）
+            new String[]{"vehicle", "idx_status_created_id", "status, created_at, id"},
+            // listAllParkingSpaces：按状态筛选或不筛选
+            new String[]{"parking_space", "idx_status_created_id", "space_status, created_at, id"},
+            new String[]{"parking_space", "idx_created_id", "created_at, id"},
+            // listAllHouses：关键词为 LIKE 条件，只按排序列建索引
+            new String[]{"house", "idx_created_id", "created_at, id"},
+            // listNotices：community_id = ?（status <> '已撤回' 在索引定位后过滤）
+            new String[]{"community_notice", "idx_community_created_id", "community_id, created_at, id"});
+
+    @Autowired
+    private SchemaMapper schemaMapper;
+
+    @Value("${keyset-page.auto-create-index:true}")
+    private boolean autoCreateIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        for (String[] index : INDEXES) {
+            String table = index[0];
+            String name = index[1];
+            try {
+                if (schemaMapper.countIndex(table, name) > 0) {
+                    continue;
+                }
+                String ddl = "ALTER TABLE " + table + " ADD INDEX " + name + " (" + index[2] + "), ALGORITHM=INPLACE, LOCK=NONE";
+                if (!autoCreateIndex) {
+                    log.warn("游标分页缺少索引，可在低峰期执行: {};", ddl);
+                    continue;
+                }
+                schemaMapper.executeDdl(ddl);
+                log.info("游标分页索引已创建: {}.{}({})", table, name, index[2]);
+            } catch (Exception e) {
+                // 多个节点同时启动时可能已由其他节点创建
+                log.warn("创建游标分页索引失败: {}.{}, error={}", table, name, e.getMessage());
+            }
+        }
+    }
+}
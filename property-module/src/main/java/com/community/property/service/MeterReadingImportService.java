@@ -0,0 +1,458 @@
+package com.community.property.service;
+
+import com.community.property.domain.dto.request.MeterReadingImportRow;
+import com.community.property.domain.entity.MeterInfo;
+import com.community.property.domain.entity.MeterReading;
+import com.community.property.domain.entity.Staff;
+import com.community.property.mapper.MeterInfoMapper;
+import com.community.property.mapper.MeterReadingMapper;
+import com.community.property.mapper.StaffMapper;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 批量抄表导入
+ * 以流的方式读取 CSV 或 JSON 数组，按批处理：每批先一次性加载涉及的仪表、抄表人和最新读数到内存映射，
+ * 逐行校验（仪表存在、读数不小于上次读数、不超过仪表量程、日期格式），通过的行用一条多行 INSERT 写入，
+ * 并在同一事务中更新最新读数和用量汇总。返回每一行的处理结果和吞吐量
+ */
+@Slf4j
+@Service
+public class MeterReadingImportService {
+
+    @Value("${meter.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${meter.import.max-rows:50000}")
+    private int maxRows;
+
+    @Autowired
+    private MeterReadingMapper meterReadingMapper;
+
+    @Autowired
+    private MeterInfoMapper meterInfoMapper;
+
+    @Autowired
+    private StaffMapper staffMapper;
+
+    @Autowired
+    private MeterTimeSeriesService meterTimeSeriesService;
+
+    @Autowired
+    private RedisMessageService redisMessageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 导入 JSON 数组格式的抄表数据
+     * @param in 请求体，内容为 MeterReadingImportRow 数组
+     * @param staffId 当前登录员工ID，作为未指定抄表人的行的抄表人
+     */
+    public Map<String, Object> importJson(InputStream in, Long staffId) {
+        Import job = new Import(staffId);
+        try (MappingIterator<MeterReadingImportRow> it = objectMapper.readerFor(MeterReadingImportRow.class).readValues(in)) {
+            int rowNo = 0;
+            while (it.hasNextValue()) {
+                if (!job.accept(++rowNo, it.nextValue(), null)) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            job.fatal = "解析JSON失败: " + e.getMessage();
+        }
+        return job.finish();
+    }
+
+    /**
+     * 导入 CSV 格式的抄表数据，首行为表头（字段名同 MeterReadingImportRow）
+     * @param in CSV 内容（UTF-8）
+     * @param staffId 当前登录员工ID，作为未指定抄表人的行的抄表人
+     */
+    public Map<String, Object> importCsv(InputStream in, Long staffId) {
+        Import job = new Import(staffId);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                job.fatal = "CSV内容为空";
+                return job.finish();
+            }
+            if (headerLine.startsWith("\uFEFF")) {
+                headerLine = headerLine.substring(1);
+            }
+            List<String> header = splitCsvLine(headerLine);
+            String line;
+            int rowNo = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                rowNo++;
+                MeterReadingImportRow row = new MeterReadingImportRow();
+                String error = null;
+                try {
+                    List<String> values = splitCsvLine(line);
+                    for (int i = 0; i < header.size() && i < values.size(); i++) {
+                        setField(row, header.get(i).trim(), values.get(i).trim());
+                    }
+                } catch (NumberFormatException e) {
+                    error = "数字格式错误: " + e.getMessage();
+                }
+                if (!job.accept(rowNo, row, error)) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            job.fatal = "读取CSV失败: " + e.getMessage();
+        }
+        return job.finish();
+    }
+
+    /**
+     * 一次导入的状态：跨批次复用的仪表、抄表人和最新读数映射，以及逐行结果
+     */
+    private class Import {
+        private final Long staffId;
+        private final long startNanos = System.nanoTime();
+        private final List<Map<String, Object>> results = new ArrayList<>();
+        private final List<Integer> pendingRowNos = new ArrayList<>();
+        private final List<MeterReadingImportRow> pendingRows = new ArrayList<>();
+        private final Map<Long, MeterInfo> meters = new HashMap<>();
+        private final Map<Long, Staff> readers = new HashMap<>();
+        /**
+         * 仪表ID -> 已知的最近读数（数据库中的最新读数，或本次导入中已写入的读数）
+         */
+        private final Map<Long, BigDecimal> lastReadings = new HashMap<>();
+        private int total;
+        private int inserted;
+        private String fatal;
+
+        private Import(Long staffId) {
+            this.staffId = staffId;
+        }
+
+        /**
+         * 接收一行，攒够一批时处理
+         * @return 是否继续读取
+         */
+        private boolean accept(int rowNo, MeterReadingImportRow row, String parseError) {
+            if (total >= maxRows) {
+                fatal = "单次最多导入 " + maxRows + " 行，之后的行未处理";
+                return false;
+            }
+            total++;
+            if (parseError != null) {
+                results.add(failure(rowNo, row.getMeterId(), parseError));
+                return true;
+            }
+            pendingRowNos.add(rowNo);
+            pendingRows.add(row);
+            if (pendingRows.size() >= batchSize) {
+                flush();
+            }
+            return true;
+        }
+
+        private void flush() {
+            if (pendingRows.isEmpty()) {
+                return;
+            }
+            preload();
+
+            List<MeterReading> readings = new ArrayList<>();
+            List<Integer> readingRowNos = new ArrayList<>();
+            Map<Long, BigDecimal> batchLast = new HashMap<>();
+            for (int i = 0; i < pendingRows.size(); i++) {
+                int rowNo = pendingRowNos.get(i);
+                MeterReadingImportRow row = pendingRows.get(i);
+                try {
+                    MeterReading reading = toReading(row, batchLast);
+                    readings.add(reading);
+                    readingRowNos.add(rowNo);
+                    batchLast.put(reading.getMeterId(), reading.getCurrentReading());
+                } catch (IllegalArgumentException e) {
+                    results.add(failure(rowNo, row.getMeterId(), e.getMessage()));
+                }
+            }
+            pendingRows.clear();
+            pendingRowNos.clear();
+            if (readings.isEmpty()) {
+                return;
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    meterReadingMapper.insertBatch(readings);
+                    meterTimeSeriesService.recordBatch(readings);
+                });
+            } catch (Exception e) {
+                log.warn("批量写入抄表记录失败: size={}", readings.size(), e);
+                for (int i = 0; i < readings.size(); i++) {
+                    results.add(failure(readingRowNos.get(i), readings.get(i).getMeterId(), "写入失败: " + e.getMessage()));
+                }
+                return;
+            }
+
+            lastReadings.putAll(batchLast);
+            inserted += readings.size();
+            for (int i = 0; i < readings.size(); i++) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("row", readingRowNos.get(i));
+                result.put("meterId", readings.get(i).getMeterId());
+                result.put("success", true);
+                result.put("readingId", readings.get(i).getId());
+                results.add(result);
+            }
+        }
+
+        /**
+         * 一次性加载本批涉及、但尚未加载的仪表、抄表人和最新读数
+         */
+        private void preload() {
+            Set<Long> meterIds = new LinkedHashSet<>();
+            Set<Long> readerIds = new LinkedHashSet<>();
+            for (MeterReadingImportRow row : pendingRows) {
+                if (row.getMeterId() != null && !meters.containsKey(row.getMeterId())) {
+                    meterIds.add(row.getMeterId());
+                }
+                Long readerId = row.getReaderId() != null ? row.getReaderId() : staffId;
+                if (readerId != null && !readers.containsKey(readerId)) {
+                    readerIds.add(readerId);
+                }
+            }
+            if (!meterIds.isEmpty()) {
+                for (MeterInfo meter : meterInfoMapper.selectBatchIds(meterIds)) {
+                    meters.put(meter.getId(), meter);
+                }
+                Map<Long, BigDecimal> latest = meterTimeSeriesService.latestReadings(meterIds);
+                latest.forEach(lastReadings::putIfAbsent);
+            }
+            if (!readerIds.isEmpty()) {
+                for (Staff staff : staffMapper.selectBatchIds(readerIds)) {
+                    readers.put(staff.getId(), staff);
+                }
+            }
+        }
+
+        private MeterReading toReading(MeterReadingImportRow row, Map<Long, BigDecimal> batchLast) {
+            if (row.getMeterId() == null || row.getCurrentReading() == null) {
+                throw new IllegalArgumentException("仪表ID和当前读数为必需");
+            }
+            MeterInfo meter = meters.get(row.getMeterId());
+            if (meter == null) {
+                throw new IllegalArgumentException("仪表不存在");
+            }
+            Long readerId = row.getReaderId() != null ? row.getReaderId() : staffId;
+            Staff reader = readerId != null ? readers.get(readerId) : null;
+            if (reader == null) {
+                throw new IllegalArgumentException("抄表人不存在");
+            }
+
+            BigDecimal current = BigDecimal.valueOf(row.getCurrentReading());
+            if (current.signum() < 0) {
+                throw new IllegalArgumentException("读数不能为负数");
+            }
+            if (meter.getMaxReading() != null && meter.getMaxReading().signum() > 0
+                    && current.compareTo(meter.getMaxReading()) > 0) {
+                throw new IllegalArgumentException("读数超过仪表量程 " + meter.getMaxReading().toPlainString());
+            }
+            BigDecimal last = batchLast.containsKey(meter.getId()) ? batchLast.get(meter.getId()) : lastReadings.get(meter.getId());
+            if (last == null) {
+                last = meter.getInitialReading();
+            }
+            if (last != null && current.compareTo(last) < 0) {
+                throw new IllegalArgumentException("读数小于上次读数 " + last.toPlainString());
+            }
+            BigDecimal previous = row.getPreviousReading() != null ? BigDecimal.valueOf(row.getPreviousReading())
+                    : (last != null ? last : BigDecimal.ZERO);
+            if (current.compareTo(previous) < 0) {
+                throw new IllegalArgumentException("当前读数小于上次读数 " + previous.toPlainString());
+            }
+            BigDecimal usage = row.getUsageAmount() != null ? BigDecimal.valueOf(row.getUsageAmount())
+                    : current.subtract(previous);
+
+            LocalDate readingDate = parseDate(row.getReadingDate());
+            MeterReading reading = new MeterReading();
+            reading.setMeterId(meter.getId());
+            reading.setPreviousReading(previous);
+            reading.setCurrentReading(current);
+            reading.setUsageAmount(usage);
+            reading.setUnit(row.getUnit() != null && !row.getUnit().isEmpty() ? row.getUnit() : meter.getUnit());
+            reading.setReadingDate(readingDate);
+            reading.setReadingTime(parseTime(readingDate, row.getReadingTime()));
+            reading.setReaderId(reader.getId());
+            reading.setReaderName(reader.getName());
+            reading.setCategoryName(meter.getCategoryName());
+            reading.setReadingType(row.getReadingType() != null && !row.getReadingType().isEmpty() ? row.getReadingType() : "批量导入");
+            reading.setReadingStatus(row.getReadingStatus() != null && !row.getReadingStatus().isEmpty() ? row.getReadingStatus() : "正常");
+            reading.setAbnormalReason(row.getAbnormalReason());
+            reading.setProcessed(0);
+            reading.setRemark(row.getRemark());
+            MeterTimeSeriesService.assignScope(reading, meter);
+            return reading;
+        }
+
+        private Map<String, Object> finish() {
+            flush();
+            long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+            if (inserted > 0) {
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("inserted", inserted);
+                redisMessageService.publishPropertyChange("CREATE", "MeterReading", null, summary);
+            }
+            results.sort((a, b) -> Integer.compare((Integer) a.get("row"), (Integer) b.get("row")));
+
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("total", total);
+            data.put("inserted", inserted);
+            data.put("failed", total - inserted);
+            data.put("elapsedMs", elapsedMs);
+            data.put("rowsPerSecond", total * 1000L / elapsedMs);
+            data.put("results", results);
+            if (fatal != null) {
+                data.put("error", fatal);
+            }
+            log.info("批量抄表导入完成: total={}, inserted={}, elapsed={}ms", total, inserted, elapsedMs);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", fatal == null);
+            response.put("message", fatal != null ? fatal : "导入完成: 成功 " + inserted + " 条，失败 " + (total - inserted) + " 条");
+            response.put("data", data);
+            return response;
+        }
+    }
+
+    private static Map<String, Object> failure(int rowNo, Long meterId, String message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("row", rowNo);
+        result.put("meterId", meterId);
+        result.put("success", false);
+        result.put("message", message);
+        return result;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("抄表日期格式应为 yyyy-MM-dd");
+        }
+    }
+
+    private static LocalDateTime parseTime(LocalDate date, String value) {
+        if (value == null || value.isEmpty()) {
+            return LocalDateTime.now();
+        }
+        try {
+            return value.contains("T") ? LocalDateTime.parse(value) : date.atTime(LocalTime.parse(value));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("抄表时间格式应为 HH:mm[:ss] 或 yyyy-MM-ddTHH:mm[:ss]");
+        }
+    }
+
+    private static void setField(MeterReadingImportRow row, String name, String value) {
+        if (value.isEmpty()) {
+            return;
+        }
+        switch (name) {
+            case "meterId":
+                row.setMeterId(Long.valueOf(value));
+                break;
+            case "currentReading":
+                row.setCurrentReading(Double.valueOf(value));
+                break;
+            case "readingDate":
+                row.setReadingDate(value);
+                break;
+            case "readingTime":
+                row.setReadingTime(value);
+                break;
+            case "previousReading":
+                row.setPreviousReading(Double.valueOf(value));
+                break;
+            case "usageAmount":
+                row.setUsageAmount(Double.valueOf(value));
+                break;
+            case "readerId":
+                row.setReaderId(Long.valueOf(value));
+                break;
+            case "unit":
+                row.setUnit(value);
+                break;
+            case "readingType":
+                row.setReadingType(value);
+                break;
+            case "readingStatus":
+                row.setReadingStatus(value);
+                break;
+            case "abnormalReason":
+                row.setAbnormalReason(value);
+                break;
+            case "remark":
+                row.setRemark(value);
+                break;
+            default:
+                // 未知列忽略
+        }
+    }
+
+    /**
+     * 拆分一行CSV，支持双引号包裹的字段和 "" 转义
+     */
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
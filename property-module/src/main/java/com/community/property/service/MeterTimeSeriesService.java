@@ -0,0 +1,517 @@
+package com.community.property.service;
+
+import com.community.property.domain.entity.MeterInfo;
+import com.community.property.domain.entity.MeterReading;
+import com.community.property.domain.entity.MeterRollupDirty;
+import com.community.property.domain.entity.MeterUsageRollup;
+import com.community.property.mapper.MeterInfoMapper;
+import com.community.property.mapper.MeterTimeSeriesMapper;
+import com.community.property.mapper.SchemaMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 仪表时序数据
+ * 抄表写入时同步维护两张表：meter_reading_latest（每个仪表的最新读数）和 meter_usage_rollup
+ * （仪表 / 房屋 / 楼栋 三个范围的 日 / 月 / 年 用量汇总，按周期累加）。历史用量和最新读数的查询直接读这两张表，不再扫描抄表记录。
+ *
+ * 增量累加只为让汇总及时可见，正确性由对账保证：每次写入抄表记录（含管理端的修改、删除和删除仪表）都在同一事务中
+ * 记录一条待对账范围（meter_rollup_dirty），后台对账任务按抄表记录重新计算这些范围的汇总并覆盖原值，
+ * 修正并发累加、写入失败等造成的偏差。多个节点通过 meter_rollup_state 中的租约保证同时只有一个节点对账；
+ * 持有租约的节点在从未全量构建过时（meter_rollup_state.built_max_reading_id 为空）先按全部抄表记录全量构建一次，
+ * 清空该列即可触发重新构建
+ *
+ * 房屋、楼栋范围按抄表时仪表的归属计算：抄表记录写入时记下仪表当时所属的房屋和楼栋（meter_reading.house_id / building_id），
+ * 增量累加和重新计算都只读这两列，仪表换到其他房屋后历史用量仍留在原房屋。管理端写入的和历史抄表记录没有这两列，
+ * 对账在重新计算前按仪表当前所属补记
+ */
+@Slf4j
+@Service
+public class MeterTimeSeriesService {
+
+    public static final String SCOPE_METER = "METER";
+    public static final String SCOPE_HOUSE = "HOUSE";
+    public static final String SCOPE_BUILDING = "BUILDING";
+
+    public static final String PERIOD_DAY = "D";
+    public static final String PERIOD_MONTH = "M";
+    public static final String PERIOD_YEAR = "Y";
+
+    private static final String[] SCOPES = {SCOPE_METER, SCOPE_HOUSE, SCOPE_BUILDING};
+    private static final String[] PERIODS = {PERIOD_DAY, PERIOD_MONTH, PERIOD_YEAR};
+
+    private static final String STATE_NAME = "rollup";
+
+    /**
+     * 全量构建期间的租约时长(秒)，构建在一个事务中完成，期间不续期
+     */
+    private static final long BUILD_LEASE_SECONDS = 3600;
+
+    @Value("${meter.rollup.reconcile-interval-seconds:10}")
+    private long reconcileIntervalSeconds;
+
+    @Value("${meter.rollup.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${meter.rollup.reconcile-batch-size:500}")
+    private int reconcileBatchSize;
+
+    @Autowired
+    private MeterTimeSeriesMapper meterTimeSeriesMapper;
+
+    @Autowired
+    private MeterInfoMapper meterInfoMapper;
+
+    @Autowired
+    private SchemaMapper schemaMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 本节点的租约持有者标识
+     */
+    private final String leaseOwner = UUID.randomUUID().toString();
+
+    private ScheduledExecutorService reconcileScheduler;
+
+    @PostConstruct
+    public void init() {
+        try {
+            meterTimeSeriesMapper.createLatestTable();
+            meterTimeSeriesMapper.createRollupTable();
+            meterTimeSeriesMapper.createDirtyTable();
+            meterTimeSeriesMapper.createStateTable();
+            meterTimeSeriesMapper.insertState(STATE_NAME);
+        } catch (Exception e) {
+            log.error("创建仪表时序数据表失败", e);
+            return;
+        }
+        ensureReadingScopeColumns();
+        reconcileScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "meter-rollup-reconcile");
+            t.setDaemon(true);
+            return t;
+        });
+        reconcileScheduler.scheduleWithFixedDelay(this::reconcile, 1, reconcileIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 抄表记录缺少房屋、楼栋列时增加这两列，并清空构建状态，由全量构建为历史抄表记录补记后重新计算全部汇总
+     */
+    private void ensureReadingScopeColumns() {
+        try {
+            if (schemaMapper.countColumn("meter_reading", "house_id") > 0) {
+                return;
+            }
+            meterTimeSeriesMapper.addReadingScopeColumns();
+            meterTimeSeriesMapper.resetBuilt(STATE_NAME);
+            log.info("抄表记录已增加房屋、楼栋列，将全量构建用量汇总");
+        } catch (Exception e) {
+            // 多个节点同时启动时可能已由其他节点增加
+            log.warn("抄表记录增加房屋、楼栋列失败: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (reconcileScheduler != null) {
+            reconcileScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 在写入抄表记录前记下仪表当前所属的房屋和楼栋
+     * @param meter 对应的仪表，可为空
+     */
+    public static void assignScope(MeterReading reading, MeterInfo meter) {
+        reading.setHouseId(meter != null ? meter.getHouseId() : null);
+        reading.setBuildingId(meter != null ? meter.getBuildingId() : null);
+    }
+
+    /**
+     * 记录一条新的抄表记录：记录待对账范围，再更新最新读数并累加各范围、各周期的用量，应在写入抄表记录的同一事务中调用
+     * 待对账范围写入失败时抛出异常，由调用方回滚抄表记录；累加失败只记录日志，由对账修正
+     * @param reading 已插入的抄表记录（需有ID和抄表日期，房屋和楼栋由 {@link #assignScope} 记下）
+     */
+    public void record(MeterReading reading) {
+        if (reading.getId() == null || reading.getMeterId() == null || reading.getReadingDate() == null) {
+            return;
+        }
+        Long houseId = reading.getHouseId();
+        Long buildingId = reading.getBuildingId();
+        BigDecimal usage = reading.getUsageAmount() != null ? reading.getUsageAmount() : BigDecimal.ZERO;
+        LocalDate date = reading.getReadingDate();
+        meterTimeSeriesMapper.insertDirty(new MeterRollupDirty(null, reading.getMeterId(), houseId, buildingId, date, date));
+        List<MeterUsageRollup> rollups = new ArrayList<>(9);
+        addRollups(rollups, SCOPE_METER, reading.getMeterId(), date, usage);
+        addRollups(rollups, SCOPE_HOUSE, houseId, date, usage);
+        addRollups(rollups, SCOPE_BUILDING, buildingId, date, usage);
+        try {
+            meterTimeSeriesMapper.upsertLatest(reading, houseId, buildingId);
+            meterTimeSeriesMapper.upsertRollups(rollups);
+        } catch (Exception e) {
+            // 待对账范围已记录，对账任务会按抄表记录重新计算
+            log.warn("更新仪表用量汇总失败，等待对账修正: readingId={}, meterId={}", reading.getId(), reading.getMeterId(), e);
+        }
+    }
+
+    /**
+     * 批量记录抄表记录：同一周期的用量先在内存中合并，每个仪表只写入批内最新的一条，两类表各一条多行语句；
+     * 每个仪表记录一条覆盖批内日期范围的待对账范围，失败时抛出异常
+     * @param readings 已插入的抄表记录（需有ID和抄表日期，房屋和楼栋由 {@link #assignScope} 记下）
+     */
+    public void recordBatch(List<MeterReading> readings) {
+        Map<String, MeterUsageRollup> rollups = new LinkedHashMap<>();
+        Map<Long, MeterReading> latest = new LinkedHashMap<>();
+        for (MeterReading reading : readings) {
+            if (reading.getId() == null || reading.getMeterId() == null || reading.getReadingDate() == null) {
+                continue;
+            }
+            BigDecimal usage = reading.getUsageAmount() != null ? reading.getUsageAmount() : BigDecimal.ZERO;
+            List<MeterUsageRollup> rows = new ArrayList<>(9);
+            addRollups(rows, SCOPE_METER, reading.getMeterId(), reading.getReadingDate(), usage);
+            addRollups(rows, SCOPE_HOUSE, reading.getHouseId(), reading.getReadingDate(), usage);
+            addRollups(rows, SCOPE_BUILDING, reading.getBuildingId(), reading.getReadingDate(), usage);
+            for (MeterUsageRollup row : rows) {
+                String key = row.getScopeType() + ":" + row.getScopeId() + ":" + row.getPeriodType() + ":" + row.getPeriodStart();
+                rollups.merge(key, row, (a, b) -> {
+                    a.setUsageAmount(a.getUsageAmount().add(b.getUsageAmount()));
+                    a.setReadingCount(a.getReadingCount() + b.getReadingCount());
+                    return a;
+                });
+            }
+            latest.merge(reading.getMeterId(), reading, (a, b) -> isNewer(b, a) ? b : a);
+        }
+        if (latest.isEmpty()) {
+            return;
+        }
+
+        Map<Long, MeterRollupDirty> dirty = new LinkedHashMap<>();
+        for (MeterReading reading : readings) {
+            if (reading.getId() == null || reading.getMeterId() == null || reading.getReadingDate() == null) {
+                continue;
+            }
+            MeterRollupDirty range = dirty.computeIfAbsent(reading.getMeterId(), id -> new MeterRollupDirty(null, id,
+                    reading.getHouseId(), reading.getBuildingId(), reading.getReadingDate(), reading.getReadingDate()));
+            if (reading.getReadingDate().isBefore(range.getDateFrom())) {
+                range.setDateFrom(reading.getReadingDate());
+            }
+            if (reading.getReadingDate().isAfter(range.getDateTo())) {
+                range.setDateTo(reading.getReadingDate());
+            }
+        }
+        meterTimeSeriesMapper.insertDirtyBatch(new ArrayList<>(dirty.values()));
+
+        List<Map<String, Object>> latestRows = new ArrayList<>(latest.size());
+        for (MeterReading reading : latest.values()) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("meterId", reading.getMeterId());
+            row.put("id", reading.getId());
+            row.put("houseId", reading.getHouseId());
+            row.put("buildingId", reading.getBuildingId());
+            row.put("previousReading", reading.getPreviousReading());
+            row.put("currentReading", reading.getCurrentReading());
+            row.put("usageAmount", reading.getUsageAmount());
+            row.put("unit", reading.getUnit());
+            row.put("readingDate", reading.getReadingDate());
+            row.put("readingTime", reading.getReadingTime());
+            latestRows.add(row);
+        }
+        try {
+            meterTimeSeriesMapper.upsertLatestBatch(latestRows);
+            meterTimeSeriesMapper.upsertRollups(new ArrayList<>(rollups.values()));
+        } catch (Exception e) {
+            log.warn("批量更新仪表用量汇总失败，等待对账修正: readings={}", readings.size(), e);
+        }
+    }
+
+    /**
+     * 记录待对账范围，用于修改、删除抄表记录或删除仪表等不能增量累加的变更，应在变更的同一事务中调用
+     * @param meterId 仪表ID
+     * @param houseId 受影响抄表记录所属的房屋ID，为空时按仪表当前所属房屋
+     * @param buildingId 受影响抄表记录所属的楼栋ID，为空时按仪表当前所属楼栋
+     * @param from 受影响的抄表日期下限（含），为空表示全部日期
+     * @param to 受影响的抄表日期上限（含），为空表示全部日期
+     */
+    public void markDirty(Long meterId, Long houseId, Long buildingId, LocalDate from, LocalDate to) {
+        if (meterId == null && houseId == null && buildingId == null) {
+            return;
+        }
+        meterTimeSeriesMapper.insertDirty(new MeterRollupDirty(null, meterId, houseId, buildingId, from, to));
+    }
+
+    /**
+     * 批量查询仪表的最新读数
+     * @return 仪表ID -> 最新读数，没有抄表记录的仪表不在结果中
+     */
+    public Map<Long, BigDecimal> latestReadings(Collection<Long> meterIds) {
+        Map<Long, BigDecimal> result = new HashMap<>();
+        if (meterIds.isEmpty()) {
+            return result;
+        }
+        for (Map<String, Object> row : meterTimeSeriesMapper.selectLatestByMeterIds(meterIds)) {
+            Object value = row.get("currentReading");
+            if (value != null) {
+                result.put(((Number) row.get("meterId")).longValue(), new BigDecimal(value.toString()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 查询用量汇总
+     * @param scopeType 范围：METER / HOUSE / BUILDING
+     * @param scopeId 范围ID
+     * @param periodType 周期：D / M / Y
+     * @param from 起始日期（含），为空时日汇总取最近30天、月汇总取最近12个月、年汇总取最近5年
+     * @param to 截止日期（含），为空时取今天
+     */
+    public Map<String, Object> getUsage(String scopeType, Long scopeId, String periodType, LocalDate from, LocalDate to) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            String scope = scopeType != null ? scopeType.toUpperCase() : SCOPE_METER;
+            String period = periodType != null ? periodType.toUpperCase() : PERIOD_MONTH;
+            if (!List.of(SCOPES).contains(scope) || !List.of(PERIODS).contains(period) || scopeId == null) {
+                response.put("success", false);
+                response.put("message", "范围应为 METER/HOUSE/BUILDING，周期应为 D/M/Y，且范围ID不能为空");
+                return response;
+            }
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : defaultFrom(period, end);
+
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("scopeType", scope);
+            data.put("scopeId", scopeId);
+            data.put("periodType", period);
+            data.put("from", periodStart(period, start));
+            data.put("to", end);
+            data.put("items", meterTimeSeriesMapper.selectUsage(scope, scopeId, period, periodStart(period, start), end));
+            if (SCOPE_METER.equals(scope)) {
+                data.put("latest", meterTimeSeriesMapper.selectLatest(scopeId));
+            }
+
+            response.put("success", true);
+            response.put("data", data);
+            return response;
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "查询失败: " + e.getMessage());
+            return response;
+        }
+    }
+
+    private static void addRollups(List<MeterUsageRollup> rollups, String scopeType, Long scopeId,
+                                   LocalDate date, BigDecimal usage) {
+        if (scopeId == null) {
+            return;
+        }
+        for (String period : PERIODS) {
+            rollups.add(new MeterUsageRollup(scopeType, scopeId, period, periodStart(period, date), usage, 1));
+        }
+    }
+
+    private static boolean isNewer(MeterReading a, MeterReading b) {
+        int cmp = a.getReadingDate().compareTo(b.getReadingDate());
+        return cmp > 0 || (cmp == 0 && a.getId() > b.getId());
+    }
+
+    private static LocalDate periodStart(String periodType, LocalDate date) {
+        switch (periodType) {
+            case PERIOD_MONTH:
+                return date.withDayOfMonth(1);
+            case PERIOD_YEAR:
+                return date.withDayOfYear(1);
+            default:
+                return date;
+        }
+    }
+
+    private static LocalDate defaultFrom(String periodType, LocalDate end) {
+        switch (periodType) {
+            case PERIOD_MONTH:
+                return end.minusMonths(11);
+            case PERIOD_YEAR:
+                return end.minusYears(4);
+            default:
+                return end.minusDays(29);
+        }
+    }
+
+    /**
+     * 对账：持有租约时，从未全量构建过则先全量构建，再按写入顺序处理待对账范围
+     */
+    void reconcile() {
+        try {
+            if (meterTimeSeriesMapper.acquireLease(STATE_NAME, leaseOwner, leaseSeconds) == 0) {
+                return;
+            }
+            if (meterTimeSeriesMapper.selectBuiltMaxReadingId(STATE_NAME) == null) {
+                rebuildAll();
+            }
+            int processed;
+            do {
+                processed = reconcileBatch();
+            } while (processed >= reconcileBatchSize
+                    && meterTimeSeriesMapper.acquireLease(STATE_NAME, leaseOwner, leaseSeconds) > 0);
+        } catch (Exception e) {
+            log.error("仪表用量汇总对账失败，稍后重试", e);
+        }
+    }
+
+    /**
+     * 按全部抄表记录全量构建最新读数和用量汇总，在一个事务中先补记抄表记录的房屋和楼栋再覆盖原有数据；
+     * 构建期间并发写入的抄表记录都有待对账范围，构建完成后由对账按覆盖方式重新计算，不会重复累加或遗漏
+     */
+    private void rebuildAll() {
+        meterTimeSeriesMapper.acquireLease(STATE_NAME, leaseOwner, BUILD_LEASE_SECONDS);
+        long start = System.currentTimeMillis();
+        Long maxId = meterTimeSeriesMapper.selectMaxReadingId();
+        transactionTemplate.executeWithoutResult(status -> {
+            meterTimeSeriesMapper.fillReadingScope(null);
+            meterTimeSeriesMapper.deleteLatest(null);
+            meterTimeSeriesMapper.rebuildLatest(null);
+            for (String scope : SCOPES) {
+                for (String period : PERIODS) {
+                    meterTimeSeriesMapper.deleteRollups(scope, period, null, null, null);
+                    meterTimeSeriesMapper.rebuildRollup(scope, period, null, null, null);
+                }
+            }
+            meterTimeSeriesMapper.markBuilt(STATE_NAME, maxId != null ? maxId : 0L);
+        });
+        meterTimeSeriesMapper.acquireLease(STATE_NAME, leaseOwner, leaseSeconds);
+        log.info("仪表用量汇总已全量构建: maxReadingId={}, elapsed={}ms", maxId, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 处理一批待对账范围：合并为 范围类型+范围ID -> 日期范围，为涉及仪表的抄表记录补记房屋和楼栋后，
+     * 逐个按抄表记录重新计算，再删除这些待对账行；没有房屋和楼栋的待对账行按仪表当前所属，与补记一致
+     * @return 本批处理的待对账行数
+     */
+    int reconcileBatch() {
+        List<MeterRollupDirty> marks = meterTimeSeriesMapper.selectDirty(reconcileBatchSize);
+        if (marks.isEmpty()) {
+            return 0;
+        }
+        Set<Long> unresolved = marks.stream()
+                .filter(m -> m.getMeterId() != null && m.getHouseId() == null && m.getBuildingId() == null)
+                .map(MeterRollupDirty::getMeterId)
+                .collect(Collectors.toSet());
+        Map<Long, MeterInfo> meters = unresolved.isEmpty() ? Map.of() : meterInfoMapper.selectBatchIds(unresolved)
+                .stream().collect(Collectors.toMap(MeterInfo::getId, m -> m, (a, b) -> a));
+
+        Map<String, DateRange> targets = new LinkedHashMap<>();
+        Set<Long> latestMeters = new LinkedHashSet<>();
+        for (MeterRollupDirty mark : marks) {
+            Long houseId = mark.getHouseId();
+            Long buildingId = mark.getBuildingId();
+            MeterInfo meter = meters.get(mark.getMeterId());
+            if (houseId == null && buildingId == null && meter != null) {
+                houseId = meter.getHouseId();
+                buildingId = meter.getBuildingId();
+            }
+            if (mark.getMeterId() != null) {
+                latestMeters.add(mark.getMeterId());
+            }
+            addTarget(targets, SCOPE_METER, mark.getMeterId(), mark);
+            addTarget(targets, SCOPE_HOUSE, houseId, mark);
+            addTarget(targets, SCOPE_BUILDING, buildingId, mark);
+        }
+
+        List<Long> ids = marks.stream().map(MeterRollupDirty::getId).collect(Collectors.toList());
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!latestMeters.isEmpty()) {
+                meterTimeSeriesMapper.fillReadingScope(latestMeters);
+            }
+            for (Long meterId : latestMeters) {
+                meterTimeSeriesMapper.deleteLatest(meterId);
+                meterTimeSeriesMapper.rebuildLatest(meterId);
+            }
+            for (Map.Entry<String, DateRange> entry : targets.entrySet()) {
+                String[] key = entry.getKey().split(":", 2);
+                recompute(key[0], Long.parseLong(key[1]), entry.getValue());
+            }
+            meterTimeSeriesMapper.deleteDirty(ids);
+        });
+        log.debug("仪表用量汇总对账完成: marks={}, targets={}", marks.size(), targets.size());
+        return marks.size();
+    }
+
+    /**
+     * 按抄表记录重新计算一个范围在日期范围所覆盖的完整周期内的汇总；先删除再写入，已没有抄表记录的周期被删除
+     */
+    private void recompute(String scopeType, Long scopeId, DateRange range) {
+        for (String period : PERIODS) {
+            LocalDate from = range.from != null ? periodStart(period, range.from) : null;
+            LocalDate to = range.to != null ? periodEnd(period, range.to) : null;
+            meterTimeSeriesMapper.deleteRollups(scopeType, period, scopeId, from, to);
+            meterTimeSeriesMapper.rebuildRollup(scopeType, period, scopeId, from, to);
+        }
+    }
+
+    private static void addTarget(Map<String, DateRange> targets, String scopeType, Long scopeId, MeterRollupDirty mark) {
+        if (scopeId == null) {
+            return;
+        }
+        targets.computeIfAbsent(scopeType + ":" + scopeId, k -> new DateRange(mark.getDateFrom(), mark.getDateTo()))
+                .include(mark.getDateFrom(), mark.getDateTo());
+    }
+
+    private static LocalDate periodEnd(String periodType, LocalDate date) {
+        switch (periodType) {
+            case PERIOD_MONTH:
+                return date.withDayOfMonth(date.lengthOfMonth());
+            case PERIOD_YEAR:
+                return date.withDayOfYear(date.lengthOfYear());
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * 日期范围（含两端），端点为空表示不限
+     */
+    private static class DateRange {
+        private LocalDate from;
+        private LocalDate to;
+        private boolean unbounded;
+
+        private DateRange(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+            this.unbounded = from == null || to == null;
+        }
+
+        private void include(LocalDate otherFrom, LocalDate otherTo) {
+            if (unbounded || otherFrom == null || otherTo == null) {
+                unbounded = true;
+                from = null;
+                to = null;
+                return;
+            }
+            from = otherFrom.isBefore(from) ? otherFrom : from;
+            to = otherTo.isAfter(to) ? otherTo : to;
+        }
+    }
+}
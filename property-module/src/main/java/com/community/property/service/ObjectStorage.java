@@ -0,0 +1,22 @@
+package com.community.property.service;
+
+/**
+ * 对象存储
+ * 生产环境由 {@link OssObjectStorage} 写入阿里云 OSS；storage.type=memory 时使用进程内的 {@link InMemoryObjectStorage}，
+ * 便于在没有 OSS 的环境中运行和测试图片上传流程
+ */
+public interface ObjectStorage {
+
+    /**
+     * 写入对象
+     * @param key 对象键（如 property/notice/images/xxx.jpg）
+     * @param content 内容
+     * @param contentType MIME 类型，可为空
+     */
+    void put(String key, byte[] content, String contentType);
+
+    /**
+     * 删除对象，对象不存在时不报错
+     */
+    void delete(String key);
+}
@@ -0,0 +1,102 @@
+package com.community.property.service;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.UploadPartRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 阿里云 OSS 对象存储
+ * 超过 image.upload.multipart-threshold 的对象分片上传，单个分片失败只重传该分片，失败时取消整个上传
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "storage.type", havingValue = "oss", matchIfMissing = true)
+public class OssObjectStorage implements ObjectStorage {
+
+    /**
+     * 单个分片的重试次数
+     */
+    private static final int PART_ATTEMPTS = 3;
+
+    @Autowired
+    private OSS ossClient;
+
+    @Value("${aliyun.oss.bucket-name}")
+    private String bucketName;
+
+    @Value("${image.upload.multipart-threshold:5242880}")
+    private long multipartThreshold;
+
+    @Value("${image.upload.part-size:1048576}")
+    private int partSize;
+
+    @Override
+    public void put(String key, byte[] content, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        if (contentType != null) {
+            metadata.setContentType(contentType);
+        }
+        if (content.length < multipartThreshold) {
+            metadata.setContentLength(content.length);
+            ossClient.putObject(bucketName, key, new ByteArrayInputStream(content), metadata);
+            return;
+        }
+
+        String uploadId = ossClient.initiateMultipartUpload(
+                new InitiateMultipartUploadRequest(bucketName, key, metadata)).getUploadId();
+        try {
+            List<PartETag> partETags = new ArrayList<>();
+            int partNumber = 1;
+            for (int offset = 0; offset < content.length; offset += partSize, partNumber++) {
+                int length = Math.min(partSize, content.length - offset);
+                partETags.add(uploadPart(key, uploadId, partNumber, content, offset, length));
+            }
+            ossClient.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+        } catch (RuntimeException e) {
+            try {
+                ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+            } catch (Exception abortError) {
+                log.warn("取消分片上传失败: key={}, uploadId={}", key, uploadId, abortError);
+            }
+            throw e;
+        }
+    }
+
+    private PartETag uploadPart(String key, String uploadId, int partNumber, byte[] content, int offset, int length) {
+        RuntimeException last = null;
+        for (int attempt = 1; attempt <= PART_ATTEMPTS; attempt++) {
+            try {
+                UploadPartRequest request = new UploadPartRequest();
+                request.setBucketName(bucketName);
+                request.setKey(key);
+                request.setUploadId(uploadId);
+                request.setPartNumber(partNumber);
+                request.setInputStream(new ByteArrayInputStream(content, offset, length));
+                request.setPartSize(length);
+                return ossClient.uploadPart(request).getPartETag();
+            } catch (RuntimeException e) {
+                last = e;
+                log.warn("分片上传失败: key={}, part={}, attempt={}", key, partNumber, attempt, e);
+            }
+        }
+        throw last;
+    }
+
+    @Override
+    public void delete(String key) {
+        ossClient.deleteObject(bucketName, key);
+    }
+}
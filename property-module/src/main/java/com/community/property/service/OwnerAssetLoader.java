@@ -0,0 +1,126 @@
+package com.community.property.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.property.domain.entity.House;
+import com.community.property.domain.entity.HouseOwner;
+import com.community.property.domain.entity.MeterInfo;
+import com.community.property.mapper.HouseMapper;
+import com.community.property.mapper.HouseOwnerMapper;
+import com.community.property.mapper.MeterInfoMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 业主资产批量加载服务
+ * 一次性用 IN 查询加载一页业主的房屋关联、房屋、仪表数据并在内存中拼装，
+ * 无论页大小如何，最多只执行 3 条查询，避免逐业主查询的 N+1 问题
+ */
+@Service
+public class OwnerAssetLoader {
+
+    @Autowired
+    private HouseOwnerMapper houseOwnerMapper;
+
+    @Autowired
+    private HouseMapper houseMapper;
+
+    @Autowired
+    private MeterInfoMapper meterInfoMapper;
+
+    /**
+     * 批量加载业主资产
+     * @param ownerIds 业主ID集合
+     * @param onlyActive 是否只加载状态为“正常”的房屋关联
+     * @param withMeters 是否加载仪表
+     * @return 按业主、房屋分组的资产数据
+     */
+    public OwnerAssets load(Collection<Long> ownerIds, boolean onlyActive, boolean withMeters) {
+        OwnerAssets assets = new OwnerAssets();
+        if (ownerIds == null || ownerIds.isEmpty()) {
+            return assets;
+        }
+
+        // 1. 房屋关联
+        QueryWrapper<HouseOwner> houseOwnerQuery = new QueryWrapper<>();
+        houseOwnerQuery.in("owner_id", ownerIds);
+        if (onlyActive) {
+            houseOwnerQuery.eq("status", "正常");
+        }
+        houseOwnerQuery.orderByAsc("id");
+        List<HouseOwner> houseOwners = houseOwnerMapper.selectList(houseOwnerQuery);
+
+        Set<Long> houseIds = new LinkedHashSet<>();
+        for (HouseOwner houseOwner : houseOwners) {
+            assets.houseOwnersByOwner.computeIfAbsent(houseOwner.getOwnerId(), k -> new ArrayList<>()).add(houseOwner);
+            if (houseOwner.getHouseId() != null) {
+                houseIds.add(houseOwner.getHouseId());
+            }
+        }
+        if (houseIds.isEmpty()) {
+            return assets;
+        }
+
+        // 2. 房屋
+        for (House house : houseMapper.selectBatchIds(houseIds)) {
+            assets.housesById.put(house.getId(), house);
+        }
+
+        // 3. 仪表
+        if (withMeters) {
+            List<MeterInfo> meters = meterInfoMapper.selectList(
+                    new QueryWrapper<MeterInfo>().in("house_id", houseIds).orderByAsc("id"));
+            for (MeterInfo meter : meters) {
+                assets.metersByHouse.computeIfAbsent(meter.getHouseId(), k -> new ArrayList<>()).add(meter);
+            }
+        }
+        return assets;
+    }
+
+    /**
+     * 批量加载结果
+     */
+    public static class OwnerAssets {
+
+        private final Map<Long, List<HouseOwner>> houseOwnersByOwner = new HashMap<>();
+        private final Map<Long, House> housesById = new LinkedHashMap<>();
+        private final Map<Long, List<MeterInfo>> metersByHouse = new HashMap<>();
+
+        /**
+         * 业主的房屋关联记录
+         */
+        public List<HouseOwner> getHouseOwners(Long ownerId) {
+            return houseOwnersByOwner.getOrDefault(ownerId, Collections.emptyList());
+        }
+
+        /**
+         * 房屋信息，不存在时返回 null
+         */
+        public House getHouse(Long houseId) {
+            return houseId == null ? null : housesById.get(houseId);
+        }
+
+        /**
+         * 业主名下所有房屋的仪表，按房屋关联顺序排列
+         */
+        public List<MeterInfo> getOwnerMeters(Long ownerId) {
+            List<MeterInfo> result = new ArrayList<>();
+            Set<Long> seen = new LinkedHashSet<>();
+            for (HouseOwner houseOwner : getHouseOwners(ownerId)) {
+                if (houseOwner.getHouseId() != null && seen.add(houseOwner.getHouseId())) {
+                    result.addAll(metersByHouse.getOrDefault(houseOwner.getHouseId(), Collections.emptyList()));
+                }
+            }
+            return result;
+        }
+    }
+}
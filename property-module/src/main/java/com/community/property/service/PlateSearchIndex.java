@@ -0,0 +1,162 @@
+package com.community.property.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.property.domain.entity.Vehicle;
+import com.community.property.mapper.VehicleMapper;
+import com.community.property.utils.PlateIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 车辆车牌/品牌检索索引
+ * 车辆列表按关键词搜索时先在内存索引中找出车牌或品牌包含关键词的车辆ID，再按ID查询，
+ * 代替 plate_number/brand 上的 LIKE '%kw%' 全表扫描。
+ * 启动后在后台全量构建，之后随车辆的数据变更消息（含本模块）逐条刷新；索引就绪前检索返回 null，调用方回退到数据库检索
+ */
+@Slf4j
+@Service
+public class PlateSearchIndex {
+
+    @Autowired
+    private VehicleMapper vehicleMapper;
+
+    /**
+     * 全量重建时构建新索引后整体替换，检索不会看到构建到一半的索引
+     */
+    private volatile PlateIndex plates = new PlateIndex();
+    private volatile PlateIndex brands = new PlateIndex();
+
+    private volatile boolean ready;
+
+    /**
+     * 索引更新在单线程中串行执行，避免阻塞Redis监听线程
+     */
+    private final ExecutorService indexExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "plate-index");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 应用启动完成后在后台全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        indexExecutor.execute(this::rebuild);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexExecutor.shutdownNow();
+    }
+
+    /**
+     * 全量重建索引
+     */
+    public void rebuild() {
+        try {
+            List<Vehicle> vehicles = vehicleMapper.selectList(
+                    new QueryWrapper<Vehicle>().select("id", "plate_number", "brand"));
+            PlateIndex newPlates = new PlateIndex();
+            PlateIndex newBrands = new PlateIndex();
+            for (Vehicle vehicle : vehicles) {
+                newPlates.put(vehicle.getId(), vehicle.getPlateNumber());
+                newBrands.put(vehicle.getId(), vehicle.getBrand());
+            }
+            plates = newPlates;
+            brands = newBrands;
+            ready = true;
+            log.info("车牌检索索引构建完成: vehicles={}", plates.size());
+        } catch (Exception e) {
+            log.error("车牌检索索引构建失败", e);
+        }
+    }
+
+    /**
+     * 数据变更消息：车辆新增、修改、删除时刷新对应车辆，无实体ID的批量变更全量重建
+     */
+    public void onDataChange(String entityType, Object entityId) {
+        if (!"Vehicle".equals(entityType)) {
+            return;
+        }
+        if (entityId == null) {
+            indexExecutor.execute(this::rebuild);
+            return;
+        }
+        Long vehicleId;
+        try {
+            vehicleId = Long.valueOf(String.valueOf(entityId));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        indexExecutor.execute(() -> {
+            try {
+                Vehicle vehicle = vehicleMapper.selectById(vehicleId);
+                if (vehicle == null) {
+                    plates.remove(vehicleId);
+                    brands.remove(vehicleId);
+                } else {
+                    plates.put(vehicleId, vehicle.getPlateNumber());
+                    brands.put(vehicleId, vehicle.getBrand());
+                }
+            } catch (Exception e) {
+                log.error("刷新车牌检索索引失败: vehicleId={}", vehicleId, e);
+            }
+        });
+    }
+
+    /**
+     * 查找车牌或品牌包含关键词的车辆
+     * @param keyword 关键词（车牌片段或品牌）
+     * @param limit 最多返回数量
+     * @return 车辆ID，车牌匹配的在前；索引尚未就绪时返回 null
+     */
+    public List<Long> searchVehicles(String keyword, int limit) {
+        if (!ready) {
+            return null;
+        }
+        Set<Long> ids = new LinkedHashSet<>(plates.search(keyword, limit));
+        if (ids.size() < limit) {
+            for (Long id : brands.search(keyword, limit)) {
+                ids.add(id);
+                if (ids.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * 车牌联想：返回以输入开头（其次为包含输入）的车牌号，去重
+     * @return 车牌号；索引尚未就绪时返回 null
+     */
+    public List<String> suggestPlates(String prefix, int limit) {
+        if (!ready) {
+            return null;
+        }
+        PlateIndex index = plates;
+        Set<String> result = new LinkedHashSet<>();
+        for (Long id : index.search(prefix, limit * 4)) {
+            String plate = index.plateOf(id);
+            if (plate != null) {
+                result.add(plate);
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+}
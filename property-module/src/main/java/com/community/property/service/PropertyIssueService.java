@@ -66,6 +66,11 @@ public interface PropertyIssueService {
      */
     Map<String, Object> getIssueStatistics();
 
+    /**
+     * 获取指定社区的问题统计数据
+     */
+    Map<String, Object> getIssueStatisticsForCommunity(Long communityId);
+
     /**
      * 查询分配给指定物业人员的问题
      */
@@ -83,8 +83,10 @@ public interface PropertyService {
 
     /**
      * 查询抄表记录
+     * 页码分页按抄表日期倒序；传入 cursor（首页传空字符串）时使用游标分页，按录入时间（created_at, id）倒序，
+     * 补录的历史读数会排在前面，与页码分页顺序不同；withTotal 为 true 时才统计总数
      */
-    Map<String, Object> listMeterReadings(Long meterId, Integer page, Integer size);
+    Map<String, Object> listMeterReadings(Long meterId, Integer page, Integer size, String cursor, Boolean withTotal);
 
     /**
      * 编辑仪表配置
@@ -123,8 +125,10 @@ public interface PropertyService {
 
     /**
      * 查询所有车辆列表
+     * 传入 cursor（首页传空字符串）时使用游标分页，按创建时间（created_at, id）倒序，与页码分页顺序一致；
+     * withTotal 为 true 时才统计总数
      */
-    Map<String, Object> listAllVehicles(Integer page, Integer size, String keyword);
+    Map<String, Object> listAllVehicles(Integer page, Integer size, String keyword, String cursor, Boolean withTotal);
 
     /**
      * 新增停车场（支持完整字段）
@@ -158,8 +162,10 @@ public interface PropertyService {
 
     /**
      * 查询所有车位列表（支持状态筛选）
+     * 页码分页按车位号升序；传入 cursor（首页传空字符串）时使用游标分页，按创建时间（created_at, id）倒序，
+     * 与页码分页顺序不同；withTotal 为 true 时才统计总数
      */
-    Map<String, Object> listAllParkingSpaces(Integer page, Integer size, String status);
+    Map<String, Object> listAllParkingSpaces(Integer page, Integer size, String status, String cursor, Boolean withTotal);
 
     // ==================== 为业主关联房屋 ====================
     
@@ -175,8 +181,10 @@ public interface PropertyService {
 
     /**
      * 查询所有房屋列表
+     * 传入 cursor（首页传空字符串）时使用游标分页，按创建时间（created_at, id）倒序，与页码分页顺序一致；
+     * withTotal 为 true 时才统计总数
      */
-    Map<String, Object> listAllHouses(Integer page, Integer size, String keyword);
+    Map<String, Object> listAllHouses(Integer page, Integer size, String keyword, String cursor, Boolean withTotal);
 
     /**
      * 更新房屋信息
@@ -207,8 +215,10 @@ public interface PropertyService {
 
     /**
      * 查询所有公告
+     * 页码分页按发布时间倒序；传入 cursor（首页传空字符串）时使用游标分页，按创建时间（created_at, id）倒序，
+     * 先建后发布的公告会排在后面，与页码分页顺序不同；withTotal 为 true 时才统计总数
      */
-    Map<String, Object> listNotices(Long communityId, Integer page, Integer size);
+    Map<String, Object> listNotices(Long communityId, Integer page, Integer size, String cursor, Boolean withTotal);
 
     /**
      * 获取公告详情
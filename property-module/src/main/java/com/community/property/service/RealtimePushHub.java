@@ -0,0 +1,407 @@
+package com.community.property.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSE 实时推送中心
+ * 每个连接有独立的有界发送队列，由少量发送线程异步发送，广播只做入队、不阻塞调用线程；
+ * 队列满的慢连接直接断开，客户端重连时携带 Last-Event-ID 从最近事件的环形缓冲区中补发；
+ * 定时发送心跳注释，及时发现已断开的连接。
+ * 事件编号为 “实例纪元-序号”，序号只在本实例内递增，其他副本或重启前发出的编号不做补发，直接通知客户端全量刷新。
+ * 事件带有 模块/实体类型/目标用户 路由信息，只投递给订阅条件匹配的本地连接；
+ * 各节点的 Redis 监听器把消息转发到本地推送中心，实现多副本部署下的跨节点推送
+ */
+@Slf4j
+@Service
+public class RealtimePushHub {
+
+    /**
+     * 心跳事件（不编号、不进入补发缓冲区）
+     */
+    private static final PushEvent HEARTBEAT = new PushEvent(0, null, null, null, null, null);
+
+    @Value("${realtime.sse.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${realtime.sse.replay-size:512}")
+    private int replaySize;
+
+    @Value("${realtime.sse.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${realtime.sse.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${realtime.sse.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 连接标识(clientType:userId) -> 该标识下的所有连接
+     */
+    private final Map<String, Set<Connection>> connections = new ConcurrentHashMap<>();
+
+    /**
+     * 最近事件的环形缓冲区，事件编号、写入和分发都在 ringLock 内完成，保证各连接收到的顺序一致
+     */
+    private final Object ringLock = new Object();
+    private PushEvent[] ring;
+    private long lastEventId;
+
+    /**
+     * 本实例的编号纪元（启动时间+随机数），区分不同副本和重启前后的事件编号
+     */
+    private String epoch;
+
+    private final AtomicLong slowDisconnects = new AtomicLong();
+
+    private ExecutorService sendExecutor;
+    private ScheduledExecutorService heartbeatScheduler;
+
+    @PostConstruct
+    public void init() {
+        ring = new PushEvent[replaySize];
+        epoch = Long.toString(System.currentTimeMillis(), 36)
+                + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36, 36 * 36 * 36 * 36), 36);
+        AtomicInteger threadIndex = new AtomicInteger();
+        sendExecutor = Executors.newFixedThreadPool(sendThreads, r -> {
+            Thread t = new Thread(r, "sse-push-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeatScheduler.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeatScheduler.shutdownNow();
+        connections.values().forEach(set -> set.forEach(c -> close(c, false)));
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * 建立连接
+     * @param connectionKey 连接标识 (clientType:userId)
+     * @param userId 用户ID，用于匹配定向推送的事件
+     * @param modules 订阅的来源模块，逗号分隔，为空表示全部
+     * @param entityTypes 订阅的实体类型，逗号分隔，为空表示全部
+     * @param lastEventId 客户端最后收到的事件编号，用于断线重连后补发
+     * @return SseEmitter
+     */
+    public SseEmitter subscribe(String connectionKey, String userId, String modules, String entityTypes,
+                                String lastEventId) {
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Connection connection = new Connection(connectionKey, emitter, queueCapacity,
+                userId, splitToSet(modules), splitToSet(entityTypes));
+
+        emitter.onCompletion(() -> close(connection, false));
+        emitter.onTimeout(() -> close(connection, false));
+        emitter.onError(ex -> close(connection, false));
+
+        // 发送连接成功消息
+        offer(connection, new PushEvent(0, "connected", "Connection established successfully", null, null, null));
+
+        synchronized (ringLock) {
+            replay(connection, lastEventId);
+            connections.computeIfAbsent(connectionKey, k -> ConcurrentHashMap.newKeySet()).add(connection);
+        }
+        return emitter;
+    }
+
+    /**
+     * 向所有连接广播事件
+     * @param eventName 事件名称
+     * @param data 事件数据，序列化一次后发给所有连接
+     */
+    public void broadcast(String eventName, Object data) {
+        publish(eventName, data, null, null, null);
+    }
+
+    /**
+     * 按路由信息发布事件，只投递给订阅条件匹配的连接
+     * @param eventName 事件名称
+     * @param data 事件数据
+     * @param module 来源模块，为空时不按模块过滤
+     * @param entityType 实体类型，为空时不按实体类型过滤
+     * @param targetUserId 目标用户ID，为空表示所有用户
+     */
+    public void publish(String eventName, Object data, String module, String entityType, String targetUserId) {
+        String payload = serialize(data);
+        synchronized (ringLock) {
+            PushEvent event = new PushEvent(++lastEventId, eventName, payload, module, entityType, targetUserId);
+            ring[(int) (event.id % ring.length)] = event;
+            for (Set<Connection> set : connections.values()) {
+                for (Connection connection : set) {
+                    if (connection.accepts(event)) {
+                        offer(connection, event);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 向指定标识的连接发送事件（不进入补发缓冲区）
+     * @param connectionKey 连接标识 (clientType:userId)
+     */
+    public void sendTo(String connectionKey, String eventName, Object data) {
+        Set<Connection> set = connections.get(connectionKey);
+        if (set == null || set.isEmpty()) {
+            return;
+        }
+        PushEvent event = new PushEvent(0, eventName, serialize(data), null, null, null);
+        for (Connection connection : set) {
+            offer(connection, event);
+        }
+    }
+
+    /**
+     * 连接统计
+     */
+    public Map<String, Object> stats() {
+        Map<String, Integer> byType = new LinkedHashMap<>();
+        int total = 0;
+        for (Map.Entry<String, Set<Connection>> entry : connections.entrySet()) {
+            int size = entry.getValue().size();
+            if (size > 0) {
+                byType.put(entry.getKey(), size);
+                total += size;
+            }
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalConnections", total);
+        stats.put("connectionsByType", byType);
+        stats.put("slowDisconnects", slowDisconnects.get());
+        synchronized (ringLock) {
+            stats.put("lastEventId", eventId(lastEventId));
+        }
+        return stats;
+    }
+
+    /**
+     * 补发客户端断线期间的事件；已超出缓冲区范围时通知客户端全量刷新
+     */
+    private void replay(Connection connection, String lastEventIdHeader) {
+        if (lastEventIdHeader == null || lastEventIdHeader.isEmpty()) {
+            return;
+        }
+        long from = parseSequence(lastEventIdHeader.trim());
+        long oldest = Math.max(1, lastEventId - ring.length + 1);
+        if (from < 0 || from + 1 < oldest || from > lastEventId || lastEventId - from >= queueCapacity - 1) {
+            // 编号来自其他副本或重启前的实例、缓冲区已覆盖，或积压超过发送队列容量
+            offer(connection, new PushEvent(0, "resync", "{}", null, null, null));
+            return;
+        }
+        for (long id = from + 1; id <= lastEventId; id++) {
+            PushEvent event = ring[(int) (id % ring.length)];
+            if (event != null && event.id == id && connection.accepts(event)) {
+                offer(connection, event);
+            }
+        }
+    }
+
+    /**
+     * 解析本实例发出的事件编号中的序号，纪元不匹配或格式错误时返回 -1
+     */
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator <= 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private void heartbeat() {
+        for (Set<Connection> set : connections.values()) {
+            for (Connection connection : set) {
+                offer(connection, HEARTBEAT);
+            }
+        }
+    }
+
+    /**
+     * 事件入队，队列已满说明客户端消费过慢，直接断开由其重连补发
+     */
+    private void offer(Connection connection, PushEvent event) {
+        if (connection.closed) {
+            return;
+        }
+        if (!connection.queue.offer(event)) {
+            slowDisconnects.incrementAndGet();
+            log.warn("SSE connection too slow, disconnecting: {}", connection.key);
+            close(connection, true);
+            return;
+        }
+        if (connection.draining.compareAndSet(false, true)) {
+            sendExecutor.execute(() -> drain(connection));
+        }
+    }
+
+    /**
+     * 串行发送单个连接队列中的事件
+     */
+    private void drain(Connection connection) {
+        try {
+            PushEvent event;
+            while (!connection.closed && (event = connection.queue.poll()) != null) {
+                connection.emitter.send(toSse(event));
+            }
+        } catch (Exception e) {
+            log.debug("Failed to send SSE message to connection: {}", connection.key);
+            close(connection, true);
+        } finally {
+            connection.draining.set(false);
+        }
+        // 释放标记后可能有新事件入队
+        if (!connection.closed && !connection.queue.isEmpty() && connection.draining.compareAndSet(false, true)) {
+            sendExecutor.execute(() -> drain(connection));
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(PushEvent event) {
+        if (event == HEARTBEAT) {
+            return SseEmitter.event().comment("heartbeat");
+        }
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.name).data(event.data);
+        if (event.id > 0) {
+            builder.id(eventId(event.id));
+        }
+        return builder;
+    }
+
+    private void close(Connection connection, boolean complete) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        connection.queue.clear();
+        Set<Connection> set = connections.get(connection.key);
+        if (set != null) {
+            set.remove(connection);
+            if (set.isEmpty()) {
+                connections.remove(connection.key, set);
+            }
+        }
+        if (complete) {
+            try {
+                connection.emitter.complete();
+            } catch (Exception e) {
+                // 连接已失效
+            }
+        }
+    }
+
+    private Set<String> splitToSet(String value) {
+        Set<String> result = new HashSet<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    result.add(item.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    private String serialize(Object data) {
+        if (data instanceof String) {
+            return (String) data;
+        }
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (Exception e) {
+            log.warn("Failed to serialize SSE event data", e);
+            return String.valueOf(data);
+        }
+    }
+
+    private static class Connection {
+        private final String key;
+        private final SseEmitter emitter;
+        private final BlockingQueue<PushEvent> queue;
+        private final String userId;
+        private final Set<String> modules;
+        private final Set<String> entityTypes;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Connection(String key, SseEmitter emitter, int capacity,
+                           String userId, Set<String> modules, Set<String> entityTypes) {
+            this.key = key;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.userId = userId;
+            this.modules = modules;
+            this.entityTypes = entityTypes;
+        }
+
+        /**
+         * 订阅条件匹配：模块、实体类型未指定或包含事件的值，定向事件只投递给目标用户
+         */
+        private boolean accepts(PushEvent event) {
+            if (event.module != null && !modules.isEmpty() && !modules.contains(event.module)) {
+                return false;
+            }
+            if (event.entityType != null && !entityTypes.isEmpty() && !entityTypes.contains(event.entityType)) {
+                return false;
+            }
+            return event.targetUserId == null || event.targetUserId.equals(userId);
+        }
+    }
+
+    private static class PushEvent {
+        private final long id;
+        private final String name;
+        private final String data;
+        private final String module;
+        private final String entityType;
+        private final String targetUserId;
+
+        private PushEvent(long id, String name, String data, String module, String entityType, String targetUserId) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+            this.module = module;
+            this.entityType = entityType;
+            this.targetUserId = targetUserId;
+        }
+    }
+}
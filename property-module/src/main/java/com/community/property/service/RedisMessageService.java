@@ -38,11 +38,21 @@ public class RedisMessageService {
      * @param data 变更的数据
      */
     public void publishDataChange(String module, String action, String entityType, Object entityId, Object data) {
+        publishDataChange(module, action, entityType, entityType, entityId, data);
+    }
+
+    /**
+     * 发布数据变更消息，实体类型和实体确切类名不同时使用（数据同步切面按Service类名推断 entityType）
+     * @param entityClass 实体的确切类名 (如: MeterInfo, ParkingLot)
+     */
+    public void publishDataChange(String module, String action, String entityType, String entityClass,
+                                  Object entityId, Object data) {
         try {
             Map<String, Object> message = new HashMap<>();
             message.put("module", module);
             message.put("action", action);
             message.put("entityType", entityType);
+            message.put("entityClass", entityClass);
             message.put("entityId", entityId);
             message.put("data", data);
             message.put("timestamp", System.currentTimeMillis());
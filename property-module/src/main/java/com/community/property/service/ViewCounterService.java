@@ -0,0 +1,149 @@
+package com.community.property.service;
+
+import com.community.property.mapper.CommunityNoticeMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 阅读次数计数器（写后合并）
+ * 公告阅读次数先累加在内存中（每个ID一个 LongAdder），后台线程定期把增量合并成一条批量 UPDATE 写入数据库，
+ * 避免热门公告每次阅读都更新同一行造成的行锁竞争；读取时返回 数据库值 + 未写入的增量。
+ * 写入失败的增量会加回计数器，下个周期重试；应用关闭时写完剩余增量
+ */
+@Slf4j
+@Service
+public class ViewCounterService {
+
+    @Value("${view-counter.flush-interval-ms:5000}")
+    private long flushIntervalMs;
+
+    @Value("${view-counter.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private CommunityNoticeMapper communityNoticeMapper;
+
+    private final Counter noticeReads = new Counter("公告阅读次数");
+
+    private ScheduledExecutorService flushScheduler;
+
+    @PostConstruct
+    public void init() {
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "view-counter-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdown();
+        try {
+            flushScheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * 记录一次公告阅读
+     */
+    public void recordNoticeRead(Long noticeId) {
+        noticeReads.increment(noticeId);
+    }
+
+    /**
+     * 公告阅读次数：数据库值 + 未写入的增量
+     * @param noticeId 公告ID
+     * @param persisted 数据库中的阅读次数
+     */
+    public Integer noticeReadCount(Long noticeId, Integer persisted) {
+        return noticeReads.merge(noticeId, persisted);
+    }
+
+    /**
+     * 把所有计数器的增量写入数据库
+     */
+    public synchronized void flush() {
+        noticeReads.flush(communityNoticeMapper::addReadCounts);
+    }
+
+    /**
+     * 一类计数：ID -> 未写入的增量
+     * 写入时先把计数项移出再求和；累加在 compute 内完成，与移出同一个键互斥，
+     * 已移出的计数项不会再被累加，增量不会在求和与清零之间丢失
+     */
+    private class Counter {
+        private final String name;
+        private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        private void increment(Long id) {
+            if (id != null) {
+                pending.compute(id, (k, adder) -> {
+                    LongAdder target = adder != null ? adder : new LongAdder();
+                    target.increment();
+                    return target;
+                });
+            }
+        }
+
+        private Integer merge(Long id, Integer persisted) {
+            LongAdder adder = id != null ? pending.get(id) : null;
+            long base = persisted == null ? 0 : persisted;
+            return (int) (adder == null ? base : base + adder.sum());
+        }
+
+        private void flush(Consumer<Map<Long, Long>> writer) {
+            Map<Long, Long> batch = new HashMap<>();
+            for (Long id : pending.keySet()) {
+                LongAdder adder = pending.remove(id);
+                long delta = adder != null ? adder.sum() : 0;
+                if (delta != 0) {
+                    batch.put(id, delta);
+                }
+                if (batch.size() >= batchSize) {
+                    write(writer, batch);
+                    batch = new HashMap<>();
+                }
+            }
+            write(writer, batch);
+        }
+
+        private void write(Consumer<Map<Long, Long>> writer, Map<Long, Long> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                writer.accept(batch);
+            } catch (Exception e) {
+                // 写入失败时把增量加回计数器，下个周期重试
+                batch.forEach((id, delta) -> pending.compute(id, (k, adder) -> {
+                    LongAdder target = adder != null ? adder : new LongAdder();
+                    target.add(delta);
+                    return target;
+                }));
+                log.warn("写入{}失败，稍后重试: size={}", name, batch.size(), e);
+            }
+        }
+    }
+}
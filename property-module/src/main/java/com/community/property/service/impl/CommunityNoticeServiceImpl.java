@@ -1,9 +1,11 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.mapper.CommunityNoticeMapper;
 import com.community.property.domain.entity.CommunityNotice;
 import com.community.property.service.CommunityNoticeService;
 import com.community.property.service.ImageService;
+import com.community.property.service.ViewCounterService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +19,7 @@ import java.util.*;
  * 社区公告服务实现类
  */
 @Service
+@SyncEntity(CommunityNotice.class)
 public class CommunityNoticeServiceImpl implements CommunityNoticeService {
     
     @Autowired
@@ -25,6 +28,9 @@ public class CommunityNoticeServiceImpl implements CommunityNoticeService {
     @Autowired
     private ImageService imageService;
 
+    @Autowired
+    private ViewCounterService viewCounterService;
+
     private static final ObjectMapper objectMapper = new ObjectMapper();
     
     @Override
@@ -45,7 +51,7 @@ public class CommunityNoticeServiceImpl implements CommunityNoticeService {
             noticeMap.put("publishTime", notice.getPublishTime());
             noticeMap.put("isTop", notice.getIsTop());
             noticeMap.put("isUrgent", notice.getIsUrgent());
-            noticeMap.put("readCount", notice.getReadCount());
+            noticeMap.put("readCount", viewCounterService.noticeReadCount(notice.getId(), notice.getReadCount()));
             noticeList.add(noticeMap);
         }
         
@@ -71,8 +77,8 @@ public class CommunityNoticeServiceImpl implements CommunityNoticeService {
             return null;
         }
         
-        // 增加阅读次数
-        communityNoticeMapper.incrementReadCount(noticeId);
+        // 增加阅读次数（内存累加，定期批量写入数据库）
+        viewCounterService.recordNoticeRead(noticeId);
         
         // 构建详情数据
         Map<String, Object> detail = new HashMap<>();
@@ -85,7 +91,7 @@ public class CommunityNoticeServiceImpl implements CommunityNoticeService {
         detail.put("endTime", notice.getEndTime());
         detail.put("isTop", notice.getIsTop());
         detail.put("isUrgent", notice.getIsUrgent());
-        detail.put("readCount", notice.getReadCount());
+        detail.put("readCount", viewCounterService.noticeReadCount(noticeId, notice.getReadCount()));
         detail.put("attachments", notice.getAttachments());
         
         // 处理公告图片 - 数据库存储的是完整URL，直接返回
@@ -266,7 +272,7 @@ public class CommunityNoticeServiceImpl implements CommunityNoticeService {
 
     @Override
     public void incrementReadCount(Long noticeId) {
-        communityNoticeMapper.incrementReadCount(noticeId);
+        viewCounterService.recordNoticeRead(noticeId);
     }
 
     @Override
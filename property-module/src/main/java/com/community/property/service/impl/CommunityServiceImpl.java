@@ -1,5 +1,6 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.domain.entity.CommunityInfo;
 import com.community.property.mapper.CommunityInfoMapper;
 import com.community.property.service.CommunityService;
@@ -20,6 +21,7 @@ import java.util.Map;
  * 社区信息服务实现类
  */
 @Service
+@SyncEntity(CommunityInfo.class)
 public class CommunityServiceImpl implements CommunityService {
 
     @Autowired
@@ -1,5 +1,6 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.mapper.DepartmentMapper;
 import com.community.property.mapper.OwnerIssueMapper;
 import com.community.property.domain.entity.Department;
@@ -14,6 +15,7 @@ import java.util.Map;
  * 部门服务实现类
  */
 @Service
+@SyncEntity(Department.class)
 public class DepartmentServiceImpl implements DepartmentService {
     
     @Autowired
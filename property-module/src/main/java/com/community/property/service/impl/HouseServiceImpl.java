@@ -1,5 +1,6 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.domain.entity.House;
 import com.community.property.mapper.HouseMapper;
 import com.community.property.service.HouseService;
@@ -17,6 +18,7 @@ import java.util.Map;
  * 房屋服务实现类
  */
 @Service
+@SyncEntity(House.class)
 public class HouseServiceImpl implements HouseService {
 
     @Autowired
@@ -1,9 +1,12 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.domain.entity.MeterReading;
+import com.community.property.mapper.MeterInfoMapper;
 import com.community.property.mapper.MeterReadingMapper;
 import com.community.property.service.MeterReadingService;
 import com.community.property.service.ImageService;
+import com.community.property.service.MeterTimeSeriesService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +22,7 @@ import java.util.Map;
  * 抄表记录服务实现类
  */
 @Service
+@SyncEntity(MeterReading.class)
 public class MeterReadingServiceImpl implements MeterReadingService {
 
     @Autowired
@@ -27,6 +31,12 @@ public class MeterReadingServiceImpl implements MeterReadingService {
     @Autowired
     private ImageService imageService;
 
+    @Autowired
+    private MeterInfoMapper meterInfoMapper;
+
+    @Autowired
+    private MeterTimeSeriesService meterTimeSeriesService;
+
     @Override
     @Transactional
     public Map<String, Object> addMeterReadingWithImage(Long meterId, Double currentReading, Double usageAmount,
@@ -53,11 +63,13 @@ public class MeterReadingServiceImpl implements MeterReadingService {
         meterReading.setReadingTime(LocalDateTime.now());
         meterReading.setReadingType("手动");
         meterReading.setReadingStatus("正常");
+        MeterTimeSeriesService.assignScope(meterReading, meterInfoMapper.selectById(meterId));
 
         // 保存到数据库
         int result = meterReadingMapper.insert(meterReading);
 
         if (result > 0) {
+            meterTimeSeriesService.record(meterReading);
             response.put("success", true);
             response.put("message", "抄表记录添加成功");
             response.put("data", meterReading);
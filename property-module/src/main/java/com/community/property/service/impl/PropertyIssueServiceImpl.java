@@ -2,6 +2,7 @@ package com.community.property.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.community.property.config.SyncEntity;
 import com.community.property.domain.entity.IssueFollowUp;
 import com.community.property.domain.entity.Owner;
 import com.community.property.domain.entity.OwnerIssue;
@@ -12,6 +13,7 @@ import com.community.property.mapper.OwnerMapper;
 import com.community.property.mapper.StaffMapper;
 import com.community.property.domain.dto.vo.IssueDetailVO;
 import com.community.property.domain.dto.request.IssueFollowUpRequest;
+import com.community.property.service.IssueStatisticsService;
 import com.community.property.service.PropertyIssueService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +28,7 @@ import java.util.stream.Collectors;
  * 物业问题处理服务实现
  */
 @Service
+@SyncEntity(OwnerIssue.class)
 public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, OwnerIssue> implements PropertyIssueService {
 
     @Autowired
@@ -37,6 +40,9 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
     @Autowired
     private StaffMapper staffMapper;
 
+    @Autowired
+    private IssueStatisticsService issueStatisticsService;
+
     @Override
     public Map<String, Object> listAllIssues(Integer page, Integer size, String status) {
         if (page == null || page < 1) page = 1;
@@ -163,12 +169,14 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
                 return response;
             }
 
+            IssueStatisticsService.IssueKey before = IssueStatisticsService.keyOf(issue);
             // 更新问题分配信息
             issue.setAssignedStaffId(staffId);
             issue.setAssignedTime(LocalDateTime.now());
             issue.setAssignedRemark(remark);
             issue.setWorkStatus("已分配");
             updateById(issue);
+            issueStatisticsService.onIssueChanged(before, issue);
 
             // 创建跟进记录
             IssueFollowUp followUp = new IssueFollowUp();
@@ -212,6 +220,7 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
                 return response;
             }
 
+            IssueStatisticsService.IssueKey before = IssueStatisticsService.keyOf(issue);
             // 更新问题状态为处理中
             issue.setProcessorStaffId(staffId);
             issue.setIssueStatus("处理中");
@@ -220,6 +229,7 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
             issue.setProcessPlan(planDescription);
             issue.setResponseTime(LocalDateTime.now());
             updateById(issue);
+            issueStatisticsService.onIssueChanged(before, issue);
 
             // 创建跟进记录
             IssueFollowUp followUp = new IssueFollowUp();
@@ -443,9 +453,11 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
                 return response;
             }
 
+            IssueStatisticsService.IssueKey before = IssueStatisticsService.keyOf(issue);
             // 标记为已解决，等待管理员确认
             issue.setWorkStatus("已完成");
             updateById(issue);
+            issueStatisticsService.onIssueChanged(before, issue);
 
             response.put("success", true);
             response.put("message", "问题已标记为已解决");
@@ -478,11 +490,13 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
                 return response;
             }
 
+            IssueStatisticsService.IssueKey before = IssueStatisticsService.keyOf(issue);
             // 更新分配
             issue.setAssignedStaffId(newStaffId);
             issue.setAssignedTime(LocalDateTime.now());
             issue.setAssignedRemark(remark);
             updateById(issue);
+            issueStatisticsService.onIssueChanged(before, issue);
 
             // 创建跟进记录
             IssueFollowUp followUp = new IssueFollowUp();
@@ -510,33 +524,22 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
     public Map<String, Object> getIssueStatistics() {
         Map<String, Object> response = new HashMap<>();
         try {
-            // 查询所有已分配的问题总数
-            long totalIssues = count(new QueryWrapper<OwnerIssue>()
-                    .isNotNull("assigned_staff_id"));
-            
-            // 查询待处理的问题数
-            long pendingIssues = count(new QueryWrapper<OwnerIssue>()
-                    .isNotNull("assigned_staff_id")
-                    .eq("issue_status", "待处理"));
-            
-            // 查询处理中的问题数
-            long processingIssues = count(new QueryWrapper<OwnerIssue>()
-                    .isNotNull("assigned_staff_id")
-                    .eq("issue_status", "处理中"));
-            
-            // 查询已完成的问题数
-            long completedIssues = count(new QueryWrapper<OwnerIssue>()
-                    .isNotNull("assigned_staff_id")
-                    .eq("issue_status", "已完成"));
-
-            Map<String, Object> statistics = new LinkedHashMap<>();
-            statistics.put("totalIssues", totalIssues);
-            statistics.put("pendingIssues", pendingIssues);
-            statistics.put("processingIssues", processingIssues);
-            statistics.put("completedIssues", completedIssues);
+            response.put("success", true);
+            response.put("data", issueStatisticsService.global());
+            return response;
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "统计失败: " + e.getMessage());
+            return response;
+        }
+    }
 
+    @Override
+    public Map<String, Object> getIssueStatisticsForCommunity(Long communityId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
             response.put("success", true);
-            response.put("data", statistics);
+            response.put("data", issueStatisticsService.forCommunity(communityId));
             return response;
         } catch (Exception e) {
             response.put("success", false);
@@ -619,32 +622,8 @@ public class PropertyIssueServiceImpl extends ServiceImpl<OwnerIssueMapper, Owne
         Map<String, Object> result = new HashMap<>();
         
         try {
-            // 查询分配给指定物业人员的问题总数
-            long totalIssues = count(new QueryWrapper<OwnerIssue>()
-                    .eq("assigned_staff_id", staffId));
-
-            // 查询待处理的问题数
-            long pendingIssues = count(new QueryWrapper<OwnerIssue>()
-                    .eq("assigned_staff_id", staffId)
-                    .eq("issue_status", "待处理"));
-
-            // 查询处理中的问题数
-            long processingIssues = count(new QueryWrapper<OwnerIssue>()
-                    .eq("assigned_staff_id", staffId)
-                    .eq("issue_status", "处理中"));
-
-            // 查询已完成的问题数
-            long completedIssues = count(new QueryWrapper<OwnerIssue>()
-                    .eq("assigned_staff_id", staffId)
-                    .eq("issue_status", "已完成"));
-
             result.put("success", true);
-            result.put("data", Map.of(
-                "totalIssues", totalIssues,
-                "pendingIssues", pendingIssues,
-                "processingIssues", processingIssues,
-                "completedIssues", completedIssues
-            ));
+            result.put("data", issueStatisticsService.forStaff(Long.valueOf(staffId)));
         } catch (Exception e) {
             result.put("success", false);
             result.put("message", "统计失败: " + e.getMessage());
@@ -1,19 +1,28 @@
 package com.community.property.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.property.config.SyncEntity;
 import com.community.property.domain.entity.*;
 import com.community.property.mapper.*;
 import com.community.property.domain.dto.request.StaffProfileUpdateRequest;
+import com.community.property.service.OwnerAssetLoader;
 import com.community.property.service.PropertyService;
 import com.community.property.service.ImageService;
+import com.community.property.service.ViewCounterService;
+import com.community.property.service.MeterTimeSeriesService;
+import com.community.property.service.PlateSearchIndex;
+import com.community.property.utils.KeysetPageUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -22,6 +31,11 @@ import java.util.stream.Collectors;
 @Service
 public class PropertyServiceImpl implements PropertyService {
 
+    /**
+     * 车辆关键词搜索时按ID查询的最大命中数，超过时回退到 LIKE
+     */
+    private static final int KEYWORD_ID_LIMIT = 1000;
+
     @Autowired
     private StaffMapper staffMapper;
 
@@ -64,6 +78,18 @@ public class PropertyServiceImpl implements PropertyService {
     @Autowired
     private ImageService imageService;
 
+    @Autowired
+    private OwnerAssetLoader ownerAssetLoader;
+
+    @Autowired
+    private ViewCounterService viewCounterService;
+
+    @Autowired
+    private PlateSearchIndex plateSearchIndex;
+
+    @Autowired
+    private MeterTimeSeriesService meterTimeSeriesService;
+
     // ==================== 员工个人信息相关 ====================
 
     @Override
@@ -112,6 +138,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(Staff.class)
     public Map<String, Object> updateStaffProfile(Long staffId, StaffProfileUpdateRequest request) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -297,6 +324,10 @@ public class PropertyServiceImpl implements PropertyService {
             final int finalPage = page;
             final int finalSize = size;
 
+            // 一次性批量加载本页业主的房屋关联、房屋和仪表（固定3条查询）
+            OwnerAssetLoader.OwnerAssets assets = ownerAssetLoader.load(
+                owners.stream().map(Owner::getId).collect(Collectors.toList()), false, true);
+
             // 构建返回数据，包含每个业主的仪表信息
             List<Map<String, Object>> ownersList = owners.stream().map(owner -> {
                 Map<String, Object> ownerMap = new LinkedHashMap<>();
@@ -305,29 +336,22 @@ public class PropertyServiceImpl implements PropertyService {
                 ownerMap.put("houseName", ""); // 默认为空
 
                 // 获取该业主的房屋
-                List<HouseOwner> houseOwners = houseOwnerMapper.selectList(
-                    new QueryWrapper<HouseOwner>().eq("owner_id", owner.getId())
-                );
-                List<Long> houseIds = houseOwners.stream()
-                    .map(HouseOwner::getHouseId)
-                    .collect(Collectors.toList());
+                List<HouseOwner> houseOwners = assets.getHouseOwners(owner.getId());
 
                 // 获取该业主名下的所有仪表（初始化为空列表）
                 List<Map<String, Object>> meters = new ArrayList<>();
                 
-                if (!houseIds.isEmpty()) {
+                if (!houseOwners.isEmpty()) {
                     // 获取第一个房屋的信息用于显示
-                    House house = houseMapper.selectById(houseIds.get(0));
+                    House house = assets.getHouse(houseOwners.get(0).getHouseId());
                     if (house != null) {
                         ownerMap.put("houseName", house.getRoomNo() != null ? house.getRoomNo() : "");
                     }
 
-                    // 查询仪表
-                    List<MeterInfo> meterList = meterInfoMapper.selectList(
-                        new QueryWrapper<MeterInfo>().in("house_id", houseIds)
-                    );
+                    // 仪表
+                    List<MeterInfo> meterList = assets.getOwnerMeters(owner.getId());
                     
-                    if (meterList != null && !meterList.isEmpty()) {
+                    if (!meterList.isEmpty()) {
                         meters = meterList.stream().map(meter -> {
                             Map<String, Object> meterMap = new LinkedHashMap<>();
                             meterMap.put("meterId", meter.getId());
@@ -418,6 +442,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(MeterInfo.class)
     public Map<String, Object> addMeterToOwner(Long communityId, Long houseId, Long meterConfigId, 
             String categoryName, String meterType, String meterCode, String meterSn, String meterName, 
             String installLocation, String installDate, Double initialReading, String commAddress, String remark) {
@@ -459,6 +484,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(MeterConfig.class)
     public Map<String, Object> addMeterConfig(String categoryName, String meterType, String productId, 
             String unit, Double unitPrice, Integer decimalPlaces, String chargeStandard, 
             String calculationMethod, String commProtocol, String remark) {
@@ -497,6 +523,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(MeterReading.class)
     public Map<String, Object> addMeterReading(Long meterId, Double previousReading, Double currentReading, Long staffId, 
             Double usageAmount, String readingDate, String readingTime, String unit, String readingType, String readingStatus, 
             String abnormalReason, String remark, MultipartFile readingImage) {
@@ -565,6 +592,7 @@ public class PropertyServiceImpl implements PropertyService {
             reading.setAbnormalReason(abnormalReason);
             reading.setRemark(remark);
             reading.setUnit(unit);
+            MeterTimeSeriesService.assignScope(reading, meterInfo);
 
             // 处理读数图片
             if (readingImage != null && !readingImage.isEmpty()) {
@@ -575,12 +603,15 @@ public class PropertyServiceImpl implements PropertyService {
             }
 
             meterReadingMapper.insert(reading);
+            meterTimeSeriesService.record(reading);
 
             response.put("success", true);
             response.put("message", "读数添加成功");
             response.put("data", reading);
             return response;
         } catch (Exception e) {
+            // 抄表记录和待对账范围需一起提交
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             response.put("success", false);
             response.put("message", "添加失败: " + e.getMessage());
             return response;
@@ -588,7 +619,7 @@ public class PropertyServiceImpl implements PropertyService {
     }
 
     @Override
-    public Map<String, Object> listMeterReadings(Long meterId, Integer page, Integer size) {
+    public Map<String, Object> listMeterReadings(Long meterId, Integer page, Integer size, String cursor, Boolean withTotal) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (page == null || page < 1) page = 1;
@@ -596,15 +627,10 @@ public class PropertyServiceImpl implements PropertyService {
 
             QueryWrapper<MeterReading> queryWrapper = new QueryWrapper<>();
             queryWrapper.eq("meter_id", meterId);
-            queryWrapper.orderByDesc("reading_date");
-
-            int offset = (page - 1) * size;
-            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
-
-            List<MeterReading> readings = meterReadingMapper.selectList(queryWrapper);
-            long total = meterReadingMapper.selectCount(new QueryWrapper<MeterReading>().eq("meter_id", meterId));
 
-            List<Map<String, Object>> readingList = readings.stream().map(reading -> {
+            // 列表只返回抄表图片的缩略图地址，整页一次查询
+            Map<String, String> thumbnails = new HashMap<>();
+            Function<MeterReading, Map<String, Object>> toItem = reading -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("id", reading.getId());
                 map.put("previousReading", reading.getPreviousReading());
@@ -613,8 +639,35 @@ public class PropertyServiceImpl implements PropertyService {
                 map.put("readingDate", reading.getReadingDate());
                 map.put("readerName", reading.getReaderName());
                 map.put("readingStatus", reading.getReadingStatus());
+                map.put("readingImageThumbnail", thumbnails.get(reading.getReadingImage()));
                 return map;
-            }).collect(Collectors.toList());
+            };
+
+            // 游标分页：按 (created_at, id) 定位，总数按需统计；顺序为录入时间倒序，与页码分页的抄表日期倒序不同
+            if (cursor != null) {
+                Long total = Boolean.TRUE.equals(withTotal)
+                        ? meterReadingMapper.selectCount(new QueryWrapper<MeterReading>().eq("meter_id", meterId)) : null;
+                List<MeterReading> rows = KeysetPageUtil.seek(
+                        () -> new QueryWrapper<MeterReading>().eq("meter_id", meterId),
+                        meterReadingMapper::selectList, cursor, size);
+                thumbnails.putAll(imageService.getThumbnailUrls(
+                        rows.stream().map(MeterReading::getReadingImage).collect(Collectors.toList())));
+                response.put("success", true);
+                response.put("data", KeysetPageUtil.toPageData(rows, size, toItem, total));
+                return response;
+            }
+
+            queryWrapper.orderByDesc("reading_date");
+
+            int offset = (page - 1) * size;
+            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
+
+            List<MeterReading> readings = meterReadingMapper.selectList(queryWrapper);
+            long total = meterReadingMapper.selectCount(new QueryWrapper<MeterReading>().eq("meter_id", meterId));
+            thumbnails.putAll(imageService.getThumbnailUrls(
+                    readings.stream().map(MeterReading::getReadingImage).collect(Collectors.toList())));
+
+            List<Map<String, Object>> readingList = readings.stream().map(toItem).collect(Collectors.toList());
 
             Map<String, Object> pageData = new LinkedHashMap<>();
             pageData.put("page", page);
@@ -635,6 +688,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(MeterConfig.class)
     public Map<String, Object> updateMeterConfig(Long configId, String categoryName, String meterType, String productId,
             String unit, Double unitPrice, Integer decimalPlaces, String chargeStandard,
             String calculationMethod, String commProtocol, String status, String remark) {
@@ -674,6 +728,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(MeterConfig.class)
     public Map<String, Object> deleteMeterConfig(Long configId) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -708,6 +763,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(MeterInfo.class)
     public Map<String, Object> updateMeterInfo(Long meterId, String meterName, String meterSn, String installLocation,
             String installDate, String commAddress, String meterStatus, String remark) {
         Map<String, Object> response = new HashMap<>();
@@ -748,6 +804,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(MeterInfo.class)
     public Map<String, Object> deleteMeterInfo(Long meterId) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -758,7 +815,8 @@ public class PropertyServiceImpl implements PropertyService {
                 return response;
             }
 
-            // 删除相关的抄表记录
+            // 删除相关的抄表记录，该仪表及其房屋、楼栋的用量汇总由对账重新计算
+            meterTimeSeriesService.markDirty(meterId, meter.getHouseId(), meter.getBuildingId(), null, null);
             QueryWrapper<MeterReading> readingWrapper = new QueryWrapper<>();
             readingWrapper.eq("meter_id", meterId);
             meterReadingMapper.delete(readingWrapper);
@@ -770,6 +828,7 @@ public class PropertyServiceImpl implements PropertyService {
             response.put("message", "仪表删除成功");
             return response;
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             response.put("success", false);
             response.put("message", "删除失败: " + e.getMessage());
             return response;
@@ -857,6 +916,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(Vehicle.class)
     public Map<String, Object> addVehicle(Long ownerId, String plateNumber, String brand, String model, String color) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -939,7 +999,7 @@ public class PropertyServiceImpl implements PropertyService {
     }
 
     @Override
-    public Map<String, Object> listAllVehicles(Integer page, Integer size, String keyword) {
+    public Map<String, Object> listAllVehicles(Integer page, Integer size, String keyword, String cursor, Boolean withTotal) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (page == null || page < 1) page = 1;
@@ -947,28 +1007,30 @@ public class PropertyServiceImpl implements PropertyService {
 
             QueryWrapper<Vehicle> queryWrapper = new QueryWrapper<>();
             queryWrapper.eq("status", "正常");
-            
-            // 如果有搜索关键词，按车牌号或品牌搜索
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                queryWrapper.and(q -> q
-                    .like("plate_number", keyword)
-                    .or()
-                    .like("brand", keyword)
-                );
-            }
-            
-            queryWrapper.orderByDesc("created_at");
 
-            int offset = (page - 1) * size;
-            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
-
-            List<Vehicle> vehicles = vehicleMapper.selectList(queryWrapper);
-            long total = vehicleMapper.selectCount(new QueryWrapper<Vehicle>()
-                    .eq("status", "正常")
-                    .and(keyword != null && !keyword.trim().isEmpty(), 
-                        q -> q.like("plate_number", keyword).or().like("brand", keyword)));
+            // 如果有搜索关键词，按车牌号或品牌搜索：先查内存索引得到车辆ID，
+            // 索引未就绪或命中过多（关键词过短）时回退到 LIKE
+            boolean hasKeyword = keyword != null && !keyword.trim().isEmpty();
+            List<Long> keywordIds = hasKeyword
+                    ? plateSearchIndex.searchVehicles(keyword.trim(), KEYWORD_ID_LIMIT + 1) : null;
+            boolean useIndex = keywordIds != null && keywordIds.size() <= KEYWORD_ID_LIMIT;
+            Consumer<QueryWrapper<Vehicle>> keywordFilter = w -> {
+                if (!hasKeyword) {
+                    return;
+                }
+                if (!useIndex) {
+                    w.and(q -> q.like("plate_number", keyword).or().like("brand", keyword));
+                } else if (keywordIds.isEmpty()) {
+                    w.apply("1 = 0");
+                } else {
+                    w.in("id", keywordIds);
+                }
+            };
+            keywordFilter.accept(queryWrapper);
 
-            List<Map<String, Object>> vehicleList = vehicles.stream().map(vehicle -> {
+            // 列表只返回车辆照片（第一张）的缩略图地址，整页一次查询
+            Map<String, String> thumbnails = new HashMap<>();
+            Function<Vehicle, Map<String, Object>> toItem = vehicle -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("id", vehicle.getId());
                 map.put("plateNumber", vehicle.getPlateNumber());
@@ -976,8 +1038,39 @@ public class PropertyServiceImpl implements PropertyService {
                 map.put("model", vehicle.getModel() != null ? vehicle.getModel() : "");
                 map.put("color", vehicle.getColor() != null ? vehicle.getColor() : "");
                 map.put("vehicleType", vehicle.getVehicleType());
+                map.put("vehicleImageThumbnail", thumbnails.get(imageService.firstImage(vehicle.getVehicleImages())));
                 return map;
-            }).collect(Collectors.toList());
+            };
+
+            QueryWrapper<Vehicle> countWrapper = new QueryWrapper<Vehicle>().eq("status", "正常");
+            keywordFilter.accept(countWrapper);
+
+            // 游标分页：按 (created_at, id) 定位，总数按需统计
+            if (cursor != null) {
+                Long total = Boolean.TRUE.equals(withTotal) ? vehicleMapper.selectCount(countWrapper) : null;
+                List<Vehicle> rows = KeysetPageUtil.seek(() -> {
+                    QueryWrapper<Vehicle> filter = new QueryWrapper<Vehicle>().eq("status", "正常");
+                    keywordFilter.accept(filter);
+                    return filter;
+                }, vehicleMapper::selectList, cursor, size);
+                thumbnails.putAll(imageService.getThumbnailUrls(
+                        rows.stream().map(v -> imageService.firstImage(v.getVehicleImages())).collect(Collectors.toList())));
+                response.put("success", true);
+                response.put("data", KeysetPageUtil.toPageData(rows, size, toItem, total));
+                return response;
+            }
+            
+            queryWrapper.orderByDesc("created_at");
+
+            int offset = (page - 1) * size;
+            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
+
+            List<Vehicle> vehicles = vehicleMapper.selectList(queryWrapper);
+            long total = vehicleMapper.selectCount(countWrapper);
+            thumbnails.putAll(imageService.getThumbnailUrls(
+                    vehicles.stream().map(v -> imageService.firstImage(v.getVehicleImages())).collect(Collectors.toList())));
+
+            List<Map<String, Object>> vehicleList = vehicles.stream().map(toItem).collect(Collectors.toList());
 
             Map<String, Object> pageData = new LinkedHashMap<>();
             pageData.put("page", page);
@@ -1000,6 +1093,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(ParkingLot.class)
     public Map<String, Object> addParkingLot(Long communityId, String lotName, String lotCode, String lotCategory, 
             String zoneName, String zoneCode, String contactPerson, String contactPhone, String address, 
             String detailAddress, Integer totalSpaces, Integer fixedSpaces, Integer tempSpaces, 
@@ -1088,6 +1182,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(ParkingSpace.class)
     public Map<String, Object> addParkingSpace(Long parkingLotId, String spaceNo, String fullSpaceNo, 
             String spaceType, Double spaceArea, String spaceStatus, Long ownerId, Long vehicleId, 
             Double monthlyFee, String remark) {
@@ -1169,7 +1264,7 @@ public class PropertyServiceImpl implements PropertyService {
     }
 
     @Override
-    public Map<String, Object> listAllParkingSpaces(Integer page, Integer size, String status) {
+    public Map<String, Object> listAllParkingSpaces(Integer page, Integer size, String status, String cursor, Boolean withTotal) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (page == null || page < 1) page = 1;
@@ -1181,17 +1276,8 @@ public class PropertyServiceImpl implements PropertyService {
             if (status != null && !status.trim().isEmpty()) {
                 queryWrapper.eq("space_status", status);
             }
-            
-            queryWrapper.orderByAsc("space_no");
-
-            long total = parkingSpaceMapper.selectCount(queryWrapper);
-
-            int offset = (page - 1) * size;
-            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
-
-            List<ParkingSpace> spaces = parkingSpaceMapper.selectList(queryWrapper);
 
-            List<Map<String, Object>> spaceList = spaces.stream().map(space -> {
+            Function<ParkingSpace, Map<String, Object>> toItem = space -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("parkingLotId", space.getParkingLotId());
                 map.put("spaceNumber", space.getSpaceNo());
@@ -1202,7 +1288,29 @@ public class PropertyServiceImpl implements PropertyService {
                 map.put("monthlyFee", space.getMonthlyFee());
                 map.put("remark", space.getRemark());
                 return map;
-            }).collect(Collectors.toList());
+            };
+
+            // 游标分页：按 (created_at, id) 定位，总数按需统计；顺序为创建时间倒序，与页码分页的车位号升序不同
+            if (cursor != null) {
+                Long total = Boolean.TRUE.equals(withTotal) ? parkingSpaceMapper.selectCount(queryWrapper) : null;
+                List<ParkingSpace> rows = KeysetPageUtil.seek(
+                        () -> new QueryWrapper<ParkingSpace>().eq(status != null && !status.trim().isEmpty(), "space_status", status),
+                        parkingSpaceMapper::selectList, cursor, size);
+                response.put("success", true);
+                response.put("data", KeysetPageUtil.toPageData(rows, size, toItem, total));
+                return response;
+            }
+            
+            queryWrapper.orderByAsc("space_no");
+
+            long total = parkingSpaceMapper.selectCount(queryWrapper);
+
+            int offset = (page - 1) * size;
+            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
+
+            List<ParkingSpace> spaces = parkingSpaceMapper.selectList(queryWrapper);
+
+            List<Map<String, Object>> spaceList = spaces.stream().map(toItem).collect(Collectors.toList());
 
             Map<String, Object> pageData = new LinkedHashMap<>();
             pageData.put("page", page);
@@ -1225,6 +1333,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(value = HouseOwner.class, action = "CREATE")
     public Map<String, Object> associateOwnerToHouse(Long ownerId, Long houseId, String relationship) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -1266,24 +1375,25 @@ public class PropertyServiceImpl implements PropertyService {
     public Map<String, Object> listOwnerHouses(Long ownerId) {
         Map<String, Object> response = new HashMap<>();
         try {
-            QueryWrapper<HouseOwner> queryWrapper = new QueryWrapper<>();
-            queryWrapper.eq("owner_id", ownerId);
-            queryWrapper.eq("status", "正常");
-
-            List<HouseOwner> houseOwners = houseOwnerMapper.selectList(queryWrapper);
-
-            List<Map<String, Object>> houseList = houseOwners.stream().map(ho -> {
-                House house = houseMapper.selectById(ho.getHouseId());
-                Map<String, Object> map = new LinkedHashMap<>();
-                map.put("id", house.getId());
-                map.put("roomNo", house.getRoomNo());
-                map.put("fullRoomNo", house.getFullRoomNo());
-                map.put("houseType", house.getHouseType());
-                map.put("houseLayout", house.getHouseLayout());
-                map.put("buildingArea", house.getBuildingArea());
-                map.put("relationship", ho.getRelationship());
-                return map;
-            }).collect(Collectors.toList());
+            // 批量加载该业主“正常”状态的房屋关联及房屋，避免逐条 selectById
+            OwnerAssetLoader.OwnerAssets assets = ownerAssetLoader.load(
+                Collections.singletonList(ownerId), true, false);
+            List<HouseOwner> houseOwners = assets.getHouseOwners(ownerId);
+
+            List<Map<String, Object>> houseList = houseOwners.stream()
+                .filter(ho -> assets.getHouse(ho.getHouseId()) != null)
+                .map(ho -> {
+                    House house = assets.getHouse(ho.getHouseId());
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    map.put("id", house.getId());
+                    map.put("roomNo", house.getRoomNo());
+                    map.put("fullRoomNo", house.getFullRoomNo());
+                    map.put("houseType", house.getHouseType());
+                    map.put("houseLayout", house.getHouseLayout());
+                    map.put("buildingArea", house.getBuildingArea());
+                    map.put("relationship", ho.getRelationship());
+                    return map;
+                }).collect(Collectors.toList());
 
             response.put("success", true);
             response.put("data", houseList);
@@ -1296,7 +1406,7 @@ public class PropertyServiceImpl implements PropertyService {
     }
 
     @Override
-    public Map<String, Object> listAllHouses(Integer page, Integer size, String keyword) {
+    public Map<String, Object> listAllHouses(Integer page, Integer size, String keyword, String cursor, Boolean withTotal) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (page == null || page < 1) page = 1;
@@ -1312,18 +1422,12 @@ public class PropertyServiceImpl implements PropertyService {
                     .like("house_code", keyword)
                 );
             }
-            
-            queryWrapper.orderByDesc("created_at");
-
-            int offset = (page - 1) * size;
-            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
 
-            List<House> houses = houseMapper.selectList(queryWrapper);
-            long total = houseMapper.selectCount(new QueryWrapper<House>()
+            QueryWrapper<House> countWrapper = new QueryWrapper<House>()
                     .and(keyword != null && !keyword.trim().isEmpty(), 
-                        q -> q.like("room_no", keyword).or().like("house_code", keyword)));
+                        q -> q.like("room_no", keyword).or().like("house_code", keyword));
 
-            List<Map<String, Object>> houseList = houses.stream().map(house -> {
+            Function<House, Map<String, Object>> toItem = house -> {
                 Map<String, Object> map = new LinkedHashMap<>();
                 map.put("id", house.getId());
                 map.put("roomNo", house.getRoomNo());
@@ -1336,7 +1440,29 @@ public class PropertyServiceImpl implements PropertyService {
                 map.put("houseStatus", house.getHouseStatus() != null ? house.getHouseStatus() : "");
                 map.put("createdAt", house.getCreatedAt());
                 return map;
-            }).collect(Collectors.toList());
+            };
+
+            // 游标分页：按 (created_at, id) 定位，总数按需统计
+            if (cursor != null) {
+                Long total = Boolean.TRUE.equals(withTotal) ? houseMapper.selectCount(countWrapper) : null;
+                List<House> rows = KeysetPageUtil.seek(() -> new QueryWrapper<House>()
+                                .and(keyword != null && !keyword.trim().isEmpty(),
+                                        q -> q.like("room_no", keyword).or().like("house_code", keyword)),
+                        houseMapper::selectList, cursor, size);
+                response.put("success", true);
+                response.put("data", KeysetPageUtil.toPageData(rows, size, toItem, total));
+                return response;
+            }
+            
+            queryWrapper.orderByDesc("created_at");
+
+            int offset = (page - 1) * size;
+            queryWrapper.last("LIMIT " + size + " OFFSET " + offset);
+
+            List<House> houses = houseMapper.selectList(queryWrapper);
+            long total = houseMapper.selectCount(countWrapper);
+
+            List<Map<String, Object>> houseList = houses.stream().map(toItem).collect(Collectors.toList());
 
             Map<String, Object> pageData = new LinkedHashMap<>();
             pageData.put("page", page);
@@ -1357,6 +1483,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(House.class)
     public Map<String, Object> updateHouseInfo(Long houseId, String houseType, String houseLayout, String houseOrientation) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -1394,6 +1521,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(CommunityNotice.class)
     public Map<String, Object> addNotice(Long communityId, String title, String content, String noticeType) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -1425,6 +1553,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(CommunityNotice.class)
     public Map<String, Object> updateNotice(Long noticeId, String title, String content) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -1457,6 +1586,7 @@ public class PropertyServiceImpl implements PropertyService {
 
     @Override
     @Transactional
+    @SyncEntity(CommunityNotice.class)
     public Map<String, Object> deleteNotice(Long noticeId) {
         Map<String, Object> response = new HashMap<>();
         try {
@@ -1481,7 +1611,7 @@ public class PropertyServiceImpl implements PropertyService {
     }
 
     @Override
-    public Map<String, Object> listNotices(Long communityId, Integer page, Integer size) {
+    public Map<String, Object> listNotices(Long communityId, Integer page, Integer size, String cursor, Boolean withTotal) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (page == null || page < 1) page = 1;
@@ -1490,6 +1620,34 @@ public class PropertyServiceImpl implements PropertyService {
             QueryWrapper<CommunityNotice> queryWrapper = new QueryWrapper<>();
             queryWrapper.eq("community_id", communityId);
             queryWrapper.ne("status", "已撤回");
+
+            // 列表只返回公告首图的缩略图地址，整页一次查询
+            Map<String, String> thumbnails = new HashMap<>();
+            Function<CommunityNotice, Map<String, Object>> toItem = notice -> {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("id", notice.getId());
+                map.put("title", notice.getTitle());
+                map.put("noticeType", notice.getNoticeType());
+                map.put("publishTime", notice.getPublishTime());
+                map.put("status", notice.getStatus());
+                map.put("readCount", viewCounterService.noticeReadCount(notice.getId(), notice.getReadCount()));
+                map.put("coverThumbnail", thumbnails.get(imageService.firstImage(notice.getNoticeImages())));
+                return map;
+            };
+
+            // 游标分页：按 (created_at, id) 定位，总数按需统计；顺序为创建时间倒序，与页码分页的发布时间倒序不同
+            if (cursor != null) {
+                Long total = Boolean.TRUE.equals(withTotal) ? communityNoticeMapper.selectCount(queryWrapper) : null;
+                List<CommunityNotice> rows = KeysetPageUtil.seek(() -> new QueryWrapper<CommunityNotice>()
+                                .eq("community_id", communityId).ne("status", "已撤回"),
+                        communityNoticeMapper::selectList, cursor, size);
+                thumbnails.putAll(imageService.getThumbnailUrls(
+                        rows.stream().map(n -> imageService.firstImage(n.getNoticeImages())).collect(Collectors.toList())));
+                response.put("success", true);
+                response.put("data", KeysetPageUtil.toPageData(rows, size, toItem, total));
+                return response;
+            }
+
             queryWrapper.orderByDesc("publish_time");
 
             int offset = (page - 1) * size;
@@ -1499,17 +1657,10 @@ public class PropertyServiceImpl implements PropertyService {
             long total = communityNoticeMapper.selectCount(new QueryWrapper<CommunityNotice>()
                     .eq("community_id", communityId)
                     .ne("status", "已撤回"));
+            thumbnails.putAll(imageService.getThumbnailUrls(
+                    notices.stream().map(n -> imageService.firstImage(n.getNoticeImages())).collect(Collectors.toList())));
 
-            List<Map<String, Object>> noticeList = notices.stream().map(notice -> {
-                Map<String, Object> map = new LinkedHashMap<>();
-                map.put("id", notice.getId());
-                map.put("title", notice.getTitle());
-                map.put("noticeType", notice.getNoticeType());
-                map.put("publishTime", notice.getPublishTime());
-                map.put("status", notice.getStatus());
-                map.put("readCount", notice.getReadCount());
-                return map;
-            }).collect(Collectors.toList());
+            List<Map<String, Object>> noticeList = notices.stream().map(toItem).collect(Collectors.toList());
 
             Map<String, Object> pageData = new LinkedHashMap<>();
             pageData.put("page", page);
@@ -1,5 +1,6 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.mapper.RoleMapper;
 import com.community.property.domain.entity.Role;
 import com.community.property.service.RoleService;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Service;
  * 角色服务实现类
  */
 @Service
+@SyncEntity(Role.class)
 public class RoleServiceImpl implements RoleService {
     
     @Autowired
@@ -1,5 +1,6 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.domain.dto.request.StaffProfileUpdateRequest;
 import com.community.property.domain.dto.request.StaffInfoUpdateApplyRequest;
 import com.community.property.mapper.StaffMapper;
@@ -22,6 +23,7 @@ import java.util.*;
  * 员工服务实现类
  */
 @Service
+@SyncEntity(Staff.class)
 public class StaffServiceImpl implements StaffService {
     
     @Autowired
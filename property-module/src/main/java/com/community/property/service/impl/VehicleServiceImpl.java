@@ -1,5 +1,6 @@
 package com.community.property.service.impl;
 
+import com.community.property.config.SyncEntity;
 import com.community.property.domain.entity.Vehicle;
 import com.community.property.mapper.VehicleMapper;
 import com.community.property.service.VehicleService;
@@ -24,6 +25,7 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
  * 车辆服务实现类
  */
 @Service
+@SyncEntity(Vehicle.class)
 public class VehicleServiceImpl implements VehicleService {
 
     @Autowired
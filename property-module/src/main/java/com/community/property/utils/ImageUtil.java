@@ -0,0 +1,343 @@
+package com.community.property.utils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * 图片处理工具（仅依赖 JDK ImageIO）
+ * 提供 EXIF 方向读取、无损去除 JPEG/PNG 元数据、按需降采样解码、缩放和编码
+ */
+public class ImageUtil {
+
+    public static final String FORMAT_JPEG = "jpeg";
+    public static final String FORMAT_PNG = "png";
+
+    /**
+     * 解码时允许的最大像素数，超过时不生成缩略图（防止超大图片占满内存）
+     */
+    private static final long MAX_PIXELS = 60_000_000L;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * PNG 中需要去除的元数据块
+     */
+    private static final Set<String> PNG_METADATA_CHUNKS = Set.of("eXIf", "tEXt", "zTXt", "iTXt", "tIME");
+
+    private ImageUtil() {
+    }
+
+    /**
+     * 按文件头识别格式
+     * @return jpeg / png，其它格式返回 null
+     */
+    public static String detectFormat(byte[] data) {
+        if (data.length > 3 && (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8) {
+            return FORMAT_JPEG;
+        }
+        if (data.length > PNG_SIGNATURE.length) {
+            for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+                if (data[i] != PNG_SIGNATURE[i]) {
+                    return null;
+                }
+            }
+            return FORMAT_PNG;
+        }
+        return null;
+    }
+
+    /**
+     * 读取 JPEG 中 EXIF 的方向（1-8），没有 EXIF 或无法解析时返回 1
+     */
+    public static int readJpegOrientation(byte[] data) {
+        int i = 2;
+        while (i + 4 <= data.length && (data[i] & 0xFF) == 0xFF) {
+            int marker = data[i + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) {
+                break;
+            }
+            int length = u16(data, i + 2, false);
+            if (marker == 0xE1 && length > 8 && i + 2 + length <= data.length
+                    && data[i + 4] == 'E' && data[i + 5] == 'x' && data[i + 6] == 'i' && data[i + 7] == 'f') {
+                return readTiffOrientation(data, i + 10, i + 2 + length);
+            }
+            i += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int readTiffOrientation(byte[] data, int tiff, int end) {
+        if (tiff + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = data[tiff] == 'I' && data[tiff + 1] == 'I';
+        int ifd = tiff + (int) u32(data, tiff + 4, littleEndian);
+        if (ifd + 2 > end || ifd < tiff) {
+            return 1;
+        }
+        int entries = u16(data, ifd, littleEndian);
+        for (int e = 0; e < entries; e++) {
+            int entry = ifd + 2 + e * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (u16(data, entry, littleEndian) == 0x0112) {
+                int orientation = u16(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * 无损去除 JPEG 元数据：去掉 EXIF/XMP（APP1）、其它应用段和注释，保留 JFIF（APP0）、ICC 色彩配置（APP2）和 Adobe（APP14）段，
+     * 图像数据原样保留
+     */
+    public static byte[] stripJpegMetadata(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        out.write(data, 0, 2);
+        int i = 2;
+        while (i + 4 <= data.length) {
+            if ((data[i] & 0xFF) != 0xFF) {
+                return data;
+            }
+            int marker = data[i + 1] & 0xFF;
+            if (marker == 0xFF) {
+                i++;
+                continue;
+            }
+            if (marker == 0xDA) {
+                out.write(data, i, data.length - i);
+                return out.toByteArray();
+            }
+            int length = u16(data, i + 2, false);
+            if (i + 2 + length > data.length) {
+                return data;
+            }
+            boolean drop = marker == 0xFE || (marker >= 0xE1 && marker <= 0xEF && marker != 0xE2 && marker != 0xEE);
+            if (!drop) {
+                out.write(data, i, 2 + length);
+            }
+            i += 2 + length;
+        }
+        return data;
+    }
+
+    /**
+     * 无损去除 PNG 元数据块（eXIf、文本、时间）
+     */
+    public static byte[] stripPngMetadata(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        out.write(data, 0, PNG_SIGNATURE.length);
+        int i = PNG_SIGNATURE.length;
+        while (i + 12 <= data.length) {
+            long length = u32(data, i, false);
+            if (length > data.length - i - 12) {
+                return data;
+            }
+            String type = new String(data, i + 4, 4, java.nio.charset.StandardCharsets.US_ASCII);
+            int chunkSize = 12 + (int) length;
+            if (!PNG_METADATA_CHUNKS.contains(type)) {
+                out.write(data, i, chunkSize);
+            }
+            i += chunkSize;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码图片；minLongEdge > 0 时按整数步长降采样，保证解码结果的长边不小于 minLongEdge
+     * @return 解码后的图片，无法解码或像素数超限时返回 null
+     */
+    public static BufferedImage read(byte[] data, int minLongEdge) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = minLongEdge > 0 ? Math.max(1, Math.max(width, height) / minLongEdge) : 1;
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 按 EXIF 方向旋转/翻转为正向
+     */
+    public static BufferedImage applyOrientation(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform t = new AffineTransform();
+        switch (orientation) {
+            case 2:
+                t.translate(w, 0);
+                t.scale(-1, 1);
+                break;
+            case 3:
+                t.translate(w, h);
+                t.quadrantRotate(2);
+                break;
+            case 4:
+                t.translate(0, h);
+                t.scale(1, -1);
+                break;
+            case 5:
+                t.quadrantRotate(3);
+                t.scale(-1, 1);
+                break;
+            case 6:
+                t.translate(h, 0);
+                t.quadrantRotate(1);
+                break;
+            case 7:
+                t.translate(h, w);
+                t.scale(1, -1);
+                t.quadrantRotate(1);
+                break;
+            default:
+                t.translate(0, w);
+                t.quadrantRotate(3);
+        }
+        BufferedImage out = new BufferedImage(swap ? h : w, swap ? w : h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, out.getWidth(), out.getHeight());
+        g.drawImage(image, t, null);
+        g.dispose();
+        return out;
+    }
+
+    /**
+     * 等比缩放到长边不超过 maxEdge，逐级减半以保证缩小后的清晰度；透明区域填充白色
+     */
+    public static BufferedImage resize(BufferedImage image, int maxEdge) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = image;
+        int w = width;
+        int h = height;
+        do {
+            w = Math.max(targetWidth, w / 2);
+            h = Math.max(targetHeight, h / 2);
+            BufferedImage next = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, Color.WHITE, null);
+            g.dispose();
+            current = next;
+        } while (w != targetWidth || h != targetHeight);
+        return current;
+    }
+
+    /**
+     * 编码为 JPEG（不含任何元数据）
+     */
+    public static byte[] writeJpeg(BufferedImage image, float quality) throws IOException {
+        return write(image, "jpeg", quality);
+    }
+
+    /**
+     * 是否有可用的 WebP 编码器（需在类路径中提供 ImageIO WebP 插件）
+     */
+    public static boolean webpSupported() {
+        return ImageIO.getImageWritersByFormatName("webp").hasNext();
+    }
+
+    /**
+     * 编码为 WebP，没有可用编码器时返回 null
+     */
+    public static byte[] writeWebp(BufferedImage image, float quality) throws IOException {
+        return webpSupported() ? write(image, "webp", quality) : null;
+    }
+
+    private static byte[] write(BufferedImage image, String format, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionTypes() != null && param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(toRgb(image), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(image, 0, 0, Color.WHITE, null);
+        g.dispose();
+        return rgb;
+    }
+
+    private static int u16(byte[] data, int offset, boolean littleEndian) {
+        if (offset + 2 > data.length) {
+            return 0;
+        }
+        int a = data[offset] & 0xFF;
+        int b = data[offset + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long u32(byte[] data, int offset, boolean littleEndian) {
+        if (offset + 4 > data.length) {
+            return 0;
+        }
+        long value = 0;
+        for (int k = 0; k < 4; k++) {
+            int shift = littleEndian ? 8 * k : 8 * (3 - k);
+            value |= (long) (data[offset + k] & 0xFF) << shift;
+        }
+        return value;
+    }
+}
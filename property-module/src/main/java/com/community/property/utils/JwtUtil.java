@@ -1,16 +1,24 @@
 package com.community.property.utils;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Component
@@ -21,6 +29,39 @@ public class JwtUtil {
     
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
+
+    @Value("${jwt.claims-cache-size:10000}")
+    private int claimsCacheSize;
+
+    /**
+     * 请求属性：当前请求已验证的Token及其Claims
+     */
+    public static final String TOKEN_ATTRIBUTE = JwtUtil.class.getName() + ".TOKEN";
+    public static final String CLAIMS_ATTRIBUTE = JwtUtil.class.getName() + ".CLAIMS";
+
+    private SecretKey signingKey;
+
+    /**
+     * 解析器线程安全，只创建一次
+     */
+    private JwtParser parser;
+
+    /**
+     * 已验证的Claims缓存：Token哈希 -> Claims，超过容量时淘汰最久未访问的
+     */
+    private Map<String, CachedClaims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        signingKey = getSigningKey();
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        claimsCache = new LinkedHashMap<String, CachedClaims>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+                return size() > claimsCacheSize;
+            }
+        };
+    }
     
     /**
      * 生成JWT Token (支持staffId)
@@ -44,7 +85,7 @@ public class JwtUtil {
                 .setSubject(username)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
     
@@ -68,15 +109,69 @@ public class JwtUtil {
     
     /**
      * 解析JWT Token获取Claims
+     * 每个Token只验签一次：先取当前请求上已验证的Claims，再查按Token哈希索引的缓存（到 exp 过期），
+     * 都没有时才解析并验证签名，结果写回请求属性和缓存
      * @param token JWT Token
      * @return Claims
      */
     public Claims getClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && token.equals(attributes.getAttribute(TOKEN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST))) {
+            return (Claims) attributes.getAttribute(CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        String cacheKey = hashToken(token);
+        long now = System.currentTimeMillis();
+        Claims claims = null;
+        synchronized (claimsCache) {
+            CachedClaims cached = claimsCache.get(cacheKey);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    claims = cached.claims;
+                } else {
+                    claimsCache.remove(cacheKey);
+                }
+            }
+        }
+        if (claims == null) {
+            // 过期或签名错误时抛出异常，不进入缓存
+            claims = parser.parseClaimsJws(token).getBody();
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : now + expiration;
+            synchronized (claimsCache) {
+                claimsCache.put(cacheKey, new CachedClaims(claims, expiresAt));
+            }
+        }
+
+        if (attributes != null) {
+            attributes.setAttribute(TOKEN_ATTRIBUTE, token, RequestAttributes.SCOPE_REQUEST);
+            attributes.setAttribute(CLAIMS_ATTRIBUTE, claims, RequestAttributes.SCOPE_REQUEST);
+        }
+        return claims;
+    }
+
+    /**
+     * Token的SHA-256摘要，缓存中不保存Token原文
+     */
+    private String hashToken(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存的已验证Claims
+     */
+    private static class CachedClaims {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
     
     /**
@@ -0,0 +1,131 @@
+package com.community.property.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.property.domain.entity.BaseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 游标（Keyset / Seek）分页工具
+ * 按 (created_at DESC, id DESC) 排序，游标记录上一页最后一行的 created_at 和 id，
+ * 下一页直接从该位置向后查找，翻页耗时与页码无关，也不需要每页都执行 COUNT。
+ * created_at 为空的历史数据排在最后，单独按 id 倒序查找：两段查询各自只有一个范围条件，
+ * 都能走 (筛选列, created_at, id) 索引，不会因为 OR created_at IS NULL 退化为全表扫描
+ */
+public final class KeysetPageUtil {
+
+    private static final String NULL_VALUE = "-";
+
+    private KeysetPageUtil() {
+    }
+
+    /**
+     * 查询游标之后的一页数据（多取一行用于判断是否还有下一页）
+     * 先查 created_at 非空的行，不足一页时再从 created_at 为空的行开头补足
+     * @param filter 生成筛选条件（每段查询各生成一次，不应包含排序和 LIMIT）
+     * @param select 执行查询，一般为 Mapper 的 selectList
+     * @param cursor 上一页返回的 nextCursor，首页传空字符串
+     * @param size 每页大小
+     * @return 最多 size + 1 行
+     */
+    public static <T extends BaseEntity> List<T> seek(Supplier<QueryWrapper<T>> filter,
+                                                      Function<QueryWrapper<T>, List<T>> select,
+                                                      String cursor, int size) {
+        boolean nullPhase = false;
+        LocalDateTime createdAt = null;
+        Long id = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] parts = decode(cursor);
+            nullPhase = NULL_VALUE.equals(parts[0]);
+            createdAt = nullPhase ? null : LocalDateTime.parse(parts[0]);
+            id = Long.parseLong(parts[1]);
+        }
+
+        List<T> rows = new ArrayList<>(size + 1);
+        if (!nullPhase) {
+            QueryWrapper<T> wrapper = filter.get();
+            if (createdAt == null) {
+                wrapper.isNotNull("created_at");
+            } else {
+                LocalDateTime lastCreatedAt = createdAt;
+                Long lastId = id;
+                wrapper.and(w -> w.lt("created_at", lastCreatedAt)
+                        .or(x -> x.eq("created_at", lastCreatedAt).lt("id", lastId)));
+            }
+            wrapper.orderByDesc("created_at").orderByDesc("id");
+            wrapper.last("LIMIT " + (size + 1));
+            rows.addAll(select.apply(wrapper));
+            if (rows.size() > size) {
+                return rows;
+            }
+            // created_at 非空的行已取完，从 created_at 为空的行开头继续
+            id = null;
+        }
+
+        QueryWrapper<T> wrapper = filter.get();
+        wrapper.isNull("created_at");
+        if (id != null) {
+            wrapper.lt("id", id);
+        }
+        wrapper.orderByDesc("id");
+        wrapper.last("LIMIT " + (size + 1 - rows.size()));
+        rows.addAll(select.apply(wrapper));
+        return rows;
+    }
+
+    /**
+     * 构建游标分页返回数据
+     * @param rows seek 查询结果（最多 size + 1 行）
+     * @param size 每页大小
+     * @param mapper 行转换
+     * @param total 总数，未请求时为 null
+     */
+    public static <T extends BaseEntity> Map<String, Object> toPageData(List<T> rows, int size,
+                                                                        Function<T, Map<String, Object>> mapper,
+                                                                        Long total) {
+        boolean hasMore = rows.size() > size;
+        List<T> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        List<Map<String, Object>> items = new ArrayList<>(pageRows.size());
+        for (T row : pageRows) {
+            items.add(mapper.apply(row));
+        }
+
+        Map<String, Object> pageData = new LinkedHashMap<>();
+        pageData.put("size", size);
+        if (total != null) {
+            pageData.put("total", total);
+        }
+        pageData.put("hasMore", hasMore);
+        pageData.put("nextCursor", hasMore ? encode(pageRows.get(pageRows.size() - 1)) : null);
+        pageData.put("items", items);
+        return pageData;
+    }
+
+    private static String encode(BaseEntity last) {
+        String createdAt = last.getCreatedAt() != null ? last.getCreatedAt().toString() : NULL_VALUE;
+        String raw = createdAt + "," + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(",", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+}
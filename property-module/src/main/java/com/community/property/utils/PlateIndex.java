@@ -0,0 +1,240 @@
+package com.community.property.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 车牌号内存索引
+ * 车牌号规范化后（去掉空格和分隔符、转大写、O/I 归一为 0/1）按单字和二元组建立倒排表，
+ * 输入车牌的任意片段即可找到对应的记录ID，代替 LIKE '%片段%' 的全表扫描。
+ * 同一个记录ID只对应一个车牌，put 会覆盖旧值；读写由内部的读写锁保护
+ */
+public class PlateIndex {
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 记录ID -> 规范化车牌号
+     */
+    private final Map<Long, String> normalized = new HashMap<>();
+
+    /**
+     * 记录ID -> 原始车牌号
+     */
+    private final Map<Long, String> original = new HashMap<>();
+
+    /**
+     * 单字/二元组 -> 记录ID
+     */
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    /**
+     * 规范化车牌号：去掉空格、点、横线等分隔符，字母转大写，O、I 视为 0、1（车牌中不使用字母 O 和 I）
+     * @return 规范化结果，为空时返回空字符串
+     */
+    public static String normalize(String plate) {
+        if (plate == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(plate.length());
+        for (int i = 0; i < plate.length(); i++) {
+            char c = plate.charAt(i);
+            if (Character.isWhitespace(c) || c == '·' || c == '•' || c == '.' || c == '-' || c == '_') {
+                continue;
+            }
+            c = Character.toUpperCase(c);
+            if (c == 'O') {
+                c = '0';
+            } else if (c == 'I') {
+                c = '1';
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 添加或更新一条记录，车牌为空时等同于删除
+     */
+    public void put(Long id, String plate) {
+        if (id == null) {
+            return;
+        }
+        String value = normalize(plate);
+        lock.writeLock().lock();
+        try {
+            String previous = normalized.get(id);
+            if (previous != null) {
+                if (previous.equals(value)) {
+                    original.put(id, plate);
+                    return;
+                }
+                unlink(id, previous);
+            }
+            if (value.isEmpty()) {
+                original.remove(id);
+                return;
+            }
+            normalized.put(id, value);
+            original.put(id, plate);
+            for (String gram : grams(value)) {
+                postings.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除一条记录
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            String previous = normalized.get(id);
+            if (previous != null) {
+                unlink(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 批量删除记录
+     */
+    public void removeAll(Collection<Long> ids) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                String previous = normalized.get(id);
+                if (previous != null) {
+                    unlink(id, previous);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 查找车牌中包含该片段的记录
+     * 车牌以片段开头的记录排在前面，其余按记录ID倒序（新记录在前）
+     * @param query 车牌片段
+     * @param limit 最多返回数量
+     * @return 记录ID，片段为空时返回空列表
+     */
+    public List<Long> search(String query, int limit) {
+        String value = normalize(query);
+        if (value.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        List<Long> prefixed = new ArrayList<>();
+        List<Long> others = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long id : candidates(value)) {
+                String plate = normalized.get(id);
+                if (plate.startsWith(value)) {
+                    prefixed.add(id);
+                } else if (plate.contains(value)) {
+                    others.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        prefixed.sort(Collections.reverseOrder());
+        others.sort(Collections.reverseOrder());
+        List<Long> result = new ArrayList<>(Math.min(limit, prefixed.size() + others.size()));
+        for (Long id : prefixed) {
+            if (result.size() >= limit) {
+                return result;
+            }
+            result.add(id);
+        }
+        for (Long id : others) {
+            if (result.size() >= limit) {
+                return result;
+            }
+            result.add(id);
+        }
+        return result;
+    }
+
+    /**
+     * 取记录的原始车牌号
+     */
+    public String plateOf(Long id) {
+        lock.readLock().lock();
+        try {
+            return original.get(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 当前索引的记录数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return normalized.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 候选记录：片段为单字时取单字倒排表，否则取片段内最短的二元组倒排表，再由调用方逐条校验
+     */
+    private Set<Long> candidates(String value) {
+        if (value.length() == 1) {
+            return postings.getOrDefault(value, Collections.emptySet());
+        }
+        Set<Long> smallest = null;
+        for (int i = 0; i + 1 < value.length(); i++) {
+            Set<Long> ids = postings.get(value.substring(i, i + 2));
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        return smallest;
+    }
+
+    private void unlink(Long id, String value) {
+        normalized.remove(id);
+        original.remove(id);
+        for (String gram : grams(value)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < value.length(); i++) {
+            grams.add(value.substring(i, i + 1));
+            if (i + 1 < value.length()) {
+                grams.add(value.substring(i, i + 2));
+            }
+        }
+        return grams;
+    }
+}
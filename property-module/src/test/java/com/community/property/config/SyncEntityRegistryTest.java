@@ -0,0 +1,108 @@
+package com.community.property.config;
+
+import com.community.property.domain.entity.MeterInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyncEntityRegistryTest {
+
+    private final SyncEntityRegistry registry = new SyncEntityRegistry();
+
+    @Test
+    void entityTypeKeepsLegacyServiceNameAndEntityClassIsExact() {
+        SyncEntityRegistry.Binding binding = resolve("addMeterToOwner");
+
+        assertThat(binding.getEntityType()).isEqualTo("MeterReading");
+        assertThat(binding.getEntityClass()).isEqualTo("MeterInfo");
+        assertThat(binding.getAction()).isEqualTo("CREATE");
+    }
+
+    @Test
+    void createReadsIdFromMapResultData() {
+        SyncEntityRegistry.Binding binding = resolve("addMeterToOwner");
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("data", meter(42L));
+
+        assertThat(binding.extractId(new Object[]{1L, 2L}, result)).isEqualTo(42L);
+    }
+
+    @Test
+    void createReadsIdFromMapResultKeyOrNestedMap() {
+        SyncEntityRegistry.Binding binding = resolve("addMeterToOwner");
+
+        assertThat(binding.extractId(new Object[]{1L, 2L}, Map.of("success", true, "id", 7L))).isEqualTo(7L);
+        assertThat(binding.extractId(new Object[]{1L, 2L}, Map.of("success", true, "data", Map.of("id", 8L))))
+                .isEqualTo(8L);
+        assertThat(resolve("createMeter").extractId(new Object[]{"M-1"}, Map.of("meterId", 9L))).isEqualTo(9L);
+    }
+
+    @Test
+    void createReadsIdFromEntityArgumentFilledByInsert() {
+        SyncEntityRegistry.Binding binding = resolve("saveMeter");
+
+        assertThat(binding.extractId(new Object[]{meter(5L)}, true)).isEqualTo(5L);
+    }
+
+    @Test
+    void updateAndDeleteReadIdFromArguments() {
+        assertThat(resolve("updateMeter").extractId(new Object[]{meter(3L)}, true)).isEqualTo(3L);
+        assertThat(resolve("deleteMeter").extractId(new Object[]{4L}, true)).isEqualTo(4L);
+    }
+
+    @Test
+    void createWithoutIdIsReportedUnlessBatch() {
+        SyncEntityRegistry.Binding binding = resolve("addMeterToOwner");
+        Object[] args = {1L, 2L};
+
+        assertThat(binding.extractId(args, Map.of("success", true))).isNull();
+        assertThat(binding.requiresId(args)).isTrue();
+        assertThat(resolve("saveMeter").requiresId(new Object[]{List.of(meter(1L))})).isFalse();
+        assertThat(resolve("updateMeter").requiresId(new Object[]{meter(null)})).isFalse();
+    }
+
+    private SyncEntityRegistry.Binding resolve(String methodName) {
+        return registry.resolve(MeterTestServiceImpl.class,
+                ReflectionUtils.findMethod(MeterTestServiceImpl.class, methodName, (Class<?>[]) null));
+    }
+
+    private static MeterInfo meter(Long id) {
+        MeterInfo meter = new MeterInfo();
+        meter.setId(id);
+        return meter;
+    }
+
+    static class MeterTestServiceImpl {
+
+        @SyncEntity(MeterInfo.class)
+        public Map<String, Object> addMeterToOwner(Long houseId, Long meterConfigId) {
+            return null;
+        }
+
+        @SyncEntity(value = MeterInfo.class, idKey = "meterId")
+        public Map<String, Object> createMeter(String meterCode) {
+            return null;
+        }
+
+        @SyncEntity(MeterInfo.class)
+        public boolean saveMeter(Object meter) {
+            return true;
+        }
+
+        @SyncEntity(MeterInfo.class)
+        public boolean updateMeter(MeterInfo meter) {
+            return true;
+        }
+
+        @SyncEntity(MeterInfo.class)
+        public boolean deleteMeter(Long id) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.community.property.service;
+
+import com.community.property.domain.entity.MeterInfo;
+import com.community.property.domain.entity.MeterReading;
+import com.community.property.domain.entity.MeterRollupDirty;
+import com.community.property.domain.entity.MeterUsageRollup;
+import com.community.property.mapper.MeterInfoMapper;
+import com.community.property.mapper.MeterTimeSeriesMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MeterTimeSeriesServiceTest {
+
+    private MeterTimeSeriesMapper mapper;
+    private MeterInfoMapper meterInfoMapper;
+    private MeterTimeSeriesService service;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(MeterTimeSeriesMapper.class);
+        meterInfoMapper = mock(MeterInfoMapper.class);
+        service = new MeterTimeSeriesService();
+        ReflectionTestUtils.setField(service, "meterTimeSeriesMapper", mapper);
+        ReflectionTestUtils.setField(service, "meterInfoMapper", meterInfoMapper);
+        ReflectionTestUtils.setField(service, "transactionTemplate",
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(service, "reconcileBatchSize", 500);
+    }
+
+    @Test
+    void recordMarksRangeDirtyBeforeIncrementingAndToleratesIncrementFailure() {
+        when(mapper.upsertRollups(anyList())).thenThrow(new RuntimeException("deadlock"));
+
+        service.record(reading(1L, meter(10L, 5L, 2L), LocalDate.of(2026, 3, 15), "2.5"));
+
+        InOrder order = inOrder(mapper);
+        ArgumentCaptor<MeterRollupDirty> dirty = ArgumentCaptor.forClass(MeterRollupDirty.class);
+        order.verify(mapper).insertDirty(dirty.capture());
+        order.verify(mapper).upsertLatest(any(), eq(5L), eq(2L));
+        order.verify(mapper).upsertRollups(anyList());
+        assertThat(dirty.getValue()).isEqualTo(new MeterRollupDirty(null, 10L, 5L, 2L,
+                LocalDate.of(2026, 3, 15), LocalDate.of(2026, 3, 15)));
+    }
+
+    @Test
+    void recordFailsWhenDirtyMarkCannotBeWritten() {
+        when(mapper.insertDirty(any())).thenThrow(new RuntimeException("table missing"));
+
+        assertThatThrownBy(() -> service.record(reading(1L, meter(10L, 5L, 2L), LocalDate.of(2026, 3, 15), "1")))
+                .isInstanceOf(RuntimeException.class);
+        verify(mapper, never()).upsertRollups(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordBatchMergesPeriodsAndMarksOneRangePerMeter() {
+        MeterInfo meter = meter(10L, 5L, 2L);
+        service.recordBatch(List.of(
+                reading(1L, meter, LocalDate.of(2026, 3, 1), "1"),
+                reading(2L, meter, LocalDate.of(2026, 3, 20), "2")));
+
+        ArgumentCaptor<List<MeterRollupDirty>> dirty = ArgumentCaptor.forClass(List.class);
+        verify(mapper).insertDirtyBatch(dirty.capture());
+        assertThat(dirty.getValue()).containsExactly(new MeterRollupDirty(null, 10L, 5L, 2L,
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 20)));
+
+        ArgumentCaptor<List<MeterUsageRollup>> rollups = ArgumentCaptor.forClass(List.class);
+        verify(mapper).upsertRollups(rollups.capture());
+        assertThat(rollups.getValue())
+                .filteredOn(r -> "M".equals(r.getPeriodType()) && "HOUSE".equals(r.getScopeType()))
+                .singleElement()
+                .satisfies(r -> {
+                    assertThat(r.getUsageAmount()).isEqualByComparingTo("3");
+                    assertThat(r.getReadingCount()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    void reconcileDoesNothingWithoutLease() {
+        when(mapper.acquireLease(anyString(), anyString(), anyLong())).thenReturn(0);
+
+        service.reconcile();
+
+        verify(mapper, never()).selectDirty(anyInt());
+        verify(mapper, never()).rebuildRollup(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void reconcileBuildsAllRollupsOnceWhenNeverBuilt() {
+        when(mapper.acquireLease(anyString(), anyString(), anyLong())).thenReturn(1);
+        when(mapper.selectBuiltMaxReadingId(anyString())).thenReturn(null);
+        when(mapper.selectMaxReadingId()).thenReturn(42L);
+        when(mapper.selectDirty(anyInt())).thenReturn(List.of());
+
+        service.reconcile();
+
+        verify(mapper).deleteLatest(null);
+        verify(mapper).rebuildLatest(null);
+        verify(mapper, times(9)).deleteRollups(anyString(), anyString(), isNull(), isNull(), isNull());
+        verify(mapper, times(9)).rebuildRollup(anyString(), anyString(), isNull(), isNull(), isNull());
+        verify(mapper).markBuilt(anyString(), eq(42L));
+    }
+
+    @Test
+    void reconcileRecomputesWholePeriodsForEachAffectedScopeAndDeletesOnlyReadMarks() {
+        when(mapper.acquireLease(anyString(), anyString(), anyLong())).thenReturn(1);
+        when(mapper.selectBuiltMaxReadingId(anyString())).thenReturn(42L);
+        // 第一条是旧房屋下的变更；第二条没有房屋/楼栋，按仪表当前所属（已换到房屋6）处理
+        when(mapper.selectDirty(anyInt())).thenReturn(List.of(
+                new MeterRollupDirty(1L, 10L, 5L, 2L, LocalDate.of(2026, 3, 15), LocalDate.of(2026, 3, 15)),
+                new MeterRollupDirty(2L, 10L, null, null, LocalDate.of(2026, 1, 31), LocalDate.of(2026, 1, 31))));
+        when(meterInfoMapper.selectBatchIds(anyCollection())).thenReturn(List.of(meter(10L, 6L, 2L)));
+
+        service.reconcile();
+
+        verify(mapper).deleteLatest(10L);
+        verify(mapper).rebuildLatest(10L);
+        verify(mapper).deleteRollups("METER", "M", 10L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 31));
+        verify(mapper).rebuildRollup("METER", "M", 10L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 31));
+        verify(mapper).rebuildRollup("METER", "D", 10L, LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 15));
+        verify(mapper).rebuildRollup("HOUSE", "D", 5L, LocalDate.of(2026, 3, 15), LocalDate.of(2026, 3, 15));
+        verify(mapper).rebuildRollup("HOUSE", "Y", 6L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 12, 31));
+        verify(mapper).rebuildRollup("BUILDING", "M", 2L, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 31));
+        verify(mapper).deleteDirty(List.of(1L, 2L));
+        verify(mapper, never()).markBuilt(anyString(), anyLong());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reassignedMeterKeepsEarlierUsageInOriginalHouse() {
+        // 仪表10在房屋5时抄表一次，换到房屋6（同楼栋）后再抄表一次
+        MeterInfo meter = meter(10L, 5L, 2L);
+        service.record(reading(1L, meter, LocalDate.of(2026, 3, 1), "4"));
+        meter.setHouseId(6L);
+        service.record(reading(2L, meter, LocalDate.of(2026, 3, 20), "1"));
+
+        ArgumentCaptor<List<MeterUsageRollup>> rollups = ArgumentCaptor.forClass(List.class);
+        verify(mapper, times(2)).upsertRollups(rollups.capture());
+        assertThat(rollups.getAllValues().get(0)).filteredOn(r -> "HOUSE".equals(r.getScopeType()))
+                .allSatisfy(r -> assertThat(r.getScopeId()).isEqualTo(5L));
+        assertThat(rollups.getAllValues().get(1)).filteredOn(r -> "HOUSE".equals(r.getScopeType()))
+                .allSatisfy(r -> assertThat(r.getScopeId()).isEqualTo(6L));
+
+        // 换房屋时管理端记录的两条待对账范围：原房屋，以及按仪表当前所属
+        when(mapper.acquireLease(anyString(), anyString(), anyLong())).thenReturn(1);
+        when(mapper.selectBuiltMaxReadingId(anyString())).thenReturn(42L);
+        when(mapper.selectDirty(anyInt())).thenReturn(List.of(
+                new MeterRollupDirty(1L, 10L, 5L, 2L, null, null),
+                new MeterRollupDirty(2L, 10L, null, null, null, null)));
+        when(meterInfoMapper.selectBatchIds(anyCollection())).thenReturn(List.of(meter));
+
+        service.reconcile();
+
+        // 先补记未记录归属的抄表记录，再按抄表记录上的归属重新计算两个房屋
+        InOrder order = inOrder(mapper);
+        order.verify(mapper).fillReadingScope(Set.of(10L));
+        order.verify(mapper).rebuildRollup("HOUSE", "M", 5L, null, null);
+        verify(mapper).rebuildRollup("HOUSE", "M", 6L, null, null);
+
+        // 重新计算和增量累加取同一归属：抄表记录上的房屋，而不是仪表当前所属
+        String sql = new MeterTimeSeriesMapper.MeterTimeSeriesDaoProvider().rebuildRollup("HOUSE", "M", 5L, null, null);
+        assertThat(sql).contains("mr.house_id = #{scopeId}").doesNotContain("mi.house_id");
+    }
+
+    @Test
+    void markWithoutDateRangeRecomputesWholeHistory() {
+        when(mapper.acquireLease(anyString(), anyString(), anyLong())).thenReturn(1);
+        when(mapper.selectBuiltMaxReadingId(anyString())).thenReturn(42L);
+        when(mapper.selectDirty(anyInt())).thenReturn(List.of(
+                new MeterRollupDirty(7L, 10L, 5L, 2L, LocalDate.of(2026, 3, 15), LocalDate.of(2026, 3, 15)),
+                new MeterRollupDirty(8L, 10L, 5L, 2L, null, null)));
+
+        service.reconcile();
+
+        verify(mapper).deleteRollups("HOUSE", "D", 5L, null, null);
+        verify(mapper).rebuildRollup("BUILDING", "Y", 2L, null, null);
+        verify(mapper).deleteDirty(List.of(7L, 8L));
+    }
+
+    /**
+     * 按仪表当前所属记下房屋和楼栋的抄表记录
+     */
+    private static MeterReading reading(Long id, MeterInfo meter, LocalDate date, String usage) {
+        MeterReading reading = new MeterReading();
+        reading.setId(id);
+        reading.setMeterId(meter.getId());
+        reading.setReadingDate(date);
+        reading.setUsageAmount(new BigDecimal(usage));
+        MeterTimeSeriesService.assignScope(reading, meter);
+        return reading;
+    }
+
+    private static MeterInfo meter(Long id, Long houseId, Long buildingId) {
+        MeterInfo meter = new MeterInfo();
+        meter.setId(id);
+        meter.setHouseId(houseId);
+        meter.setBuildingId(buildingId);
+        return meter;
+    }
+}
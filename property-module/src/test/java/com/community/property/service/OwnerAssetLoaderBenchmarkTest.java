@@ -0,0 +1,217 @@
+package com.community.property.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.property.domain.entity.House;
+import com.community.property.domain.entity.HouseOwner;
+import com.community.property.domain.entity.MeterInfo;
+import com.community.property.mapper.HouseMapper;
+import com.community.property.mapper.HouseOwnerMapper;
+import com.community.property.mapper.MeterInfoMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 业主资产加载基准：对比原来逐业主查询的路径和 OwnerAssetLoader 的批量路径。
+ * 映射器用内存数据模拟，每次查询计数并模拟一次数据库往返延迟，
+ * 验证批量路径的查询数不随页大小增长，并输出两条路径的耗时
+ */
+class OwnerAssetLoaderBenchmarkTest {
+
+    /**
+     * 模拟的单次查询往返延迟
+     */
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private static final int HOUSES_PER_OWNER = 2;
+    private static final int METERS_PER_HOUSE = 3;
+
+    private final AtomicInteger queries = new AtomicInteger();
+    private final Map<Long, House> houses = new LinkedHashMap<>();
+    private final List<HouseOwner> houseOwners = new ArrayList<>();
+    private final List<MeterInfo> meters = new ArrayList<>();
+
+    private HouseOwnerMapper houseOwnerMapper;
+    private HouseMapper houseMapper;
+    private MeterInfoMapper meterInfoMapper;
+    private OwnerAssetLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        seed(500);
+        houseOwnerMapper = mock(HouseOwnerMapper.class);
+        houseMapper = mock(HouseMapper.class);
+        meterInfoMapper = mock(MeterInfoMapper.class);
+
+        when(houseOwnerMapper.selectList(any())).thenAnswer(inv -> {
+            QueryWrapper<HouseOwner> wrapper = inv.getArgument(0);
+            Set<Long> ownerIds = longParams(wrapper);
+            boolean onlyActive = wrapper.getSqlSegment().contains("status");
+            return roundTrip(houseOwners.stream()
+                    .filter(ho -> ownerIds.contains(ho.getOwnerId()))
+                    .filter(ho -> !onlyActive || "正常".equals(ho.getStatus()))
+                    .collect(Collectors.toList()));
+        });
+        when(houseMapper.selectById(anyLong())).thenAnswer(inv -> roundTrip(houses.get((Long) inv.getArgument(0))));
+        when(houseMapper.selectBatchIds(anyCollection())).thenAnswer(inv -> {
+            Collection<?> ids = inv.getArgument(0);
+            return roundTrip(ids.stream().map(houses::get).filter(h -> h != null).collect(Collectors.toList()));
+        });
+        when(meterInfoMapper.selectList(any())).thenAnswer(inv -> {
+            Set<Long> houseIds = longParams(inv.getArgument(0));
+            return roundTrip(meters.stream()
+                    .filter(m -> houseIds.contains(m.getHouseId()))
+                    .collect(Collectors.toList()));
+        });
+
+        loader = new OwnerAssetLoader();
+        ReflectionTestUtils.setField(loader, "houseOwnerMapper", houseOwnerMapper);
+        ReflectionTestUtils.setField(loader, "houseMapper", houseMapper);
+        ReflectionTestUtils.setField(loader, "meterInfoMapper", meterInfoMapper);
+    }
+
+    @Test
+    void batchPathReturnsSameAssetsAsPerOwnerPath() {
+        List<Long> ownerIds = ownerIds(50);
+        Map<Long, OwnerRow> legacy = legacyLoad(ownerIds);
+        OwnerAssetLoader.OwnerAssets assets = loader.load(ownerIds, false, true);
+
+        for (Long ownerId : ownerIds) {
+            List<HouseOwner> relations = assets.getHouseOwners(ownerId);
+            House first = relations.isEmpty() ? null : assets.getHouse(relations.get(0).getHouseId());
+            assertThat(first != null ? first.getRoomNo() : "").isEqualTo(legacy.get(ownerId).houseName);
+            assertThat(assets.getOwnerMeters(ownerId)).extracting(MeterInfo::getId)
+                    .containsExactlyInAnyOrderElementsOf(legacy.get(ownerId).meterIds);
+        }
+    }
+
+    @Test
+    void onlyActiveSkipsEndedRelations() {
+        Long ownerId = 1L;
+        OwnerAssetLoader.OwnerAssets all = loader.load(List.of(ownerId), false, false);
+        OwnerAssetLoader.OwnerAssets active = loader.load(List.of(ownerId), true, false);
+
+        assertThat(all.getHouseOwners(ownerId)).hasSize(HOUSES_PER_OWNER);
+        assertThat(active.getHouseOwners(ownerId)).hasSize(HOUSES_PER_OWNER - 1)
+                .allSatisfy(ho -> assertThat(ho.getStatus()).isEqualTo("正常"));
+    }
+
+    @Test
+    void batchPathQueryCountStaysConstantAsPageGrows() {
+        System.out.printf("%-10s %14s %14s %14s %14s%n", "pageSize", "legacyQueries", "legacyMs", "batchQueries", "batchMs");
+        for (int pageSize : new int[]{10, 50, 100, 500}) {
+            List<Long> ownerIds = ownerIds(pageSize);
+
+            queries.set(0);
+            long start = System.nanoTime();
+            legacyLoad(ownerIds);
+            long legacyNanos = System.nanoTime() - start;
+            int legacyQueries = queries.get();
+
+            queries.set(0);
+            start = System.nanoTime();
+            loader.load(ownerIds, false, true);
+            long batchNanos = System.nanoTime() - start;
+            int batchQueries = queries.get();
+
+            System.out.printf("%-10d %14d %14.1f %14d %14.1f%n", pageSize, legacyQueries, legacyNanos / 1e6,
+                    batchQueries, batchNanos / 1e6);
+            assertThat(legacyQueries).isEqualTo(3 * pageSize);
+            assertThat(batchQueries).isEqualTo(3);
+            assertThat(batchNanos).isLessThan(legacyNanos);
+        }
+    }
+
+    /**
+     * 原 getAllOwnersWithMeters 的加载方式：每个业主依次查询房屋关联、第一套房屋和仪表
+     */
+    private Map<Long, OwnerRow> legacyLoad(List<Long> ownerIds) {
+        Map<Long, OwnerRow> result = new LinkedHashMap<>();
+        for (Long ownerId : ownerIds) {
+            OwnerRow row = new OwnerRow();
+            List<HouseOwner> relations = houseOwnerMapper.selectList(
+                    new QueryWrapper<HouseOwner>().eq("owner_id", ownerId));
+            List<Long> houseIds = relations.stream().map(HouseOwner::getHouseId).collect(Collectors.toList());
+            if (!houseIds.isEmpty()) {
+                House house = houseMapper.selectById(houseIds.get(0));
+                if (house != null) {
+                    row.houseName = house.getRoomNo();
+                }
+                for (MeterInfo meter : meterInfoMapper.selectList(new QueryWrapper<MeterInfo>().in("house_id", houseIds))) {
+                    row.meterIds.add(meter.getId());
+                }
+            }
+            result.put(ownerId, row);
+        }
+        return result;
+    }
+
+    private static class OwnerRow {
+        private String houseName = "";
+        private final List<Long> meterIds = new ArrayList<>();
+    }
+
+    private void seed(int owners) {
+        long houseId = 0;
+        long meterId = 0;
+        for (long ownerId = 1; ownerId <= owners; ownerId++) {
+            for (int h = 0; h < HOUSES_PER_OWNER; h++) {
+                House house = new House();
+                house.setId(++houseId);
+                house.setRoomNo(ownerId + "-" + (h + 1) + "01");
+                houses.put(houseId, house);
+
+                HouseOwner relation = new HouseOwner();
+                relation.setId(houseId);
+                relation.setOwnerId(ownerId);
+                relation.setHouseId(houseId);
+                relation.setStatus(h == 0 ? "正常" : "已解除");
+                houseOwners.add(relation);
+
+                for (int m = 0; m < METERS_PER_HOUSE; m++) {
+                    MeterInfo meter = new MeterInfo();
+                    meter.setId(++meterId);
+                    meter.setHouseId(houseId);
+                    meters.add(meter);
+                }
+            }
+        }
+    }
+
+    private static List<Long> ownerIds(int count) {
+        return LongStream.rangeClosed(1, count).boxed().collect(Collectors.toList());
+    }
+
+    private static Set<Long> longParams(QueryWrapper<?> wrapper) {
+        wrapper.getSqlSegment();
+        return wrapper.getParamNameValuePairs().values().stream()
+                .filter(v -> v instanceof Long)
+                .map(v -> (Long) v)
+                .collect(Collectors.toSet());
+    }
+
+    private <T> T roundTrip(T result) {
+        queries.incrementAndGet();
+        LockSupport.parkNanos(ROUND_TRIP_NANOS);
+        return result;
+    }
+}
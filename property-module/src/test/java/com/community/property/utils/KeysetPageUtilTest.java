@@ -0,0 +1,99 @@
+package com.community.property.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.community.property.domain.entity.House;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeysetPageUtilTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 10, 18, 8, 0);
+
+    private final List<House> table = new ArrayList<>();
+    private final List<String> queries = new ArrayList<>();
+
+    @Test
+    void pagesWalkNonNullRowsThenNullRowsWithoutGapsOrRepeats() {
+        // 同一创建时间的多行按 id 区分；created_at 为空的历史数据排在最后
+        long id = 1;
+        for (int i = 0; i < 7; i++) {
+            table.add(house(id++, T0.plusMinutes(i / 2)));
+        }
+        for (int i = 0; i < 4; i++) {
+            table.add(house(id++, null));
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+        do {
+            Map<String, Object> page = KeysetPageUtil.toPageData(
+                    KeysetPageUtil.seek(QueryWrapper::new, this::select, cursor, 3), 3, this::toItem, null);
+            ((List<?>) page.get("items")).forEach(item -> seen.add((Long) ((Map<?, ?>) item).get("id")));
+            cursor = (String) page.get("nextCursor");
+            pages++;
+        } while (cursor != null && pages < 10);
+
+        assertThat(seen).containsExactly(7L, 6L, 5L, 4L, 3L, 2L, 1L, 11L, 10L, 9L, 8L);
+        assertThat(pages).isEqualTo(4);
+        // 两段查询分开执行，不使用 OR created_at IS NULL
+        assertThat(queries).noneMatch(sql -> sql.contains("OR created_at IS NULL"));
+        assertThat(queries).anyMatch(sql -> sql.contains("created_at IS NULL") && sql.contains("ORDER BY id DESC"));
+    }
+
+    @Test
+    void fullPageOfNonNullRowsDoesNotQueryNullRows() {
+        for (long id = 1; id <= 5; id++) {
+            table.add(house(id, T0.plusMinutes(id)));
+        }
+        table.add(house(6L, null));
+
+        List<House> rows = KeysetPageUtil.seek(QueryWrapper::new, this::select, "", 3);
+
+        assertThat(rows).extracting(House::getId).containsExactly(5L, 4L, 3L, 2L);
+        assertThat(queries).singleElement().satisfies(sql -> assertThat(sql).contains("created_at IS NOT NULL"));
+    }
+
+    /**
+     * 按查询条件在内存表上模拟执行：区分两段查询，读取游标参数和 LIMIT
+     */
+    private List<House> select(QueryWrapper<House> wrapper) {
+        String sql = wrapper.getSqlSegment();
+        queries.add(sql);
+        Map<String, Object> params = wrapper.getParamNameValuePairs();
+        LocalDateTime createdAt = params.values().stream().filter(LocalDateTime.class::isInstance)
+                .map(LocalDateTime.class::cast).findFirst().orElse(null);
+        Long id = params.values().stream().filter(Long.class::isInstance).map(Long.class::cast).findFirst().orElse(null);
+        int limit = Integer.parseInt(sql.substring(sql.lastIndexOf("LIMIT ") + 6).trim());
+        boolean nullPhase = sql.contains("created_at IS NULL");
+
+        return table.stream()
+                .filter(h -> nullPhase
+                        ? h.getCreatedAt() == null && (id == null || h.getId() < id)
+                        : h.getCreatedAt() != null && (createdAt == null || h.getCreatedAt().isBefore(createdAt)
+                        || h.getCreatedAt().equals(createdAt) && h.getId() < id))
+                .sorted(Comparator.comparing(House::getCreatedAt, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+                        .thenComparing(House::getId).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private Map<String, Object> toItem(House house) {
+        return Map.of("id", house.getId());
+    }
+
+    private static House house(Long id, LocalDateTime createdAt) {
+        House house = new House();
+        house.setId(id);
+        house.setCreatedAt(createdAt);
+        return house;
+    }
+}